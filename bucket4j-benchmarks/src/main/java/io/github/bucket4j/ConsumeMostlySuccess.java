@@ -40,6 +40,11 @@ public class ConsumeMostlySuccess {
         state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
     }
 
+    @Benchmark
+    public void consumeOneToken_mostlySuccess_LockFreeInPlace(LocalLockFreeInPlaceState state) {
+        state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
+    }
+
     @Benchmark
     public void consumeOneToken_mostlySuccess_Synchronized(LocalSynchronizedState state) {
         state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
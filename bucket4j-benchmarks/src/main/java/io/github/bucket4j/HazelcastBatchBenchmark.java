@@ -0,0 +1,81 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.state.HazelcastClusterState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares execution of batch of {@link HazelcastClusterState#BATCH_SIZE} requests key by key with execution via single {@code executeOnKeys}.
+ * Throughput is reported in requests, not in batches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HazelcastBatchBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(HazelcastClusterState.BATCH_SIZE)
+    public int tryConsumeKeyByKey(HazelcastClusterState state) {
+        int consumed = 0;
+        for (Map.Entry<String, Request<Boolean>> entry : state.batch.entrySet()) {
+            if (state.proxyManager.execute(entry.getKey(), entry.getValue()).getData()) {
+                consumed++;
+            }
+        }
+        return consumed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HazelcastClusterState.BATCH_SIZE)
+    public int tryConsumeByExecuteOnKeys(HazelcastClusterState state) {
+        int consumed = 0;
+        for (CommandResult<Boolean> result : state.proxyManager.executeAll(state.batch).values()) {
+            if (result.getData()) {
+                consumed++;
+            }
+        }
+        return consumed;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(HazelcastBatchBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(10)
+                .threads(1)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
@@ -1,8 +1,15 @@
 package io.github.bucket4j;
 
 import com.google.common.util.concurrent.RateLimiter;
+import io.github.bucket4j.local.LocalProxyManager;
+import io.github.bucket4j.local.OffHeapProxyManager;
 import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
 import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryBenchmark {
 
@@ -11,6 +18,41 @@ public class MemoryBenchmark {
         System.out.println("Guava: " + ClassLayout.parseClass(RateLimiter.class).toPrintable());
         System.out.println("Resilience4j: " + ClassLayout.parseClass(AtomicRateLimiter.class).toPrintable());
         System.out.println("Resilience4j.semaphoreBasedRateLimiter: " + ClassLayout.parseClass(io.github.resilience4j.ratelimiter.RateLimiter.class).toPrintable());
+
+        printBytesPerKey(100_000);
+    }
+
+    private static void printBytesPerKey(int keys) {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(100, Duration.ofSeconds(1)))
+                .build();
+
+        Map<Long, Bucket> map = new ConcurrentHashMap<>();
+        for (long key = 0; key < keys; key++) {
+            Bucket bucket = Bucket.builder().addLimit(configuration.getBandwidths()[0]).build();
+            bucket.tryConsume(1);
+            map.put(key, bucket);
+        }
+        long mapBytes = GraphLayout.parseInstance(map).totalSize();
+        System.out.println("ConcurrentHashMap<Long, LockFreeBucket> bytes per key: heap=" + mapBytes / keys);
+        map = null;
+
+        LocalProxyManager<Long> localProxyManager = new LocalProxyManager<>(keys);
+        for (long key = 0; key < keys; key++) {
+            localProxyManager.builder().build(key, configuration).tryConsume(1);
+        }
+        long localBytes = GraphLayout.parseInstance(localProxyManager).totalSize();
+        System.out.println("LocalProxyManager bytes per key: heap=" + localBytes / keys);
+        localProxyManager = null;
+
+        OffHeapProxyManager offHeapProxyManager = new OffHeapProxyManager(configuration, keys);
+        for (long key = 0; key < keys; key++) {
+            offHeapProxyManager.builder().build(key, configuration).tryConsume(1);
+        }
+        long offHeapHeapBytes = GraphLayout.parseInstance(offHeapProxyManager).totalSize();
+        System.out.println("OffHeapProxyManager bytes per key: heap=" + offHeapHeapBytes / keys
+                + ", direct=" + offHeapProxyManager.getOffHeapMemoryBytes() / keys
+                + ", slot=" + offHeapProxyManager.getSlotSize());
     }
 
 }
@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.state.JedisState;
+import io.github.bucket4j.state.LettuceState;
+import io.github.bucket4j.state.RedissonState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Redis clients on the same redis-server, which address is taken from "redis.host" and "redis.port" system properties.
+ * Allocation per call is reported by GC profiler as "gc.alloc.rate.norm".
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RedisClientsBenchmark {
+
+    @Benchmark
+    public boolean tryConsumeOneToken_Redisson(RedissonState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_Lettuce(LettuceState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_Jedis(JedisState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(1);
+        }
+
+    }
+
+    public static class FourThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(4);
+        }
+
+    }
+
+    private static void benchmark(int threadCount) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RedisClientsBenchmark.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .threads(threadCount)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
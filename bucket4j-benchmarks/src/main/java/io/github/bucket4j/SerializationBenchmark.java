@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.serialization.DataOutputSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares round-trips of {@link Request} and {@link CommandResult} through {@link DataOutputStream}/{@link DataInputStream}
+ * with round-trips through {@link InternalSerializationHelper} which writes directly into byte buffers.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SerializationState {
+
+        public final Request<Boolean> request = new Request<>(
+                new CreateInitialStateAndExecuteCommand<>(
+                        BucketConfiguration.builder()
+                                .addLimit(Bandwidth.simple(1000, Duration.ofMinutes(1)))
+                                .addLimit(Bandwidth.simple(50, Duration.ofSeconds(1)))
+                                .build(),
+                        new TryConsumeCommand(1)
+                ),
+                Versions.getLatest(),
+                null
+        );
+
+        public final CommandResult<Boolean> result = CommandResult.success(true, PrimitiveSerializationHandles.BOOLEAN_HANDLE);
+
+    }
+
+    @Benchmark
+    public Request<Boolean> requestRoundTrip_DataOutputStream(SerializationState state) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        Request.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state.request, Versions.getLatest());
+        byte[] bytes = byteStream.toByteArray();
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        return Request.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, input, Versions.getLatest());
+    }
+
+    @Benchmark
+    public Request<Boolean> requestRoundTrip_ByteBuffer(SerializationState state) {
+        byte[] bytes = InternalSerializationHelper.serializeRequest(state.request);
+        return InternalSerializationHelper.deserializeRequest(bytes);
+    }
+
+    @Benchmark
+    public CommandResult<?> resultRoundTrip_DataOutputStream(SerializationState state) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        CommandResult.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state.result, Versions.getLatest());
+        byte[] bytes = byteStream.toByteArray();
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        return CommandResult.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, input, Versions.getLatest());
+    }
+
+    @Benchmark
+    public CommandResult<?> resultRoundTrip_ByteBuffer(SerializationState state) {
+        byte[] bytes = InternalSerializationHelper.serializeResult(state.result, Versions.getLatest());
+        return InternalSerializationHelper.deserializeResult(bytes, Versions.getLatest());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SerializationBenchmark.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .threads(1)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
@@ -41,6 +41,21 @@ public class TryConsumeMostlySuccess {
         return state.unlimitedBucket.tryConsume(1);
     }
 
+    @Benchmark
+    public boolean tryConsumeOneToken_mostlySuccess_LockFreeInPlace(LocalLockFreeInPlaceState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public ConsumptionProbe tryConsumeAndReturnRemaining_mostlySuccess_LockFree(LocalLockFreeState state) {
+        return state.unlimitedBucket.tryConsumeAndReturnRemaining(1);
+    }
+
+    @Benchmark
+    public ConsumptionProbe tryConsumeAndReturnRemaining_mostlySuccess_LockFreeInPlace(LocalLockFreeInPlaceState state) {
+        return state.unlimitedBucket.tryConsumeAndReturnRemaining(1);
+    }
+
     @Benchmark
     public boolean tryConsumeOneToken_mostlySuccess_Synchronized(LocalSynchronizedState state) {
         return state.unlimitedBucket.tryConsume(1);
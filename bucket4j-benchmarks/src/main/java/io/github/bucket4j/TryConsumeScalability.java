@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.state.LocalLockFreeInPlaceState;
+import io.github.bucket4j.state.LocalLockFreeState;
+import io.github.bucket4j.state.LocalStripedState;
+import io.github.bucket4j.state.LocalSynchronizedState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how throughput of single shared bucket scales with count of threads, from 1 to 128.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TryConsumeScalability {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64, 128};
+
+    @Benchmark
+    public boolean tryConsumeOneToken_LockFree(LocalLockFreeState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_LockFreeInPlace(LocalLockFreeInPlaceState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_Synchronized(LocalSynchronizedState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_Striped(LocalStripedState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threadCount : THREAD_COUNTS) {
+            benchmark(threadCount);
+        }
+    }
+
+    private static void benchmark(int threadCount) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TryConsumeScalability.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .threads(threadCount)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
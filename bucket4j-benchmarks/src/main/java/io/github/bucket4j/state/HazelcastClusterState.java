@@ -0,0 +1,90 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.state;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.grid.hazelcast.HazelcastProxyManager;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Embedded cluster of two Hazelcast members, requests are sent from the first member,
+ * so about half of the keys are owned by the remote member.
+ */
+@State(Scope.Benchmark)
+public class HazelcastClusterState {
+
+    public static final int BATCH_SIZE = 1_000;
+
+    private HazelcastInstance firstMember;
+    private HazelcastInstance secondMember;
+
+    public HazelcastProxyManager<String> proxyManager;
+    public Map<String, Request<Boolean>> batch;
+
+    @Setup
+    public void setup() {
+        firstMember = Hazelcast.newHazelcastInstance(memberConfig());
+        secondMember = Hazelcast.newHazelcastInstance(memberConfig());
+        proxyManager = new HazelcastProxyManager<>(firstMember.getMap("buckets"));
+
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(Long.MAX_VALUE / 2, Duration.ofNanos(Long.MAX_VALUE / 2)))
+                .build();
+        batch = new LinkedHashMap<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            CreateInitialStateAndExecuteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, new TryConsumeCommand(1));
+            batch.put(UUID.randomUUID().toString(), new Request<>(command, Versions.getLatest(), null));
+        }
+    }
+
+    @TearDown
+    public void shutdown() {
+        secondMember.shutdown();
+        firstMember.shutdown();
+    }
+
+    private static Config memberConfig() {
+        Config config = new Config();
+        HazelcastProxyManager.addCustomSerializers(config.getSerializationConfig(), 10_000);
+        JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+        joinConfig.getMulticastConfig().setEnabled(false);
+        joinConfig.getTcpIpConfig().setEnabled(true);
+        joinConfig.getTcpIpConfig().addMember("127.0.0.1:5701").addMember("127.0.0.1:5702");
+        return config;
+    }
+
+}
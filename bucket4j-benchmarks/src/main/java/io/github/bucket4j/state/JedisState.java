@@ -0,0 +1,63 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.redis.jedis.cas.JedisBasedProxyManager;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+@State(Scope.Benchmark)
+public class JedisState {
+
+    private JedisPool jedisPool;
+    private JedisBasedProxyManager proxyManager;
+    private byte[] key;
+
+    public BucketProxy unlimitedBucket;
+
+    @Setup
+    public void setup() {
+        jedisPool = new JedisPool(System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+
+        proxyManager = new JedisBasedProxyManager(jedisPool, Duration.ofMinutes(10));
+        key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(Long.MAX_VALUE / 2, Duration.ofNanos(Long.MAX_VALUE / 2)))
+                .build();
+        unlimitedBucket = proxyManager.builder().build(key, configuration);
+    }
+
+    @TearDown
+    public void shutdown() {
+        proxyManager.removeProxy(key);
+        jedisPool.close();
+    }
+
+}
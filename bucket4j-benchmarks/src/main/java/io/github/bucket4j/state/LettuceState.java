@@ -0,0 +1,69 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+@State(Scope.Benchmark)
+public class LettuceState {
+
+    private RedisClient redisClient;
+    private StatefulRedisConnection<byte[], byte[]> connection;
+    private LettuceBasedProxyManager proxyManager;
+    private byte[] key;
+
+    public BucketProxy unlimitedBucket;
+
+    @Setup
+    public void setup() {
+        String redisUrl = "redis://" + System.getProperty("redis.host", "localhost") + ":" + System.getProperty("redis.port", "6379");
+        redisClient = RedisClient.create(redisUrl);
+        connection = redisClient.connect(ByteArrayCodec.INSTANCE);
+
+        proxyManager = new LettuceBasedProxyManager(connection, Duration.ofMinutes(10));
+        key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(Long.MAX_VALUE / 2, Duration.ofNanos(Long.MAX_VALUE / 2)))
+                .build();
+        unlimitedBucket = proxyManager.builder().build(key, configuration);
+    }
+
+    @TearDown
+    public void shutdown() {
+        proxyManager.removeProxy(key);
+        connection.close();
+        redisClient.shutdown();
+    }
+
+}
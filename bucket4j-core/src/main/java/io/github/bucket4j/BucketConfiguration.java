@@ -19,6 +19,7 @@
  */
 package io.github.bucket4j;
 
+import io.github.bucket4j.distributed.serialization.DataOutputSerializationAdapter;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
@@ -26,6 +27,8 @@ import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.util.ComparableByContent;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,6 +41,8 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
 
     private final Bandwidth[] bandwidths;
 
+    private volatile Long fingerprint;
+
     public BucketConfiguration(List<Bandwidth> bandwidths) {
         Objects.requireNonNull(bandwidths);
         if (bandwidths.isEmpty()) {
@@ -66,6 +71,39 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
         return bandwidths;
     }
 
+    /**
+     * Returns 64-bit content hash of this configuration.
+     * Configurations that are equal by content always have the same fingerprint.
+     *
+     * @return 64-bit content hash of this configuration
+     *
+     * @see io.github.bucket4j.distributed.remote.ConfigurationTable
+     */
+    public long getFingerprint() {
+        Long fingerprint = this.fingerprint;
+        if (fingerprint == null) {
+            fingerprint = calculateFingerprint();
+            this.fingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    private long calculateFingerprint() {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(byteStream)) {
+            SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, this, v_7_0_0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        // 64-bit FNV-1a over the serialized form
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : byteStream.toByteArray()) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
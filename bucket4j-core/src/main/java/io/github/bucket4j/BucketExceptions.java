@@ -99,6 +99,18 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nonPositiveTtl(Duration ttl) {
+        String pattern = "{0} is wrong value for ttl, because ttl should be positive after truncation to milliseconds";
+        String msg = MessageFormat.format(pattern, ttl);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException clientSideClockIsRequired(String feature) {
+        String pattern = "Client side clock must be specified by ClientSideConfig#withClientClock, because {0} executes commands on client side";
+        String msg = MessageFormat.format(pattern, feature);
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nonPositiveLimitToSync(long unsynchronizedPeriod) {
         String pattern = "{0} is wrong value for limit to sync, because period should be positive";
         String msg = MessageFormat.format(pattern, unsynchronizedPeriod);
@@ -224,6 +236,64 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nonPositiveStripeCount(int stripeCount) {
+        String pattern = "{0} is wrong value for stripe count, because stripe count should be positive";
+        String msg = MessageFormat.format(pattern, stripeCount);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException stripeCountExceedsBandwidth(int stripeCount, Bandwidth bandwidth) {
+        String pattern = "Configuration can not be split into {0} stripes, because capacity and refill tokens of {1} should be greater or equal to stripe count";
+        String msg = MessageFormat.format(pattern, stripeCount, bandwidth);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveMaxSize(long maxSize) {
+        String pattern = "{0} is wrong value for max size, because max size should be positive";
+        String msg = MessageFormat.format(pattern, maxSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalStateException offHeapStorageIsFull(long maxKeys) {
+        String pattern = "Off-heap storage is full, it is unable to hold more than {0} buckets that are not fully refilled";
+        String msg = MessageFormat.format(pattern, maxKeys);
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalStateException offHeapSegmentIsFull(int segmentCapacity) {
+        String pattern = "Segment of off-heap storage is full, it is unable to hold more than {0} buckets that are not fully refilled";
+        String msg = MessageFormat.format(pattern, segmentCapacity);
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalArgumentException configurationIsNotSupportedByStorage() {
+        String msg = "Storage can hold only buckets with configuration which it was created for";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException mathTypeIsNotSupportedByStorage(MathType mathType) {
+        String pattern = "Storage does not support {0} math type";
+        String msg = MessageFormat.format(pattern, mathType);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException configurationFingerprintCollision(long fingerprint, BucketConfiguration registered, BucketConfiguration other) {
+        String pattern = "Configurations {1} and {2} have the same fingerprint {0}";
+        String msg = MessageFormat.format(pattern, Long.toHexString(fingerprint), registered, other);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalStateException unknownConfigurationFingerprint(long fingerprint) {
+        String pattern = "Configuration with fingerprint {0} is not registered in configuration table";
+        String msg = MessageFormat.format(pattern, Long.toHexString(fingerprint));
+        return new IllegalStateException(msg);
+    }
+
+    public static UnsupportedOperationException verboseApiIsNotSupported() {
+        String msg = "Verbose API is not supported";
+        return new UnsupportedOperationException(msg);
+    }
+
     public static BucketExecutionException executionException(Throwable cause) {
         return new BucketExecutionException(cause);
     }
@@ -22,6 +22,7 @@ package io.github.bucket4j;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
 import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
 
 import java.io.IOException;
 
@@ -52,6 +53,8 @@ public interface BucketState {
 
     long getRoundingError(int bandwidth);
 
+    long getLastRefillTimeNanos(int bandwidth);
+
     MathType getMathType();
 
     static BucketState createInitialState(BucketConfiguration configuration, MathType mathType, long currentTimeNanos) {
@@ -62,18 +65,44 @@ public interface BucketState {
         }
     }
 
+    /**
+     * Creates initial state of bucket which is persisted by {@link io.github.bucket4j.distributed.proxy.ProxyManager}.
+     * {@link BucketStateCompact64BitsInteger} is used when configuration is applicable for it, because it reduces the size of persisted state.
+     * The compact state represents rounding error by shifting of last refill time, so each operation has the same result as for {@link BucketState64BitsInteger},
+     * only {@link #getRoundingError(int)} of compact state always returns zero.
+     * Local buckets always use the state which is created by {@link #createInitialState(BucketConfiguration, MathType, long)}.
+     */
+    static BucketState createInitialRemoteState(BucketConfiguration configuration, long currentTimeNanos) {
+        if (BucketStateCompact64BitsInteger.isApplicable(configuration)) {
+            return new BucketStateCompact64BitsInteger(configuration, currentTimeNanos);
+        }
+        return createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+    }
+
     static <S> BucketState deserialize(DeserializationAdapter<S> adapter, S input, Version backwardCompatibilityVersion) throws IOException {
         int typeId = adapter.readInt(input);
         if (typeId == BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId()) {
             return BucketState64BitsInteger.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
         } else if (typeId == BucketStateIEEE754.SERIALIZATION_HANDLE.getTypeId()) {
             return BucketStateIEEE754.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
+        } else if (typeId == BucketStateCompact64BitsInteger.SERIALIZATION_HANDLE.getTypeId()) {
+            return BucketStateCompact64BitsInteger.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
         } else {
             throw new IOException("Unknown typeId=" + typeId);
         }
     }
 
     static <O> void serialize(SerializationAdapter<O> adapter, O output, BucketState state, Version backwardCompatibilityVersion) throws IOException {
+        if (state instanceof BucketStateCompact64BitsInteger) {
+            BucketStateCompact64BitsInteger compactState = (BucketStateCompact64BitsInteger) state;
+            if (backwardCompatibilityVersion.getNumber() >= Versions.v_7_1_0.getNumber()) {
+                adapter.writeInt(output, BucketStateCompact64BitsInteger.SERIALIZATION_HANDLE.getTypeId());
+                BucketStateCompact64BitsInteger.SERIALIZATION_HANDLE.serialize(adapter, output, compactState, backwardCompatibilityVersion);
+                return;
+            }
+            // legacy nodes are unable to read compact state
+            state = compactState.toBucketState64BitsInteger();
+        }
         switch (state.getMathType()) {
             case INTEGER_64_BITS:
                 adapter.writeInt(output, BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId());
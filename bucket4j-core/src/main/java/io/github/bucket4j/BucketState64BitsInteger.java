@@ -67,7 +67,12 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         }
     };
 
-    BucketState64BitsInteger(long[] stateData) {
+    /**
+     * Wraps the state data without copying, three longs per bandwidth: last refill time, current size and rounding error.
+     *
+     * @param stateData the state data
+     */
+    public BucketState64BitsInteger(long[] stateData) {
         this.stateData = stateData;
     }
 
@@ -529,7 +534,8 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         return deficitNanos;
     }
 
-    private long getLastRefillTimeNanos(int bandwidth) {
+    @Override
+    public long getLastRefillTimeNanos(int bandwidth) {
         return stateData[bandwidth * BANDWIDTH_SIZE];
     }
 
@@ -0,0 +1,281 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_1_0;
+
+/**
+ * Specialized state for configurations which consist from single greedy bandwidth
+ * where refill period is divisible by refill tokens, see {@link #isApplicable(BucketConfiguration)}.
+ *
+ * <p>
+ * For such configurations the rounding error of {@link BucketState64BitsInteger} is always multiple of refill tokens,
+ * so instead of storing rounding error explicitly the time of last refill is shifted back by the partially refilled token,
+ * and state consists only from two longs: the time of last refill and the current size.
+ */
+public class BucketStateCompact64BitsInteger implements BucketState, ComparableByContent<BucketStateCompact64BitsInteger> {
+
+    private long lastRefillTimeNanos;
+    private long currentSize;
+
+    public static SerializationHandle<BucketStateCompact64BitsInteger> SERIALIZATION_HANDLE = new SerializationHandle<BucketStateCompact64BitsInteger>() {
+        @Override
+        public <S> BucketStateCompact64BitsInteger deserialize(DeserializationAdapter<S> adapter, S input, Version backwardCompatibilityVersion) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_7_1_0, v_7_1_0);
+
+            long lastRefillTimeNanos = adapter.readLong(input);
+            long currentSize = adapter.readLong(input);
+            return new BucketStateCompact64BitsInteger(lastRefillTimeNanos, currentSize);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, BucketStateCompact64BitsInteger state, Version backwardCompatibilityVersion) throws IOException {
+            adapter.writeInt(output, v_7_1_0.getNumber());
+
+            adapter.writeLong(output, state.lastRefillTimeNanos);
+            adapter.writeLong(output, state.currentSize);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 7;
+        }
+
+        @Override
+        public Class<BucketStateCompact64BitsInteger> getSerializedType() {
+            return BucketStateCompact64BitsInteger.class;
+        }
+    };
+
+    public BucketStateCompact64BitsInteger(long lastRefillTimeNanos, long currentSize) {
+        this.lastRefillTimeNanos = lastRefillTimeNanos;
+        this.currentSize = currentSize;
+    }
+
+    public BucketStateCompact64BitsInteger(BucketConfiguration configuration, long currentTimeNanos) {
+        this(currentTimeNanos, configuration.getBandwidths()[0].initialTokens);
+    }
+
+    /**
+     * Checks that configuration can be served by compact state.
+     *
+     * @param configuration the bucket configuration
+     *
+     * @return true if configuration has single greedy bandwidth which refill period is divisible by refill tokens
+     */
+    public static boolean isApplicable(BucketConfiguration configuration) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        if (bandwidths.length != 1) {
+            return false;
+        }
+        Bandwidth bandwidth = bandwidths[0];
+        return !bandwidth.isRefillIntervally()
+                && !bandwidth.useAdaptiveInitialTokens
+                && bandwidth.refillPeriodNanos % bandwidth.refillTokens == 0;
+    }
+
+    /**
+     * Converts this state to the general representation which is suitable for any configuration.
+     *
+     * @return the equivalent {@link BucketState64BitsInteger}
+     */
+    public BucketState64BitsInteger toBucketState64BitsInteger() {
+        return new BucketState64BitsInteger(new long[] {lastRefillTimeNanos, currentSize, 0L});
+    }
+
+    /**
+     * Converts the general representation of state to compact one.
+     *
+     * @param state the state to convert
+     * @param configuration the configuration which must be applicable for compact state
+     *
+     * @return the equivalent {@link BucketStateCompact64BitsInteger}
+     */
+    public static BucketStateCompact64BitsInteger fromBucketState64BitsInteger(BucketState64BitsInteger state, BucketConfiguration configuration) {
+        Bandwidth bandwidth = configuration.getBandwidths()[0];
+        long partiallyRefilledTokenNanos = state.getRoundingError(0) / bandwidth.refillTokens;
+        return new BucketStateCompact64BitsInteger(state.stateData[0] - partiallyRefilledTokenNanos, state.getCurrentSize(0));
+    }
+
+    public long getLastRefillTimeNanos() {
+        return lastRefillTimeNanos;
+    }
+
+    @Override
+    public BucketState copy() {
+        return new BucketStateCompact64BitsInteger(lastRefillTimeNanos, currentSize);
+    }
+
+    @Override
+    public BucketState replaceConfiguration(BucketConfiguration previousConfiguration, BucketConfiguration newConfiguration,
+                                            TokensInheritanceStrategy tokensInheritanceStrategy, long currentTimeNanos) {
+        BucketState newState = toBucketState64BitsInteger().replaceConfiguration(previousConfiguration, newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+        if (newState instanceof BucketState64BitsInteger && isApplicable(newConfiguration)) {
+            return fromBucketState64BitsInteger((BucketState64BitsInteger) newState, newConfiguration);
+        }
+        return newState;
+    }
+
+    @Override
+    public void copyStateFrom(BucketState sourceState) {
+        BucketStateCompact64BitsInteger sourceCompactState = (BucketStateCompact64BitsInteger) sourceState;
+        this.lastRefillTimeNanos = sourceCompactState.lastRefillTimeNanos;
+        this.currentSize = sourceCompactState.currentSize;
+    }
+
+    @Override
+    public long getAvailableTokens(Bandwidth[] bandwidths) {
+        return currentSize;
+    }
+
+    @Override
+    public void consume(Bandwidth[] bandwidths, long toConsume) {
+        currentSize -= toConsume;
+    }
+
+    @Override
+    public long calculateDelayNanosAfterWillBePossibleToConsume(Bandwidth[] bandwidths, long tokensToConsume, long currentTimeNanos) {
+        if (tokensToConsume <= currentSize) {
+            return 0;
+        }
+        long deficit = tokensToConsume - currentSize;
+        if (deficit <= 0) {
+            // math overflow happen
+            return Long.MAX_VALUE;
+        }
+        return calculateDelayNanos(bandwidths[0], deficit, currentTimeNanos);
+    }
+
+    @Override
+    public long calculateFullRefillingTime(Bandwidth[] bandwidths, long currentTimeNanos) {
+        Bandwidth bandwidth = bandwidths[0];
+        if (currentSize >= bandwidth.capacity) {
+            return 0L;
+        }
+        return calculateDelayNanos(bandwidth, bandwidth.capacity - currentSize, currentTimeNanos);
+    }
+
+    @Override
+    public void refillAllBandwidth(Bandwidth[] limits, long currentTimeNanos) {
+        if (currentTimeNanos <= lastRefillTimeNanos) {
+            return;
+        }
+        Bandwidth bandwidth = limits[0];
+        long capacity = bandwidth.capacity;
+        if (currentSize >= capacity) {
+            // can come here if forceAddTokens has been used
+            lastRefillTimeNanos = currentTimeNanos;
+            return;
+        }
+
+        long nanosPerToken = bandwidth.refillPeriodNanos / bandwidth.refillTokens;
+        long calculatedRefill = (currentTimeNanos - lastRefillTimeNanos) / nanosPerToken;
+        long newSize = currentSize + calculatedRefill;
+        if (newSize >= capacity || newSize < currentSize) {
+            // second condition means that arithmetic overflow happens
+            currentSize = capacity;
+            lastRefillTimeNanos = currentTimeNanos;
+            return;
+        }
+        // the rest of elapsed time which is not enough to refill whole token stays between last refill time and current time
+        currentSize = newSize;
+        lastRefillTimeNanos += calculatedRefill * nanosPerToken;
+    }
+
+    @Override
+    public void addTokens(Bandwidth[] limits, long tokensToAdd) {
+        long capacity = limits[0].capacity;
+        long newSize = currentSize + tokensToAdd;
+        if (newSize >= capacity || newSize < currentSize) {
+            // second condition means that arithmetic overflow happens
+            currentSize = capacity;
+        } else {
+            currentSize = newSize;
+        }
+    }
+
+    @Override
+    public void forceAddTokens(Bandwidth[] limits, long tokensToAdd) {
+        long newSize = currentSize + tokensToAdd;
+        if (newSize < currentSize) {
+            // arithmetic overflow happens. This mean that bucket reached Long.MAX_VALUE tokens.
+            currentSize = Long.MAX_VALUE;
+        } else {
+            currentSize = newSize;
+        }
+    }
+
+    @Override
+    public long getCurrentSize(int bandwidth) {
+        return currentSize;
+    }
+
+    @Override
+    public long getRoundingError(int bandwidth) {
+        // rounding error is represented by shifting of last refill time
+        return 0;
+    }
+
+    @Override
+    public long getLastRefillTimeNanos(int bandwidth) {
+        return lastRefillTimeNanos;
+    }
+
+    @Override
+    public MathType getMathType() {
+        return MathType.INTEGER_64_BITS;
+    }
+
+    private long calculateDelayNanos(Bandwidth bandwidth, long deficit, long currentTimeNanos) {
+        long nanosPerToken = bandwidth.refillPeriodNanos / bandwidth.refillTokens;
+        long deficitNanos = deficit * nanosPerToken;
+        if (deficitNanos / nanosPerToken != deficit) {
+            // math overflow happen.
+            // there is no sense to stay in integer arithmetic when having deal with so big numbers
+            return (long) ((double) deficit * (double) nanosPerToken);
+        }
+        long correctionForPartiallyRefilledToken = Math.max(0, Math.min(currentTimeNanos - lastRefillTimeNanos, nanosPerToken - 1));
+        return deficitNanos - correctionForPartiallyRefilledToken;
+    }
+
+    @Override
+    public String toString() {
+        return "BucketState{" +
+                "lastRefillTimeNanos=" + lastRefillTimeNanos +
+                ", currentSize=" + currentSize +
+                '}';
+    }
+
+    @Override
+    public boolean equalsByContent(BucketStateCompact64BitsInteger other) {
+        return lastRefillTimeNanos == other.lastRefillTimeNanos && currentSize == other.currentSize;
+    }
+
+}
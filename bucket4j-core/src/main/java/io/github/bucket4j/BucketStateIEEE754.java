@@ -123,6 +123,11 @@ public class BucketStateIEEE754 implements BucketState, ComparableByContent<Buck
         return 0;
     }
 
+    @Override
+    public long getLastRefillTimeNanos(int bandwidth) {
+        return lastRefillTime[bandwidth];
+    }
+
     @Override
     public MathType getMathType() {
         return MathType.IEEE_754;
@@ -21,19 +21,27 @@ package io.github.bucket4j.distributed.proxy;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Nothing;
 import io.github.bucket4j.TimeMeter;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
 import io.github.bucket4j.distributed.BucketProxy;
 import io.github.bucket4j.distributed.proxy.optimization.Optimization;
 import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.ConfigurationTable;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
 import io.github.bucket4j.distributed.remote.commands.GetConfigurationCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
 import io.github.bucket4j.distributed.versioning.Version;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
@@ -70,6 +78,24 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         public CompletableFuture<Void> removeProxy(K key) {
             return removeAsync(key);
         }
+
+        @Override
+        public CompletableFuture<Boolean> tryConsumeAll(Map<K, Long> tokensToConsume, Function<K, BucketConfiguration> configurationProvider) {
+            Map<K, Request<Boolean>> consumeRequests = createConsumeAllRequests(tokensToConsume, configurationProvider);
+            if (consumeRequests.isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            return executeAllAsync(consumeRequests).thenCompose(results -> {
+                Map<K, Request<Nothing>> rollbackRequests = createRollbackRequests(tokensToConsume, results);
+                if (rollbackRequests == null) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                if (rollbackRequests.isEmpty()) {
+                    return CompletableFuture.completedFuture(checkConsumeAllResults(results));
+                }
+                return executeAllAsync(rollbackRequests).thenApply(rollbackResults -> checkConsumeAllResults(results));
+            });
+        }
     };
 
     @Override
@@ -97,6 +123,66 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         return Optional.of(result.getData());
     }
 
+    @Override
+    public boolean tryConsumeAll(Map<K, Long> tokensToConsume, Function<K, BucketConfiguration> configurationProvider) {
+        Map<K, Request<Boolean>> consumeRequests = createConsumeAllRequests(tokensToConsume, configurationProvider);
+        if (consumeRequests.isEmpty()) {
+            return true;
+        }
+        Map<K, CommandResult<Boolean>> results = executeAll(consumeRequests);
+        Map<K, Request<Nothing>> rollbackRequests = createRollbackRequests(tokensToConsume, results);
+        if (rollbackRequests == null) {
+            return true;
+        }
+        if (!rollbackRequests.isEmpty()) {
+            executeAll(rollbackRequests);
+        }
+        return checkConsumeAllResults(results);
+    }
+
+    private Map<K, Request<Boolean>> createConsumeAllRequests(Map<K, Long> tokensToConsume, Function<K, BucketConfiguration> configurationProvider) {
+        Objects.requireNonNull(configurationProvider);
+        Long clientSideTime = getClientSideTime();
+        Map<K, Request<Boolean>> requests = new LinkedHashMap<>(tokensToConsume.size());
+        tokensToConsume.forEach((key, tokens) -> {
+            if (tokens <= 0) {
+                throw BucketExceptions.nonPositiveTokensToConsume(tokens);
+            }
+            BucketConfiguration configuration = configurationProvider.apply(key);
+            if (configuration == null) {
+                throw BucketExceptions.nullConfiguration();
+            }
+            RemoteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, new TryConsumeCommand(tokens));
+            requests.put(key, new Request<>(command, getBackwardCompatibilityVersion(), clientSideTime));
+        });
+        return requests;
+    }
+
+    // returns null when tokens were consumed from all buckets
+    private Map<K, Request<Nothing>> createRollbackRequests(Map<K, Long> tokensToConsume, Map<K, CommandResult<Boolean>> results) {
+        Map<K, Request<Nothing>> rollbackRequests = new LinkedHashMap<>();
+        boolean consumedFromAll = true;
+        Long clientSideTime = getClientSideTime();
+        for (Map.Entry<K, CommandResult<Boolean>> entry : results.entrySet()) {
+            CommandResult<Boolean> result = entry.getValue();
+            if (!result.isError() && Boolean.TRUE.equals(result.getData())) {
+                AddTokensCommand command = new AddTokensCommand(tokensToConsume.get(entry.getKey()));
+                rollbackRequests.put(entry.getKey(), new Request<>(command, getBackwardCompatibilityVersion(), clientSideTime));
+            } else {
+                consumedFromAll = false;
+            }
+        }
+        return consumedFromAll ? null : rollbackRequests;
+    }
+
+    // rethrows the error if any bucket failed to execute the command, errors are checked after rollback to not lose already consumed tokens
+    private boolean checkConsumeAllResults(Map<K, CommandResult<Boolean>> results) {
+        for (CommandResult<Boolean> result : results.values()) {
+            result.getData();
+        }
+        return false;
+    }
+
     private class DefaultAsyncRemoteBucketBuilder implements RemoteAsyncBucketBuilder<K> {
 
         private RecoveryStrategy recoveryStrategy = DEFAULT_RECOVERY_STRATEGY;
@@ -193,10 +279,48 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
 
     abstract protected CompletableFuture<Void> removeAsync(K key);
 
+    /**
+     * Executes requests for multiple buckets.
+     * Backends which are able to send multiple requests in single round-trip should override this method,
+     * default implementation executes requests one by one.
+     *
+     * @param requests the requests to execute, grouped by keys
+     *
+     * @return the results of requests, grouped by keys
+     */
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        Map<K, CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+        requests.forEach((key, request) -> results.put(key, execute(key, request)));
+        return results;
+    }
+
+    /**
+     * Asynchronously executes requests for multiple buckets.
+     * Backends which are able to send multiple requests in single round-trip should override this method,
+     * default implementation executes requests concurrently.
+     *
+     * @param requests the requests to execute, grouped by keys
+     *
+     * @return the future that completed by results of requests, grouped by keys
+     */
+    protected <T> CompletableFuture<Map<K, CommandResult<T>>> executeAllAsync(Map<K, Request<T>> requests) {
+        Map<K, CompletableFuture<CommandResult<T>>> futures = new LinkedHashMap<>(requests.size());
+        requests.forEach((key, request) -> futures.put(key, executeAsync(key, request)));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<K, CommandResult<T>> results = new LinkedHashMap<>(futures.size());
+            futures.forEach((key, future) -> results.put(key, future.join()));
+            return results;
+        });
+    }
+
     protected ClientSideConfig getClientSideConfig() {
         return clientSideConfig;
     }
 
+    protected ConfigurationTable getConfigurationTable() {
+        return clientSideConfig.getConfigurationTable().orElse(null);
+    }
+
     protected Version getBackwardCompatibilityVersion() {
         return clientSideConfig.getBackwardCompatibilityVersion();
     }
@@ -22,8 +22,13 @@ package io.github.bucket4j.distributed.proxy;
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 /**
  * The asynchronous equivalent of {@link ProxyManager}.
@@ -59,4 +64,53 @@ public interface AsyncProxyManager<K> {
      */
     CompletableFuture<Optional<BucketConfiguration>> getProxyConfiguration(K key);
 
+    /**
+     * Asynchronously tries to consume the specified amount of tokens from multiple buckets as single operation,
+     * see {@link ProxyManager#tryConsumeAll(Map, Function)} for details.
+     *
+     * <p>
+     * The default implementation consumes tokens from buckets one by one and returns tokens back via {@link AsyncBucketProxy#addTokens(long)}.
+     *
+     * @param tokensToConsume the amount of tokens to consume from each bucket
+     * @param configurationProvider provides configuration for buckets that are not persisted yet
+     *
+     * @return the future that completed by {@code true} if the tokens were consumed from all buckets, {@code false} if nothing was consumed
+     */
+    default CompletableFuture<Boolean> tryConsumeAll(Map<K, Long> tokensToConsume, Function<K, BucketConfiguration> configurationProvider) {
+        Objects.requireNonNull(configurationProvider);
+        // mutated only by sequential stages of the chain below
+        Map<AsyncBucketProxy, Long> consumed = new LinkedHashMap<>();
+        CompletableFuture<Boolean> future = CompletableFuture.completedFuture(true);
+        for (Map.Entry<K, Long> entry : tokensToConsume.entrySet()) {
+            K key = entry.getKey();
+            long tokens = entry.getValue();
+            future = future.thenCompose(consumedFromPrevious -> {
+                if (!consumedFromPrevious) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                AsyncBucketProxy bucket = builder().build(key, () -> CompletableFuture.completedFuture(configurationProvider.apply(key)));
+                return bucket.tryConsume(tokens).thenApply(consumedNow -> {
+                    if (consumedNow) {
+                        consumed.put(bucket, tokens);
+                    }
+                    return consumedNow;
+                });
+            });
+        }
+        return future.handle((consumedFromAll, error) -> {
+            if (error == null && consumedFromAll) {
+                return CompletableFuture.completedFuture(true);
+            }
+            CompletableFuture<?>[] rollbacks = consumed.entrySet().stream()
+                .map(consumedEntry -> consumedEntry.getKey().addTokens(consumedEntry.getValue()))
+                .toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(rollbacks).thenApply(nothing -> {
+                if (error != null) {
+                    throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                }
+                return false;
+            });
+        }).thenCompose(Function.identity());
+    }
+
 }
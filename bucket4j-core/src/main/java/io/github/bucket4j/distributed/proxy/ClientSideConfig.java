@@ -20,6 +20,9 @@
 package io.github.bucket4j.distributed.proxy;
 
 import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapRetryPolicy;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.HotKeyCoalescingParameters;
+import io.github.bucket4j.distributed.remote.ConfigurationTable;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 
@@ -31,6 +34,9 @@ import java.util.Optional;
  * <ul>
  *     <li>Backward compatibility version, see {@link #backwardCompatibleWith(Version)} for more details.</li>
  *     <li>Client-side clock, see {@link #withClientClock(TimeMeter)} for more details.</li>
+ *     <li>Retry policy for compare-and-swap based proxy managers, see {@link #withCompareAndSwapRetryPolicy(CompareAndSwapRetryPolicy)} for more details.</li>
+ *     <li>Hot-key coalescing for compare-and-swap based proxy managers, see {@link #withHotKeyCoalescing(HotKeyCoalescingParameters)} for more details.</li>
+ *     <li>Table of configurations that are persisted by reference, see {@link #withConfigurationTable(ConfigurationTable)} for more details.</li>
  * </ul>
  */
 public class ClientSideConfig {
@@ -39,10 +45,27 @@ public class ClientSideConfig {
 
     private final Version backwardCompatibilityVersion;
     private final Optional<TimeMeter> clientSideClock;
+    private final CompareAndSwapRetryPolicy compareAndSwapRetryPolicy;
+    private final Optional<HotKeyCoalescingParameters> hotKeyCoalescing;
+    private final Optional<ConfigurationTable> configurationTable;
 
     protected ClientSideConfig(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock) {
+        this(backwardCompatibilityVersion, clientSideClock, CompareAndSwapRetryPolicy.unlimited(), Optional.empty());
+    }
+
+    protected ClientSideConfig(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock,
+                               CompareAndSwapRetryPolicy compareAndSwapRetryPolicy, Optional<HotKeyCoalescingParameters> hotKeyCoalescing) {
+        this(backwardCompatibilityVersion, clientSideClock, compareAndSwapRetryPolicy, hotKeyCoalescing, Optional.empty());
+    }
+
+    protected ClientSideConfig(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock,
+                               CompareAndSwapRetryPolicy compareAndSwapRetryPolicy, Optional<HotKeyCoalescingParameters> hotKeyCoalescing,
+                               Optional<ConfigurationTable> configurationTable) {
         this.backwardCompatibilityVersion = Objects.requireNonNull(backwardCompatibilityVersion);
         this.clientSideClock = Objects.requireNonNull(clientSideClock);
+        this.compareAndSwapRetryPolicy = Objects.requireNonNull(compareAndSwapRetryPolicy);
+        this.hotKeyCoalescing = Objects.requireNonNull(hotKeyCoalescing);
+        this.configurationTable = Objects.requireNonNull(configurationTable);
     }
 
     /**
@@ -50,6 +73,9 @@ public class ClientSideConfig {
      * <ul>
      *     <li><b>Client-clock:</b> is null. This means that server-side clock is always used.</li>
      *     <li><b>Backward compatibility version:</b> is {@code Versions.getLatest()}. This means that compatibility with legacy versions is switched off.</li>
+     *     <li><b>Compare-and-swap retry policy:</b> is {@link CompareAndSwapRetryPolicy#unlimited()}. This means that compare-and-swap is repeated until success without any pause.</li>
+     *     <li><b>Hot-key coalescing:</b> is switched off. This means that each request is executed by own compare-and-swap.</li>
+     *     <li><b>Configuration table:</b> is absent. This means that configuration is persisted together with each bucket.</li>
      * </ul>
      *
      * @return default client-side configuration for proxy-manager
@@ -72,7 +98,7 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code backwardCompatibilityVersion}.
      */
     public ClientSideConfig backwardCompatibleWith(Version backwardCompatibilityVersion) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock);
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, compareAndSwapRetryPolicy, hotKeyCoalescing, configurationTable);
     }
 
     /**
@@ -90,7 +116,67 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code clientClock}.
      */
     public ClientSideConfig withClientClock(TimeMeter clientClock) {
-        return new ClientSideConfig(backwardCompatibilityVersion, Optional.of(clientClock));
+        return new ClientSideConfig(backwardCompatibilityVersion, Optional.of(clientClock), compareAndSwapRetryPolicy, hotKeyCoalescing, configurationTable);
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with configured {@code compareAndSwapRetryPolicy}.
+     *
+     * <p>
+     * Use this method when buckets are highly contended, unlimited immediate retries of compare-and-swap on hot key
+     * turn into retry storm that wastes capacity of storage and CPU of clients.
+     * The policy is applied only by proxy managers built on top of compare-and-swap, other proxy managers ignore it.
+     *
+     * <p>
+     * By default the policy is {@link CompareAndSwapRetryPolicy#unlimited()}.
+     *
+     * @param compareAndSwapRetryPolicy the policy that limits and delays retries of unsuccessful compare-and-swap.
+     *
+     * @return new instance of {@link ClientSideConfig} with configured {@code compareAndSwapRetryPolicy}.
+     */
+    public ClientSideConfig withCompareAndSwapRetryPolicy(CompareAndSwapRetryPolicy compareAndSwapRetryPolicy) {
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, compareAndSwapRetryPolicy, hotKeyCoalescing, configurationTable);
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with configured {@code hotKeyCoalescing}.
+     *
+     * <p>
+     * Use this method when few keys, for example global limits, receive the most of requests.
+     * Concurrent requests from the same JVM to such keys fail compare-and-swap of each other,
+     * with coalescing they are combined into single compare-and-swap per round-trip without any changes at call sites.
+     * Requests to other keys are executed directly.
+     * Coalescing is applied only by proxy managers built on top of compare-and-swap, other proxy managers ignore it.
+     *
+     * <p>
+     * By default hot-key coalescing is switched off.
+     *
+     * @param hotKeyCoalescing the parameters of hot key detection.
+     *
+     * @return new instance of {@link ClientSideConfig} with configured {@code hotKeyCoalescing}.
+     */
+    public ClientSideConfig withHotKeyCoalescing(HotKeyCoalescingParameters hotKeyCoalescing) {
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, compareAndSwapRetryPolicy, Optional.of(hotKeyCoalescing), configurationTable);
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with configured {@code configurationTable}.
+     *
+     * <p>
+     * Use this method when large amount of buckets share a small set of configurations,
+     * then state of buckets whose configuration is registered in the table is persisted with fingerprint of configuration instead of full configuration.
+     * The table is applied only by proxy managers that read and write the state on the client side, such as compare-and-swap and lock based proxy managers,
+     * other proxy managers ignore it. See {@link ConfigurationTable} for more details.
+     *
+     * <p>
+     * By default configuration table is absent.
+     *
+     * @param configurationTable the table of configurations that are persisted by reference.
+     *
+     * @return new instance of {@link ClientSideConfig} with configured {@code configurationTable}.
+     */
+    public ClientSideConfig withConfigurationTable(ConfigurationTable configurationTable) {
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, compareAndSwapRetryPolicy, hotKeyCoalescing, Optional.of(configurationTable));
     }
 
     /**
@@ -115,4 +201,37 @@ public class ClientSideConfig {
         return backwardCompatibilityVersion;
     }
 
+    /**
+     * Returns the policy that limits and delays retries of unsuccessful compare-and-swap.
+     *
+     * @return the policy that limits and delays retries of unsuccessful compare-and-swap.
+     *
+     * @see #withCompareAndSwapRetryPolicy(CompareAndSwapRetryPolicy)
+     */
+    public CompareAndSwapRetryPolicy getCompareAndSwapRetryPolicy() {
+        return compareAndSwapRetryPolicy;
+    }
+
+    /**
+     * Returns parameters of hot-key coalescing.
+     *
+     * @return parameters of hot-key coalescing, empty optional means that coalescing is switched off.
+     *
+     * @see #withHotKeyCoalescing(HotKeyCoalescingParameters)
+     */
+    public Optional<HotKeyCoalescingParameters> getHotKeyCoalescing() {
+        return hotKeyCoalescing;
+    }
+
+    /**
+     * Returns the table of configurations that are persisted by reference.
+     *
+     * @return the table of configurations, empty optional means that configuration is persisted together with each bucket.
+     *
+     * @see #withConfigurationTable(ConfigurationTable)
+     */
+    public Optional<ConfigurationTable> getConfigurationTable() {
+        return configurationTable;
+    }
+
 }
@@ -23,7 +23,11 @@ import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
 import io.github.bucket4j.distributed.BucketProxy;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Represents an extension point of bucket4j library.
@@ -56,6 +60,44 @@ public interface ProxyManager<K> {
      */
     void removeProxy(K key);
 
+    /**
+     * Tries to consume the specified amount of tokens from multiple buckets as single operation.
+     *
+     * <p>
+     * Tokens are consumed only if each bucket has enough tokens, otherwise nothing is consumed.
+     * Requests for all keys are sent to the storage as single batch when backend supports batching(pipelines, bulk entry processors and so on).
+     * When at least one bucket has not enough tokens, the tokens already consumed from other buckets are returned back by the second batch,
+     * so concurrent consumers can temporary observe these tokens as consumed.
+     *
+     * <p>
+     * The default implementation consumes tokens from buckets one by one and returns tokens back via {@link BucketProxy#addTokens(long)},
+     * implementations that extend {@link AbstractProxyManager} send whole batch in one round-trip when backend supports it.
+     *
+     * @param tokensToConsume the amount of tokens to consume from each bucket
+     * @param configurationProvider provides configuration for buckets that are not persisted yet
+     *
+     * @return {@code true} if the tokens were consumed from all buckets, {@code false} if nothing was consumed
+     */
+    default boolean tryConsumeAll(Map<K, Long> tokensToConsume, Function<K, BucketConfiguration> configurationProvider) {
+        Objects.requireNonNull(configurationProvider);
+        Map<BucketProxy, Long> consumed = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<K, Long> entry : tokensToConsume.entrySet()) {
+                K key = entry.getKey();
+                BucketProxy bucket = builder().build(key, () -> configurationProvider.apply(key));
+                if (!bucket.tryConsume(entry.getValue())) {
+                    consumed.forEach(BucketProxy::addTokens);
+                    return false;
+                }
+                consumed.put(bucket, entry.getValue());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            consumed.forEach(BucketProxy::addTokens);
+            throw e;
+        }
+    }
+
     /**
      * Describes whether or not this manager supports asynchronous API.
      * If this method returns <code>false</code> then any invocation of {@link #asAsync()} will throw {@link UnsupportedOperationException}.
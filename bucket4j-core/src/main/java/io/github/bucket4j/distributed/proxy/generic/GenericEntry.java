@@ -20,29 +20,46 @@
 
 package io.github.bucket4j.distributed.proxy.generic;
 
+import io.github.bucket4j.distributed.remote.ConfigurationTable;
 import io.github.bucket4j.distributed.remote.MutableBucketEntry;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
 import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import io.github.bucket4j.distributed.versioning.Version;
 
 import java.util.Objects;
 
-import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeState;
-
 public class GenericEntry implements MutableBucketEntry {
 
     private final Version backwardCompatibilityVersion;
+    private final ConfigurationTable configurationTable;
+    private final SerializedBucketState serializedState;
     private RemoteBucketState originalState;
     private RemoteBucketState modifiedState;
 
     public GenericEntry(byte[] originalStateBytes, Version backwardCompatibilityVersion) {
         this.backwardCompatibilityVersion = backwardCompatibilityVersion;
-        this.originalState = originalStateBytes == null? null : deserializeState(originalStateBytes);
+        this.configurationTable = null;
+        this.serializedState = originalStateBytes == null? null : SerializedBucketState.parse(originalStateBytes, null, null);
+    }
+
+    /**
+     * Creates entry which persists configurations registered in {@code configurationTable} by reference.
+     *
+     * @param originalStateBytes the persisted state, or null if bucket does not exist
+     * @param request the request which is going to be executed on this entry
+     * @param configurationTable the table attached to proxy manager, can be null
+     */
+    public GenericEntry(byte[] originalStateBytes, Request<?> request, ConfigurationTable configurationTable) {
+        this.backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
+        this.configurationTable = configurationTable;
+        this.serializedState = originalStateBytes == null? null
+                : SerializedBucketState.parse(originalStateBytes, configurationTable, request.getCommand().getConfiguration());
     }
 
     @Override
     public boolean exists() {
-        return originalState != null;
+        return serializedState != null;
     }
 
     @Override
@@ -52,7 +69,10 @@ public class GenericEntry implements MutableBucketEntry {
 
     @Override
     public RemoteBucketState get() {
-        return Objects.requireNonNull(originalState);
+        if (originalState == null) {
+            originalState = Objects.requireNonNull(serializedState).decode();
+        }
+        return originalState;
     }
 
     public RemoteBucketState getModifiedState() {
@@ -60,7 +80,10 @@ public class GenericEntry implements MutableBucketEntry {
     }
 
     public byte[] getModifiedStateBytes() {
-        return InternalSerializationHelper.serializeState(modifiedState, backwardCompatibilityVersion);
+        if (serializedState == null) {
+            return InternalSerializationHelper.serializeState(modifiedState, backwardCompatibilityVersion, configurationTable);
+        }
+        return serializedState.encode(modifiedState, backwardCompatibilityVersion);
     }
 
     public boolean isModified() {
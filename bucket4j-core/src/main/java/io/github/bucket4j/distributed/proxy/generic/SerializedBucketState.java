@@ -0,0 +1,253 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.distributed.remote.ConfigurationTable;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.serialization.ByteBufferSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.CompactDeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.CompactSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_2_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_3_0;
+
+/**
+ * Bytes of {@link RemoteBucketState} that are decoded lazily.
+ *
+ * <p>
+ * Serialized state consists of header with configuration, which is rarely changed, and mutable section with bucket state and statistics.
+ * The header is decoded only once per distinct content, decoded configurations are shared through the cache keyed by hash of encoded configuration.
+ * Length of encoded configuration is unknown before decoding, so lookup tries each length of configurations that have been seen,
+ * in practice there are only a few distinct lengths.
+ * When configuration was not changed, then only the mutable section is encoded back and appended to original header bytes.
+ *
+ * <p>
+ * The layout must be kept in sync with {@link RemoteBucketState#SERIALIZATION_HANDLE}.
+ */
+final class SerializedBucketState {
+
+    private static final int MAX_CACHED_CONFIGURATIONS = 1024;
+    private static final int MAX_DISTINCT_LENGTHS = 16;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final ConcurrentHashMap<Long, CachedConfiguration> configurationCache = new ConcurrentHashMap<>();
+    private static final Set<Integer> encodedLengths = ConcurrentHashMap.newKeySet();
+
+    private final byte[] bytes;
+    private final int formatNumber;
+    private final boolean byReference;
+    private final BucketConfiguration configuration;
+    private final int mutableSectionOffset;
+    private final ConfigurationTable configurationTable;
+
+    private SerializedBucketState(byte[] bytes, int formatNumber, boolean byReference, BucketConfiguration configuration, int mutableSectionOffset,
+                                  ConfigurationTable configurationTable) {
+        this.bytes = bytes;
+        this.formatNumber = formatNumber;
+        this.byReference = byReference;
+        this.configuration = configuration;
+        this.mutableSectionOffset = mutableSectionOffset;
+        this.configurationTable = configurationTable;
+    }
+
+    static SerializedBucketState parse(byte[] bytes, ConfigurationTable configurationTable, BucketConfiguration fallbackConfiguration) {
+        try {
+            ByteBuffer input = ByteBuffer.wrap(bytes);
+            int formatNumber = input.getInt();
+            Versions.check(formatNumber, v_7_0_0, v_7_3_0);
+
+            boolean byReference = formatNumber == v_7_2_0.getNumber();
+            DeserializationAdapter<ByteBuffer> adapter = ByteBufferSerializationAdapter.INSTANCE;
+            if (formatNumber >= v_7_3_0.getNumber()) {
+                byReference = adapter.readBoolean(input);
+            }
+            BucketConfiguration configuration;
+            if (byReference) {
+                configuration = ConfigurationTable.resolve(configurationTable, adapter.readLong(input), fallbackConfiguration);
+                if (formatNumber >= v_7_3_0.getNumber()) {
+                    adapter = CompactDeserializationAdapter.wrap(adapter);
+                }
+            } else {
+                if (formatNumber >= v_7_3_0.getNumber()) {
+                    adapter = CompactDeserializationAdapter.wrap(adapter);
+                }
+                configuration = readConfiguration(adapter, input);
+            }
+            return new SerializedBucketState(bytes, formatNumber, byReference, configuration, input.position(), configurationTable);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    RemoteBucketState decode() {
+        try {
+            ByteBuffer input = ByteBuffer.wrap(bytes);
+            input.position(mutableSectionOffset);
+            DeserializationAdapter<ByteBuffer> adapter = formatNumber >= v_7_3_0.getNumber()
+                    ? CompactDeserializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE)
+                    : ByteBufferSerializationAdapter.INSTANCE;
+            BucketState state = BucketState.deserialize(adapter, input, null);
+            RemoteStat stat = RemoteStat.SERIALIZATION_HANDLE.deserialize(adapter, input, null);
+            return new RemoteBucketState(configuration, state, stat);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    byte[] encode(RemoteBucketState modifiedState, Version backwardCompatibilityVersion) {
+        if (modifiedState.getConfiguration() != configuration || !isHeaderReusable(backwardCompatibilityVersion)) {
+            return InternalSerializationHelper.serializeState(modifiedState, backwardCompatibilityVersion, configurationTable);
+        }
+        SerializationAdapter<ByteBuffer> adapter = formatNumber >= v_7_3_0.getNumber()
+                ? CompactSerializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE)
+                : ByteBufferSerializationAdapter.INSTANCE;
+        int capacity = bytes.length + 64;
+        while (true) {
+            ByteBuffer output = ByteBuffer.allocate(capacity);
+            output.put(bytes, 0, mutableSectionOffset);
+            try {
+                BucketState.serialize(adapter, output, modifiedState.getState(), backwardCompatibilityVersion);
+                RemoteStat.SERIALIZATION_HANDLE.serialize(adapter, output, modifiedState.getRemoteStat(), backwardCompatibilityVersion);
+                return output.position() == capacity ? output.array() : Arrays.copyOf(output.array(), output.position());
+            } catch (BufferOverflowException e) {
+                capacity *= 2;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private boolean isHeaderReusable(Version backwardCompatibilityVersion) {
+        int version = backwardCompatibilityVersion.getNumber();
+        if (version >= v_7_3_0.getNumber()) {
+            return formatNumber == v_7_3_0.getNumber() && byReference == ConfigurationTable.isRegistered(configurationTable, configuration);
+        }
+        if (version >= v_7_2_0.getNumber() && ConfigurationTable.isRegistered(configurationTable, configuration)) {
+            return formatNumber == v_7_2_0.getNumber();
+        }
+        return formatNumber == v_7_0_0.getNumber();
+    }
+
+    private static BucketConfiguration readConfiguration(DeserializationAdapter<ByteBuffer> adapter, ByteBuffer input) throws IOException {
+        int start = input.position();
+        byte[] bytes = input.array();
+        for (int length : encodedLengths) {
+            if (start + length > bytes.length) {
+                continue;
+            }
+            CachedConfiguration candidate = configurationCache.get(cacheKey(bytes, start, length));
+            if (candidate != null && candidate.matches(bytes, start)) {
+                candidate.recentlyUsed = true;
+                input.position(start + length);
+                return candidate.configuration;
+            }
+        }
+
+        BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input, null);
+        int length = input.position() - start;
+        if (!encodedLengths.contains(length)) {
+            if (encodedLengths.size() >= MAX_DISTINCT_LENGTHS) {
+                // each distinct length costs one more lookup for every state, so such configuration is not cached
+                return configuration;
+            }
+            encodedLengths.add(length);
+        }
+        if (configurationCache.size() >= MAX_CACHED_CONFIGURATIONS) {
+            evictOne();
+        }
+        CachedConfiguration cached = new CachedConfiguration(Arrays.copyOfRange(bytes, start, start + length), configuration);
+        configurationCache.put(cacheKey(bytes, start, length), cached);
+        return configuration;
+    }
+
+    /**
+     * Second chance eviction: configurations that were used since previous pass survive it,
+     * so configurations which are in use are not evicted by stream of rarely used ones.
+     */
+    private static void evictOne() {
+        for (int pass = 0; pass < 2; pass++) {
+            Iterator<CachedConfiguration> iterator = configurationCache.values().iterator();
+            while (iterator.hasNext()) {
+                CachedConfiguration candidate = iterator.next();
+                if (candidate.recentlyUsed) {
+                    candidate.recentlyUsed = false;
+                } else {
+                    iterator.remove();
+                    return;
+                }
+            }
+        }
+    }
+
+    // FNV-1a hash of encoded configuration, mixed with its length
+    private static long cacheKey(byte[] bytes, int start, int length) {
+        long hash = FNV_OFFSET_BASIS ^ length;
+        for (int i = start; i < start + length; i++) {
+            hash ^= bytes[i] & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static final class CachedConfiguration {
+
+        private final byte[] encoded;
+        private final BucketConfiguration configuration;
+        private volatile boolean recentlyUsed;
+
+        private CachedConfiguration(byte[] encoded, BucketConfiguration configuration) {
+            this.encoded = encoded;
+            this.configuration = configuration;
+        }
+
+        private boolean matches(byte[] bytes, int start) {
+            if (bytes.length - start < encoded.length) {
+                return false;
+            }
+            for (int i = 0; i < encoded.length; i++) {
+                if (bytes[start + i] != encoded[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
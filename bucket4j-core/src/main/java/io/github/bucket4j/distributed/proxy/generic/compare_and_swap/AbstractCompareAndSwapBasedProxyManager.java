@@ -25,51 +25,150 @@ import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
 import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MultiResult;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.MultiCommand;
+import io.github.bucket4j.util.concurrent.BatchHelper;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The base class for proxy managers that built on top of idea that underlining storage provide transactions and locking.
  *
+ * <p>When hot-key coalescing is enabled by {@link ClientSideConfig#withHotKeyCoalescing(HotKeyCoalescingParameters)},
+ * concurrent requests to the frequently used keys are combined into single compare-and-swap, so threads of the same JVM do not contend with each other.
+ *
  * @param <K> the generic type for unique identifiers that used to point to the bucket in external storage.
  */
 public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends AbstractProxyManager<K> {
 
     private static final CommandResult<?> UNSUCCESSFUL_CAS_RESULT = null;
 
+    private final CompareAndSwapRetryPolicy retryPolicy;
+    private final CompareAndSwapMetrics metrics = new CompareAndSwapMetrics();
+
+    private final HotKeyDetector hotKeyDetector;
+    private final int maxHotKeys;
+    private final ConcurrentHashMap<Object, HotKey> hotKeys = new ConcurrentHashMap<>();
+    private volatile int hotKeysGeneration;
+
     protected AbstractCompareAndSwapBasedProxyManager(ClientSideConfig clientSideConfig) {
         super(injectTimeClock(clientSideConfig));
+        this.retryPolicy = clientSideConfig.getCompareAndSwapRetryPolicy();
+        Optional<HotKeyCoalescingParameters> hotKeyCoalescing = clientSideConfig.getHotKeyCoalescing();
+        this.hotKeyDetector = hotKeyCoalescing.map(HotKeyDetector::new).orElse(null);
+        this.maxHotKeys = hotKeyCoalescing.map(parameters -> parameters.maxHotKeys).orElse(0);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> CommandResult<T> execute(K key, Request<T> request) {
+        HotKey hotKey = getHotKey(key);
+        if (hotKey != null) {
+            return (CommandResult<T>) hotKey.batchHelper.execute(request);
+        }
+        return executeWithRetries(key, request);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        HotKey hotKey = getHotKey(key);
+        if (hotKey != null) {
+            CompletableFuture<? extends CommandResult<?>> future = hotKey.asyncBatchHelper.executeAsync(request);
+            return (CompletableFuture<CommandResult<T>>) future;
+        }
+        return executeWithRetriesAsync(key, request);
+    }
+
+    private <T> CommandResult<T> executeWithRetries(K key, Request<T> request) {
         CompareAndSwapOperation operation = beginCompareAndSwapOperation(key);
+        int attempts = 0;
         while (true) {
+            attempts++;
             CommandResult<T> result = execute(request, operation);
             if (result != UNSUCCESSFUL_CAS_RESULT) {
+                metrics.recordCompleted(attempts);
                 return result;
             }
+            metrics.recordUnsuccessfulCompareAndSwap();
+            if (attempts >= retryPolicy.getMaxAttempts()) {
+                metrics.recordExhausted(attempts);
+                if (retryPolicy.isFallbackEnabled()) {
+                    return executeFallback(key, request, attempts);
+                }
+                throw new CompareAndSwapRetriesExhaustedException(attempts);
+            }
+            long backoffNanos = retryPolicy.calculateBackoffNanos(attempts);
+            if (backoffNanos > 0) {
+                metrics.recordBackoff(backoffNanos);
+                LockSupport.parkNanos(backoffNanos);
+            }
         }
     }
 
-    @Override
-    public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+    private <T> CompletableFuture<CommandResult<T>> executeWithRetriesAsync(K key, Request<T> request) {
         AsyncCompareAndSwapOperation operation = beginAsyncCompareAndSwapOperation(key);
         CompletableFuture<CommandResult<T>> result = executeAsync(request, operation);
-        return result.thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response));
+        return result.thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(key, operation, request, response, 1));
+    }
+
+    /**
+     * Returns contention statistics collected by this proxy manager.
+     *
+     * @return contention statistics collected by this proxy manager
+     */
+    public CompareAndSwapMetrics getCompareAndSwapMetrics() {
+        return metrics;
     }
 
     protected abstract CompareAndSwapOperation beginCompareAndSwapOperation(K key);
 
     protected abstract AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(K key);
 
+    /**
+     * Executes request by alternative path when attempts allowed by {@link CompareAndSwapRetryPolicy} are exhausted and fallback is enabled.
+     * Default implementation has no alternative path and throws {@link CompareAndSwapRetriesExhaustedException},
+     * storages which support pessimistic locking should override it.
+     *
+     * @param key the key of bucket
+     * @param request the request to execute
+     * @param attempts the count of unsuccessful attempts
+     *
+     * @return the result of request
+     */
+    protected <T> CommandResult<T> executeFallback(K key, Request<T> request, int attempts) {
+        throw new CompareAndSwapRetriesExhaustedException(attempts);
+    }
+
+    /**
+     * Asynchronous version of {@link #executeFallback(Object, Request, int)}.
+     *
+     * @param key the key of bucket
+     * @param request the request to execute
+     * @param attempts the count of unsuccessful attempts
+     *
+     * @return the future that completed by result of request
+     */
+    protected <T> CompletableFuture<CommandResult<T>> executeFallbackAsync(K key, Request<T> request, int attempts) {
+        CompletableFuture<CommandResult<T>> result = new CompletableFuture<>();
+        result.completeExceptionally(new CompareAndSwapRetriesExhaustedException(attempts));
+        return result;
+    }
+
     private <T> CommandResult<T> execute(Request<T> request, CompareAndSwapOperation operation) {
         RemoteCommand<T> command = request.getCommand();
         byte[] originalStateBytes = operation.getStateData().orElse(null);
-        GenericEntry entry = new GenericEntry(originalStateBytes, request.getBackwardCompatibilityVersion());
+        GenericEntry entry = new GenericEntry(originalStateBytes, request, getConfigurationTable());
         CommandResult<T> result = command.execute(entry, getClientSideTime());
         if (!entry.isModified()) {
             return result;
@@ -83,12 +182,37 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
         }
     }
 
-    private <T> CompletableFuture<CommandResult<T>> retryIfCasWasUnsuccessful(AsyncCompareAndSwapOperation operation, Request<T> request, CommandResult<T> casResponse) {
+    private <T> CompletableFuture<CommandResult<T>> retryIfCasWasUnsuccessful(K key, AsyncCompareAndSwapOperation operation, Request<T> request, CommandResult<T> casResponse, int attempts) {
         if (casResponse != UNSUCCESSFUL_CAS_RESULT) {
+            metrics.recordCompleted(attempts);
             return CompletableFuture.completedFuture(casResponse);
-        } else {
-            return executeAsync(request, operation).thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response));
         }
+        metrics.recordUnsuccessfulCompareAndSwap();
+        if (attempts >= retryPolicy.getMaxAttempts()) {
+            metrics.recordExhausted(attempts);
+            if (retryPolicy.isFallbackEnabled()) {
+                return executeFallbackAsync(key, request, attempts);
+            }
+            CompletableFuture<CommandResult<T>> result = new CompletableFuture<>();
+            result.completeExceptionally(new CompareAndSwapRetriesExhaustedException(attempts));
+            return result;
+        }
+
+        CompletableFuture<Void> pause = pause(retryPolicy.calculateBackoffNanos(attempts));
+        return pause
+            .thenCompose(nothing -> executeAsync(request, operation))
+            .thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(key, operation, request, response, attempts + 1));
+    }
+
+    private CompletableFuture<Void> pause(long backoffNanos) {
+        Optional<ScheduledExecutorService> scheduler = retryPolicy.getScheduler();
+        if (backoffNanos <= 0 || !scheduler.isPresent()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        metrics.recordBackoff(backoffNanos);
+        CompletableFuture<Void> pause = new CompletableFuture<>();
+        scheduler.get().schedule(() -> pause.complete(null), backoffNanos, TimeUnit.NANOSECONDS);
+        return pause;
     }
 
 
@@ -97,7 +221,7 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
             .thenApply((Optional<byte[]> originalStateBytes) -> originalStateBytes.orElse(null))
             .thenCompose((byte[] originalStateBytes) -> {
                 RemoteCommand<T> command = request.getCommand();
-                GenericEntry entry = new GenericEntry(originalStateBytes, request.getBackwardCompatibilityVersion());
+                GenericEntry entry = new GenericEntry(originalStateBytes, request, getConfigurationTable());
                 CommandResult<T> result = command.execute(entry, getClientSideTime());
                 if (!entry.isModified()) {
                     return CompletableFuture.completedFuture(result);
@@ -108,6 +232,69 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
             });
     }
 
+    // returns null when key is not hot or coalescing is disabled
+    private HotKey getHotKey(K key) {
+        if (hotKeyDetector == null) {
+            return null;
+        }
+        Object normalizedKey = key instanceof byte[] ? ByteBuffer.wrap((byte[]) key) : key;
+
+        int generation = hotKeyDetector.getGeneration();
+        if (generation != hotKeysGeneration) {
+            // the frequencies were halved, keys that cooled down should be executed directly again
+            hotKeysGeneration = generation;
+            hotKeys.keySet().removeIf(hotKey -> !hotKeyDetector.isHot(hotKey.hashCode()));
+        }
+
+        if (!hotKeyDetector.recordAndCheck(normalizedKey.hashCode())) {
+            return null;
+        }
+        HotKey hotKey = hotKeys.get(normalizedKey);
+        if (hotKey == null && hotKeys.size() < maxHotKeys) {
+            hotKey = hotKeys.computeIfAbsent(normalizedKey, ignored -> new HotKey(key));
+        }
+        return hotKey;
+    }
+
+    private Request<MultiResult> combine(List<Request<?>> requests) {
+        metrics.recordCoalesced(requests.size() - 1);
+        List<RemoteCommand<?>> commands = new ArrayList<>(requests.size());
+        for (Request<?> request : requests) {
+            commands.add(request.getCommand());
+        }
+        Request<?> firstRequest = requests.get(0);
+        return new Request<>(new MultiCommand(commands), firstRequest.getBackwardCompatibilityVersion(), firstRequest.getClientSideTime());
+    }
+
+    private static List<CommandResult<?>> split(CommandResult<MultiResult> multiResult) {
+        return multiResult.getData().getResults();
+    }
+
+    private final class HotKey {
+
+        private final BatchHelper<Request<?>, CommandResult<?>, Request<MultiResult>, CommandResult<MultiResult>> batchHelper;
+        private final BatchHelper<Request<?>, CommandResult<?>, Request<MultiResult>, CommandResult<MultiResult>> asyncBatchHelper;
+
+        private HotKey(K key) {
+            this.batchHelper = BatchHelper.sync(
+                AbstractCompareAndSwapBasedProxyManager.this::combine,
+                multiRequest -> executeWithRetries(key, multiRequest),
+                request -> executeWithRetries(key, request),
+                AbstractCompareAndSwapBasedProxyManager::split
+            );
+            this.asyncBatchHelper = BatchHelper.async(
+                AbstractCompareAndSwapBasedProxyManager.this::combine,
+                multiRequest -> executeWithRetriesAsync(key, multiRequest),
+                request -> {
+                    CompletableFuture<? extends CommandResult<?>> future = executeWithRetriesAsync(key, request);
+                    return (CompletableFuture<CommandResult<?>>) future;
+                },
+                AbstractCompareAndSwapBasedProxyManager::split
+            );
+        }
+
+    }
+
     private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
         if (clientSideConfig.getClientSideClock().isPresent()) {
             return clientSideConfig;
@@ -0,0 +1,92 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The base class for proxy managers that built on top of compare-and-swap by version, see {@link VersionedCompareAndSwapOperation}.
+ * Retries, hot-key coalescing and fallback work in the same way as for {@link AbstractCompareAndSwapBasedProxyManager}.
+ *
+ * @param <K> the generic type for unique identifiers that used to point to the bucket in external storage.
+ */
+public abstract class AbstractVersionedCompareAndSwapBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyManager<K> {
+
+    private static final long INITIAL_VERSION = 1;
+
+    protected AbstractVersionedCompareAndSwapBasedProxyManager(ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+    }
+
+    protected abstract VersionedCompareAndSwapOperation beginVersionedCompareAndSwapOperation(K key);
+
+    protected abstract AsyncVersionedCompareAndSwapOperation beginAsyncVersionedCompareAndSwapOperation(K key);
+
+    @Override
+    protected final CompareAndSwapOperation beginCompareAndSwapOperation(K key) {
+        VersionedCompareAndSwapOperation operation = beginVersionedCompareAndSwapOperation(key);
+        return new CompareAndSwapOperation() {
+            // operation is never shared between threads, and compareAndSwap is always preceded by getStateData
+            private VersionedState originalState;
+
+            @Override
+            public Optional<byte[]> getStateData() {
+                originalState = operation.getVersionedState().orElse(null);
+                return originalState == null ? Optional.empty() : Optional.of(originalState.getState());
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData) {
+                return operation.compareAndSwap(originalState, newData, nextVersion(originalState));
+            }
+        };
+    }
+
+    @Override
+    protected final AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(K key) {
+        AsyncVersionedCompareAndSwapOperation operation = beginAsyncVersionedCompareAndSwapOperation(key);
+        return new AsyncCompareAndSwapOperation() {
+            private volatile VersionedState originalState;
+
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData() {
+                return operation.getVersionedState().thenApply((Optional<VersionedState> state) -> {
+                    originalState = state.orElse(null);
+                    return state.map(VersionedState::getState);
+                });
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData) {
+                VersionedState original = originalState;
+                return operation.compareAndSwap(original, newData, nextVersion(original));
+            }
+        };
+    }
+
+    private static long nextVersion(VersionedState originalState) {
+        return originalState == null ? INITIAL_VERSION : originalState.getVersion() + 1;
+    }
+
+}
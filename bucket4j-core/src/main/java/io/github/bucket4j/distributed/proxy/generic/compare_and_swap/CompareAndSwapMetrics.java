@@ -0,0 +1,121 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention statistics of {@link AbstractCompareAndSwapBasedProxyManager}.
+ *
+ * <p>Count of attempts per request is collected into histogram with exponential bins: the bin {@code i}
+ * holds requests that took from {@code 2^(i-1) + 1} to {@code 2^i} attempts, the first bin holds requests served by single attempt
+ * and the last bin holds everything above {@link #getBinUpperBound(int) upper bound} of previous bin.
+ * Healthy system has almost all requests in the first bin, growth of other bins indicates the hot keys.
+ */
+public class CompareAndSwapMetrics {
+
+    public static final int BIN_COUNT = 8;
+
+    private final AtomicLongArray attemptsHistogram = new AtomicLongArray(BIN_COUNT);
+    private final AtomicLongArray exhaustedAttemptsHistogram = new AtomicLongArray(BIN_COUNT);
+    private final LongAdder unsuccessfulCompareAndSwaps = new LongAdder();
+    private final LongAdder backoffNanos = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+
+    void recordUnsuccessfulCompareAndSwap() {
+        unsuccessfulCompareAndSwaps.increment();
+    }
+
+    void recordBackoff(long nanos) {
+        backoffNanos.add(nanos);
+    }
+
+    void recordCoalesced(int requests) {
+        coalescedRequests.add(requests);
+    }
+
+    void recordCompleted(int attempts) {
+        attemptsHistogram.incrementAndGet(binIndex(attempts));
+    }
+
+    void recordExhausted(int attempts) {
+        exhaustedAttemptsHistogram.incrementAndGet(binIndex(attempts));
+    }
+
+    /**
+     * @return the snapshot of histogram of attempts taken by requests which were executed by compare-and-swap
+     */
+    public long[] getAttemptsHistogram() {
+        return snapshot(attemptsHistogram);
+    }
+
+    /**
+     * @return the snapshot of histogram of attempts taken by requests which were given up according to {@link CompareAndSwapRetryPolicy}
+     */
+    public long[] getExhaustedAttemptsHistogram() {
+        return snapshot(exhaustedAttemptsHistogram);
+    }
+
+    /**
+     * @return total count of compare-and-swap operations that failed because of concurrent modification
+     */
+    public long getUnsuccessfulCompareAndSwapCount() {
+        return unsuccessfulCompareAndSwaps.sum();
+    }
+
+    /**
+     * @return total time in nanoseconds that was spent in backoff pauses
+     */
+    public long getBackoffNanos() {
+        return backoffNanos.sum();
+    }
+
+    /**
+     * @return total count of requests to hot keys that were combined with another request instead of being executed by own compare-and-swap
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.sum();
+    }
+
+    /**
+     * @param binIndex the index of histogram bin
+     *
+     * @return the max count of attempts that belongs to the bin, {@code Integer.MAX_VALUE} for the last bin
+     */
+    public static int getBinUpperBound(int binIndex) {
+        return binIndex == BIN_COUNT - 1 ? Integer.MAX_VALUE : 1 << binIndex;
+    }
+
+    private static int binIndex(int attempts) {
+        int index = 32 - Integer.numberOfLeadingZeros(attempts - 1);
+        return Math.min(index, BIN_COUNT - 1);
+    }
+
+    private static long[] snapshot(AtomicLongArray histogram) {
+        long[] result = new long[BIN_COUNT];
+        for (int i = 0; i < BIN_COUNT; i++) {
+            result[i] = histogram.get(i);
+        }
+        return result;
+    }
+
+}
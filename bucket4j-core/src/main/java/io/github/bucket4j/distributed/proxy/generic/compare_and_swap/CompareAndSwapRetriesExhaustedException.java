@@ -0,0 +1,42 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+/**
+ * Exception which thrown when {@link AbstractCompareAndSwapBasedProxyManager} is unable to execute request
+ * in count of attempts allowed by {@link CompareAndSwapRetryPolicy}.
+ */
+public class CompareAndSwapRetriesExhaustedException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int attempts;
+
+    public CompareAndSwapRetriesExhaustedException(int attempts) {
+        super("Compare-and-swap was unsuccessful " + attempts + " times in a row because of concurrent modifications of the same bucket");
+        this.attempts = attempts;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Specifies how {@link AbstractCompareAndSwapBasedProxyManager} reacts on unsuccessful compare-and-swap,
+ * see {@link ClientSideConfig#withCompareAndSwapRetryPolicy(CompareAndSwapRetryPolicy)}.
+ *
+ * <p>The policy is immutable, each {@code with*} method returns new instance.
+ * By default the attempts are unlimited and repeated without any pause.
+ */
+public class CompareAndSwapRetryPolicy {
+
+    private static final CompareAndSwapRetryPolicy UNLIMITED = new CompareAndSwapRetryPolicy(Integer.MAX_VALUE, 0L, 0L, false, Optional.empty());
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final boolean fallbackEnabled;
+    private final Optional<ScheduledExecutorService> scheduler;
+
+    private CompareAndSwapRetryPolicy(int maxAttempts, long initialBackoffNanos, long maxBackoffNanos, boolean fallbackEnabled, Optional<ScheduledExecutorService> scheduler) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoffNanos;
+        this.maxBackoffNanos = maxBackoffNanos;
+        this.fallbackEnabled = fallbackEnabled;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the policy that repeats compare-and-swap until success without any pause, this is the default policy.
+     *
+     * @return the policy with unlimited attempts
+     */
+    public static CompareAndSwapRetryPolicy unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Returns the policy that gives up after {@code maxAttempts} unsuccessful compare-and-swap operations.
+     * When attempts are exhausted {@link CompareAndSwapRetriesExhaustedException} is thrown, unless fallback is enabled by {@link #withFallback()}.
+     *
+     * @param maxAttempts the maximum count of attempts to execute request, including the first one
+     *
+     * @return the policy with limited count of attempts
+     */
+    public static CompareAndSwapRetryPolicy limitedAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) {
+            String msg = MessageFormat.format("{0} is wrong value for max attempts, because max attempts should be positive", maxAttempts);
+            throw new IllegalArgumentException(msg);
+        }
+        return new CompareAndSwapRetryPolicy(maxAttempts, 0L, 0L, false, Optional.empty());
+    }
+
+    /**
+     * Returns new policy that pauses before each retry. The pause is random value between zero and
+     * {@code initialBackoff * 2^(failedAttempts - 1)} limited by {@code maxBackoff},
+     * the randomization prevents clients that collided once from colliding again on the next attempt.
+     *
+     * <p>Synchronous execution parks the calling thread. Asynchronous execution pauses only when scheduler is configured
+     * by {@link #withScheduler(ScheduledExecutorService)}, otherwise asynchronous retries are executed immediately.
+     *
+     * @param initialBackoff the upper bound of pause before the first retry
+     * @param maxBackoff the upper bound of pause before any retry
+     *
+     * @return new policy with configured backoff
+     */
+    public CompareAndSwapRetryPolicy withExponentialBackoff(Duration initialBackoff, Duration maxBackoff) {
+        long initialBackoffNanos = initialBackoff.toNanos();
+        long maxBackoffNanos = maxBackoff.toNanos();
+        if (initialBackoffNanos <= 0 || maxBackoffNanos < initialBackoffNanos) {
+            String msg = MessageFormat.format("Initial backoff {0} should be positive and should not be greater than max backoff {1}", initialBackoff, maxBackoff);
+            throw new IllegalArgumentException(msg);
+        }
+        return new CompareAndSwapRetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, fallbackEnabled, scheduler);
+    }
+
+    /**
+     * Returns new policy that uses {@code scheduler} to delay asynchronous retries.
+     *
+     * @param scheduler the scheduler that is used to delay asynchronous retries
+     *
+     * @return new policy with configured scheduler
+     */
+    public CompareAndSwapRetryPolicy withScheduler(ScheduledExecutorService scheduler) {
+        return new CompareAndSwapRetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, fallbackEnabled, Optional.of(scheduler));
+    }
+
+    /**
+     * Returns new policy that executes request by alternative path of proxy manager when attempts are exhausted,
+     * for example by pessimistic locking, see {@link AbstractCompareAndSwapBasedProxyManager#executeFallback}.
+     * Proxy managers that have no alternative path throw {@link CompareAndSwapRetriesExhaustedException}.
+     *
+     * @return new policy with enabled fallback
+     */
+    public CompareAndSwapRetryPolicy withFallback() {
+        return new CompareAndSwapRetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, true, scheduler);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isFallbackEnabled() {
+        return fallbackEnabled;
+    }
+
+    public Optional<ScheduledExecutorService> getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Calculates the pause before next attempt.
+     *
+     * @param failedAttempts the count of already failed attempts
+     *
+     * @return the pause in nanoseconds, zero means that retry should be executed immediately
+     */
+    public long calculateBackoffNanos(int failedAttempts) {
+        if (initialBackoffNanos == 0) {
+            return 0;
+        }
+        int shift = Math.min(failedAttempts - 1, 62);
+        long upperBound = initialBackoffNanos <= (maxBackoffNanos >> shift) ? initialBackoffNanos << shift : maxBackoffNanos;
+        return ThreadLocalRandom.current().nextLong(upperBound + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "CompareAndSwapRetryPolicy{" +
+                "maxAttempts=" + maxAttempts +
+                ", initialBackoffNanos=" + initialBackoffNanos +
+                ", maxBackoffNanos=" + maxBackoffNanos +
+                ", fallbackEnabled=" + fallbackEnabled +
+                '}';
+    }
+
+}
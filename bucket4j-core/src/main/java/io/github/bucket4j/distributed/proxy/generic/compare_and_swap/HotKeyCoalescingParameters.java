@@ -0,0 +1,79 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+
+import java.text.MessageFormat;
+
+/**
+ * Describes parameters of hot-key coalescing for {@link AbstractCompareAndSwapBasedProxyManager}.
+ *
+ * <p>Proxy manager estimates how frequently each key is requested, the estimation is done by count-min sketch
+ * that is aged by halving of all counters each time when {@code sampleSize} requests have been recorded.
+ * The key which was requested at least {@code hotKeyThreshold} times in the sample is considered as hot,
+ * concurrent requests from the same JVM to the hot key are combined into single compare-and-swap,
+ * in the same way as {@link io.github.bucket4j.distributed.proxy.optimization.Optimizations#batching()} does.
+ * Requests to the cold keys are executed directly.
+ *
+ * @see ClientSideConfig#withHotKeyCoalescing(HotKeyCoalescingParameters)
+ */
+public class HotKeyCoalescingParameters {
+
+    public final int hotKeyThreshold;
+    public final int sampleSize;
+    public final int maxHotKeys;
+
+    /**
+     * Creates the new instance of {@link HotKeyCoalescingParameters}
+     *
+     * @param hotKeyThreshold how many requests in the sample make the key hot. Must be a positive number.
+     * @param sampleSize count of requests after which the frequencies are halved. Must not be less than {@code hotKeyThreshold}.
+     * @param maxHotKeys how many keys can be coalesced at the same time, requests to other keys are executed directly. Must be a positive number.
+     */
+    public HotKeyCoalescingParameters(int hotKeyThreshold, int sampleSize, int maxHotKeys) {
+        if (hotKeyThreshold <= 0) {
+            String msg = MessageFormat.format("{0} is wrong value for hot key threshold, because threshold should be positive", hotKeyThreshold);
+            throw new IllegalArgumentException(msg);
+        }
+        if (sampleSize < hotKeyThreshold) {
+            String msg = MessageFormat.format("Sample size {0} should not be less than hot key threshold {1}", sampleSize, hotKeyThreshold);
+            throw new IllegalArgumentException(msg);
+        }
+        if (maxHotKeys <= 0) {
+            String msg = MessageFormat.format("{0} is wrong value for max hot keys, because max hot keys should be positive", maxHotKeys);
+            throw new IllegalArgumentException(msg);
+        }
+        this.hotKeyThreshold = hotKeyThreshold;
+        this.sampleSize = sampleSize;
+        this.maxHotKeys = maxHotKeys;
+    }
+
+    /**
+     * Creates parameters that treat the key as hot when it takes at least one percent of last ten thousands requests.
+     *
+     * @return parameters with reasonable defaults
+     */
+    public static HotKeyCoalescingParameters createDefault() {
+        return new HotKeyCoalescingParameters(100, 10_000, 100);
+    }
+
+}
@@ -0,0 +1,105 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch that estimates frequencies of keys in the sliding sample of requests.
+ * Races between concurrent updates and aging can slightly distort the estimation, which is acceptable for the detection of hot keys.
+ */
+final class HotKeyDetector {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int hotKeyThreshold;
+    private final int sampleSize;
+    private final int width;
+    private final int indexShift;
+    private final AtomicIntegerArray counters;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger generation = new AtomicInteger();
+
+    HotKeyDetector(HotKeyCoalescingParameters parameters) {
+        this.hotKeyThreshold = parameters.hotKeyThreshold;
+        this.sampleSize = parameters.sampleSize;
+        // enough counters to keep collisions of cold keys rare comparing to the count of keys that can be hot at the same time
+        int minWidth = Math.max(64, (int) Math.min(1 << 20, 4L * sampleSize / hotKeyThreshold));
+        this.width = Integer.highestOneBit(minWidth - 1) << 1;
+        this.indexShift = Integer.numberOfLeadingZeros(width) + 1;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+    }
+
+    /**
+     * Records the request to the key.
+     *
+     * @return {@code true} if the key is hot
+     */
+    boolean recordAndCheck(int keyHash) {
+        int estimation = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int count = counters.incrementAndGet(index(row, keyHash));
+            estimation = Math.min(estimation, count);
+        }
+        if (recorded.incrementAndGet() == sampleSize) {
+            age();
+        }
+        return estimation >= hotKeyThreshold;
+    }
+
+    /**
+     * @return {@code true} if the key is hot, the request is not recorded
+     */
+    boolean isHot(int keyHash) {
+        for (int row = 0; row < DEPTH; row++) {
+            if (counters.get(index(row, keyHash)) < hotKeyThreshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number that is incremented each time when frequencies are halved
+     */
+    int getGeneration() {
+        return generation.get();
+    }
+
+    private int index(int row, int keyHash) {
+        // multiplicative hashing, the high bits of product depend on all bits of key hash
+        return row * width + ((keyHash * SEEDS[row]) >>> indexShift);
+    }
+
+    private void age() {
+        for (int i = 0; i < counters.length(); i++) {
+            int count;
+            do {
+                count = counters.get(i);
+            } while (!counters.compareAndSet(i, count, count >>> 1));
+        }
+        recorded.addAndGet(-sampleSize);
+        generation.incrementAndGet();
+    }
+
+}
@@ -0,0 +1,50 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import java.util.Optional;
+
+/**
+ * The flavour of {@link CompareAndSwapOperation} for storages where comparing of whole serialized state is expensive,
+ * for example relational databases. Each persisted state is accompanied by monotonically increasing version,
+ * so compare-and-swap can be implemented as <code>UPDATE ... WHERE version = ?</code> or as condition on number attribute.
+ */
+public interface VersionedCompareAndSwapOperation {
+
+    /**
+     * Reads data if it exists
+     *
+     * @return persisted data together with its version or empty optional if data not exists
+     */
+    Optional<VersionedState> getVersionedState();
+
+    /**
+     * Replaces the data if its version was not changed since the read
+     *
+     * @param originalState previously read state, {@code null} means that data did not exist and must be created
+     * @param newData new bucket state
+     * @param newVersion the version of new bucket state, it is always greater than version of original state
+     *
+     * @return {@code true} if data changed, {@code false} if another parallel transaction achieved success instead of current transaction
+     */
+    boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion);
+
+}
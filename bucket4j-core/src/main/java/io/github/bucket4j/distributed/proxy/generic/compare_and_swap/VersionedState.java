@@ -0,0 +1,48 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import java.util.Objects;
+
+/**
+ * Serialized state of bucket together with its version.
+ * The version is incremented by each modification of state, so storage can detect concurrent modification
+ * by comparing a single number instead of comparing the whole state.
+ */
+public final class VersionedState {
+
+    private final byte[] state;
+    private final long version;
+
+    public VersionedState(byte[] state, long version) {
+        this.state = Objects.requireNonNull(state);
+        this.version = version;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+}
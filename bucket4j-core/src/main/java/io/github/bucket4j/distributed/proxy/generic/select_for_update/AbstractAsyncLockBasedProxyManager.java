@@ -0,0 +1,152 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.select_for_update;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * The base class for proxy managers that built on top of idea that underlining storage provide transactions and locking,
+ * and that storage is accessed by non-blocking driver, for example R2DBC.
+ *
+ * <p>Unlike {@link AbstractLockBasedProxyManager} the asynchronous mode is supported, and no thread is blocked while transaction is in progress.
+ * The synchronous mode is supported too, it just waits for completion of asynchronous execution.
+ *
+ * @param <K> the generic type for unique identifiers that used to point to the bucket in external storage.
+ */
+public abstract class AbstractAsyncLockBasedProxyManager<K> extends AbstractProxyManager<K> {
+
+    protected AbstractAsyncLockBasedProxyManager(ClientSideConfig clientSideConfig) {
+        super(injectTimeClock(clientSideConfig));
+    }
+
+    @Override
+    public <T> CommandResult<T> execute(K key, Request<T> request) {
+        try {
+            return executeAsync(key, request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        AsyncLockBasedTransaction transaction = allocateTransaction(key);
+        CompletableFuture<CommandResult<T>> result = invokeSafely(() -> executeAsync(request, transaction));
+        return result.whenComplete((response, error) -> releaseTransaction(transaction));
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    protected abstract AsyncLockBasedTransaction allocateTransaction(K key);
+
+    protected abstract void releaseTransaction(AsyncLockBasedTransaction transaction);
+
+    private <T> CompletableFuture<CommandResult<T>> executeAsync(Request<T> request, AsyncLockBasedTransaction transaction) {
+        return transaction.begin().thenCompose((Void nothing) -> {
+            CompletableFuture<CommandResult<T>> lockedExecution = invokeSafely(transaction::lock)
+                .thenCompose((LockResult lockResult) -> andFinally(invokeSafely(() -> executeLocked(request, transaction, lockResult)), transaction::unlock));
+            return lockedExecution.handle((CommandResult<T> result, Throwable error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                CompletableFuture<CommandResult<T>> failedExecution = failedFuture(error);
+                return andFinally(failedExecution, transaction::rollback);
+            }).thenCompose(completion -> completion);
+        });
+    }
+
+    private <T> CompletableFuture<CommandResult<T>> executeLocked(Request<T> request, AsyncLockBasedTransaction transaction, LockResult lockResult) {
+        RemoteCommand<T> command = request.getCommand();
+        byte[] persistedDataOnBeginOfTransaction;
+        if (lockResult == LockResult.DATA_EXISTS_AND_LOCKED) {
+            persistedDataOnBeginOfTransaction = transaction.getData();
+        } else if (command.isInitializationCommand()) {
+            persistedDataOnBeginOfTransaction = null;
+        } else {
+            return transaction.commit().thenApply(nothing -> CommandResult.bucketNotFound());
+        }
+
+        GenericEntry entry = new GenericEntry(persistedDataOnBeginOfTransaction, request, getConfigurationTable());
+        CommandResult<T> result = command.execute(entry, super.getClientSideTime());
+        CompletableFuture<Void> persisted;
+        if (!entry.isModified()) {
+            persisted = CompletableFuture.completedFuture(null);
+        } else if (persistedDataOnBeginOfTransaction == null) {
+            persisted = transaction.create(entry.getModifiedStateBytes());
+        } else {
+            persisted = transaction.update(entry.getModifiedStateBytes());
+        }
+        return persisted
+            .thenCompose(nothing -> transaction.commit())
+            .thenApply(nothing -> result);
+    }
+
+    // the action is executed regardless of the outcome of future, the error of future has priority over the error of action
+    private static <T> CompletableFuture<T> andFinally(CompletableFuture<T> future, Supplier<CompletableFuture<Void>> action) {
+        return future.handle((result, error) ->
+            invokeSafely(action).handle((nothing, actionError) -> {
+                Throwable cause = error != null ? error : actionError;
+                if (cause != null) {
+                    throw cause instanceof CompletionException ? (CompletionException) cause : new CompletionException(cause);
+                }
+                return result;
+            })
+        ).thenCompose(completion -> completion);
+    }
+
+    private static <T> CompletableFuture<T> invokeSafely(Supplier<CompletableFuture<T>> supplier) {
+        try {
+            return supplier.get();
+        } catch (Throwable e) {
+            return failedFuture(e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
+        if (clientSideConfig.getClientSideClock().isPresent()) {
+            return clientSideConfig;
+        }
+        return clientSideConfig.withClientClock(TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
+}
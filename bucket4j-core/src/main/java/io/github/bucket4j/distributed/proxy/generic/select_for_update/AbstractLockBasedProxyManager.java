@@ -79,7 +79,7 @@ public abstract class AbstractLockBasedProxyManager<K> extends AbstractProxyMana
                 } else {
                     return CommandResult.bucketNotFound();
                 }
-                GenericEntry entry = new GenericEntry(persistedDataOnBeginOfTransaction, request.getBackwardCompatibilityVersion());
+                GenericEntry entry = new GenericEntry(persistedDataOnBeginOfTransaction, request, getConfigurationTable());
                 CommandResult<T> result = command.execute(entry, super.getClientSideTime());
                 if (entry.isModified()) {
                     byte[] bytes = entry.getModifiedStateBytes();
@@ -0,0 +1,104 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.select_for_update;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous version of {@link LockBasedTransaction} that is used by {@link AbstractAsyncLockBasedProxyManager},
+ * it is intended to be implemented on top of non-blocking drivers such as R2DBC.
+ * The typical flow is following:
+ * <ol>
+ *     <li>begin - {@link #begin()}</li>
+ *     <li>lock - {@link #lock()}</li>
+ *     <li>getData - {@link #getData()}</li>
+ *     <li>update - {@link #update(byte[])}</li>
+ *     <li>commit - {@link #commit()}</li>
+ *     <li>unlock - {@link #unlock()}</li>
+ * </ol>
+ * Each next operation is started only after the future returned by previous operation has been completed.
+ */
+public interface AsyncLockBasedTransaction {
+
+    /**
+     * Begins transaction if underlying storage requires transactions.
+     * There is strong guarantee that {@link #commit()} or {@link #rollback()} will be called if future returned by {@link #begin()} completes successfully.
+     *
+     * @return the future that completed when transaction has been started
+     */
+    CompletableFuture<Void> begin();
+
+    /**
+     * Rollbacks transaction if underlying storage requires transactions
+     *
+     * @return the future that completed when transaction has been rolled back
+     */
+    CompletableFuture<Void> rollback();
+
+    /**
+     * Commits transaction if underlying storage requires transactions
+     *
+     * @return the future that completed when transaction has been committed
+     */
+    CompletableFuture<Void> commit();
+
+    /**
+     * Locks data by the key associated with this transaction.
+     * There is strong guarantee that {@link #unlock()} will be called if future returned by {@link #lock()} completes successfully.
+     *
+     * @return the future that completed by lock result
+     */
+    CompletableFuture<LockResult> lock();
+
+    /**
+     * Unlocks data by the key associated with this transaction.
+     *
+     * @return the future that completed when data has been unlocked
+     */
+    CompletableFuture<Void> unlock();
+
+    /**
+     * Returns the data by the key associated with this transaction.
+     * Implementations typically read the data together with locking, so this method is not asynchronous.
+     *
+     * @return persisted state of bucket
+     */
+    byte[] getData();
+
+    /**
+     * Creates the data by the key associated with this transaction.
+     *
+     * @param data bucket state to persists
+     *
+     * @return the future that completed when data has been persisted
+     */
+    CompletableFuture<Void> create(byte[] data);
+
+    /**
+     * Updates the data by the key associated with this transaction.
+     *
+     * @param data bucket state to persists
+     *
+     * @return the future that completed when data has been persisted
+     */
+    CompletableFuture<Void> update(byte[] data);
+
+}
@@ -27,22 +27,33 @@ import static io.github.bucket4j.distributed.serialization.InternalSerialization
 public abstract class AbstractBinaryTransaction implements MutableBucketEntry {
 
     private final byte[] requestBytes;
+    private final Request<?> request;
     private Version backwardCompatibilityVersion;
 
     protected AbstractBinaryTransaction(byte[] requestBytes) {
         this.requestBytes = requestBytes;
+        this.request = null;
+    }
+
+    /**
+     * Creates transaction for request which already has been deserialized by transport of backend,
+     * so there is no need to deserialize it from intermediate byte array.
+     *
+     * @param request the request to execute
+     */
+    protected AbstractBinaryTransaction(Request<?> request) {
+        this.requestBytes = null;
+        this.request = request;
     }
 
     public byte[] execute() {
-        Request<?> request;
-        try {
-            request = InternalSerializationHelper.deserializeRequest(requestBytes);
-        } catch (UnsupportedTypeException e) {
-            return serializeResult(CommandResult.unsupportedType(e.getTypeId()), Versions.getOldest());
-        } catch (UsageOfUnsupportedApiException e) {
-            return serializeResult(CommandResult.usageOfUnsupportedApiException(e.getRequestedFormatNumber(), e.getMaxSupportedFormatNumber()), Versions.getOldest());
-        } catch (UsageOfObsoleteApiException e) {
-            return serializeResult(CommandResult.usageOfObsoleteApiException(e.getRequestedFormatNumber(), e.getMinSupportedFormatNumber()), Versions.getOldest());
+        Request<?> request = this.request;
+        if (request == null) {
+            try {
+                request = InternalSerializationHelper.deserializeRequest(requestBytes);
+            } catch (BackwardCompatibilityException e) {
+                return serializeResult(CommandResult.backwardCompatibilityError(e), Versions.getOldest());
+            }
         }
 
         backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
@@ -52,12 +63,8 @@ public abstract class AbstractBinaryTransaction implements MutableBucketEntry {
             RemoteCommand<?> command = request.getCommand();
             CommandResult<?> result = command.execute(this, time);
             return serializeResult(result, request.getBackwardCompatibilityVersion());
-        } catch (UnsupportedTypeException e) {
-            return serializeResult(CommandResult.unsupportedType(e.getTypeId()), backwardCompatibilityVersion);
-        } catch (UsageOfUnsupportedApiException e) {
-            return serializeResult(CommandResult.usageOfUnsupportedApiException(e.getRequestedFormatNumber(), e.getMaxSupportedFormatNumber()), backwardCompatibilityVersion);
-        } catch (UsageOfObsoleteApiException e) {
-            return serializeResult(CommandResult.usageOfObsoleteApiException(e.getRequestedFormatNumber(), e.getMinSupportedFormatNumber()), backwardCompatibilityVersion);
+        } catch (BackwardCompatibilityException e) {
+            return serializeResult(CommandResult.backwardCompatibilityError(e), backwardCompatibilityVersion);
         }
     }
 
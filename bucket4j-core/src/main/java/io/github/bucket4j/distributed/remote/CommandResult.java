@@ -22,9 +22,15 @@ package io.github.bucket4j.distributed.remote;
 
 import io.github.bucket4j.Nothing;
 
+import io.github.bucket4j.distributed.serialization.CompactDeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.CompactSerializationAdapter;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.versioning.BackwardCompatibilityException;
+import io.github.bucket4j.distributed.versioning.UnsupportedTypeException;
+import io.github.bucket4j.distributed.versioning.UsageOfObsoleteApiException;
+import io.github.bucket4j.distributed.versioning.UsageOfUnsupportedApiException;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.util.ComparableByContent;
@@ -33,6 +39,7 @@ import java.io.IOException;
 
 import static io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles.*;
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_3_0;
 
 public class CommandResult<T> implements ComparableByContent<CommandResult> {
 
@@ -52,7 +59,10 @@ public class CommandResult<T> implements ComparableByContent<CommandResult> {
         @Override
         public <S> CommandResult<?> deserialize(DeserializationAdapter<S> adapter, S input, Version backwardCompatibilityVersion) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
+            Versions.check(formatNumber, v_7_0_0, v_7_3_0);
+            if (formatNumber >= v_7_3_0.getNumber()) {
+                adapter = CompactDeserializationAdapter.wrap(adapter);
+            }
 
             int typeId = adapter.readInt(input);
             SerializationHandle handle = SerializationHandle.CORE_HANDLES.getHandleByTypeId(typeId);
@@ -63,7 +73,12 @@ public class CommandResult<T> implements ComparableByContent<CommandResult> {
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, CommandResult<?> result, Version backwardCompatibilityVersion) throws IOException {
-            adapter.writeInt(output, v_7_0_0.getNumber());
+            if (backwardCompatibilityVersion.getNumber() >= v_7_3_0.getNumber()) {
+                adapter.writeInt(output, v_7_3_0.getNumber());
+                adapter = CompactSerializationAdapter.wrap(adapter);
+            } else {
+                adapter.writeInt(output, v_7_0_0.getNumber());
+            }
 
             adapter.writeInt(output, result.resultTypeId);
             SerializationHandle handle = SerializationHandle.CORE_HANDLES.getHandleByTypeId(result.resultTypeId);
@@ -118,6 +133,27 @@ public class CommandResult<T> implements ComparableByContent<CommandResult> {
         return new CommandResult<>(error, UsageOfObsoleteApiError.SERIALIZATION_HANDLE.getTypeId());
     }
 
+    /**
+     * Converts the exception which is thrown when request from node of another version can not be processed
+     * to the result which is returned to the client instead of failing the whole operation of backend.
+     *
+     * @param e the exception thrown by deserialization or execution of request
+     *
+     * @return the result which describes the error
+     */
+    public static CommandResult<?> backwardCompatibilityError(BackwardCompatibilityException e) {
+        if (e instanceof UnsupportedTypeException) {
+            return unsupportedType(((UnsupportedTypeException) e).getTypeId());
+        } else if (e instanceof UsageOfUnsupportedApiException) {
+            UsageOfUnsupportedApiException usageOfUnsupportedApi = (UsageOfUnsupportedApiException) e;
+            return usageOfUnsupportedApiException(usageOfUnsupportedApi.getRequestedFormatNumber(), usageOfUnsupportedApi.getMaxSupportedFormatNumber());
+        } else if (e instanceof UsageOfObsoleteApiException) {
+            UsageOfObsoleteApiException usageOfObsoleteApi = (UsageOfObsoleteApiException) e;
+            return usageOfObsoleteApiException(usageOfObsoleteApi.getRequestedFormatNumber(), usageOfObsoleteApi.getMinSupportedFormatNumber());
+        }
+        throw e;
+    }
+
     public T getData() {
         if (data instanceof CommandError) {
             CommandError error = (CommandError) data;
@@ -126,6 +162,10 @@ public class CommandResult<T> implements ComparableByContent<CommandResult> {
         return data;
     }
 
+    public boolean isError() {
+        return data instanceof CommandError;
+    }
+
     public boolean isBucketNotFound() {
         return data instanceof BucketNotFoundError;
     }
@@ -0,0 +1,184 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.remote;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * Content-addressed table of configurations that allows to persist {@link RemoteBucketState} with configuration by reference.
+ *
+ * <p>
+ * By default each persisted bucket holds the full copy of its {@link BucketConfiguration},
+ * which for large keyspaces that share a small set of configurations is the dominating part of stored state and network transfer.
+ * When configuration is registered in the table, then state of any bucket that uses this configuration is persisted with 64-bit {@link BucketConfiguration#getFingerprint() fingerprint}
+ * instead of the configuration itself, and fingerprint is resolved back to configuration through the same table when state is read.
+ *
+ * <p>
+ * The table is attached to proxy manager via {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withConfigurationTable(ConfigurationTable)},
+ * and is used only by proxy managers that read and write the state of buckets on the client side, such as compare-and-swap and lock based proxy managers.
+ * Backends that execute commands inside the storage always persist full configuration.
+ * Configurations must be registered in the tables of all clients that share the storage,
+ * alternatively the loader can be configured to fetch unknown fingerprints from the shared storage.
+ * When fingerprint can not be resolved, the configuration which is carried by the command, if any and if it has the same fingerprint, is used instead.
+ * Storing by reference is used only when backward compatibility version is {@link io.github.bucket4j.distributed.versioning.Versions#v_7_2_0} or newer,
+ * so it should not be enabled until all nodes were upgraded.
+ */
+public final class ConfigurationTable {
+
+    private final ConcurrentHashMap<Long, BucketConfiguration> configurations = new ConcurrentHashMap<>();
+
+    private final LongFunction<BucketConfiguration> loader;
+
+    /**
+     * Creates the table that resolves only registered configurations.
+     */
+    public ConfigurationTable() {
+        this(fingerprint -> null);
+    }
+
+    /**
+     * Creates the table that resolves fingerprints that were not registered through the {@code loader}.
+     *
+     * @param loader the function to fetch configuration by fingerprint from shared storage, the function should return {@code null} when fingerprint is unknown
+     */
+    public ConfigurationTable(LongFunction<BucketConfiguration> loader) {
+        this.loader = Objects.requireNonNull(loader);
+    }
+
+    /**
+     * Registers configuration in the table.
+     *
+     * @param configuration the configuration to register
+     *
+     * @return fingerprint of configuration
+     *
+     * @throws IllegalArgumentException if another configuration with the same fingerprint is already registered
+     */
+    public long register(BucketConfiguration configuration) {
+        if (configuration == null) {
+            throw BucketExceptions.nullConfiguration();
+        }
+        long fingerprint = configuration.getFingerprint();
+        BucketConfiguration registered = configurations.putIfAbsent(fingerprint, configuration);
+        if (registered != null && registered != configuration && !registered.equalsByContent(configuration)) {
+            throw BucketExceptions.configurationFingerprintCollision(fingerprint, registered, configuration);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Removes configuration from the table, state of buckets with this configuration will be persisted with full configuration since next modification.
+     * Already persisted states still can be read while the loader or the command that is executed on the bucket provides the configuration.
+     *
+     * @param configuration the configuration to remove
+     *
+     * @return true if configuration was registered in this table
+     */
+    public boolean unregister(BucketConfiguration configuration) {
+        BucketConfiguration registered = configurations.get(configuration.getFingerprint());
+        if (registered == null || (registered != configuration && !registered.equalsByContent(configuration))) {
+            return false;
+        }
+        return configurations.remove(configuration.getFingerprint(), registered);
+    }
+
+    /**
+     * Checks that state of buckets with this configuration can be persisted by reference.
+     *
+     * @param configuration the configuration to check
+     *
+     * @return true if configuration is registered in this table
+     */
+    public boolean isRegistered(BucketConfiguration configuration) {
+        BucketConfiguration registered = configurations.get(configuration.getFingerprint());
+        return registered == configuration || (registered != null && registered.equalsByContent(configuration));
+    }
+
+    /**
+     * Resolves configuration by its fingerprint.
+     *
+     * @param fingerprint the fingerprint of configuration
+     *
+     * @return registered configuration
+     *
+     * @throws IllegalStateException if fingerprint is unknown to this table and to the loader
+     */
+    public BucketConfiguration resolve(long fingerprint) {
+        BucketConfiguration configuration = find(fingerprint);
+        if (configuration == null) {
+            throw BucketExceptions.unknownConfigurationFingerprint(fingerprint);
+        }
+        return configuration;
+    }
+
+    /**
+     * Resolves configuration by its fingerprint through the table that can be absent,
+     * falls back to the configuration which is carried by command when fingerprint is unknown.
+     *
+     * @param table the table attached to proxy manager, can be null
+     * @param fingerprint the fingerprint of configuration
+     * @param fallback the configuration which is carried by command, can be null
+     *
+     * @return resolved configuration
+     *
+     * @throws IllegalStateException if fingerprint is unknown to the table and does not match to fallback configuration
+     */
+    public static BucketConfiguration resolve(ConfigurationTable table, long fingerprint, BucketConfiguration fallback) {
+        BucketConfiguration configuration = table == null ? null : table.find(fingerprint);
+        if (configuration != null) {
+            return configuration;
+        }
+        if (fallback != null && fallback.getFingerprint() == fingerprint) {
+            return fallback;
+        }
+        throw BucketExceptions.unknownConfigurationFingerprint(fingerprint);
+    }
+
+    /**
+     * Checks that configuration is registered in the table that can be absent.
+     *
+     * @param table the table attached to proxy manager, can be null
+     * @param configuration the configuration to check
+     *
+     * @return true if table is present and configuration is registered in it
+     */
+    public static boolean isRegistered(ConfigurationTable table, BucketConfiguration configuration) {
+        return table != null && table.isRegistered(configuration);
+    }
+
+    private BucketConfiguration find(long fingerprint) {
+        BucketConfiguration configuration = configurations.get(fingerprint);
+        if (configuration != null) {
+            return configuration;
+        }
+        configuration = loader.apply(fingerprint);
+        if (configuration == null || configuration.getFingerprint() != fingerprint) {
+            return null;
+        }
+        BucketConfiguration previous = configurations.putIfAbsent(fingerprint, configuration);
+        return previous != null ? previous : configuration;
+    }
+
+}
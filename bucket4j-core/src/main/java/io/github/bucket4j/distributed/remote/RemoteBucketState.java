@@ -23,6 +23,8 @@ package io.github.bucket4j.distributed.remote;
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketState;
 import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.serialization.CompactDeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.CompactSerializationAdapter;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
@@ -33,6 +35,8 @@ import io.github.bucket4j.util.ComparableByContent;
 import java.io.IOException;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_2_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_3_0;
 
 
 public class RemoteBucketState implements ComparableByContent<RemoteBucketState> {
@@ -41,38 +45,77 @@ public class RemoteBucketState implements ComparableByContent<RemoteBucketState>
     private BucketState state;
     private RemoteStat stat;
 
-    public static final SerializationHandle<RemoteBucketState> SERIALIZATION_HANDLE = new SerializationHandle<RemoteBucketState>() {
-        @Override
-        public <S> RemoteBucketState deserialize(DeserializationAdapter<S> adapter, S input, Version backwardCompatibilityVersion) throws IOException {
-            int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
-
-            BucketConfiguration bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
-            BucketState bucketState = BucketState.deserialize(adapter, input, backwardCompatibilityVersion);
-            RemoteStat stat = RemoteStat.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
-            return new RemoteBucketState(bucketConfiguration, bucketState, stat);
-        }
-
-        @Override
-        public <O> void serialize(SerializationAdapter<O> adapter, O output, RemoteBucketState gridState, Version backwardCompatibilityVersion) throws IOException {
-            adapter.writeInt(output, v_7_0_0.getNumber());
-
-            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, gridState.configuration, backwardCompatibilityVersion);
-            BucketState.serialize(adapter, output, gridState.state, backwardCompatibilityVersion);
-            RemoteStat.SERIALIZATION_HANDLE.serialize(adapter, output, gridState.stat, backwardCompatibilityVersion);
-        }
-
-        @Override
-        public int getTypeId() {
-            return 5;
-        }
-
-        @Override
-        public Class<RemoteBucketState> getSerializedType() {
-            return RemoteBucketState.class;
-        }
-
-    };
+    public static final SerializationHandle<RemoteBucketState> SERIALIZATION_HANDLE = serializationHandle(null, null);
+
+    /**
+     * Returns serialization handle which persists configurations registered in the {@code configurationTable} by reference.
+     *
+     * @param configurationTable the table attached to proxy manager, when null the configuration is always persisted by value
+     * @param fallbackConfiguration the configuration which is carried by command, it is used when persisted fingerprint is unknown to the table, can be null
+     *
+     * @return serialization handle of remote bucket state
+     */
+    public static SerializationHandle<RemoteBucketState> serializationHandle(ConfigurationTable configurationTable, BucketConfiguration fallbackConfiguration) {
+        return new SerializationHandle<RemoteBucketState>() {
+            @Override
+            public <S> RemoteBucketState deserialize(DeserializationAdapter<S> adapter, S input, Version backwardCompatibilityVersion) throws IOException {
+                int formatNumber = adapter.readInt(input);
+                Versions.check(formatNumber, v_7_0_0, v_7_3_0);
+
+                BucketConfiguration bucketConfiguration;
+                if (formatNumber >= v_7_3_0.getNumber()) {
+                    boolean byReference = adapter.readBoolean(input);
+                    Long fingerprint = byReference ? adapter.readLong(input) : null;
+                    adapter = CompactDeserializationAdapter.wrap(adapter);
+                    bucketConfiguration = byReference ? ConfigurationTable.resolve(configurationTable, fingerprint, fallbackConfiguration)
+                            : BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
+                } else if (formatNumber == v_7_2_0.getNumber()) {
+                    bucketConfiguration = ConfigurationTable.resolve(configurationTable, adapter.readLong(input), fallbackConfiguration);
+                } else {
+                    bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
+                }
+                BucketState bucketState = BucketState.deserialize(adapter, input, backwardCompatibilityVersion);
+                RemoteStat stat = RemoteStat.SERIALIZATION_HANDLE.deserialize(adapter, input, backwardCompatibilityVersion);
+                return new RemoteBucketState(bucketConfiguration, bucketState, stat);
+            }
+
+            @Override
+            public <O> void serialize(SerializationAdapter<O> adapter, O output, RemoteBucketState gridState, Version backwardCompatibilityVersion) throws IOException {
+                if (backwardCompatibilityVersion.getNumber() >= v_7_3_0.getNumber()) {
+                    adapter.writeInt(output, v_7_3_0.getNumber());
+                    boolean byReference = ConfigurationTable.isRegistered(configurationTable, gridState.configuration);
+                    adapter.writeBoolean(output, byReference);
+                    if (byReference) {
+                        // fingerprint is written before switching to compact encoding, because varint is longer than 8 bytes for random values
+                        adapter.writeLong(output, gridState.configuration.getFingerprint());
+                    }
+                    adapter = CompactSerializationAdapter.wrap(adapter);
+                    if (!byReference) {
+                        BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, gridState.configuration, backwardCompatibilityVersion);
+                    }
+                } else if (backwardCompatibilityVersion.getNumber() >= v_7_2_0.getNumber() && ConfigurationTable.isRegistered(configurationTable, gridState.configuration)) {
+                    adapter.writeInt(output, v_7_2_0.getNumber());
+                    adapter.writeLong(output, gridState.configuration.getFingerprint());
+                } else {
+                    adapter.writeInt(output, v_7_0_0.getNumber());
+                    BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, gridState.configuration, backwardCompatibilityVersion);
+                }
+                BucketState.serialize(adapter, output, gridState.state, backwardCompatibilityVersion);
+                RemoteStat.SERIALIZATION_HANDLE.serialize(adapter, output, gridState.stat, backwardCompatibilityVersion);
+            }
+
+            @Override
+            public int getTypeId() {
+                return 5;
+            }
+
+            @Override
+            public Class<RemoteBucketState> getSerializedType() {
+                return RemoteBucketState.class;
+            }
+
+        };
+    }
 
     public RemoteBucketState(BucketConfiguration configuration, BucketState state, RemoteStat stat) {
         this.configuration = configuration;
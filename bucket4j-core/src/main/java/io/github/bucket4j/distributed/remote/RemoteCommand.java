@@ -37,6 +37,7 @@
 package io.github.bucket4j.distributed.remote;
 
 import io.github.bucket4j.distributed.remote.commands.VerboseCommand;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
@@ -56,6 +57,29 @@ public interface RemoteCommand<T> {
         return false;
     }
 
+    /**
+     * Returns the configuration which this command initializes the bucket with.
+     *
+     * <p>The configuration is used to read the state which is persisted with fingerprint of configuration unknown to {@link ConfigurationTable}.
+     *
+     * @return configuration which is carried by this command, or null if command does not carry configuration
+     */
+    default BucketConfiguration getConfiguration() {
+        return null;
+    }
+
+    /**
+     * Returns true if this command never modifies the state of bucket.
+     *
+     * <p>Backends are allowed to execute read-only commands without exclusive access to the entry, for example via read-only entry processor or
+     * by reading the state through local replica and executing the command on the client side.
+     *
+     * @return true if this command never calls {@link MutableBucketEntry#set(RemoteBucketState)}
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+
     SerializationHandle<RemoteCommand<?>> getSerializationHandle();
 
     boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync);
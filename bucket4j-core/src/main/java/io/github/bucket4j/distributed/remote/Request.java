@@ -19,6 +19,8 @@
  */
 package io.github.bucket4j.distributed.remote;
 
+import io.github.bucket4j.distributed.serialization.CompactDeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.CompactSerializationAdapter;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
@@ -30,6 +32,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_3_0;
 
 public class Request<T> implements ComparableByContent<Request<T>> {
 
@@ -59,10 +62,13 @@ public class Request<T> implements ComparableByContent<Request<T>> {
         @Override
         public <S> Request deserialize(DeserializationAdapter<S> adapter, S input, Version backwardCompatibilityVersion) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
+            Versions.check(formatNumber, v_7_0_0, v_7_3_0);
+            if (formatNumber >= v_7_3_0.getNumber()) {
+                return deserializeCompact(adapter, input);
+            }
 
             int backwardCompatibilityNumber = adapter.readInt(input);
-            Versions.check(backwardCompatibilityNumber, v_7_0_0, v_7_0_0);
+            Versions.check(backwardCompatibilityNumber, v_7_0_0, v_7_3_0);
             backwardCompatibilityVersion = Versions.byNumber(backwardCompatibilityNumber);
 
             RemoteCommand<?> command = RemoteCommand.deserialize(adapter, input, backwardCompatibilityVersion);
@@ -79,6 +85,10 @@ public class Request<T> implements ComparableByContent<Request<T>> {
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, Request request, Version backwardCompatibilityVersion) throws IOException {
+            if (backwardCompatibilityVersion.getNumber() >= v_7_3_0.getNumber()) {
+                serializeCompact(adapter, output, request, backwardCompatibilityVersion);
+                return;
+            }
             adapter.writeInt(output, v_7_0_0.getNumber());
             adapter.writeInt(output, backwardCompatibilityVersion.getNumber());
 
@@ -92,6 +102,40 @@ public class Request<T> implements ComparableByContent<Request<T>> {
             }
         }
 
+        private <S> Request deserializeCompact(DeserializationAdapter<S> adapter, S input) throws IOException {
+            Long clientTime = null;
+            if (adapter.readBoolean(input)) {
+                clientTime = adapter.readLong(input);
+                adapter = CompactDeserializationAdapter.wrap(adapter, clientTime);
+            } else {
+                adapter = CompactDeserializationAdapter.wrap(adapter);
+            }
+
+            int backwardCompatibilityNumber = adapter.readInt(input);
+            Versions.check(backwardCompatibilityNumber, v_7_3_0, v_7_3_0);
+            Version backwardCompatibilityVersion = Versions.byNumber(backwardCompatibilityNumber);
+
+            RemoteCommand<?> command = RemoteCommand.deserialize(adapter, input, backwardCompatibilityVersion);
+            return new Request(command, backwardCompatibilityVersion, clientTime);
+        }
+
+        private <O> void serializeCompact(SerializationAdapter<O> adapter, O output, Request request, Version backwardCompatibilityVersion) throws IOException {
+            adapter.writeInt(output, v_7_3_0.getNumber());
+
+            // client-side time is written as is, then it is used as base for all other timestamps
+            if (request.clientSideTime != null) {
+                adapter.writeBoolean(output, true);
+                adapter.writeLong(output, request.clientSideTime);
+                adapter = CompactSerializationAdapter.wrap(adapter, request.clientSideTime);
+            } else {
+                adapter.writeBoolean(output, false);
+                adapter = CompactSerializationAdapter.wrap(adapter);
+            }
+
+            adapter.writeInt(output, backwardCompatibilityVersion.getNumber());
+            RemoteCommand.serialize(adapter, output, request.command, backwardCompatibilityVersion);
+        }
+
         @Override
         public int getTypeId() {
             return 37;
@@ -22,7 +22,6 @@ package io.github.bucket4j.distributed.remote.commands;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketState;
-import io.github.bucket4j.MathType;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
@@ -83,7 +82,7 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
         if (mutableEntry.exists()) {
             state = mutableEntry.get();
         } else {
-            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+            BucketState bucketState = BucketState.createInitialRemoteState(configuration, currentTimeNanos);
             state = new RemoteBucketState(configuration, bucketState, new RemoteStat(0));
         }
 
@@ -93,6 +92,7 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
         return result;
     }
 
+    @Override
     public BucketConfiguration getConfiguration() {
         return configuration;
     }
@@ -22,7 +22,6 @@ package io.github.bucket4j.distributed.remote.commands;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketState;
-import io.github.bucket4j.MathType;
 import io.github.bucket4j.Nothing;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
@@ -80,7 +79,7 @@ public class CreateInitialStateCommand implements RemoteCommand<Nothing>, Compar
             return CommandResult.NOTHING;
         }
 
-        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+        BucketState bucketState = BucketState.createInitialRemoteState(configuration, currentTimeNanos);
         RemoteBucketState remoteBucketState = new RemoteBucketState(configuration, bucketState, new RemoteStat(0L));
         mutableEntry.set(remoteBucketState);
         return CommandResult.NOTHING;
@@ -91,6 +90,7 @@ public class CreateInitialStateCommand implements RemoteCommand<Nothing>, Compar
         return true;
     }
 
+    @Override
     public BucketConfiguration getConfiguration() {
         return configuration;
     }
@@ -86,6 +86,11 @@ public class CreateSnapshotCommand implements RemoteCommand<RemoteBucketState>,
         return true;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return false;
@@ -107,6 +107,11 @@ public class EstimateAbilityToConsumeCommand implements RemoteCommand<Estimation
         return tokensToConsume == other.tokensToConsume;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return false;
@@ -88,6 +88,11 @@ public class GetAvailableTokensCommand implements RemoteCommand<Long>, Comparabl
         return true;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return false;
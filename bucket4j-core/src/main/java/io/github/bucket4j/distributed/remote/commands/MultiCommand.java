@@ -105,6 +105,16 @@ public class MultiCommand implements RemoteCommand<MultiResult>, ComparableByCon
         return false;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        for (RemoteCommand command : commands) {
+            if (!command.isReadOnly()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public List<RemoteCommand<?>> getCommands() {
         return commands;
     }
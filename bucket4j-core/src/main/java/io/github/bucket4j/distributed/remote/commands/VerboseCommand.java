@@ -94,6 +94,11 @@ public class VerboseCommand<T> implements RemoteCommand<RemoteVerboseResult<T>>,
         return ComparableByContent.equals(targetCommand, other.targetCommand);
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return targetCommand.isReadOnly();
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return targetCommand.isImmediateSyncRequired(unsynchronizedTokens, nanosSinceLastSync);
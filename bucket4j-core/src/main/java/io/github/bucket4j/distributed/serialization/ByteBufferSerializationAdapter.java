@@ -0,0 +1,185 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serialization adapter that reads and writes directly from/to {@link ByteBuffer} without intermediate streams.
+ *
+ * <p>
+ * Wire format is exactly the same as produced by {@link DataOutputSerializationAdapter},
+ * so bytes written by one adapter can be read by another.
+ * Buffers must have big-endian byte order, that is default for {@link ByteBuffer}.
+ */
+public class ByteBufferSerializationAdapter implements SerializationAdapter<ByteBuffer>, DeserializationAdapter<ByteBuffer> {
+
+    public static ByteBufferSerializationAdapter INSTANCE = new ByteBufferSerializationAdapter();
+
+    private ByteBufferSerializationAdapter() {}
+
+    @Override
+    public boolean readBoolean(ByteBuffer source) throws IOException {
+        return source.get() != 0;
+    }
+
+    @Override
+    public byte readByte(ByteBuffer source) throws IOException {
+        return source.get();
+    }
+
+    @Override
+    public int readInt(ByteBuffer source) throws IOException {
+        return source.getInt();
+    }
+
+    @Override
+    public long readLong(ByteBuffer source) throws IOException {
+        return source.getLong();
+    }
+
+    @Override
+    public long[] readLongArray(ByteBuffer source) throws IOException {
+        int size = source.getInt();
+        long array[] = new long[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getLong();
+        }
+        return array;
+    }
+
+    @Override
+    public double[] readDoubleArray(ByteBuffer source) throws IOException {
+        int size = source.getInt();
+        double array[] = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getDouble();
+        }
+        return array;
+    }
+
+    @Override
+    public String readString(ByteBuffer source) throws IOException {
+        // modified UTF-8 as specified by java.io.DataInput#readUTF
+        int length = source.getShort() & 0xFFFF;
+        char[] chars = new char[length];
+        int charCount = 0;
+        int end = source.position() + length;
+        while (source.position() < end) {
+            int a = source.get() & 0xFF;
+            if (a < 0x80) {
+                chars[charCount++] = (char) a;
+            } else if ((a & 0xE0) == 0xC0) {
+                int b = readContinuationByte(source, end);
+                chars[charCount++] = (char) (((a & 0x1F) << 6) | (b & 0x3F));
+            } else if ((a & 0xF0) == 0xE0) {
+                int b = readContinuationByte(source, end);
+                int c = readContinuationByte(source, end);
+                chars[charCount++] = (char) (((a & 0x0F) << 12) | ((b & 0x3F) << 6) | (c & 0x3F));
+            } else {
+                throw new UTFDataFormatException("malformed input around byte " + (source.position() - 1));
+            }
+        }
+        return new String(chars, 0, charCount);
+    }
+
+    private static int readContinuationByte(ByteBuffer source, int end) throws UTFDataFormatException {
+        if (source.position() >= end) {
+            throw new UTFDataFormatException("malformed input: partial character at end");
+        }
+        int b = source.get() & 0xFF;
+        if ((b & 0xC0) != 0x80) {
+            throw new UTFDataFormatException("malformed input around byte " + (source.position() - 1));
+        }
+        return b;
+    }
+
+    @Override
+    public void writeBoolean(ByteBuffer target, boolean value) throws IOException {
+        target.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeByte(ByteBuffer target, byte value) throws IOException {
+        target.put(value);
+    }
+
+    @Override
+    public void writeInt(ByteBuffer target, int value) throws IOException {
+        target.putInt(value);
+    }
+
+    @Override
+    public void writeLong(ByteBuffer target, long value) throws IOException {
+        target.putLong(value);
+    }
+
+    @Override
+    public void writeLongArray(ByteBuffer target, long[] value) throws IOException {
+        target.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putLong(value[i]);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(ByteBuffer target, double[] value) throws IOException {
+        target.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putDouble(value[i]);
+        }
+    }
+
+    @Override
+    public void writeString(ByteBuffer target, String value) throws IOException {
+        // modified UTF-8 as specified by java.io.DataOutput#writeUTF
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        if (length > 65535) {
+            throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+        }
+        target.putShort((short) length);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                target.put((byte) c);
+            } else if (c > 0x07FF) {
+                target.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+                target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                target.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+
+/**
+ * Reads values written by {@link CompactSerializationAdapter}.
+ */
+public class CompactDeserializationAdapter<S> implements DeserializationAdapter<S> {
+
+    private final DeserializationAdapter<S> source;
+    private final boolean timeBaseDefined;
+    private final long timeBase;
+
+    private CompactDeserializationAdapter(DeserializationAdapter<S> source, boolean timeBaseDefined, long timeBase) {
+        this.source = source;
+        this.timeBaseDefined = timeBaseDefined;
+        this.timeBase = timeBase;
+    }
+
+    public static <S> DeserializationAdapter<S> wrap(DeserializationAdapter<S> adapter) {
+        if (adapter instanceof CompactDeserializationAdapter) {
+            return adapter;
+        }
+        return new CompactDeserializationAdapter<>(adapter, false, 0L);
+    }
+
+    public static <S> DeserializationAdapter<S> wrap(DeserializationAdapter<S> adapter, long timeBase) {
+        if (adapter instanceof CompactDeserializationAdapter) {
+            adapter = ((CompactDeserializationAdapter<S>) adapter).source;
+        }
+        return new CompactDeserializationAdapter<>(adapter, true, timeBase);
+    }
+
+    @Override
+    public boolean readBoolean(S source) throws IOException {
+        return this.source.readBoolean(source);
+    }
+
+    @Override
+    public byte readByte(S source) throws IOException {
+        return this.source.readByte(source);
+    }
+
+    @Override
+    public int readInt(S source) throws IOException {
+        int zigzag = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int next = this.source.readByte(source) & 0xFF;
+            zigzag |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    @Override
+    public long readLong(S source) throws IOException {
+        int first = this.source.readByte(source) & 0xFF;
+        boolean relative = (first & 0x40) != 0;
+        long zigzag = first & 0x3F;
+        int next = first;
+        for (int shift = 6; (next & 0x80) != 0; shift += 7) {
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+            next = this.source.readByte(source) & 0xFF;
+            zigzag |= (long) (next & 0x7F) << shift;
+        }
+        long value = (zigzag >>> 1) ^ -(zigzag & 1);
+        if (relative) {
+            if (!timeBaseDefined) {
+                throw new IOException("Value is encoded relatively to time base, but time base is not defined");
+            }
+            return timeBase + value;
+        }
+        return value;
+    }
+
+    @Override
+    public long[] readLongArray(S source) throws IOException {
+        int size = readInt(source);
+        long array[] = new long[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = readLong(source);
+        }
+        return array;
+    }
+
+    @Override
+    public double[] readDoubleArray(S source) throws IOException {
+        int size = readInt(source);
+        double array[] = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = Double.longBitsToDouble(this.source.readLong(source));
+        }
+        return array;
+    }
+
+    @Override
+    public String readString(S source) throws IOException {
+        return this.source.readString(source);
+    }
+
+}
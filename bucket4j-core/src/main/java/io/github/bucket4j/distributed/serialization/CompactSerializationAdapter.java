@@ -0,0 +1,132 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+
+/**
+ * Serialization adapter that encodes integers and longs as zig-zag varints on top of another adapter,
+ * it is used for payloads of {@link io.github.bucket4j.distributed.versioning.Versions#v_7_3_0} compact format.
+ *
+ * <p>
+ * Each long is prefixed by one bit that says whether value is written as is or as delta from time base,
+ * so timestamps that are close to time base(for example client-side time of request) take few bytes instead of eight.
+ *
+ * @see CompactDeserializationAdapter
+ */
+public class CompactSerializationAdapter<T> implements SerializationAdapter<T> {
+
+    private final SerializationAdapter<T> target;
+    private final boolean timeBaseDefined;
+    private final long timeBase;
+
+    private CompactSerializationAdapter(SerializationAdapter<T> target, boolean timeBaseDefined, long timeBase) {
+        this.target = target;
+        this.timeBaseDefined = timeBaseDefined;
+        this.timeBase = timeBase;
+    }
+
+    public static <T> SerializationAdapter<T> wrap(SerializationAdapter<T> adapter) {
+        if (adapter instanceof CompactSerializationAdapter) {
+            return adapter;
+        }
+        return new CompactSerializationAdapter<>(adapter, false, 0L);
+    }
+
+    public static <T> SerializationAdapter<T> wrap(SerializationAdapter<T> adapter, long timeBase) {
+        if (adapter instanceof CompactSerializationAdapter) {
+            adapter = ((CompactSerializationAdapter<T>) adapter).target;
+        }
+        return new CompactSerializationAdapter<>(adapter, true, timeBase);
+    }
+
+    @Override
+    public void writeBoolean(T target, boolean value) throws IOException {
+        this.target.writeBoolean(target, value);
+    }
+
+    @Override
+    public void writeByte(T target, byte value) throws IOException {
+        this.target.writeByte(target, value);
+    }
+
+    @Override
+    public void writeInt(T target, int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            this.target.writeByte(target, (byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        this.target.writeByte(target, (byte) zigzag);
+    }
+
+    @Override
+    public void writeLong(T target, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        int relative = 0;
+        if (timeBaseDefined) {
+            long delta = value - timeBase;
+            long deltaZigzag = (delta << 1) ^ (delta >> 63);
+            if (Long.compareUnsigned(deltaZigzag, zigzag) < 0) {
+                zigzag = deltaZigzag;
+                relative = 0x40;
+            }
+        }
+
+        // first byte holds continuation bit, relative flag and six bits of value
+        int first = relative | (int) (zigzag & 0x3F);
+        zigzag >>>= 6;
+        if (zigzag != 0) {
+            first |= 0x80;
+        }
+        this.target.writeByte(target, (byte) first);
+        while (zigzag != 0) {
+            int next = (int) (zigzag & 0x7F);
+            zigzag >>>= 7;
+            if (zigzag != 0) {
+                next |= 0x80;
+            }
+            this.target.writeByte(target, (byte) next);
+        }
+    }
+
+    @Override
+    public void writeLongArray(T target, long[] value) throws IOException {
+        writeInt(target, value.length);
+        for (int i = 0; i < value.length; i++) {
+            writeLong(target, value[i]);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(T target, double[] value) throws IOException {
+        writeInt(target, value.length);
+        for (int i = 0; i < value.length; i++) {
+            // doubles have no short representation, so fixed width is used
+            this.target.writeLong(target, Double.doubleToRawLongBits(value[i]));
+        }
+    }
+
+    @Override
+    public void writeString(T target, String value) throws IOException {
+        this.target.writeString(target, value);
+    }
+
+}
@@ -19,88 +19,92 @@
  */
 package io.github.bucket4j.distributed.serialization;
 
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.ConfigurationTable;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.versioning.BackwardCompatibilityException;
 import io.github.bucket4j.distributed.versioning.Version;
 
-import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class InternalSerializationHelper {
 
-    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+    private static final int INITIAL_SCRATCH_SIZE = 256;
+    private static final int MAX_RETAINED_SCRATCH_SIZE = 64 * 1024;
 
-            RemoteBucketState.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state, backwardCompatibilityVersion);
+    // Objects are serialized into reusable per-thread buffer, then the only copy of exact size is made
+    private static final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_SCRATCH_SIZE));
 
-            output.close();
-            byteStream.close();
+    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion) {
+        return serialize(RemoteBucketState.SERIALIZATION_HANDLE, state, backwardCompatibilityVersion);
+    }
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion, ConfigurationTable configurationTable) {
+        return serialize(RemoteBucketState.serializationHandle(configurationTable, null), state, backwardCompatibilityVersion);
     }
 
     public static RemoteBucketState deserializeState(byte[] bytes) {
-        try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return RemoteBucketState.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam, null);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+        return deserialize(RemoteBucketState.SERIALIZATION_HANDLE, bytes, null);
     }
 
-    public static byte[] serializeRequest(Request<?> request) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+    public static RemoteBucketState deserializeState(byte[] bytes, ConfigurationTable configurationTable, BucketConfiguration fallbackConfiguration) {
+        return deserialize(RemoteBucketState.serializationHandle(configurationTable, fallbackConfiguration), bytes, null);
+    }
 
-            Request.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, request, request.getBackwardCompatibilityVersion());
-            
-            output.close();
-            byteStream.close();
+    public static byte[] serializeConfiguration(BucketConfiguration configuration, Version backwardCompatibilityVersion) {
+        return serialize(BucketConfiguration.SERIALIZATION_HANDLE, configuration, backwardCompatibilityVersion);
+    }
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+    public static BucketConfiguration deserializeConfiguration(byte[] bytes) {
+        return deserialize(BucketConfiguration.SERIALIZATION_HANDLE, bytes, null);
+    }
+
+    public static byte[] serializeRequest(Request<?> request) {
+        return serialize(Request.SERIALIZATION_HANDLE, request, request.getBackwardCompatibilityVersion());
     }
 
     public static <T> Request<T> deserializeRequest(byte[] bytes) {
-        try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return (Request<T>) Request.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam, null);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+        return (Request<T>) deserialize(Request.SERIALIZATION_HANDLE, bytes, null);
     }
 
     public static byte[] serializeResult(CommandResult<?> result, Version backwardCompatibilityVersion) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
-
-            CommandResult.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, result, backwardCompatibilityVersion);
+        return serialize(CommandResult.SERIALIZATION_HANDLE, result, backwardCompatibilityVersion);
+    }
 
-            output.close();
-            byteStream.close();
+    public static <T> CommandResult<T> deserializeResult(byte[] bytes, Version backwardCompatibilityVersion) {
+        return (CommandResult<T>) deserialize(CommandResult.SERIALIZATION_HANDLE, bytes, backwardCompatibilityVersion);
+    }
 
-            return byteStream.toByteArray();
+    private static <T> byte[] serialize(SerializationHandle<T> handle, T object, Version backwardCompatibilityVersion) {
+        ByteBuffer buffer = scratch.get();
+        try {
+            while (true) {
+                buffer.clear();
+                try {
+                    handle.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, object, backwardCompatibilityVersion);
+                    return Arrays.copyOf(buffer.array(), buffer.position());
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    if (buffer.capacity() <= MAX_RETAINED_SCRATCH_SIZE) {
+                        scratch.set(buffer);
+                    }
+                }
+            }
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
-    public static <T> CommandResult<T> deserializeResult(byte[] bytes, Version backwardCompatibilityVersion) {
+    private static <T> T deserialize(SerializationHandle<T> handle, byte[] bytes, Version backwardCompatibilityVersion) {
         try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return (CommandResult<T>) CommandResult.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam, backwardCompatibilityVersion);
-            }
+            return handle.deserialize(ByteBufferSerializationAdapter.INSTANCE, ByteBuffer.wrap(bytes), backwardCompatibilityVersion);
+        } catch (BackwardCompatibilityException e) {
+            // is converted to error result by the caller
+            throw e;
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
@@ -36,6 +36,7 @@ public interface SerializationHandle<T> {
             BucketStateIEEE754.SERIALIZATION_HANDLE, // 4
             RemoteBucketState.SERIALIZATION_HANDLE, // 5
             RemoteStat.SERIALIZATION_HANDLE, // 6
+            BucketStateCompact64BitsInteger.SERIALIZATION_HANDLE, // 7
 
             CommandResult.SERIALIZATION_HANDLE, // 10
             ConsumptionProbe.SERIALIZATION_HANDLE, // 11
@@ -21,7 +21,25 @@ package io.github.bucket4j.distributed.versioning;
 
 public enum Versions implements Version {
 
-    v_7_0_0(1);
+    v_7_0_0(1),
+
+    /**
+     * Introduces {@link io.github.bucket4j.BucketStateCompact64BitsInteger}
+     */
+    v_7_1_0(2),
+
+    /**
+     * Introduces storing of {@link io.github.bucket4j.distributed.remote.RemoteBucketState} with configuration by reference,
+     * see {@link io.github.bucket4j.distributed.remote.ConfigurationTable}
+     */
+    v_7_2_0(3),
+
+    /**
+     * Introduces compact encoding of {@link io.github.bucket4j.distributed.remote.Request}, {@link io.github.bucket4j.distributed.remote.CommandResult}
+     * and {@link io.github.bucket4j.distributed.remote.RemoteBucketState},
+     * see {@link io.github.bucket4j.distributed.serialization.CompactSerializationAdapter}
+     */
+    v_7_3_0(4);
 
     private final int number;
 
@@ -56,7 +74,7 @@ public enum Versions implements Version {
     }
 
     public static Version getLatest() {
-        return v_7_0_0;
+        return v_7_3_0;
     }
 
     public static Version getOldest() {
@@ -0,0 +1,619 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Lock-free bucket which updates its state in place instead of allocating the new copy of state on each invocation.
+ *
+ * <p>
+ * The state is protected by version({@link StampedLock} in optimistic mode):
+ * <ol>
+ *     <li>state is copied to the scratch object which is reused by the current thread, the copy is validated against the version;</li>
+ *     <li>all calculations are performed on the scratch object without any locking;</li>
+ *     <li>the result is published via version CAS, losers of CAS just repeat the whole sequence from first step.</li>
+ * </ol>
+ * The only exclusive section is the publication of state which is just a copying of few longs,
+ * so in the steady state each invocation neither allocates memory nor blocks on a lock.
+ *
+ * @see SynchronizationStrategy#LOCK_FREE_IN_PLACE
+ */
+public class InPlaceLockFreeBucket extends AbstractBucket implements LocalBucket {
+
+    private static final ThreadLocal<BucketState[][]> SCRATCH_STATES = ThreadLocal.withInitial(() -> new BucketState[MathType.values().length][]);
+
+    private final SharedState shared;
+    private final TimeMeter timeMeter;
+
+    public InPlaceLockFreeBucket(BucketConfiguration configuration, MathType mathType, TimeMeter timeMeter) {
+        this(BucketListener.NOPE, new SharedState(configuration, BucketState.createInitialState(configuration, mathType, timeMeter.currentTimeNanos())), timeMeter);
+    }
+
+    private InPlaceLockFreeBucket(BucketListener listener, SharedState shared, TimeMeter timeMeter) {
+        super(listener);
+        this.shared = shared;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public Bucket toListenable(BucketListener listener) {
+        return new InPlaceLockFreeBucket(listener, shared, timeMeter);
+    }
+
+    @Override
+    protected long consumeAsMuchAsPossibleImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            long toConsume = Math.min(limit, availableToConsume);
+            if (toConsume == 0) {
+                return 0;
+            }
+            state.consume(bandwidths, toConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return toConsume;
+            }
+        }
+    }
+
+    @Override
+    protected boolean tryConsumeImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            if (tokensToConsume > availableToConsume) {
+                return false;
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToConsume, currentTimeNanos);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(bandwidths, currentTimeNanos);
+                return ConsumptionProbe.rejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                long remainingTokens = availableToConsume - tokensToConsume;
+                long nanosToWaitForReset = state.calculateFullRefillingTime(bandwidths, currentTimeNanos);
+                return ConsumptionProbe.consumed(remainingTokens, nanosToWaitForReset);
+            }
+        }
+    }
+
+    @Override
+    protected EstimationProbe estimateAbilityToConsumeImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToEstimate, currentTimeNanos);
+                return EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                return EstimationProbe.canBeConsumed(availableToConsume);
+            }
+        }
+    }
+
+    @Override
+    protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToConsume, currentTimeNanos);
+            if (nanosToCloseDeficit == Long.MAX_VALUE || nanosToCloseDeficit > waitIfBusyNanosLimit) {
+                return Long.MAX_VALUE;
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return nanosToCloseDeficit;
+            }
+        }
+    }
+
+    @Override
+    protected void addTokensImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            state.addTokens(bandwidths, tokensToAdd);
+            if (shared.tryPublish(stamp, current, state)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void forceAddTokensImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            state.forceAddTokens(bandwidths, tokensToAdd);
+            if (shared.tryPublish(stamp, current, state)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void replaceConfigurationImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration previousConfiguration = current.configuration;
+
+            state.refillAllBandwidth(previousConfiguration.getBandwidths(), currentTimeNanos);
+            BucketState newState = replaceConfiguration(state, previousConfiguration, newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+            if (shared.tryReplace(stamp, new StateWithConfiguration(newConfiguration, newState))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected long consumeIgnoringRateLimitsImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToConsume, currentTimeNanos);
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return nanosToCloseDeficit;
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return nanosToCloseDeficit;
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeAsMuchAsPossibleVerboseImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            long toConsume = Math.min(limit, availableToConsume);
+            if (toConsume == 0) {
+                return new VerboseResult<>(currentTimeNanos, 0L, configuration, state.copy());
+            }
+            state.consume(bandwidths, toConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return new VerboseResult<>(currentTimeNanos, toConsume, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Boolean> tryConsumeVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            if (tokensToConsume > availableToConsume) {
+                return new VerboseResult<>(currentTimeNanos, false, configuration, state.copy());
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return new VerboseResult<>(currentTimeNanos, true, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<ConsumptionProbe> tryConsumeAndReturnRemainingTokensVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToConsume, currentTimeNanos);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(bandwidths, currentTimeNanos);
+                ConsumptionProbe consumptionProbe = ConsumptionProbe.rejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return new VerboseResult<>(currentTimeNanos, consumptionProbe, configuration, state.copy());
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                long nanosToWaitForReset = state.calculateFullRefillingTime(bandwidths, currentTimeNanos);
+                ConsumptionProbe consumptionProbe = ConsumptionProbe.consumed(availableToConsume - tokensToConsume, nanosToWaitForReset);
+                return new VerboseResult<>(currentTimeNanos, consumptionProbe, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<EstimationProbe> estimateAbilityToConsumeVerboseImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens(bandwidths);
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToEstimate, currentTimeNanos);
+                EstimationProbe estimationProbe = EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+                return new VerboseResult<>(currentTimeNanos, estimationProbe, configuration, state.copy());
+            } else {
+                EstimationProbe estimationProbe = EstimationProbe.canBeConsumed(availableToConsume);
+                return new VerboseResult<>(currentTimeNanos, estimationProbe, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> getAvailableTokensVerboseImpl() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            return new VerboseResult<>(currentTimeNanos, state.getAvailableTokens(bandwidths), configuration, state.copy());
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> addTokensVerboseImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            state.addTokens(bandwidths, tokensToAdd);
+            if (shared.tryPublish(stamp, current, state)) {
+                return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> forceAddTokensVerboseImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            state.forceAddTokens(bandwidths, tokensToAdd);
+            if (shared.tryPublish(stamp, current, state)) {
+                return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> replaceConfigurationVerboseImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration previousConfiguration = current.configuration;
+
+            state.refillAllBandwidth(previousConfiguration.getBandwidths(), currentTimeNanos);
+            BucketState newState = replaceConfiguration(state, previousConfiguration, newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+            if (shared.tryReplace(stamp, new StateWithConfiguration(newConfiguration, newState))) {
+                return new VerboseResult<>(currentTimeNanos, null, newConfiguration, newState.copy());
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeIgnoringRateLimitsVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            BucketConfiguration configuration = current.configuration;
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokensToConsume, currentTimeNanos);
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, configuration, state.copy());
+            }
+            state.consume(bandwidths, tokensToConsume);
+            if (shared.tryPublish(stamp, current, state)) {
+                return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, configuration, state.copy());
+            }
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            long stamp = shared.startOptimisticRead();
+            StateWithConfiguration current = shared.current;
+            BucketState state = readState(current);
+            if (!shared.lock.validate(stamp)) {
+                continue;
+            }
+            Bandwidth[] bandwidths = current.configuration.getBandwidths();
+
+            state.refillAllBandwidth(bandwidths, currentTimeNanos);
+            return state.getAvailableTokens(bandwidths);
+        }
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return shared.current.configuration;
+    }
+
+    @Override
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    /**
+     * Copies the state to the scratch object which belongs to current thread.
+     * The result of copying can be torn, so caller must validate the stamp before using of returned state.
+     */
+    private static BucketState readState(StateWithConfiguration current) {
+        BucketState scratch = getScratchState(current);
+        scratch.copyStateFrom(current.state);
+        return scratch;
+    }
+
+    private static BucketState getScratchState(StateWithConfiguration current) {
+        BucketState[][] scratchStatesByMathType = SCRATCH_STATES.get();
+        MathType mathType = current.state.getMathType();
+        int bandwidthCount = current.configuration.getBandwidths().length;
+
+        BucketState[] scratchStates = scratchStatesByMathType[mathType.ordinal()];
+        if (scratchStates == null || scratchStates.length <= bandwidthCount) {
+            BucketState[] newScratchStates = new BucketState[bandwidthCount + 1];
+            if (scratchStates != null) {
+                System.arraycopy(scratchStates, 0, newScratchStates, 0, scratchStates.length);
+            }
+            scratchStates = newScratchStates;
+            scratchStatesByMathType[mathType.ordinal()] = scratchStates;
+        }
+
+        BucketState scratch = scratchStates[bandwidthCount];
+        if (scratch == null || scratch.getClass() != current.state.getClass()) {
+            // the same math type and count of bandwidths can be served by different implementations of state
+            scratch = current.state.copy();
+            scratchStates[bandwidthCount] = scratch;
+        }
+        return scratch;
+    }
+
+    private static BucketState replaceConfiguration(BucketState scratch, BucketConfiguration previousConfiguration, BucketConfiguration newConfiguration,
+                                                    TokensInheritanceStrategy tokensInheritanceStrategy, long currentTimeNanos) {
+        BucketState newState = scratch.replaceConfiguration(previousConfiguration, newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+        // scratch object is reused by current thread, so it must never be published
+        return newState == scratch ? scratch.copy() : newState;
+    }
+
+    private static final class StateWithConfiguration {
+
+        final BucketConfiguration configuration;
+        final BucketState state;
+
+        StateWithConfiguration(BucketConfiguration configuration, BucketState state) {
+            this.configuration = configuration;
+            this.state = state;
+        }
+
+    }
+
+    private static final class SharedState {
+
+        final StampedLock lock = new StampedLock();
+        StateWithConfiguration current;
+
+        SharedState(BucketConfiguration configuration, BucketState initialState) {
+            this.current = new StateWithConfiguration(configuration, initialState);
+        }
+
+        long startOptimisticRead() {
+            long stamp = lock.tryOptimisticRead();
+            while (stamp == 0L) {
+                // another thread publishes the state right now, it takes just a few nanoseconds
+                stamp = lock.tryOptimisticRead();
+            }
+            return stamp;
+        }
+
+        boolean tryPublish(long stamp, StateWithConfiguration expected, BucketState newState) {
+            long writeStamp = lock.tryConvertToWriteLock(stamp);
+            if (writeStamp == 0L) {
+                return false;
+            }
+            try {
+                expected.state.copyStateFrom(newState);
+                return true;
+            } finally {
+                lock.unlockWrite(writeStamp);
+            }
+        }
+
+        boolean tryReplace(long stamp, StateWithConfiguration newStateWithConfiguration) {
+            long writeStamp = lock.tryConvertToWriteLock(stamp);
+            if (writeStamp == 0L) {
+                return false;
+            }
+            try {
+                current = newStateWithConfiguration;
+                return true;
+            } finally {
+                lock.unlockWrite(writeStamp);
+            }
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        StateWithConfiguration current = shared.current;
+        return "InPlaceLockFreeBucket{" +
+                "state=" + current.state +
+                ", configuration=" + current.configuration +
+                '}';
+    }
+
+}
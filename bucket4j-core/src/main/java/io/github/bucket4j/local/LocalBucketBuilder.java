@@ -123,6 +123,8 @@ public class LocalBucketBuilder {
         BucketConfiguration configuration = buildConfiguration();
         switch (synchronizationStrategy) {
             case LOCK_FREE: return new LockFreeBucket(configuration, mathType, timeMeter);
+            case LOCK_FREE_IN_PLACE: return new InPlaceLockFreeBucket(configuration, mathType, timeMeter);
+            case STRIPED: return new StripedBucket(configuration, mathType, timeMeter);
             case SYNCHRONIZED: return new SynchronizedBucket(configuration, mathType, timeMeter);
             case NONE: return new SynchronizedBucket(configuration, mathType, timeMeter, FakeLock.INSTANCE);
             default: throw new IllegalStateException();
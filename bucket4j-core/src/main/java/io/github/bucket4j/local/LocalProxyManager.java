@@ -0,0 +1,295 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ProxyManager} which holds buckets in the local JVM heap, it is intended to replace hand-written maps of buckets
+ * for per-user or per-IP limits.
+ *
+ * <p>
+ * Memory consumption is bounded by {@code maxSize}, buckets are split across segments by hash of key,
+ * each segment evicts least recently used bucket when its share of {@code maxSize} is exceeded.
+ * Additionally, buckets which are fully refilled are evicted in the background of insertions and by {@link #evictRefilledBuckets()}.
+ * Eviction of fully refilled bucket is lossless in case of bucket is built with the same configuration again,
+ * because bucket that absent in the storage is reconstructed with initial tokens of each bandwidth.
+ * So buckets whose configuration has a bandwidth with initial tokens less than capacity, or with adaptive initial tokens,
+ * are never evicted as refilled, they are evicted only when {@code maxSize} is exceeded.
+ *
+ * <p>
+ * Only one copy of configuration is stored per each bucket, so buckets built from the same {@link io.github.bucket4j.BucketConfiguration} instance share it.
+ *
+ * @param <K> type of primary key
+ */
+public class LocalProxyManager<K> extends AbstractProxyManager<K> {
+
+    private static final int MAX_SEGMENT_COUNT = 64;
+    private static final int REFILLED_CANDIDATES_TO_CHECK_PER_INSERT = 2;
+
+    private final Segment<K>[] segments;
+    private final TimeMeter timeMeter;
+    private final LongAdder capacityEvictions = new LongAdder();
+    private final LongAdder refilledEvictions = new LongAdder();
+
+    /**
+     * Creates the proxy manager which measures time by {@link TimeMeter#SYSTEM_MILLISECONDS}.
+     *
+     * @param maxSize the maximum count of buckets to store
+     */
+    public LocalProxyManager(long maxSize) {
+        this(maxSize, ClientSideConfig.getDefault());
+    }
+
+    /**
+     * @param maxSize the maximum count of buckets to store
+     * @param clientSideConfig the configuration of proxy manager, if client clock is not specified then {@link TimeMeter#SYSTEM_MILLISECONDS} is used
+     */
+    public LocalProxyManager(long maxSize, ClientSideConfig clientSideConfig) {
+        super(injectTimeClock(clientSideConfig));
+        if (maxSize <= 0) {
+            throw BucketExceptions.nonPositiveMaxSize(maxSize);
+        }
+        this.timeMeter = getClientSideConfig().getClientSideClock().get();
+
+        int segmentCount = 1;
+        while (segmentCount * 2 <= MAX_SEGMENT_COUNT && segmentCount * 2 <= maxSize) {
+            segmentCount *= 2;
+        }
+        @SuppressWarnings("unchecked")
+        Segment<K>[] segments = (Segment<K>[]) new Segment<?>[segmentCount];
+        this.segments = segments;
+        for (int i = 0; i < segmentCount; i++) {
+            long segmentMaxSize = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentMaxSize, capacityEvictions);
+        }
+    }
+
+    @Override
+    protected <T> CommandResult<T> execute(K key, Request<T> request) {
+        Segment<K> segment = segmentFor(key);
+        long currentTimeNanos = request.getClientSideTime();
+        synchronized (segment) {
+            RemoteBucketState persistedState = segment.get(key);
+            SegmentEntry entry = new SegmentEntry(persistedState);
+            CommandResult<T> result = request.getCommand().execute(entry, currentTimeNanos);
+            if (entry.modified) {
+                if (persistedState == null) {
+                    evictRefilled(segment, currentTimeNanos);
+                }
+                segment.put(key, entry.modifiedState);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    protected <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        return CompletableFuture.completedFuture(execute(key, request));
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        Segment<K> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        removeProxy(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    /**
+     * Removes all buckets which are fully refilled at the current moment.
+     * Periodical invocation of this method is useful when the set of keys is rarely extended,
+     * because otherwise refilled buckets are evicted in the background of insertions.
+     *
+     * @return count of evicted buckets
+     */
+    public long evictRefilledBuckets() {
+        long evicted = 0;
+        for (Segment<K> segment : segments) {
+            synchronized (segment) {
+                evicted += evictRefilled(segment, Integer.MAX_VALUE, timeMeter.currentTimeNanos());
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the count of buckets which are stored at the moment.
+     *
+     * @return the count of stored buckets
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<K> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the count of buckets which were evicted because of {@code maxSize} limit has been exceeded.
+     * Unlike eviction of refilled buckets, this kind of eviction is not lossless.
+     *
+     * @return the count of buckets evicted because of size limit
+     */
+    public long getCapacityEvictionCount() {
+        return capacityEvictions.sum();
+    }
+
+    /**
+     * Returns the count of buckets which were evicted because they were fully refilled.
+     *
+     * @return the count of buckets evicted because they were fully refilled
+     */
+    public long getRefilledEvictionCount() {
+        return refilledEvictions.sum();
+    }
+
+    private void evictRefilled(Segment<K> segment, long currentTimeNanos) {
+        evictRefilled(segment, REFILLED_CANDIDATES_TO_CHECK_PER_INSERT, currentTimeNanos);
+    }
+
+    private long evictRefilled(Segment<K> segment, int candidatesToCheck, long currentTimeNanos) {
+        long evicted = 0;
+        Iterator<RemoteBucketState> iterator = segment.values().iterator();
+        for (int i = 0; i < candidatesToCheck && iterator.hasNext(); i++) {
+            RemoteBucketState state = iterator.next();
+            if (!isReconstructedAsRefilled(state.getConfiguration())) {
+                continue;
+            }
+            state.refillAllBandwidth(currentTimeNanos);
+            if (state.calculateFullRefillingTime(currentTimeNanos) == 0L) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        refilledEvictions.add(evicted);
+        return evicted;
+    }
+
+    private static boolean isReconstructedAsRefilled(BucketConfiguration configuration) {
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (bandwidth.isUseAdaptiveInitialTokens() || bandwidth.getInitialTokens() != bandwidth.getCapacity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Segment<K> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
+        if (clientSideConfig.getClientSideClock().isPresent()) {
+            return clientSideConfig;
+        }
+        return clientSideConfig.withClientClock(TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
+    private static final class Segment<K> extends LinkedHashMap<K, RemoteBucketState> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long maxSize;
+        private final LongAdder capacityEvictions;
+
+        private Segment(long maxSize, LongAdder capacityEvictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.capacityEvictions = capacityEvictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, RemoteBucketState> eldest) {
+            if (size() > maxSize) {
+                capacityEvictions.increment();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+    private static final class SegmentEntry implements MutableBucketEntry {
+
+        private final RemoteBucketState persistedState;
+        private RemoteBucketState modifiedState;
+        private boolean modified;
+
+        private SegmentEntry(RemoteBucketState persistedState) {
+            this.persistedState = persistedState;
+        }
+
+        @Override
+        public boolean exists() {
+            return persistedState != null;
+        }
+
+        @Override
+        public void set(RemoteBucketState state) {
+            this.modifiedState = state;
+            this.modified = true;
+        }
+
+        @Override
+        public RemoteBucketState get() {
+            if (modifiedState == null) {
+                // commands mutate the state in place, so copy is required to protect the stored state from being referenced by results
+                modifiedState = persistedState.copy();
+            }
+            return modifiedState;
+        }
+
+    }
+
+}
@@ -0,0 +1,606 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketState64BitsInteger;
+import io.github.bucket4j.BucketStateCompact64BitsInteger;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.remote.Request;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link ProxyManager} which holds millions of buckets with the same configuration outside of java heap,
+ * it is intended for per-client limits where storing of bucket object per key is prohibitive.
+ *
+ * <p>
+ * Buckets are stored in open-addressing tables with linear probing which are allocated in direct memory.
+ * Each slot has fixed size: the key, the count of consumed tokens and the {@link BucketState64BitsInteger} layout,
+ * which is three longs per bandwidth, so single bandwidth bucket occupies 40 bytes of direct memory
+ * and 8 bytes of heap which are used for slot version.
+ * When configuration is applicable for {@link BucketStateCompact64BitsInteger} then its layout is used, and slot occupies 32 bytes.
+ *
+ * <p>
+ * Concurrency: each slot is protected by its own version, which is acquired by CAS for the time of command execution,
+ * so commands for different keys never block each other. Insertion and removal of keys are serialized by the lock of table segment.
+ *
+ * <p>
+ * Limitations:
+ * <ul>
+ *     <li>All buckets share the configuration which is specified at construction time, attempt to build or replace bucket with another configuration fails.</li>
+ *     <li>Only {@link io.github.bucket4j.MathType#INTEGER_64_BITS} is supported.</li>
+ *     <li>The count of buckets is limited by {@code maxKeys}. When storage is full then fully refilled buckets are evicted,
+ *     and {@link IllegalStateException} is thrown if there is no refilled buckets.
+ *     Eviction of fully refilled bucket is lossless only when each bandwidth of configuration has initial tokens equal to capacity,
+ *     because bucket that absent in the storage is reconstructed with initial tokens,
+ *     so buckets are never evicted as refilled when configuration has partial or adaptive initial tokens.</li>
+ *     <li>Keys are distributed between segments by hash, and single segment can not hold more than {@link #getSegmentCapacity()} buckets.
+ *     Segments are sized with headroom for deviation of hash distribution, so {@code maxKeys} is reachable for any ordinary set of keys,
+ *     but set of keys which is crafted to collide into the same segment makes storage full before {@code maxKeys} is reached.</li>
+ * </ul>
+ */
+public class OffHeapProxyManager extends AbstractProxyManager<Long> {
+
+    private static final long LOCKED = 1L;
+    private static final long OCCUPIED = 2L;
+    private static final long VERSION_INCREMENT = 4L;
+
+    private static final int KEY_OFFSET = 0;
+    private static final int CONSUMED_TOKENS_OFFSET = 8;
+    private static final int STATE_OFFSET = 16;
+
+    private static final long MAX_SEGMENT_BYTES = 1 << 28;
+    private static final int MIN_SEGMENT_COUNT = 16;
+    private static final int MIN_SLOTS_PER_SEGMENT = 16;
+
+    private final BucketConfiguration configuration;
+    private final boolean compact;
+    private final int stateLength;
+    private final int slotSize;
+    private final long maxKeys;
+    private final boolean evictableAsRefilled;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final TimeMeter timeMeter;
+    private final AtomicLong size = new AtomicLong();
+    private final LongAdder refilledEvictions = new LongAdder();
+
+    /**
+     * Creates the proxy manager which measures time by {@link TimeMeter#SYSTEM_MILLISECONDS}.
+     *
+     * @param configuration the configuration which is shared by all buckets
+     * @param maxKeys the maximum count of buckets to store
+     */
+    public OffHeapProxyManager(BucketConfiguration configuration, long maxKeys) {
+        this(configuration, maxKeys, ClientSideConfig.getDefault());
+    }
+
+    /**
+     * @param configuration the configuration which is shared by all buckets
+     * @param maxKeys the maximum count of buckets to store
+     * @param clientSideConfig the configuration of proxy manager, if client clock is not specified then {@link TimeMeter#SYSTEM_MILLISECONDS} is used
+     */
+    public OffHeapProxyManager(BucketConfiguration configuration, long maxKeys, ClientSideConfig clientSideConfig) {
+        super(injectTimeClock(clientSideConfig));
+        if (configuration == null) {
+            throw BucketExceptions.nullConfiguration();
+        }
+        if (maxKeys <= 0) {
+            throw BucketExceptions.nonPositiveMaxSize(maxKeys);
+        }
+        this.configuration = configuration;
+        this.compact = BucketStateCompact64BitsInteger.isApplicable(configuration);
+        this.stateLength = compact ? 2 : configuration.getBandwidths().length * 3;
+        this.slotSize = STATE_OFFSET + stateLength * 8;
+        this.maxKeys = maxKeys;
+        this.evictableAsRefilled = isReconstructedAsRefilled(configuration);
+        this.timeMeter = getClientSideConfig().getClientSideClock().get();
+
+        // load factor is kept at 0.75 in order to keep probe sequences short
+        long totalSlots = maxKeys + (maxKeys + 2) / 3;
+        int segmentCount = MIN_SEGMENT_COUNT;
+        while ((long) segmentCount * MAX_SEGMENT_BYTES < totalSlots * slotSize) {
+            segmentCount *= 2;
+        }
+        // count of keys per segment follows the binomial distribution, six standard deviations of headroom
+        // make overflow of single segment practically impossible before maxKeys is reached
+        long expectedKeysPerSegment = (maxKeys + segmentCount - 1) / segmentCount;
+        long keysPerSegment = expectedKeysPerSegment + 6 * (long) Math.ceil(Math.sqrt(expectedKeysPerSegment)) + 1;
+        int slotsPerSegment = MIN_SLOTS_PER_SEGMENT;
+        while ((long) slotsPerSegment * segmentCount < totalSlots || Segment.capacity(slotsPerSegment) < keysPerSegment) {
+            slotsPerSegment *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(slotsPerSegment, slotSize, size);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    @Override
+    protected <T> CommandResult<T> execute(Long key, Request<T> request) {
+        long hash = hash(key);
+        Segment segment = segments[(int) (hash >>> segmentShift)];
+        long currentTimeNanos = request.getClientSideTime();
+
+        int index = segment.lockExisting(key, hash);
+        if (index >= 0) {
+            return executeLocked(segment, index, key, request, currentTimeNanos);
+        }
+
+        // key was not found by lock-free lookup, it needs to be inserted or confirmed to be absent
+        segment.structureLock.lock();
+        try {
+            index = lockForInsertion(segment, key, hash);
+            if (index < 0) {
+                // storage is full and key is absent
+                if (!request.getCommand().isInitializationCommand()) {
+                    return CommandResult.bucketNotFound();
+                }
+                if (evictRefilled(segment, currentTimeNanos) > 0) {
+                    index = lockForInsertion(segment, key, hash);
+                }
+                if (index < 0) {
+                    if (size.get() < maxKeys) {
+                        throw BucketExceptions.offHeapSegmentIsFull(segment.maxKeys);
+                    }
+                    throw BucketExceptions.offHeapStorageIsFull(maxKeys);
+                }
+            }
+            return executeLocked(segment, index, key, request, currentTimeNanos);
+        } finally {
+            segment.structureLock.unlock();
+        }
+    }
+
+    @Override
+    protected <T> CompletableFuture<CommandResult<T>> executeAsync(Long key, Request<T> request) {
+        return CompletableFuture.completedFuture(execute(key, request));
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        long hash = hash(key);
+        Segment segment = segments[(int) (hash >>> segmentShift)];
+        segment.structureLock.lock();
+        try {
+            int index = segment.lockExisting(key, hash);
+            if (index >= 0) {
+                segment.removeLocked(index);
+            }
+        } finally {
+            segment.structureLock.unlock();
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        removeProxy(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    /**
+     * Removes all buckets which are fully refilled at the current moment.
+     *
+     * @return count of evicted buckets
+     */
+    public long evictRefilledBuckets() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long evicted = 0;
+        for (Segment segment : segments) {
+            segment.structureLock.lock();
+            try {
+                evicted += evictRefilled(segment, currentTimeNanos);
+            } finally {
+                segment.structureLock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the count of buckets which are stored at the moment.
+     *
+     * @return the count of stored buckets
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the count of buckets which were evicted because they were fully refilled.
+     *
+     * @return the count of buckets evicted because they were fully refilled
+     */
+    public long getRefilledEvictionCount() {
+        return refilledEvictions.sum();
+    }
+
+    /**
+     * Returns the amount of direct memory which is allocated for slots.
+     *
+     * @return the amount of allocated direct memory in bytes
+     */
+    public long getOffHeapMemoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.slots.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the maximum count of buckets which can be stored in single segment.
+     *
+     * @return the maximum count of buckets per segment
+     */
+    public int getSegmentCapacity() {
+        return segments[0].maxKeys;
+    }
+
+    /**
+     * Returns the size of slot which stores single bucket in direct memory.
+     *
+     * @return the size of slot in bytes
+     */
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    private int lockForInsertion(Segment segment, long key, long hash) {
+        int index = segment.lockExistingOrFree(key, hash);
+        if (index < 0 || segment.isOccupied(index)) {
+            return index;
+        }
+        while (true) {
+            long currentSize = size.get();
+            if (currentSize >= maxKeys) {
+                segment.unlock(index, false);
+                return -1;
+            }
+            if (size.compareAndSet(currentSize, currentSize + 1)) {
+                // reservation is returned back by executeLocked if command does not insert the bucket
+                return index;
+            }
+        }
+    }
+
+    private <T> CommandResult<T> executeLocked(Segment segment, int index, long key, Request<T> request, long currentTimeNanos) {
+        boolean existed = segment.isOccupied(index);
+        boolean occupied = existed;
+        try {
+            SlotEntry entry = new SlotEntry(segment, index, existed);
+            CommandResult<T> result = request.getCommand().execute(entry, currentTimeNanos);
+            if (entry.modified) {
+                writeSlot(segment, index, key, entry.state);
+                occupied = true;
+            }
+            return result;
+        } finally {
+            segment.unlock(index, occupied);
+            if (!existed) {
+                // insertion is possible only under structure lock
+                if (occupied) {
+                    segment.size++;
+                } else {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private long evictRefilled(Segment segment, long currentTimeNanos) {
+        if (!evictableAsRefilled) {
+            return 0;
+        }
+        long evicted = 0;
+        int index = 0;
+        while (index < segment.versions.length()) {
+            segment.lock(index);
+            if (!segment.isOccupied(index)) {
+                segment.unlock(index, false);
+                index++;
+                continue;
+            }
+            RemoteBucketState state = readSlot(segment, index);
+            state.refillAllBandwidth(currentTimeNanos);
+            if (state.calculateFullRefillingTime(currentTimeNanos) == 0L) {
+                // another entry can be shifted to the freed slot, so index is not incremented
+                segment.removeLocked(index);
+                evicted++;
+            } else {
+                segment.unlock(index, true);
+                index++;
+            }
+        }
+        refilledEvictions.add(evicted);
+        return evicted;
+    }
+
+    private RemoteBucketState readSlot(Segment segment, int index) {
+        int offset = index * slotSize;
+        long[] stateData = new long[stateLength];
+        for (int i = 0; i < stateLength; i++) {
+            stateData[i] = segment.slots.getLong(offset + STATE_OFFSET + i * 8);
+        }
+        RemoteStat stat = new RemoteStat(segment.slots.getLong(offset + CONSUMED_TOKENS_OFFSET));
+        BucketState bucketState = compact ? new BucketStateCompact64BitsInteger(stateData[0], stateData[1]) : new BucketState64BitsInteger(stateData);
+        return new RemoteBucketState(configuration, bucketState, stat);
+    }
+
+    private void writeSlot(Segment segment, int index, long key, RemoteBucketState state) {
+        BucketConfiguration stateConfiguration = state.getConfiguration();
+        if (stateConfiguration != configuration && !configuration.equalsByContent(stateConfiguration)) {
+            throw BucketExceptions.configurationIsNotSupportedByStorage();
+        }
+        BucketState bucketState = state.getState();
+        if (bucketState.getMathType() != MathType.INTEGER_64_BITS) {
+            throw BucketExceptions.mathTypeIsNotSupportedByStorage(bucketState.getMathType());
+        }
+        long[] stateData = new long[stateLength];
+        if (compact) {
+            BucketStateCompact64BitsInteger compactState = bucketState instanceof BucketStateCompact64BitsInteger ?
+                    (BucketStateCompact64BitsInteger) bucketState :
+                    BucketStateCompact64BitsInteger.fromBucketState64BitsInteger((BucketState64BitsInteger) bucketState, configuration);
+            stateData[0] = compactState.getLastRefillTimeNanos();
+            stateData[1] = compactState.getCurrentSize(0);
+        } else {
+            BucketState64BitsInteger generalState = bucketState instanceof BucketStateCompact64BitsInteger ?
+                    ((BucketStateCompact64BitsInteger) bucketState).toBucketState64BitsInteger() :
+                    (BucketState64BitsInteger) bucketState;
+            new BucketState64BitsInteger(stateData).copyStateFrom(generalState);
+        }
+
+        int offset = index * slotSize;
+        segment.slots.putLong(offset + KEY_OFFSET, key);
+        segment.slots.putLong(offset + CONSUMED_TOKENS_OFFSET, state.getRemoteStat().getConsumedTokens());
+        for (int i = 0; i < stateLength; i++) {
+            segment.slots.putLong(offset + STATE_OFFSET + i * 8, stateData[i]);
+        }
+    }
+
+    private static boolean isReconstructedAsRefilled(BucketConfiguration configuration) {
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (bandwidth.isUseAdaptiveInitialTokens() || bandwidth.getInitialTokens() != bandwidth.getCapacity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(long key) {
+        // finalization step of MurmurHash3
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
+        if (clientSideConfig.getClientSideClock().isPresent()) {
+            return clientSideConfig;
+        }
+        return clientSideConfig.withClientClock(TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
+    /**
+     * Open-addressing table with linear probing.
+     * Version of slot consists from the lock bit, the occupation bit and the counter which is incremented on each unlock,
+     * the counter protects lock-free lookups from ABA problem when slot is reused for another key.
+     */
+    private static final class Segment {
+
+        private final ByteBuffer slots;
+        private final AtomicLongArray versions;
+        private final int mask;
+        private final int slotSize;
+        private final int maxKeys;
+        private final AtomicLong totalSize;
+        private final ReentrantLock structureLock = new ReentrantLock();
+        private int size;
+
+        private Segment(int slotCount, int slotSize, AtomicLong totalSize) {
+            this.slots = ByteBuffer.allocateDirect(slotCount * slotSize).order(ByteOrder.nativeOrder());
+            this.versions = new AtomicLongArray(slotCount);
+            this.mask = slotCount - 1;
+            this.slotSize = slotSize;
+            this.maxKeys = capacity(slotCount);
+            this.totalSize = totalSize;
+        }
+
+        private static int capacity(int slotCount) {
+            // free slots are required to terminate probe sequences, so the load of single segment is limited by 7/8
+            return slotCount - slotCount / 8;
+        }
+
+        /**
+         * Lock-free lookup of the slot which holds the key.
+         *
+         * @return index of locked slot, or -1 if key was not found
+         */
+        private int lockExisting(long key, long hash) {
+            int index = (int) hash & mask;
+            int probes = 0;
+            while (probes <= mask) {
+                long version = versions.get(index);
+                if ((version & LOCKED) != 0) {
+                    Thread.yield();
+                    continue;
+                }
+                if ((version & OCCUPIED) == 0) {
+                    return -1;
+                }
+                if (slots.getLong(index * slotSize + KEY_OFFSET) == key) {
+                    // successful CAS proves that key has not been changed since version was read
+                    if (versions.compareAndSet(index, version, version | LOCKED)) {
+                        return index;
+                    }
+                    continue;
+                }
+                index = (index + 1) & mask;
+                probes++;
+            }
+            return -1;
+        }
+
+        /**
+         * Lookup of the slot which holds the key, or free slot if key is absent. Must be called under structure lock.
+         *
+         * @return index of locked slot, or -1 if key was not found and segment is full
+         */
+        private int lockExistingOrFree(long key, long hash) {
+            int index = (int) hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                lock(index);
+                if (!isOccupied(index)) {
+                    if (size < maxKeys) {
+                        return index;
+                    }
+                    unlock(index, false);
+                    return -1;
+                }
+                if (slots.getLong(index * slotSize + KEY_OFFSET) == key) {
+                    return index;
+                }
+                unlock(index, true);
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Removes the key from locked slot and shifts the following entries backward, so lookups never meet the hole in the probe sequence.
+         * Must be called under structure lock.
+         */
+        private void removeLocked(int hole) {
+            int index = hole;
+            while (true) {
+                index = (index + 1) & mask;
+                lock(index);
+                if (!isOccupied(index)) {
+                    unlock(index, false);
+                    break;
+                }
+                int home = (int) hash(slots.getLong(index * slotSize + KEY_OFFSET)) & mask;
+                if (((index - home) & mask) >= ((index - hole) & mask)) {
+                    copySlot(index, hole);
+                    unlock(hole, true);
+                    hole = index;
+                } else {
+                    unlock(index, true);
+                }
+            }
+            unlock(hole, false);
+            size--;
+            totalSize.decrementAndGet();
+        }
+
+        private void copySlot(int from, int to) {
+            int fromOffset = from * slotSize;
+            int toOffset = to * slotSize;
+            for (int i = 0; i < slotSize; i += 8) {
+                slots.putLong(toOffset + i, slots.getLong(fromOffset + i));
+            }
+        }
+
+        private void lock(int index) {
+            while (true) {
+                long version = versions.get(index);
+                if ((version & LOCKED) == 0 && versions.compareAndSet(index, version, version | LOCKED)) {
+                    return;
+                }
+                Thread.yield();
+            }
+        }
+
+        private boolean isOccupied(int index) {
+            return (versions.get(index) & OCCUPIED) != 0;
+        }
+
+        private void unlock(int index, boolean occupied) {
+            long version = versions.get(index);
+            long newVersion = ((version & ~(LOCKED | OCCUPIED)) + VERSION_INCREMENT) | (occupied ? OCCUPIED : 0L);
+            versions.set(index, newVersion);
+        }
+
+    }
+
+    private final class SlotEntry implements MutableBucketEntry {
+
+        private final Segment segment;
+        private final int index;
+        private final boolean exists;
+        private RemoteBucketState state;
+        private boolean modified;
+
+        private SlotEntry(Segment segment, int index, boolean exists) {
+            this.segment = segment;
+            this.index = index;
+            this.exists = exists;
+        }
+
+        @Override
+        public boolean exists() {
+            return exists;
+        }
+
+        @Override
+        public void set(RemoteBucketState state) {
+            this.state = state;
+            this.modified = true;
+        }
+
+        @Override
+        public RemoteBucketState get() {
+            if (state == null) {
+                state = readSlot(segment, index);
+            }
+            return state;
+        }
+
+    }
+
+}
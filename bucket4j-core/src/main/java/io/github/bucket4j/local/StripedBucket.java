@@ -0,0 +1,388 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bucket which splits capacity and refill rate across independent lock-free stripes in order to avoid CAS contention
+ * when single bucket is shared by huge amount of threads.
+ *
+ * <p>
+ * Each thread has the home stripe which is chosen by thread identifier.
+ * When home stripe has not enough tokens then neighbour stripes are checked one by one,
+ * and finally tokens are gathered from several stripes before rejecting the request.
+ *
+ * <p>
+ * Guarantees and error bound:
+ * <ul>
+ *     <li>The sum of capacities and the sum of refill rates of all stripes are exactly equal to capacity and refill rate of original configuration,
+ *     so the bucket never permits more tokens than non-striped bucket does.</li>
+ *     <li>Request can be rejected while the sum of tokens across stripes is enough to satisfy it, when concurrent requests race for the same stripes during gathering.
+ *     Tokens returned back after unsuccessful gathering can be lost if stripe has been refilled to its capacity in the meantime,
+ *     so each unsuccessful gathering can lose at most {@code tokensToConsume - 1} tokens.</li>
+ *     <li>Reservation of tokens(blocking and scheduling API) is performed inside single stripe,
+ *     so requests for more tokens than capacity of single stripe can be satisfied only by immediate consumption.</li>
+ *     <li>The amount of available tokens, time to refill and time to reset are aggregated across stripes and should be treated as estimations.</li>
+ *     <li>Configuration replacement is applied stripe by stripe, so it is not atomic.</li>
+ * </ul>
+ * Verbose API is not supported, because there is no single state of bucket.
+ *
+ * @see SynchronizationStrategy#STRIPED
+ */
+public class StripedBucket extends AbstractBucket implements LocalBucket {
+
+    private final LockFreeBucket[] stripes;
+    private final TimeMeter timeMeter;
+    private volatile BucketConfiguration configuration;
+
+    public StripedBucket(BucketConfiguration configuration, MathType mathType, TimeMeter timeMeter) {
+        this(configuration, mathType, timeMeter, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param configuration configuration of whole bucket
+     * @param mathType math type
+     * @param timeMeter time meter
+     * @param maxStripeCount the maximum count of stripes, actual count can be lesser when capacity or refill tokens of some bandwidth is lesser than {@code maxStripeCount}
+     */
+    public StripedBucket(BucketConfiguration configuration, MathType mathType, TimeMeter timeMeter, int maxStripeCount) {
+        super(BucketListener.NOPE);
+        if (maxStripeCount <= 0) {
+            throw BucketExceptions.nonPositiveStripeCount(maxStripeCount);
+        }
+        int stripeCount = calculateStripeCount(configuration, maxStripeCount);
+        this.stripes = new LockFreeBucket[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new LockFreeBucket(splitConfiguration(configuration, i, stripeCount), mathType, timeMeter);
+        }
+        this.timeMeter = timeMeter;
+        this.configuration = configuration;
+    }
+
+    private StripedBucket(BucketListener listener, StripedBucket source) {
+        super(listener);
+        this.stripes = source.stripes;
+        this.timeMeter = source.timeMeter;
+        this.configuration = source.configuration;
+    }
+
+    @Override
+    public Bucket toListenable(BucketListener listener) {
+        return new StripedBucket(listener, this);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    protected long consumeAsMuchAsPossibleImpl(long limit) {
+        int home = homeStripe();
+        long consumed = 0;
+        for (int i = 0; i < stripes.length && consumed < limit; i++) {
+            consumed += stripes[(home + i) % stripes.length].consumeAsMuchAsPossibleImpl(limit - consumed);
+        }
+        return consumed;
+    }
+
+    @Override
+    protected boolean tryConsumeImpl(long tokensToConsume) {
+        int home = homeStripe();
+        for (int i = 0; i < stripes.length; i++) {
+            if (stripes[(home + i) % stripes.length].tryConsumeImpl(tokensToConsume)) {
+                return true;
+            }
+        }
+        return tokensToConsume > 1 && stripes.length > 1 && tryGather(home, tokensToConsume);
+    }
+
+    @Override
+    protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
+        if (tryConsumeImpl(tokensToConsume)) {
+            long remainingTokens = getAvailableTokens();
+            return ConsumptionProbe.consumed(remainingTokens, estimateDelayNanos(configuration, fullRefillDeficit(remainingTokens)));
+        }
+        long availableTokens = getAvailableTokens();
+        long nanosToWaitForRefill = estimateDelayNanos(configuration, tokensToConsume - availableTokens);
+        long nanosToWaitForReset = estimateDelayNanos(configuration, fullRefillDeficit(availableTokens));
+        return ConsumptionProbe.rejected(availableTokens, nanosToWaitForRefill, nanosToWaitForReset);
+    }
+
+    @Override
+    protected EstimationProbe estimateAbilityToConsumeImpl(long tokensToEstimate) {
+        long availableTokens = getAvailableTokens();
+        if (tokensToEstimate > availableTokens) {
+            return EstimationProbe.canNotBeConsumed(availableTokens, estimateDelayNanos(configuration, tokensToEstimate - availableTokens));
+        } else {
+            return EstimationProbe.canBeConsumed(availableTokens);
+        }
+    }
+
+    @Override
+    protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
+        if (tryConsumeImpl(tokensToConsume)) {
+            return 0L;
+        }
+        LockFreeBucket stripe = findStripeWithMinimalDelay(tokensToConsume);
+        return stripe.reserveAndCalculateTimeToSleepImpl(tokensToConsume, waitIfBusyNanosLimit);
+    }
+
+    @Override
+    protected long consumeIgnoringRateLimitsImpl(long tokensToConsume) {
+        if (tryConsumeImpl(tokensToConsume)) {
+            return 0L;
+        }
+        LockFreeBucket stripe = findStripeWithMinimalDelay(tokensToConsume);
+        return stripe.consumeIgnoringRateLimitsImpl(tokensToConsume);
+    }
+
+    @Override
+    protected void addTokensImpl(long tokensToAdd) {
+        for (int i = 0; i < stripes.length; i++) {
+            long part = part(tokensToAdd, i, stripes.length);
+            if (part > 0) {
+                stripes[i].addTokensImpl(part);
+            }
+        }
+    }
+
+    @Override
+    protected void forceAddTokensImpl(long tokensToAdd) {
+        for (int i = 0; i < stripes.length; i++) {
+            long part = part(tokensToAdd, i, stripes.length);
+            if (part > 0) {
+                stripes[i].forceAddTokensImpl(part);
+            }
+        }
+    }
+
+    @Override
+    protected void replaceConfigurationImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        List<BucketConfiguration> stripeConfigurations = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            stripeConfigurations.add(splitConfiguration(newConfiguration, i, stripes.length));
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i].replaceConfigurationImpl(stripeConfigurations.get(i), tokensInheritanceStrategy);
+        }
+        this.configuration = newConfiguration;
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long availableTokens = 0;
+        for (LockFreeBucket stripe : stripes) {
+            long newAvailableTokens = availableTokens + stripe.getAvailableTokens();
+            if (newAvailableTokens < availableTokens && stripe.getAvailableTokens() > 0) {
+                // arithmetic overflow happens
+                return Long.MAX_VALUE;
+            }
+            availableTokens = newAvailableTokens;
+        }
+        return availableTokens;
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeAsMuchAsPossibleVerboseImpl(long limit) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<Boolean> tryConsumeVerboseImpl(long tokensToConsume) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<ConsumptionProbe> tryConsumeAndReturnRemainingTokensVerboseImpl(long tokensToConsume) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<EstimationProbe> estimateAbilityToConsumeVerboseImpl(long numTokens) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<Long> getAvailableTokensVerboseImpl() {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<Nothing> addTokensVerboseImpl(long tokensToAdd) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<Nothing> forceAddTokensVerboseImpl(long tokensToAdd) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<Nothing> replaceConfigurationVerboseImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeIgnoringRateLimitsVerboseImpl(long tokensToConsume) {
+        throw BucketExceptions.verboseApiIsNotSupported();
+    }
+
+    private boolean tryGather(int home, long tokensToConsume) {
+        long[] borrowed = new long[stripes.length];
+        long gathered = 0;
+        for (int i = 0; i < stripes.length && gathered < tokensToConsume; i++) {
+            int stripeIndex = (home + i) % stripes.length;
+            long consumed = stripes[stripeIndex].consumeAsMuchAsPossibleImpl(tokensToConsume - gathered);
+            borrowed[stripeIndex] = consumed;
+            gathered += consumed;
+        }
+        if (gathered == tokensToConsume) {
+            return true;
+        }
+
+        // give borrowed tokens back
+        for (int i = 0; i < stripes.length; i++) {
+            if (borrowed[i] > 0) {
+                stripes[i].addTokensImpl(borrowed[i]);
+            }
+        }
+        return false;
+    }
+
+    private LockFreeBucket findStripeWithMinimalDelay(long tokensToConsume) {
+        int home = homeStripe();
+        LockFreeBucket bestStripe = stripes[home];
+        long minimalDelay = Long.MAX_VALUE;
+        for (int i = 0; i < stripes.length; i++) {
+            LockFreeBucket stripe = stripes[(home + i) % stripes.length];
+            EstimationProbe probe = stripe.estimateAbilityToConsumeImpl(tokensToConsume);
+            if (probe.getNanosToWaitForRefill() < minimalDelay) {
+                minimalDelay = probe.getNanosToWaitForRefill();
+                bestStripe = stripe;
+            }
+        }
+        return bestStripe;
+    }
+
+    private int homeStripe() {
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    private long fullRefillDeficit(long availableTokens) {
+        long minCapacity = Long.MAX_VALUE;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            minCapacity = Math.min(minCapacity, bandwidth.getCapacity());
+        }
+        return minCapacity - availableTokens;
+    }
+
+    private static long estimateDelayNanos(BucketConfiguration configuration, long deficit) {
+        if (deficit <= 0) {
+            return 0L;
+        }
+        long maxDelay = 0;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            long refillTokens = bandwidth.getRefillTokens();
+            long refillPeriodNanos = bandwidth.getRefillPeriodNanos();
+            double delay;
+            if (bandwidth.isRefillIntervally()) {
+                long periods = deficit / refillTokens + (deficit % refillTokens == 0L ? 0 : 1);
+                delay = (double) periods * (double) refillPeriodNanos;
+            } else {
+                delay = (double) deficit * (double) refillPeriodNanos / (double) refillTokens;
+            }
+            if (delay >= Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            maxDelay = Math.max(maxDelay, (long) Math.ceil(delay));
+        }
+        return maxDelay;
+    }
+
+    private static int calculateStripeCount(BucketConfiguration configuration, int maxStripeCount) {
+        long stripeCount = maxStripeCount;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            stripeCount = Math.min(stripeCount, Math.min(bandwidth.getCapacity(), bandwidth.getRefillTokens()));
+        }
+        return (int) stripeCount;
+    }
+
+    static BucketConfiguration splitConfiguration(BucketConfiguration configuration, int stripeIndex, int stripeCount) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        List<Bandwidth> stripeBandwidths = new ArrayList<>(bandwidths.length);
+        for (Bandwidth bandwidth : bandwidths) {
+            if (bandwidth.getCapacity() < stripeCount || bandwidth.getRefillTokens() < stripeCount) {
+                throw BucketExceptions.stripeCountExceedsBandwidth(stripeCount, bandwidth);
+            }
+            long capacity = part(bandwidth.getCapacity(), stripeIndex, stripeCount);
+            long refillTokens = part(bandwidth.getRefillTokens(), stripeIndex, stripeCount);
+            Duration refillPeriod = Duration.ofNanos(bandwidth.getRefillPeriodNanos());
+
+            Refill refill;
+            if (bandwidth.isIntervallyAligned()) {
+                Instant timeOfFirstRefill = Instant.ofEpochMilli(bandwidth.getTimeOfFirstRefillMillis());
+                refill = Refill.intervallyAligned(refillTokens, refillPeriod, timeOfFirstRefill, bandwidth.isUseAdaptiveInitialTokens());
+            } else if (bandwidth.isRefillIntervally()) {
+                refill = Refill.intervally(refillTokens, refillPeriod);
+            } else {
+                refill = Refill.greedy(refillTokens, refillPeriod);
+            }
+
+            Bandwidth stripeBandwidth = Bandwidth.classic(capacity, refill);
+            if (!bandwidth.isUseAdaptiveInitialTokens()) {
+                stripeBandwidth = stripeBandwidth.withInitialTokens(part(bandwidth.getInitialTokens(), stripeIndex, stripeCount));
+            }
+            stripeBandwidths.add(stripeBandwidth.withId(bandwidth.getId()));
+        }
+        return new BucketConfiguration(stripeBandwidths);
+    }
+
+    private static long part(long value, int stripeIndex, int stripeCount) {
+        return value / stripeCount + (stripeIndex < value % stripeCount ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "StripedBucket{" +
+                "stripes=" + stripes.length +
+                ", configuration=" + configuration +
+                '}';
+    }
+
+}
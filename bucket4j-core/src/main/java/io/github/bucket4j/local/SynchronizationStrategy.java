@@ -38,6 +38,33 @@ public enum SynchronizationStrategy {
      */
     LOCK_FREE,
 
+    /**
+     * Lock-free algorithm based on optimistic versioning of state which is updated in place.
+     * Calculations are performed on the copy of state which is reused by the current thread, then result is published by CAS of version.
+     *
+     * <p>Advantages: This strategy is tolerant to high contention usage scenario and never allocates memory in the steady state.
+     * <br>Disadvantages: Publication of new state is an exclusive section(it is just a copying of few longs), so readers spin while publication is in progress.
+     * Each thread which touches the bucket keeps the scratch copy of state per distinct count of bandwidths.
+     * <br>Usage recommendations: when your primary goal is avoiding of memory allocation and you have high contention.
+     *
+     * @see InPlaceLockFreeBucket
+     */
+    LOCK_FREE_IN_PLACE,
+
+    /**
+     * Lock-free algorithm which splits capacity and refill rate of bucket across independent stripes,
+     * each thread consumes tokens from its home stripe and borrows tokens from another stripes only when home stripe is exhausted.
+     * The count of stripes is equal to count of available processors, but not greater than capacity and refill tokens of each bandwidth.
+     *
+     * <p>Advantages: Contention is distributed across stripes, so throughput scales with count of threads which share the same bucket.
+     * <br>Disadvantages: Request can be rejected while the total amount of tokens is enough, when concurrent requests race for the same stripes.
+     * Verbose API is not supported, blocking and scheduling API can not reserve more tokens than capacity of single stripe.
+     * <br>Usage recommendations: when single bucket is shared by dozens of threads and small inaccuracy of limiting is acceptable.
+     *
+     * @see StripedBucket
+     */
+    STRIPED,
+
     /**
      * Blocking strategy based on java <code>synchronized</code> keyword.
      *
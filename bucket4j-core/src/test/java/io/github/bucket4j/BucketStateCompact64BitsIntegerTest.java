@@ -0,0 +1,78 @@
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.serialization.DataOutputSerializationAdapter;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.junit.Test;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BucketStateCompact64BitsIntegerTest {
+
+    @Test
+    public void shouldBeChosenOnlyForApplicableConfigurations() {
+        assertTrue(BucketStateCompact64BitsInteger.isApplicable(configuration(Bandwidth.simple(100, Duration.ofSeconds(1)))));
+        assertFalse(BucketStateCompact64BitsInteger.isApplicable(configuration(Bandwidth.simple(3, Duration.ofNanos(10)))));
+        assertFalse(BucketStateCompact64BitsInteger.isApplicable(configuration(Bandwidth.classic(100, Refill.intervally(100, Duration.ofSeconds(1))))));
+        assertFalse(BucketStateCompact64BitsInteger.isApplicable(configuration(Bandwidth.simple(100, Duration.ofSeconds(1)), Bandwidth.simple(1000, Duration.ofMinutes(1)))));
+    }
+
+    @Test
+    public void shouldBeUsedOnlyForRemoteState() {
+        BucketConfiguration configuration = configuration(Bandwidth.simple(100, Duration.ofSeconds(1)));
+        assertTrue(BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0L) instanceof BucketState64BitsInteger);
+        assertTrue(BucketState.createInitialRemoteState(configuration, 0L) instanceof BucketStateCompact64BitsInteger);
+    }
+
+    @Test
+    public void shouldBehaveTheSameWayAsGeneralState() {
+        BucketConfiguration configuration = configuration(Bandwidth.classic(1000, Refill.greedy(100, Duration.ofNanos(1000))).withInitialTokens(0));
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        BucketState compactState = BucketState.createInitialRemoteState(configuration, 0L);
+        BucketState generalState = new BucketState64BitsInteger(configuration, 0L);
+        assertTrue(compactState instanceof BucketStateCompact64BitsInteger);
+
+        Random random = new Random(42);
+        long currentTimeNanos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            currentTimeNanos += random.nextInt(50);
+            compactState.refillAllBandwidth(bandwidths, currentTimeNanos);
+            generalState.refillAllBandwidth(bandwidths, currentTimeNanos);
+            assertEquals(generalState.getAvailableTokens(bandwidths), compactState.getAvailableTokens(bandwidths));
+
+            long tokens = 1 + random.nextInt(20);
+            assertEquals(generalState.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokens, currentTimeNanos),
+                    compactState.calculateDelayNanosAfterWillBePossibleToConsume(bandwidths, tokens, currentTimeNanos));
+            assertEquals(generalState.calculateFullRefillingTime(bandwidths, currentTimeNanos),
+                    compactState.calculateFullRefillingTime(bandwidths, currentTimeNanos));
+            if (random.nextBoolean()) {
+                compactState.consume(bandwidths, tokens);
+                generalState.consume(bandwidths, tokens);
+            }
+        }
+    }
+
+    @Test
+    public void shouldBeSerializedAsGeneralStateForLegacyVersion() throws IOException {
+        BucketConfiguration configuration = configuration(Bandwidth.simple(100, Duration.ofSeconds(1)));
+        BucketStateCompact64BitsInteger state = new BucketStateCompact64BitsInteger(42, 7);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BucketState.serialize(DataOutputSerializationAdapter.INSTANCE, new DataOutputStream(baos), state, Versions.v_7_0_0);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        BucketState deserializedState = BucketState.deserialize(DataOutputSerializationAdapter.INSTANCE, input, Versions.v_7_0_0);
+
+        assertTrue(deserializedState instanceof BucketState64BitsInteger);
+        assertEquals(7, deserializedState.getAvailableTokens(configuration.getBandwidths()));
+        assertTrue(BucketStateCompact64BitsInteger.fromBucketState64BitsInteger((BucketState64BitsInteger) deserializedState, configuration).equalsByContent(state));
+    }
+
+    private static BucketConfiguration configuration(Bandwidth... bandwidths) {
+        return new BucketConfiguration(Arrays.asList(bandwidths));
+    }
+
+}
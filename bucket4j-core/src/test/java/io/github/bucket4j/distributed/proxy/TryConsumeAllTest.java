@@ -0,0 +1,177 @@
+/*
+ *
+ * Copyright 2015-2018 Vladimir Bukhtoyarov
+ *
+ *       Licensed under the Apache License, Version 2.0 (the "License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalProxyManager;
+import io.github.bucket4j.mock.AsyncLockBasedProxyManagerMock;
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock;
+import io.github.bucket4j.mock.LockBasedProxyManagerMock;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import io.github.bucket4j.mock.VersionedCompareAndSwapBasedProxyManagerMock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class TryConsumeAllTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    private final BucketConfiguration userConfiguration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+            .build();
+    private final BucketConfiguration tenantConfiguration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(15, Duration.ofMinutes(1)))
+            .build();
+    private final Function<String, BucketConfiguration> configurationProvider = key -> key.startsWith("user") ? userConfiguration : tenantConfiguration;
+
+    private List<ProxyManager<String>> proxyManagers() {
+        ClientSideConfig config = ClientSideConfig.getDefault().withClientClock(clock);
+        return Arrays.asList(
+                new ProxyManagerMock<>(clock),
+                new CompareAndSwapBasedProxyManagerMock<>(config),
+                new VersionedCompareAndSwapBasedProxyManagerMock<>(config),
+                new LockBasedProxyManagerMock<>(config),
+                new AsyncLockBasedProxyManagerMock<>(config),
+                new LocalProxyManager<>(1000, config),
+                new DefaultTryConsumeAllProxyManager<>(new ProxyManagerMock<>(clock))
+        );
+    }
+
+    @Test
+    public void shouldConsumeFromAllBucketsOrFromNothing() {
+        for (ProxyManager<String> proxyManager : proxyManagers()) {
+            assertTrue(proxyManager.tryConsumeAll(tokens(6, 6), configurationProvider));
+            assertEquals(4, availableTokens(proxyManager, "user"));
+            assertEquals(9, availableTokens(proxyManager, "tenant"));
+
+            // user has not enough tokens, so tenant must stay untouched
+            assertFalse(proxyManager.tryConsumeAll(tokens(5, 5), configurationProvider));
+            assertEquals(4, availableTokens(proxyManager, "user"));
+            assertEquals(9, availableTokens(proxyManager, "tenant"));
+
+            assertTrue(proxyManager.tryConsumeAll(tokens(4, 9), configurationProvider));
+            assertEquals(0, availableTokens(proxyManager, "user"));
+            assertEquals(0, availableTokens(proxyManager, "tenant"));
+        }
+    }
+
+    @Test
+    public void shouldConsumeFromAllBucketsOrFromNothingAsync() {
+        for (ProxyManager<String> proxyManager : proxyManagers()) {
+            if (!proxyManager.isAsyncModeSupported()) {
+                continue;
+            }
+            AsyncProxyManager<String> asyncProxyManager = proxyManager.asAsync();
+            assertTrue(asyncProxyManager.tryConsumeAll(tokens(6, 6), configurationProvider).join());
+            assertFalse(asyncProxyManager.tryConsumeAll(tokens(1, 10), configurationProvider).join());
+            assertEquals(4, availableTokens(proxyManager, "user"));
+            assertEquals(9, availableTokens(proxyManager, "tenant"));
+        }
+    }
+
+    @Test
+    public void emptyRequestShouldSucceed() {
+        for (ProxyManager<String> proxyManager : proxyManagers()) {
+            assertTrue(proxyManager.tryConsumeAll(new LinkedHashMap<>(), configurationProvider));
+            if (proxyManager.isAsyncModeSupported()) {
+                assertTrue(proxyManager.asAsync().tryConsumeAll(new LinkedHashMap<>(), configurationProvider).join());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldCheckTokensToConsume() {
+        proxyManagers().get(0).tryConsumeAll(tokens(0, 1), configurationProvider);
+    }
+
+    private Map<String, Long> tokens(long user, long tenant) {
+        Map<String, Long> tokens = new LinkedHashMap<>();
+        tokens.put("user", user);
+        tokens.put("tenant", tenant);
+        return tokens;
+    }
+
+    private long availableTokens(ProxyManager<String> proxyManager, String key) {
+        return proxyManager.builder().build(key, configurationProvider.apply(key)).getAvailableTokens();
+    }
+
+    // relies on default implementation of tryConsumeAll provided by interfaces
+    private static class DefaultTryConsumeAllProxyManager<K> implements ProxyManager<K> {
+
+        private final ProxyManager<K> target;
+
+        private DefaultTryConsumeAllProxyManager(ProxyManager<K> target) {
+            this.target = target;
+        }
+
+        @Override
+        public RemoteBucketBuilder<K> builder() {
+            return target.builder();
+        }
+
+        @Override
+        public Optional<BucketConfiguration> getProxyConfiguration(K key) {
+            return target.getProxyConfiguration(key);
+        }
+
+        @Override
+        public void removeProxy(K key) {
+            target.removeProxy(key);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return target.isAsyncModeSupported();
+        }
+
+        @Override
+        public AsyncProxyManager<K> asAsync() {
+            AsyncProxyManager<K> asyncTarget = target.asAsync();
+            return new AsyncProxyManager<K>() {
+                @Override
+                public RemoteAsyncBucketBuilder<K> builder() {
+                    return asyncTarget.builder();
+                }
+
+                @Override
+                public CompletableFuture<Void> removeProxy(K key) {
+                    return asyncTarget.removeProxy(key);
+                }
+
+                @Override
+                public CompletableFuture<Optional<BucketConfiguration>> getProxyConfiguration(K key) {
+                    return asyncTarget.getProxyConfiguration(key);
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+
+package io.github.bucket4j.distributed.proxy.generic;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.remote.ConfigurationTable;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeState;
+import static org.junit.Assert.*;
+
+public class GenericEntryTest {
+
+    @Test
+    public void modifiedBytesShouldBeTheSameAsFullSerialization() {
+        BucketConfiguration unregistered = configuration(201);
+        BucketConfiguration registered = configuration(202);
+        ConfigurationTable table = new ConfigurationTable();
+        table.register(registered);
+
+        for (BucketConfiguration configuration : new BucketConfiguration[] {unregistered, registered}) {
+            for (MathType mathType : MathType.values()) {
+                for (Version version : Versions.values()) {
+                    long now = System.nanoTime();
+                    RemoteBucketState state = new RemoteBucketState(configuration, BucketState.createInitialState(configuration, mathType, now), new RemoteStat(7));
+                    byte[] originalBytes = serializeState(state, version, table);
+
+                    GenericEntry entry = new GenericEntry(originalBytes, request(version), table);
+                    assertTrue(entry.exists());
+                    RemoteBucketState decoded = entry.get();
+                    assertTrue(ComparableByContent.equals(state, decoded));
+                    assertSame(decoded, entry.get());
+
+                    decoded.refillAllBandwidth(now + 1_000_000);
+                    decoded.consume(3);
+                    entry.set(decoded);
+
+                    assertArrayEquals(serializeState(decoded, version, table), entry.getModifiedStateBytes());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void configurationShouldBeDecodedOnceForSameBytes() {
+        BucketConfiguration configuration = configuration(203);
+        RemoteBucketState state = new RemoteBucketState(configuration, BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0), new RemoteStat(0));
+        byte[] bytes = serializeState(state, Versions.getLatest());
+
+        RemoteBucketState first = new GenericEntry(bytes, Versions.getLatest()).get();
+        RemoteBucketState second = new GenericEntry(bytes.clone(), Versions.getLatest()).get();
+        assertNotSame(configuration, first.getConfiguration());
+        assertSame(first.getConfiguration(), second.getConfiguration());
+    }
+
+    @Test
+    public void replacedConfigurationShouldBeSerializedInFull() {
+        BucketConfiguration configuration = configuration(204);
+        BucketConfiguration newConfiguration = configuration(205);
+        RemoteBucketState state = new RemoteBucketState(configuration, BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0), new RemoteStat(0));
+
+        GenericEntry entry = new GenericEntry(serializeState(state, Versions.getLatest()), Versions.getLatest());
+        RemoteBucketState decoded = entry.get();
+        decoded.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS, 1);
+        entry.set(decoded);
+
+        assertArrayEquals(serializeState(decoded, Versions.getLatest()), entry.getModifiedStateBytes());
+    }
+
+    private static Request<Long> request(Version version) {
+        return new Request<>(new GetAvailableTokensCommand(), version, null);
+    }
+
+    private static BucketConfiguration configuration(long capacity) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(capacity, Duration.ofSeconds(10)))
+                .addLimit(Bandwidth.simple(capacity * 10, Duration.ofMinutes(10)).withId("long-term"))
+                .build();
+    }
+
+}
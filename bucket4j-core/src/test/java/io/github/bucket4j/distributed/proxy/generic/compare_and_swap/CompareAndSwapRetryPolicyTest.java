@@ -0,0 +1,201 @@
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+public class CompareAndSwapRetryPolicyTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+            .build();
+
+    @Test
+    public void shouldRetryUntilSuccessByDefault() {
+        ContendedProxyManager proxyManager = new ContendedProxyManager(ClientSideConfig.getDefault().withClientClock(clock), 20);
+
+        assertTrue(bucket(proxyManager).tryConsume(1));
+
+        CompareAndSwapMetrics metrics = proxyManager.getCompareAndSwapMetrics();
+        assertEquals(20, metrics.getUnsuccessfulCompareAndSwapCount());
+        // the first request just detects that bucket does not exist,
+        // the second request initializes the bucket in 21 attempts that belong to the bin [17, 32]
+        assertArrayEquals(new long[] {1, 0, 0, 0, 0, 1, 0, 0}, metrics.getAttemptsHistogram());
+        assertEquals(0, metrics.getBackoffNanos());
+    }
+
+    @Test
+    public void shouldGiveUpWhenAttemptsAreExhausted() {
+        CompareAndSwapRetryPolicy retryPolicy = CompareAndSwapRetryPolicy.limitedAttempts(3);
+        ContendedProxyManager proxyManager = new ContendedProxyManager(config(retryPolicy), Integer.MAX_VALUE);
+
+        try {
+            bucket(proxyManager).tryConsume(1);
+            fail();
+        } catch (CompareAndSwapRetriesExhaustedException e) {
+            assertEquals(3, e.getAttempts());
+        }
+
+        CompareAndSwapMetrics metrics = proxyManager.getCompareAndSwapMetrics();
+        assertEquals(3, metrics.getUnsuccessfulCompareAndSwapCount());
+        assertArrayEquals(new long[] {0, 0, 1, 0, 0, 0, 0, 0}, metrics.getExhaustedAttemptsHistogram());
+        assertArrayEquals(new long[] {1, 0, 0, 0, 0, 0, 0, 0}, metrics.getAttemptsHistogram());
+    }
+
+    @Test
+    public void shouldGiveUpWhenAttemptsAreExhaustedAsync() {
+        CompareAndSwapRetryPolicy retryPolicy = CompareAndSwapRetryPolicy.limitedAttempts(2);
+        ContendedProxyManager proxyManager = new ContendedProxyManager(config(retryPolicy), Integer.MAX_VALUE);
+
+        CompletableFuture<Boolean> future = proxyManager.asAsync().builder().build("key", configuration).tryConsume(1);
+        try {
+            future.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof CompareAndSwapRetriesExhaustedException);
+        }
+        assertEquals(2, proxyManager.getCompareAndSwapMetrics().getUnsuccessfulCompareAndSwapCount());
+    }
+
+    @Test
+    public void shouldSucceedWithinAllowedAttempts() {
+        CompareAndSwapRetryPolicy retryPolicy = CompareAndSwapRetryPolicy.limitedAttempts(3)
+                .withExponentialBackoff(Duration.ofNanos(1_000), Duration.ofNanos(10_000));
+        ContendedProxyManager proxyManager = new ContendedProxyManager(config(retryPolicy), 2);
+
+        assertTrue(bucket(proxyManager).tryConsume(1));
+        assertArrayEquals(new long[] {1, 0, 1, 0, 0, 0, 0, 0}, proxyManager.getCompareAndSwapMetrics().getAttemptsHistogram());
+        assertTrue(proxyManager.getCompareAndSwapMetrics().getBackoffNanos() <= 3_000);
+    }
+
+    @Test
+    public void shouldUseFallbackWhenItIsEnabled() {
+        CompareAndSwapRetryPolicy retryPolicy = CompareAndSwapRetryPolicy.limitedAttempts(1).withFallback();
+        ContendedProxyManager proxyManager = new ContendedProxyManager(config(retryPolicy), Integer.MAX_VALUE);
+
+        assertTrue(bucket(proxyManager).tryConsume(1));
+        assertEquals(1, proxyManager.fallbackExecutions);
+    }
+
+    @Test
+    public void backoffShouldGrowExponentiallyUpToLimit() {
+        CompareAndSwapRetryPolicy retryPolicy = CompareAndSwapRetryPolicy.limitedAttempts(100)
+                .withExponentialBackoff(Duration.ofNanos(100), Duration.ofNanos(1_000));
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(retryPolicy.calculateBackoffNanos(1) <= 100);
+            assertTrue(retryPolicy.calculateBackoffNanos(3) <= 400);
+            assertTrue(retryPolicy.calculateBackoffNanos(99) <= 1_000);
+        }
+        assertEquals(0, CompareAndSwapRetryPolicy.unlimited().calculateBackoffNanos(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldCheckMaxAttempts() {
+        CompareAndSwapRetryPolicy.limitedAttempts(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldCheckBackoff() {
+        CompareAndSwapRetryPolicy.limitedAttempts(3).withExponentialBackoff(Duration.ofMillis(10), Duration.ofMillis(1));
+    }
+
+    private ClientSideConfig config(CompareAndSwapRetryPolicy retryPolicy) {
+        return ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withCompareAndSwapRetryPolicy(retryPolicy);
+    }
+
+    private BucketProxy bucket(ContendedProxyManager proxyManager) {
+        return proxyManager.builder().build("key", configuration);
+    }
+
+    private static class ContendedProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        private final Map<String, byte[]> stateMap = new HashMap<>();
+        private int failuresLeft;
+        private int fallbackExecutions;
+
+        ContendedProxyManager(ClientSideConfig clientSideConfig, int failures) {
+            super(clientSideConfig);
+            this.failuresLeft = failures;
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData() {
+                    return Optional.ofNullable(stateMap.get(key));
+                }
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData) {
+                    return ContendedProxyManager.this.compareAndSwap(key, newData);
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return CompletableFuture.completedFuture(Optional.ofNullable(stateMap.get(key)));
+                }
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData) {
+                    return CompletableFuture.completedFuture(ContendedProxyManager.this.compareAndSwap(key, newData));
+                }
+            };
+        }
+
+        @Override
+        protected <T> CommandResult<T> executeFallback(String key, Request<T> request, int attempts) {
+            fallbackExecutions++;
+            failuresLeft = 0;
+            return execute(key, request);
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            stateMap.remove(key);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            stateMap.remove(key);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+
+        private boolean compareAndSwap(String key, byte[] newData) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                return false;
+            }
+            stateMap.put(key, newData);
+            return true;
+        }
+
+    }
+
+}
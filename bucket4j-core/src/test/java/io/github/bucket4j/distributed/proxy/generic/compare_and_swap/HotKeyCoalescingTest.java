@@ -0,0 +1,176 @@
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class HotKeyCoalescingTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(1_000, Duration.ofMinutes(1)))
+            .build();
+
+    @Test
+    public void detectorShouldDistinguishHotKeys() {
+        HotKeyDetector detector = new HotKeyDetector(new HotKeyCoalescingParameters(10, 1_000, 10));
+        for (int i = 0; i < 9; i++) {
+            assertFalse(detector.recordAndCheck("hot".hashCode()));
+        }
+        assertTrue(detector.recordAndCheck("hot".hashCode()));
+        assertTrue(detector.isHot("hot".hashCode()));
+
+        for (int i = 0; i < 500; i++) {
+            assertFalse(detector.recordAndCheck(("cold-" + i).hashCode()));
+        }
+        assertEquals(0, detector.getGeneration());
+    }
+
+    @Test
+    public void detectorShouldForgetKeysWhichCooledDown() {
+        HotKeyDetector detector = new HotKeyDetector(new HotKeyCoalescingParameters(10, 100, 10));
+        for (int i = 0; i < 10; i++) {
+            detector.recordAndCheck("hot".hashCode());
+        }
+        assertTrue(detector.isHot("hot".hashCode()));
+
+        for (int i = 0; i < 90; i++) {
+            detector.recordAndCheck(("cold-" + i).hashCode());
+        }
+        assertEquals(1, detector.getGeneration());
+        assertFalse(detector.isHot("hot".hashCode()));
+    }
+
+    @Test
+    public void concurrentRequestsToHotKeyShouldBeCoalesced() throws InterruptedException {
+        ClientSideConfig config = ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withHotKeyCoalescing(new HotKeyCoalescingParameters(1, 10_000, 10));
+        SlowProxyManager proxyManager = new SlowProxyManager(config);
+        BucketProxy bucket = proxyManager.builder().build("global", configuration);
+
+        int threadCount = 8;
+        int requestsPerThread = 50;
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int j = 0; j < requestsPerThread; j++) {
+                    assertTrue(bucket.tryConsume(1));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1_000 - threadCount * requestsPerThread, bucket.getAvailableTokens());
+        CompareAndSwapMetrics metrics = proxyManager.getCompareAndSwapMetrics();
+        assertEquals(0, metrics.getUnsuccessfulCompareAndSwapCount());
+        assertTrue(metrics.getCoalescedRequestCount() > 0);
+    }
+
+    @Test
+    public void coldKeysShouldBeExecutedDirectly() {
+        ClientSideConfig config = ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withHotKeyCoalescing(new HotKeyCoalescingParameters(1_000, 10_000, 10));
+        SlowProxyManager proxyManager = new SlowProxyManager(config);
+        BucketProxy bucket = proxyManager.builder().build("cold", configuration);
+
+        assertTrue(bucket.tryConsume(1));
+        assertTrue(proxyManager.asAsync().builder().build("cold", configuration).tryConsume(1).join());
+        assertEquals(998, bucket.getAvailableTokens());
+        assertEquals(0, proxyManager.getCompareAndSwapMetrics().getCoalescedRequestCount());
+    }
+
+    private static class SlowProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        private final Map<String, byte[]> stateMap = new ConcurrentHashMap<>();
+
+        SlowProxyManager(ClientSideConfig clientSideConfig) {
+            super(clientSideConfig);
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData() {
+                    return Optional.ofNullable(stateMap.get(key));
+                }
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData) {
+                    return SlowProxyManager.this.compareAndSwap(key, originalData, newData);
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return CompletableFuture.completedFuture(Optional.ofNullable(stateMap.get(key)));
+                }
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData) {
+                    return CompletableFuture.completedFuture(SlowProxyManager.this.compareAndSwap(key, originalData, newData));
+                }
+            };
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            stateMap.remove(key);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            stateMap.remove(key);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+
+        private synchronized boolean compareAndSwap(String key, byte[] originalData, byte[] newData) {
+            // emulates the network round-trip, so concurrent requests have time to queue up
+            LockSupport.parkNanos(1_000_000);
+            if (!Arrays.equals(stateMap.get(key), originalData)) {
+                return false;
+            }
+            stateMap.put(key, newData);
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class VersionedCompareAndSwapTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+            .build();
+
+    @Test
+    public void shouldIncrementVersionOnEachModification() {
+        SingleBucketProxyManager proxyManager = new SingleBucketProxyManager(ClientSideConfig.getDefault().withClientClock(clock));
+        BucketProxy bucket = proxyManager.builder().build("key", configuration);
+
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(1, proxyManager.state.getVersion());
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(2, proxyManager.state.getVersion());
+
+        // read-only request does not touch the version
+        assertEquals(8, bucket.getAvailableTokens());
+        assertEquals(2, proxyManager.state.getVersion());
+        assertEquals(Arrays.asList(null, 1L), proxyManager.expectedVersions);
+    }
+
+    @Test
+    public void shouldRetryWhenVersionWasConcurrentlyChanged() {
+        SingleBucketProxyManager proxyManager = new SingleBucketProxyManager(ClientSideConfig.getDefault().withClientClock(clock));
+        BucketProxy bucket = proxyManager.builder().build("key", configuration);
+        assertTrue(bucket.tryConsume(1));
+
+        proxyManager.concurrentModifications = 1;
+        assertTrue(bucket.tryConsume(1));
+
+        assertEquals(1, proxyManager.getCompareAndSwapMetrics().getUnsuccessfulCompareAndSwapCount());
+        // version 2 is written by concurrent modification
+        assertEquals(3, proxyManager.state.getVersion());
+        assertEquals(8, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void shouldRetryWhenVersionWasConcurrentlyChangedAsync() {
+        SingleBucketProxyManager proxyManager = new SingleBucketProxyManager(ClientSideConfig.getDefault().withClientClock(clock));
+        assertTrue(proxyManager.asAsync().builder().build("key", configuration).tryConsume(1).join());
+
+        proxyManager.concurrentModifications = 1;
+        assertTrue(proxyManager.asAsync().builder().build("key", configuration).tryConsume(1).join());
+
+        assertEquals(1, proxyManager.getCompareAndSwapMetrics().getUnsuccessfulCompareAndSwapCount());
+        assertEquals(3, proxyManager.state.getVersion());
+    }
+
+    private static class SingleBucketProxyManager extends AbstractVersionedCompareAndSwapBasedProxyManager<String> {
+
+        private VersionedState state;
+        private int concurrentModifications;
+        private final List<Long> expectedVersions = new ArrayList<>();
+
+        private SingleBucketProxyManager(ClientSideConfig clientSideConfig) {
+            super(clientSideConfig);
+        }
+
+        @Override
+        protected VersionedCompareAndSwapOperation beginVersionedCompareAndSwapOperation(String key) {
+            return new VersionedCompareAndSwapOperation() {
+                @Override
+                public Optional<VersionedState> getVersionedState() {
+                    return Optional.ofNullable(state);
+                }
+                @Override
+                public boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                    return SingleBucketProxyManager.this.compareAndSwap(originalState, newData, newVersion);
+                }
+            };
+        }
+
+        @Override
+        protected AsyncVersionedCompareAndSwapOperation beginAsyncVersionedCompareAndSwapOperation(String key) {
+            return new AsyncVersionedCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<VersionedState>> getVersionedState() {
+                    return CompletableFuture.completedFuture(Optional.ofNullable(state));
+                }
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                    return CompletableFuture.completedFuture(SingleBucketProxyManager.this.compareAndSwap(originalState, newData, newVersion));
+                }
+            };
+        }
+
+        private boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+            expectedVersions.add(originalState == null ? null : originalState.getVersion());
+            if (concurrentModifications > 0) {
+                concurrentModifications--;
+                state = new VersionedState(state.getState(), state.getVersion() + 1);
+            }
+            long currentVersion = state == null ? 0 : state.getVersion();
+            long expectedVersion = originalState == null ? 0 : originalState.getVersion();
+            if (currentVersion != expectedVersion) {
+                return false;
+            }
+            state = new VersionedState(newData, newVersion);
+            return true;
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            state = null;
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            state = null;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+
+    }
+
+}
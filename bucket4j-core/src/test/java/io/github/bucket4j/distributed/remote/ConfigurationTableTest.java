@@ -0,0 +1,140 @@
+
+package io.github.bucket4j.distributed.remote;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeState;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeState;
+import static org.junit.Assert.*;
+
+public class ConfigurationTableTest {
+
+    @Test
+    public void configurationsEqualByContentShouldHaveSameFingerprint() {
+        BucketConfiguration first = configuration(101, Duration.ofSeconds(11));
+        BucketConfiguration second = configuration(101, Duration.ofSeconds(11));
+        BucketConfiguration third = configuration(102, Duration.ofSeconds(11));
+
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+        assertNotEquals(first.getFingerprint(), third.getFingerprint());
+    }
+
+    @Test
+    public void registeredConfigurationShouldBeStoredByReference() {
+        ConfigurationTable table = new ConfigurationTable();
+        BucketConfiguration configuration = configuration(103, Duration.ofSeconds(13));
+        RemoteBucketState state = state(configuration);
+        byte[] fullBytes = serializeState(state, Versions.getLatest(), table);
+
+        long fingerprint = table.register(configuration);
+        assertTrue(table.isRegistered(configuration(103, Duration.ofSeconds(13))));
+        byte[] referenceBytes = serializeState(state, Versions.getLatest(), table);
+        assertTrue(referenceBytes.length < fullBytes.length);
+
+        RemoteBucketState deserialized = deserializeState(referenceBytes, table, null);
+        assertTrue(ComparableByContent.equals(state, deserialized));
+        assertSame(table.resolve(fingerprint), deserialized.getConfiguration());
+    }
+
+    @Test
+    public void configurationShouldBeStoredByValueForLegacyVersions() {
+        ConfigurationTable table = new ConfigurationTable();
+        BucketConfiguration configuration = configuration(104, Duration.ofSeconds(14));
+        RemoteBucketState state = state(configuration);
+        byte[] fullBytes = serializeState(state, Versions.v_7_1_0, table);
+
+        table.register(configuration);
+        assertArrayEquals(fullBytes, serializeState(state, Versions.v_7_1_0, table));
+    }
+
+    @Test
+    public void unknownFingerprintShouldBeResolvedByLoader() {
+        BucketConfiguration configuration = configuration(105, Duration.ofSeconds(15));
+        long fingerprint = configuration.getFingerprint();
+        try {
+            new ConfigurationTable().resolve(fingerprint);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        ConfigurationTable table = new ConfigurationTable(requested -> requested == fingerprint ? configuration : null);
+        assertSame(configuration, table.resolve(fingerprint));
+        assertTrue(table.isRegistered(configuration));
+    }
+
+    @Test
+    public void tablesShouldBeIndependent() {
+        ConfigurationTable first = new ConfigurationTable();
+        ConfigurationTable second = new ConfigurationTable();
+        BucketConfiguration configuration = configuration(106, Duration.ofSeconds(16));
+
+        first.register(configuration);
+        assertTrue(first.isRegistered(configuration));
+        assertFalse(second.isRegistered(configuration));
+
+        RemoteBucketState state = state(configuration);
+        assertArrayEquals(serializeState(state, Versions.getLatest()), serializeState(state, Versions.getLatest(), second));
+    }
+
+    @Test
+    public void unregisteredConfigurationShouldBeStoredByValue() {
+        ConfigurationTable table = new ConfigurationTable();
+        BucketConfiguration configuration = configuration(107, Duration.ofSeconds(17));
+        RemoteBucketState state = state(configuration);
+
+        table.register(configuration);
+        byte[] referenceBytes = serializeState(state, Versions.getLatest(), table);
+        assertFalse(table.unregister(configuration(108, Duration.ofSeconds(17))));
+        assertTrue(table.unregister(configuration(107, Duration.ofSeconds(17))));
+        assertFalse(table.isRegistered(configuration));
+        assertArrayEquals(serializeState(state, Versions.getLatest()), serializeState(state, Versions.getLatest(), table));
+
+        try {
+            deserializeState(referenceBytes, table, null);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void unknownFingerprintShouldFallbackToConfigurationOfCommand() {
+        ConfigurationTable writerTable = new ConfigurationTable();
+        BucketConfiguration configuration = configuration(109, Duration.ofSeconds(19));
+        writerTable.register(configuration);
+        RemoteBucketState state = state(configuration);
+        byte[] referenceBytes = serializeState(state, Versions.getLatest(), writerTable);
+
+        RemoteBucketState deserialized = deserializeState(referenceBytes, new ConfigurationTable(), configuration(109, Duration.ofSeconds(19)));
+        assertTrue(ComparableByContent.equals(state, deserialized));
+
+        try {
+            deserializeState(referenceBytes, null, configuration(110, Duration.ofSeconds(19)));
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private static BucketConfiguration configuration(long capacity, Duration period) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(capacity, period))
+                .addLimit(Bandwidth.simple(capacity * 10, period.multipliedBy(10)))
+                .build();
+    }
+
+    private static RemoteBucketState state(BucketConfiguration configuration) {
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, System.nanoTime());
+        return new RemoteBucketState(configuration, bucketState, new RemoteStat(42));
+    }
+
+}
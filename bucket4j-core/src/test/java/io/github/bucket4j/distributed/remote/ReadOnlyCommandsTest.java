@@ -0,0 +1,61 @@
+package io.github.bucket4j.distributed.remote;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
+import io.github.bucket4j.distributed.remote.commands.*;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeState;
+import static org.junit.Assert.*;
+
+public class ReadOnlyCommandsTest {
+
+    @Test
+    public void commandsThatOnlyReadBucketShouldBeReadOnly() {
+        assertTrue(new GetAvailableTokensCommand().isReadOnly());
+        assertTrue(new EstimateAbilityToConsumeCommand(1).isReadOnly());
+        assertTrue(new GetConfigurationCommand().isReadOnly());
+        assertTrue(new CreateSnapshotCommand().isReadOnly());
+        assertTrue(new GetAvailableTokensCommand().asVerbose().isReadOnly());
+        assertTrue(new MultiCommand(Arrays.asList(new GetAvailableTokensCommand(), new GetConfigurationCommand())).isReadOnly());
+    }
+
+    @Test
+    public void commandsThatModifyBucketShouldNotBeReadOnly() {
+        assertFalse(new TryConsumeCommand(1).isReadOnly());
+        assertFalse(new AddTokensCommand(1).isReadOnly());
+        assertFalse(new TryConsumeCommand(1).asVerbose().isReadOnly());
+        assertFalse(new MultiCommand(Arrays.asList(new GetAvailableTokensCommand(), new TryConsumeCommand(1))).isReadOnly());
+    }
+
+    @Test
+    public void readOnlyCommandsShouldNotModifyEntry() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)).withInitialTokens(3))
+                .build();
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0L);
+        byte[] stateBytes = serializeState(new RemoteBucketState(configuration, bucketState, new RemoteStat(0)), Versions.getLatest());
+
+        RemoteCommand<?>[] commands = {
+                new GetAvailableTokensCommand(),
+                new EstimateAbilityToConsumeCommand(5),
+                new GetConfigurationCommand(),
+                new CreateSnapshotCommand(),
+                new GetAvailableTokensCommand().asVerbose(),
+        };
+        for (RemoteCommand<?> command : commands) {
+            GenericEntry entry = new GenericEntry(stateBytes, Versions.getLatest());
+            CommandResult<?> result = command.execute(entry, 500_000_000L);
+            assertFalse(result.isBucketNotFound());
+            assertFalse(command.getClass().getSimpleName(), entry.isModified());
+        }
+    }
+
+}
@@ -108,6 +108,21 @@ public abstract class AbstractSerializationTest {
         }
     }
 
+    @Test
+    public void serializeCompactBucketState() throws IOException {
+        Bandwidth[] bandwidths = new Bandwidth[] {
+                simple(10, ofSeconds(1))
+        };
+        BucketConfiguration bucketConfiguration = new BucketConfiguration(Arrays.asList(bandwidths));
+        BucketState bucketState = BucketState.createInitialRemoteState(bucketConfiguration, System.nanoTime());
+        assertTrue(bucketState instanceof BucketStateCompact64BitsInteger);
+
+        bucketState.consume(bandwidths, 3);
+
+        testSerialization(bucketState);
+        testSerialization(new RemoteBucketState(bucketConfiguration, bucketState, new RemoteStat(3)));
+    }
+
     @Test
     public void serializeBucketState_withMultipleBandwidths_withState() throws IOException {
         for (MathType mathType : MathType.values()) {
@@ -0,0 +1,93 @@
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ByteBufferSerializationTest extends AbstractSerializationTest {
+
+    private Map<Class, SerializationHandle> allHandles = new HashMap<Class, SerializationHandle>()
+    {{
+        for (SerializationHandle<?> handle : SerializationHandle.CORE_HANDLES.getAllHandles()) {
+            put(handle.getSerializedType(), handle);
+        }
+    }};
+
+    @Override
+    protected <T> T serializeAndDeserialize(T object) {
+        SerializationHandle serializationHandle = allHandles.get(object.getClass());
+        if (serializationHandle == null) {
+            throw new IllegalArgumentException("Serializer for class " + serializationHandle + " is not specified");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            serializationHandle.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, object, Versions.getLatest());
+            byte[] bytes = Arrays.copyOf(buffer.array(), buffer.position());
+
+            // wire format must be the same as for DataOutput
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            serializationHandle.serialize(DataOutputSerializationAdapter.INSTANCE, new DataOutputStream(baos), object, Versions.getLatest());
+            assertArrayEquals(baos.toByteArray(), bytes);
+
+            ByteBuffer input = ByteBuffer.wrap(bytes);
+            T result = (T) serializationHandle.deserialize(ByteBufferSerializationAdapter.INSTANCE, input, Versions.getLatest());
+            assertEquals(bytes.length, input.position());
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void stringsShouldBeEncodedAsModifiedUtf8() throws IOException {
+        for (String value : new String[] {"", "ascii", "\u0000", "éß", "\u4e2d\u6587", "\uD83D\uDE00"}) {
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            ByteBufferSerializationAdapter.INSTANCE.writeString(buffer, value);
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            new DataOutputStream(baos).writeUTF(value);
+            assertArrayEquals(baos.toByteArray(), Arrays.copyOf(buffer.array(), buffer.position()));
+
+            buffer.flip();
+            assertEquals(value, ByteBufferSerializationAdapter.INSTANCE.readString(buffer));
+        }
+    }
+
+    @Test
+    public void helperShouldGrowScratchBufferForLargeObjects() throws IOException {
+        List<Bandwidth> bandwidths = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            bandwidths.add(Bandwidth.simple(i, Duration.ofSeconds(i)).withId("bandwidth-" + i));
+        }
+        BucketConfiguration configuration = new BucketConfiguration(bandwidths);
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, System.nanoTime());
+        RemoteBucketState state = new RemoteBucketState(configuration, bucketState, new RemoteStat(42));
+
+        byte[] bytes = InternalSerializationHelper.serializeState(state, Versions.getLatest());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        RemoteBucketState.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, new DataOutputStream(baos), state, Versions.getLatest());
+        assertArrayEquals(baos.toByteArray(), bytes);
+        assertTrue(ComparableByContent.equals(state, InternalSerializationHelper.deserializeState(bytes)));
+    }
+
+}
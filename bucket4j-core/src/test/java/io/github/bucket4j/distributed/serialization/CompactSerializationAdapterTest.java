@@ -0,0 +1,108 @@
+
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class CompactSerializationAdapterTest {
+
+    private static final long[] LONGS = {
+            0, 1, -1, 31, 32, -32, -33, 63, 64, 127, 128, 8191, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE / 2, System.nanoTime(), System.currentTimeMillis() * 1_000_000
+    };
+
+    private static final int[] INTS = {0, 1, -1, 63, 64, -64, -65, 8191, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    @Test
+    public void primitivesShouldSurviveRoundTrip() throws IOException {
+        long timeBase = System.currentTimeMillis() * 1_000_000;
+        for (boolean withTimeBase : new boolean[] {false, true}) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            SerializationAdapter<ByteBuffer> writer = withTimeBase
+                    ? CompactSerializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE, timeBase)
+                    : CompactSerializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE);
+            for (long value : LONGS) {
+                writer.writeLong(buffer, value);
+            }
+            for (int value : INTS) {
+                writer.writeInt(buffer, value);
+            }
+            writer.writeLongArray(buffer, LONGS);
+            writer.writeDoubleArray(buffer, new double[] {0.5, -1.0, Double.MAX_VALUE});
+
+            buffer.flip();
+            DeserializationAdapter<ByteBuffer> reader = withTimeBase
+                    ? CompactDeserializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE, timeBase)
+                    : CompactDeserializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE);
+            for (long value : LONGS) {
+                assertEquals(value, reader.readLong(buffer));
+            }
+            for (int value : INTS) {
+                assertEquals(value, reader.readInt(buffer));
+            }
+            assertArrayEquals(LONGS, reader.readLongArray(buffer));
+            assertArrayEquals(new double[] {0.5, -1.0, Double.MAX_VALUE}, reader.readDoubleArray(buffer), 0.0);
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void smallValuesAndTimestampsNearTimeBaseShouldBeShort() throws IOException {
+        long timeBase = System.currentTimeMillis() * 1_000_000;
+        SerializationAdapter<ByteBuffer> writer = CompactSerializationAdapter.wrap(ByteBufferSerializationAdapter.INSTANCE, timeBase);
+
+        assertEquals(1, encodedSize(writer, 31));
+        assertEquals(1, encodedSize(writer, timeBase + 10));
+        assertEquals(5, encodedSize(writer, timeBase - 1_000_000_000L));
+    }
+
+    @Test
+    public void compactRequestShouldBeSmallerThanLegacy() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(1000, Duration.ofMinutes(1)))
+                .addLimit(Bandwidth.simple(100, Duration.ofSeconds(1)))
+                .addLimit(Bandwidth.simple(10_000, Duration.ofHours(1)))
+                .build();
+        CreateInitialStateAndExecuteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, new TryConsumeCommand(1));
+        long clientTime = System.currentTimeMillis() * 1_000_000;
+
+        Request<Boolean> legacyRequest = new Request<>(command, Versions.v_7_2_0, clientTime);
+        Request<Boolean> compactRequest = new Request<>(command, Versions.v_7_3_0, clientTime);
+        byte[] legacyBytes = InternalSerializationHelper.serializeRequest(legacyRequest);
+        byte[] compactBytes = InternalSerializationHelper.serializeRequest(compactRequest);
+
+        assertTrue(compactBytes.length * 3 < legacyBytes.length * 2);
+        assertTrue(ComparableByContent.equals(legacyRequest, InternalSerializationHelper.deserializeRequest(legacyBytes)));
+        assertTrue(ComparableByContent.equals(compactRequest, InternalSerializationHelper.deserializeRequest(compactBytes)));
+    }
+
+    @Test
+    public void resultShouldBeReadableForEachVersion() {
+        CommandResult<Long> result = CommandResult.success(42L, PrimitiveSerializationHandles.LONG_HANDLE);
+        for (Version version : Versions.values()) {
+            byte[] bytes = InternalSerializationHelper.serializeResult(result, version);
+            assertTrue(ComparableByContent.equals(result, InternalSerializationHelper.deserializeResult(bytes, version)));
+        }
+    }
+
+    private static int encodedSize(SerializationAdapter<ByteBuffer> writer, long value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        writer.writeLong(buffer, value);
+        return buffer.position();
+    }
+
+}
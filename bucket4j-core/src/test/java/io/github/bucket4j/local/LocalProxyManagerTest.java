@@ -0,0 +1,114 @@
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class LocalProxyManagerTest {
+
+    private final TimeMeterMock timeMeter = new TimeMeterMock(0);
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+            .build();
+
+    @Test
+    public void bucketsShouldBeIsolatedByKey() {
+        LocalProxyManager<String> proxyManager = new LocalProxyManager<>(100, ClientSideConfig.getDefault().withClientClock(timeMeter));
+
+        Bucket first = proxyManager.builder().build("first", configuration);
+        Bucket second = proxyManager.builder().build("second", configuration);
+
+        assertTrue(first.tryConsume(10));
+        assertFalse(first.tryConsume(1));
+        assertTrue(second.tryConsume(10));
+        assertEquals(2, proxyManager.size());
+        assertSame(configuration, proxyManager.getProxyConfiguration("first").get());
+
+        proxyManager.removeProxy("first");
+        assertEquals(1, proxyManager.size());
+        assertFalse(proxyManager.getProxyConfiguration("first").isPresent());
+    }
+
+    @Test
+    public void leastRecentlyUsedBucketsShouldBeEvictedWhenSizeExceeded() {
+        LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(1, ClientSideConfig.getDefault().withClientClock(timeMeter));
+
+        proxyManager.builder().build(1, configuration).tryConsume(1);
+        proxyManager.builder().build(2, configuration).tryConsume(1);
+
+        assertEquals(1, proxyManager.size());
+        assertEquals(1, proxyManager.getCapacityEvictionCount());
+        assertFalse(proxyManager.getProxyConfiguration(1).isPresent());
+        assertTrue(proxyManager.getProxyConfiguration(2).isPresent());
+    }
+
+    @Test
+    public void sizeShouldNeverExceedMaxSize() {
+        LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(1000, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        for (int i = 0; i < 10_000; i++) {
+            proxyManager.builder().build(i, configuration).tryConsume(1);
+        }
+        assertTrue(proxyManager.size() <= 1000);
+        assertEquals(10_000 - proxyManager.size(), proxyManager.getCapacityEvictionCount());
+    }
+
+    @Test
+    public void refilledBucketsShouldBeEvicted() {
+        LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(100, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        Bucket bucket = proxyManager.builder().build(1, configuration);
+        proxyManager.builder().build(2, configuration).tryConsume(1);
+
+        assertTrue(bucket.tryConsume(10));
+        assertEquals(0, proxyManager.evictRefilledBuckets());
+
+        timeMeter.addTime(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, proxyManager.evictRefilledBuckets());
+        assertEquals(0, proxyManager.size());
+        assertEquals(2, proxyManager.getRefilledEvictionCount());
+
+        // bucket is reconstructed with full capacity, so eviction is lossless
+        assertEquals(10, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void refilledBucketsShouldBeEvictedOnInsertion() {
+        LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(1, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        proxyManager.builder().build(1, configuration).tryConsume(1);
+
+        timeMeter.addTime(Duration.ofSeconds(1).toNanos());
+        proxyManager.builder().build(2, configuration).tryConsume(1);
+
+        assertEquals(1, proxyManager.size());
+        assertEquals(1, proxyManager.getRefilledEvictionCount());
+        assertEquals(0, proxyManager.getCapacityEvictionCount());
+    }
+
+    @Test
+    public void bucketsWithPartialInitialTokensShouldNotBeEvictedAsRefilled() {
+        LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(100, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        BucketConfiguration partiallyFilled = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)).withInitialTokens(1))
+                .build();
+        Bucket bucket = proxyManager.builder().build(1, partiallyFilled);
+        assertTrue(bucket.tryConsume(1));
+
+        timeMeter.addTime(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, proxyManager.evictRefilledBuckets());
+        assertEquals(10, bucket.getAvailableTokens());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveMaxSizeShouldBeRejected() {
+        new LocalProxyManager<>(0);
+    }
+
+}
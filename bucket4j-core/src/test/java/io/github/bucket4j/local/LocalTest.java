@@ -34,6 +34,34 @@ public class LocalTest {
         test5Seconds(() -> builder.build(), threadCount, action);
     }
 
+    @Test
+    public void testTryConsume_lockFreeInPlace() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.tryConsume(1)? 1L : 0L;
+        test5Seconds(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_IN_PLACE).build(), threadCount, action);
+    }
+
+    @Test
+    public void testTryConsume_lockFreeInPlace_Limited() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.asBlocking().tryConsumeUninterruptibly(1, Duration.ofMillis(50))? 1L : 0L;
+        test5Seconds(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_IN_PLACE).build(), threadCount, action);
+    }
+
+    @Test
+    public void testTryConsume_striped() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.tryConsume(1)? 1L : 0L;
+        test5Seconds(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.STRIPED).build(), threadCount, action);
+    }
+
+    @Test
+    public void testTryConsume_striped_Limited() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.asBlocking().tryConsumeUninterruptibly(1, Duration.ofMillis(50))? 1L : 0L;
+        test5Seconds(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.STRIPED).build(), threadCount, action);
+    }
+
     @Test
     public void testTryConsume_Synchronized() throws Throwable {
         int threadCount = 4;
@@ -0,0 +1,161 @@
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class OffHeapProxyManagerTest {
+
+    private final TimeMeterMock timeMeter = new TimeMeterMock(0);
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+            .build();
+
+    @Test
+    public void bucketsShouldBeIsolatedByKey() {
+        OffHeapProxyManager proxyManager = new OffHeapProxyManager(configuration, 100, ClientSideConfig.getDefault().withClientClock(timeMeter));
+
+        Bucket first = proxyManager.builder().build(1L, configuration);
+        Bucket second = proxyManager.builder().build(2L, configuration);
+
+        assertTrue(first.tryConsume(10));
+        assertFalse(first.tryConsume(1));
+        assertTrue(second.tryConsume(3));
+        assertEquals(7, second.getAvailableTokens());
+        assertEquals(2, proxyManager.size());
+        assertEquals(32, proxyManager.getSlotSize());
+
+        timeMeter.addTime(Duration.ofMillis(500).toNanos());
+        assertEquals(5, first.getAvailableTokens());
+    }
+
+    @Test
+    public void removedKeysShouldNotBreakProbeSequences() {
+        int keys = 5_000;
+        OffHeapProxyManager proxyManager = new OffHeapProxyManager(configuration, keys, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        for (long key = 0; key < keys; key++) {
+            assertTrue(proxyManager.builder().build(key, configuration).tryConsume(1 + key % 10));
+        }
+        for (long key = 0; key < keys; key += 2) {
+            proxyManager.removeProxy(key);
+        }
+        assertEquals(keys / 2, proxyManager.size());
+        for (long key = 0; key < keys; key++) {
+            boolean removed = key % 2 == 0;
+            assertEquals(!removed, proxyManager.getProxyConfiguration(key).isPresent());
+            if (!removed) {
+                assertEquals(10 - (1 + key % 10), proxyManager.builder().build(key, configuration).getAvailableTokens());
+            }
+        }
+    }
+
+    @Test
+    public void refilledBucketsShouldBeEvictedWhenStorageIsFull() {
+        OffHeapProxyManager proxyManager = new OffHeapProxyManager(configuration, 16, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        long key = 0;
+        try {
+            while (true) {
+                proxyManager.builder().build(key++, configuration).tryConsume(1);
+            }
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(16, proxyManager.size());
+
+        timeMeter.addTime(Duration.ofSeconds(1).toNanos());
+        assertTrue(proxyManager.builder().build(key, configuration).tryConsume(1));
+        assertTrue(proxyManager.getRefilledEvictionCount() > 0);
+        assertEquals(proxyManager.size(), 16 - proxyManager.getRefilledEvictionCount() + 1);
+
+        timeMeter.addTime(Duration.ofSeconds(1).toNanos());
+        proxyManager.evictRefilledBuckets();
+        assertEquals(0, proxyManager.size());
+    }
+
+    @Test
+    public void maxKeysShouldBeReachable() {
+        for (int maxKeys : new int[] {1, 15, 160, 1000, 12_345}) {
+            OffHeapProxyManager proxyManager = new OffHeapProxyManager(configuration, maxKeys, ClientSideConfig.getDefault().withClientClock(timeMeter));
+            for (long key = 0; key < maxKeys; key++) {
+                assertTrue(proxyManager.builder().build(key, configuration).tryConsume(1));
+            }
+            assertEquals(maxKeys, proxyManager.size());
+            try {
+                proxyManager.builder().build((long) maxKeys, configuration).tryConsume(1);
+                fail();
+            } catch (IllegalStateException e) {
+                assertEquals(BucketExceptions.offHeapStorageIsFull(maxKeys).getMessage(), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void bucketsWithPartialInitialTokensShouldNotBeEvictedAsRefilled() {
+        BucketConfiguration partiallyFilled = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)).withInitialTokens(1))
+                .build();
+        OffHeapProxyManager proxyManager = new OffHeapProxyManager(partiallyFilled, 16, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        Bucket bucket = proxyManager.builder().build(1L, partiallyFilled);
+        assertTrue(bucket.tryConsume(1));
+
+        timeMeter.addTime(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, proxyManager.evictRefilledBuckets());
+        assertEquals(10, bucket.getAvailableTokens());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anotherConfigurationShouldBeRejected() {
+        OffHeapProxyManager proxyManager = new OffHeapProxyManager(configuration, 16, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        Bucket bucket = proxyManager.builder().build(1L, configuration);
+        bucket.getAvailableTokens();
+        bucket.replaceConfiguration(BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(20, Duration.ofSeconds(1)))
+                .build(), TokensInheritanceStrategy.AS_IS);
+    }
+
+    @Test
+    public void concurrentConsumptionShouldNotExceedCapacity() throws InterruptedException {
+        int threads = 4;
+        int keys = 1000;
+        OffHeapProxyManager proxyManager = new OffHeapProxyManager(configuration, keys, ClientSideConfig.getDefault().withClientClock(timeMeter));
+        AtomicLong consumed = new AtomicLong();
+        CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 20; j++) {
+                        for (long key = 0; key < keys; key++) {
+                            if (proxyManager.builder().build(key, configuration).tryConsume(1)) {
+                                consumed.incrementAndGet();
+                            }
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(keys * 10, consumed.get());
+        assertEquals(keys, proxyManager.size());
+    }
+
+}
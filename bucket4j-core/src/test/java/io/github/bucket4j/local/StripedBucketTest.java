@@ -0,0 +1,109 @@
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class StripedBucketTest {
+
+    private final TimeMeterMock timeMeter = new TimeMeterMock(0);
+
+    @Test
+    public void sumOfStripesShouldBeEqualToOriginalConfiguration() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(103, Refill.greedy(10, Duration.ofSeconds(1))).withInitialTokens(7).withId("x"))
+                .addLimit(Bandwidth.classic(1000, Refill.intervally(50, Duration.ofMinutes(1))))
+                .build();
+
+        long capacity = 0, refillTokens = 0, initialTokens = 0;
+        for (int i = 0; i < 4; i++) {
+            Bandwidth stripeBandwidth = StripedBucket.splitConfiguration(configuration, i, 4).getBandwidths()[0];
+            capacity += stripeBandwidth.getCapacity();
+            refillTokens += stripeBandwidth.getRefillTokens();
+            initialTokens += stripeBandwidth.getInitialTokens();
+            assertEquals("x", stripeBandwidth.getId());
+            assertEquals(Duration.ofSeconds(1).toNanos(), stripeBandwidth.getRefillPeriodNanos());
+            assertTrue(StripedBucket.splitConfiguration(configuration, i, 4).getBandwidths()[1].isRefillIntervally());
+        }
+        assertEquals(103, capacity);
+        assertEquals(10, refillTokens);
+        assertEquals(7, initialTokens);
+    }
+
+    @Test
+    public void stripeCountShouldBeLimitedByBandwidth() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(3, Duration.ofSeconds(1)))
+                .build();
+        StripedBucket bucket = new StripedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, 16);
+        assertEquals(3, bucket.getStripeCount());
+        assertEquals(3, bucket.getAvailableTokens());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveStripeCountShouldBeRejected() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(3, Duration.ofSeconds(1)))
+                .build();
+        new StripedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, 0);
+    }
+
+    @Test
+    public void tokensShouldBeBorrowedFromAnotherStripes() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(100, Duration.ofSeconds(1)))
+                .build();
+        StripedBucket bucket = new StripedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, 4);
+
+        assertTrue(bucket.tryConsume(60));
+        assertEquals(40, bucket.getAvailableTokens());
+        assertFalse(bucket.tryConsume(41));
+        assertEquals(40, bucket.getAvailableTokens());
+        assertEquals(40, bucket.tryConsumeAsMuchAsPossible());
+        assertEquals(0, bucket.getAvailableTokens());
+
+        timeMeter.addTime(Duration.ofMillis(500).toNanos());
+        assertEquals(48, bucket.getAvailableTokens());
+        assertTrue(bucket.tryConsume(48));
+    }
+
+    @Test
+    public void rejectionShouldEstimateTimeToRefill() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(100, Duration.ofSeconds(1)).withInitialTokens(0))
+                .build();
+        StripedBucket bucket = new StripedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, 4);
+
+        assertEquals(Duration.ofMillis(100).toNanos(), bucket.tryConsumeAndReturnRemaining(10).getNanosToWaitForRefill());
+        assertEquals(Duration.ofMillis(100).toNanos(), bucket.estimateAbilityToConsume(10).getNanosToWaitForRefill());
+    }
+
+    @Test
+    public void tokensShouldBeAddedToAllStripes() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(100, Duration.ofSeconds(1)).withInitialTokens(0))
+                .build();
+        StripedBucket bucket = new StripedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, 4);
+
+        bucket.addTokens(42);
+        assertEquals(42, bucket.getAvailableTokens());
+        assertTrue(bucket.tryConsume(42));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void verboseApiShouldBeRejected() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(100, Duration.ofSeconds(1)))
+                .build();
+        new StripedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, 4).asVerbose().tryConsume(1);
+    }
+
+}
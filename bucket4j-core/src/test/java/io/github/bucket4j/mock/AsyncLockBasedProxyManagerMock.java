@@ -0,0 +1,115 @@
+/*
+ *
+ *   Copyright 2015-2021 Vladimir Bukhtoyarov
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.github.bucket4j.mock;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractAsyncLockBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AsyncLockBasedTransaction;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncLockBasedProxyManagerMock<K> extends AbstractAsyncLockBasedProxyManager<K> {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final Map<K, byte[]> stateMap = new HashMap<>();
+
+    public AsyncLockBasedProxyManagerMock(ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        stateMap.remove(key);
+        return DONE;
+    }
+
+    @Override
+    protected AsyncLockBasedTransaction allocateTransaction(K key) {
+        byte[] backup = stateMap.get(key);
+
+        return new AsyncLockBasedTransaction() {
+            @Override
+            public CompletableFuture<Void> begin() {
+                return DONE;
+            }
+
+            @Override
+            public CompletableFuture<Void> update(byte[] data) {
+                if (backup == null) {
+                    throw new IllegalStateException();
+                }
+                stateMap.put(key, data);
+                return DONE;
+            }
+
+            @Override
+            public CompletableFuture<Void> create(byte[] data) {
+                if (backup != null) {
+                    throw new IllegalStateException();
+                }
+                stateMap.put(key, data);
+                return DONE;
+            }
+
+            @Override
+            public CompletableFuture<Void> rollback() {
+                stateMap.put(key, backup);
+                return DONE;
+            }
+
+            @Override
+            public CompletableFuture<Void> commit() {
+                return DONE;
+            }
+
+            @Override
+            public CompletableFuture<LockResult> lock() {
+                return CompletableFuture.completedFuture(backup == null? LockResult.DATA_NOT_EXISTS_AND_LOCKED : LockResult.DATA_EXISTS_AND_LOCKED);
+            }
+
+            @Override
+            public CompletableFuture<Void> unlock() {
+                return DONE;
+            }
+
+            @Override
+            public byte[] getData() {
+                if (backup == null) {
+                    throw new IllegalStateException();
+                }
+                return backup;
+            }
+
+        };
+    }
+
+    @Override
+    protected void releaseTransaction(AsyncLockBasedTransaction transaction) {
+        // do nothing
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        stateMap.remove(key);
+    }
+
+}
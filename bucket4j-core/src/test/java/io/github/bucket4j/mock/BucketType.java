@@ -7,6 +7,7 @@ import io.github.bucket4j.distributed.AsyncBucketProxyAdapter;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
 import io.github.bucket4j.local.LocalBucketBuilder;
+import io.github.bucket4j.local.LocalProxyManager;
 import io.github.bucket4j.local.SynchronizationStrategy;
 
 import static io.github.bucket4j.distributed.proxy.RecoveryStrategy.THROW_BUCKET_NOT_FOUND_EXCEPTION;
@@ -25,6 +26,20 @@ public enum BucketType {
                     .build();
         }
 
+    },
+    LOCAL_LOCK_FREE_IN_PLACE {
+        @Override
+        public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            return builder
+                    .withCustomTimePrecision(timeMeter)
+                    .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_IN_PLACE)
+                    .build();
+        }
+
     },
     LOCAL_SYNCHRONIZED {
         @Override
@@ -106,6 +121,40 @@ public enum BucketType {
                 .build(42, configuration);
         }
     },
+    VERSIONED_COMPARE_AND_SWAP {
+        @Override
+        public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            VersionedCompareAndSwapBasedProxyManagerMock<Integer> proxyManager = new VersionedCompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(timeMeter));
+            return proxyManager.builder()
+                    .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                    .build(42, configuration);
+        }
+
+        @Override
+        public AsyncBucketProxy createAsyncBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            VersionedCompareAndSwapBasedProxyManagerMock<Integer> proxyManager = new VersionedCompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(timeMeter));
+            return proxyManager.asAsync().builder()
+                .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                .build(42, configuration);
+        }
+    },
+    LOCAL_PROXY_MANAGER {
+        @Override
+        public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(1000, ClientSideConfig.getDefault().withClientClock(timeMeter));
+            return proxyManager.builder()
+                    .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                    .build(42, configuration);
+        }
+
+        @Override
+        public AsyncBucketProxy createAsyncBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            LocalProxyManager<Integer> proxyManager = new LocalProxyManager<>(1000, ClientSideConfig.getDefault().withClientClock(timeMeter));
+            return proxyManager.asAsync().builder()
+                    .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                    .build(42, configuration);
+        }
+    },
     SELECT_FOR_UPDATE {
         @Override
         public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
@@ -114,6 +163,23 @@ public enum BucketType {
                     .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
                     .build(42, configuration);
         }
+    },
+    ASYNC_SELECT_FOR_UPDATE {
+        @Override
+        public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            AsyncLockBasedProxyManagerMock<Integer> proxyManager = new AsyncLockBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(timeMeter));
+            return proxyManager.builder()
+                    .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                    .build(42, configuration);
+        }
+
+        @Override
+        public AsyncBucketProxy createAsyncBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            AsyncLockBasedProxyManagerMock<Integer> proxyManager = new AsyncLockBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(timeMeter));
+            return proxyManager.asAsync().builder()
+                    .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                    .build(42, configuration);
+        }
     };
 
     abstract public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter);
@@ -132,7 +198,7 @@ public enum BucketType {
     }
 
     public boolean isLocal() {
-        return this == LOCAL_LOCK_FREE || this == LOCAL_SYNCHRONIZED || this == LOCAL_UNSAFE;
+        return this == LOCAL_LOCK_FREE || this == LOCAL_LOCK_FREE_IN_PLACE || this == LOCAL_SYNCHRONIZED || this == LOCAL_UNSAFE;
     }
 
 }
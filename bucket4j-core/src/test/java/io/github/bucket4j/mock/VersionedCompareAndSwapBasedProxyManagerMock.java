@@ -0,0 +1,92 @@
+/*
+ *
+ *   Copyright 2015-2017 Vladimir Bukhtoyarov
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *           http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.github.bucket4j.mock;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractVersionedCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncVersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedState;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class VersionedCompareAndSwapBasedProxyManagerMock<K> extends AbstractVersionedCompareAndSwapBasedProxyManager<K> {
+
+    private final Map<K, VersionedState> stateMap = new HashMap<>();
+
+    public VersionedCompareAndSwapBasedProxyManagerMock(ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        stateMap.remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    protected VersionedCompareAndSwapOperation beginVersionedCompareAndSwapOperation(K key) {
+        return new VersionedCompareAndSwapOperation() {
+            @Override
+            public Optional<VersionedState> getVersionedState() {
+                return Optional.ofNullable(stateMap.get(key));
+            }
+            @Override
+            public boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                return VersionedCompareAndSwapBasedProxyManagerMock.this.compareAndSwap(key, originalState, newData, newVersion);
+            }
+        };
+    }
+
+    @Override
+    protected AsyncVersionedCompareAndSwapOperation beginAsyncVersionedCompareAndSwapOperation(K key) {
+        return new AsyncVersionedCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<VersionedState>> getVersionedState() {
+                return CompletableFuture.completedFuture(Optional.ofNullable(stateMap.get(key)));
+            }
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                return CompletableFuture.completedFuture(VersionedCompareAndSwapBasedProxyManagerMock.this.compareAndSwap(key, originalState, newData, newVersion));
+            }
+        };
+    }
+
+    private boolean compareAndSwap(K key, VersionedState originalState, byte[] newData, long newVersion) {
+        VersionedState currentState = stateMap.get(key);
+        if (currentState == null ? originalState != null : originalState == null || currentState.getVersion() != originalState.getVersion()) {
+            return false;
+        }
+        stateMap.put(key, new VersionedState(newData, newVersion));
+        return true;
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        stateMap.remove(key);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+}
@@ -4,6 +4,7 @@ import io.github.bucket4j.Bucket;
 import io.github.bucket4j.BucketState;
 import io.github.bucket4j.distributed.proxy.DefaultBucketProxy;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.local.InPlaceLockFreeBucket;
 import io.github.bucket4j.local.LockFreeBucket;
 import io.github.bucket4j.local.SynchronizedBucket;
 
@@ -16,6 +17,9 @@ public class PackageAccessor {
         if (bucket instanceof LockFreeBucket) {
             AtomicReference stateRef = getFieldValue(bucket, "stateRef");
             return getFieldValue(stateRef.get(), "state");
+        } else if (bucket instanceof InPlaceLockFreeBucket) {
+            Object shared = getFieldValue(bucket, "shared");
+            return getFieldValue(getFieldValue(shared, "current"), "state");
         } else if (bucket instanceof SynchronizedBucket) {
             return getFieldValue(bucket, "state");
         } else if (bucket instanceof DefaultBucketProxy) {
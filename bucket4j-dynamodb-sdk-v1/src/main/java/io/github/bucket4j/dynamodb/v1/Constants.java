@@ -24,6 +24,14 @@ final class Constants {
         /* visible for testing */ static final String DEFAULT_KEY_NAME = "key";
         /* visible for testing */ static final String DEFAULT_STATE_NAME = "state";
 
+        // attributes of numeric layout, see NumericBucketState
+        static final String VERSION_NAME = "v";
+        static final String CONFIGURATION_NAME = "cfg";
+        static final String CONFIGURATION_HASH_NAME = "ch";
+        static final String CONSUMED_TOKENS_NAME = "st";
+        // followed by index of bandwidth starting from 1
+        static final String EMPTY_TIME_PREFIX = "e";
+
         private Attrs() {}
     }
 
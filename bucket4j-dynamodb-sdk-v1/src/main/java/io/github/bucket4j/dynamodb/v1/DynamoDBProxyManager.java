@@ -20,9 +20,11 @@
 package io.github.bucket4j.dynamodb.v1;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 
 /**
  * The extension of Bucket4j library addressed to support <a href="https://aws.amazon.com/dynamodb/">AWS DynamoDB</a>
@@ -86,5 +88,31 @@ public final class DynamoDBProxyManager {
         return new LongDynamoDBProxyManager(db, table, config);
     }
 
+    /**
+     * Returns implementation that uses {@link String} (DynamoDB String) for keys and stores buckets as number attributes,
+     * so {@code tryConsume} is performed by single request. See {@link OptimizedDynamoDBProxyManager} for details.
+     *
+     * @param db     {@link AmazonDynamoDB} client to access DynamoDB table.
+     * @param table  name of DynamoDB table.
+     * @param config {@link ClientSideConfig} configuration.
+     */
+    public static OptimizedDynamoDBProxyManager<String> optimizedStringKey(AmazonDynamoDB db, String table, ClientSideConfig config) {
+        return new OptimizedDynamoDBProxyManager<>(db, table, config,
+                key -> new AttributeValue().withS(StringDynamoDBTransaction.checkKey(key)));
+    }
+
+    /**
+     * Returns implementation that uses {@link Long} (DynamoDB Number) for keys and stores buckets as number attributes,
+     * so {@code tryConsume} is performed by single request. See {@link OptimizedDynamoDBProxyManager} for details.
+     *
+     * @param db     {@link AmazonDynamoDB} client to access DynamoDB table.
+     * @param table  name of DynamoDB table.
+     * @param config {@link ClientSideConfig} configuration.
+     */
+    public static OptimizedDynamoDBProxyManager<Long> optimizedLongKey(AmazonDynamoDB db, String table, ClientSideConfig config) {
+        return new OptimizedDynamoDBProxyManager<>(db, table, config,
+                key -> new AttributeValue().withN(Objects.requireNonNull(key, "key is null").toString()));
+    }
+
     private DynamoDBProxyManager() {}
 }
@@ -0,0 +1,163 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.dynamodb.v1;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketState64BitsInteger;
+import io.github.bucket4j.BucketStateCompact64BitsInteger;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Numeric representation of bucket that is used by {@link OptimizedDynamoDBProxyManager}.
+ *
+ * <p>Each bandwidth is stored as single number, the empty time, the moment in nanoseconds when the bandwidth would contain zero tokens
+ * if refill did not stop at capacity. Amount of tokens at any moment is {@code min(capacity, (now - emptyTime) * refillTokens / refillPeriod)},
+ * so consumption of {@code n} tokens is just addition of {@code n * refillPeriod / refillTokens} to the empty time,
+ * and it can be done by DynamoDB update expression without reading the item.
+ *
+ * <p>Only greedy bandwidths can be represented in this way, and amount of tokens must not exceed the capacity.
+ * Empty times are fractional, they are rounded so that whole tokens survive the round trip, the cost of consumption is rounded up.
+ */
+final class NumericBucketState {
+
+    static final int SCALE = 6;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private NumericBucketState() {
+    }
+
+    static boolean isRepresentable(BucketConfiguration configuration) {
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (bandwidth.isRefillIntervally()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isRepresentable(RemoteBucketState state) {
+        BucketState bucketState = toBucketState64BitsInteger(state.getState());
+        if (!isRepresentable(state.getConfiguration()) || bucketState == null) {
+            return false;
+        }
+        Bandwidth[] bandwidths = state.getConfiguration().getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            // can happen if forceAddTokens has been used
+            if (bucketState.getCurrentSize(i) > bandwidths[i].getCapacity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static BigDecimal[] encode(RemoteBucketState state) {
+        Bandwidth[] bandwidths = state.getConfiguration().getBandwidths();
+        BucketState bucketState = toBucketState64BitsInteger(state.getState());
+        BigDecimal[] emptyTimes = new BigDecimal[bandwidths.length];
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            // rounding error is the fraction of token multiplied by refill period
+            BigDecimal tokensMultipliedByPeriod = BigDecimal.valueOf(bucketState.getCurrentSize(i))
+                .multiply(BigDecimal.valueOf(bandwidth.getRefillPeriodNanos()))
+                .add(BigDecimal.valueOf(bucketState.getRoundingError(i)));
+            BigDecimal refillDuration = tokensMultipliedByPeriod.divide(BigDecimal.valueOf(bandwidth.getRefillTokens()), SCALE, RoundingMode.CEILING);
+            emptyTimes[i] = BigDecimal.valueOf(bucketState.getLastRefillTimeNanos(i)).subtract(refillDuration);
+        }
+        return emptyTimes;
+    }
+
+    static RemoteBucketState decode(BucketConfiguration configuration, BigDecimal[] emptyTimes, long consumedTokens, long currentTimeNanos) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long[] stateData = new long[bandwidths.length * 3];
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            BigInteger refillPeriod = BigInteger.valueOf(bandwidth.getRefillPeriodNanos());
+            BigInteger capacityMultipliedByPeriod = BigInteger.valueOf(bandwidth.getCapacity()).multiply(refillPeriod);
+            BigInteger tokensMultipliedByPeriod = BigDecimal.valueOf(currentTimeNanos).subtract(emptyTimes[i])
+                .multiply(BigDecimal.valueOf(bandwidth.getRefillTokens()))
+                .setScale(0, RoundingMode.FLOOR)
+                .toBigIntegerExact();
+
+            stateData[i * 3] = currentTimeNanos;
+            if (tokensMultipliedByPeriod.compareTo(capacityMultipliedByPeriod) >= 0) {
+                stateData[i * 3 + 1] = bandwidth.getCapacity();
+                stateData[i * 3 + 2] = 0;
+            } else {
+                BigInteger[] quotientAndRemainder = tokensMultipliedByPeriod.divideAndRemainder(refillPeriod);
+                BigInteger size = quotientAndRemainder[0];
+                BigInteger roundingError = quotientAndRemainder[1];
+                if (roundingError.signum() < 0) {
+                    // rounding error must be non-negative, so negative amount of tokens is rounded down
+                    size = size.subtract(BigInteger.ONE);
+                    roundingError = roundingError.add(refillPeriod);
+                }
+                stateData[i * 3 + 1] = size.longValue();
+                stateData[i * 3 + 2] = roundingError.longValue();
+            }
+        }
+        return new RemoteBucketState(configuration, new BucketState64BitsInteger(stateData), new RemoteStat(consumedTokens));
+    }
+
+    /**
+     * @return the state in expanded form, or {@code null} if state is stored with other math
+     */
+    private static BucketState64BitsInteger toBucketState64BitsInteger(BucketState state) {
+        if (state instanceof BucketState64BitsInteger) {
+            return (BucketState64BitsInteger) state;
+        }
+        if (state instanceof BucketStateCompact64BitsInteger) {
+            // single greedy bandwidth with exact refill rate is stored in compact form
+            return ((BucketStateCompact64BitsInteger) state).toBucketState64BitsInteger();
+        }
+        return null;
+    }
+
+    /**
+     * @return the duration in nanoseconds that is required to refill the tokens
+     */
+    static BigDecimal refillDuration(Bandwidth bandwidth, long tokens) {
+        return BigDecimal.valueOf(tokens)
+            .multiply(BigDecimal.valueOf(bandwidth.getRefillPeriodNanos()))
+            .divide(BigDecimal.valueOf(bandwidth.getRefillTokens()), SCALE, RoundingMode.CEILING);
+    }
+
+    /**
+     * FNV-1a hash of serialized configuration, it allows to check that configuration was not replaced by comparing single number.
+     */
+    static long hash(byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
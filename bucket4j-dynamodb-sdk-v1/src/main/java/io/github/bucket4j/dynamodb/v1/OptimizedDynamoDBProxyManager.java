@@ -0,0 +1,308 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.dynamodb.v1;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractVersionedCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncVersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedState;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeConfiguration;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeState;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeConfiguration;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeState;
+import static io.github.bucket4j.dynamodb.v1.Constants.Attrs.*;
+
+/**
+ * DynamoDB proxy manager that stores bucket as number attributes instead of single binary attribute, see {@link NumericBucketState}.
+ *
+ * <p>{@link TryConsumeCommand} is executed by single {@code UpdateItem} which adds the cost of tokens to the empty time of each bandwidth
+ * under condition that bucket contains enough tokens, so neither consistent {@code GetItem} nor conditional {@code PutItem} is needed.
+ * All other commands, and {@code tryConsume} which condition failed, are executed by compare-and-swap on the number attribute {@code v}
+ * that holds the version of item. The parameters of bandwidths that are needed to build the condition are remembered
+ * by compare-and-swap path, so the first request to each bucket in the JVM always goes through compare-and-swap.
+ *
+ * <p>Buckets with intervally refilled bandwidths, and buckets which contain more tokens than capacity after {@code forceAddTokens},
+ * are stored as single binary attribute {@code state} and are always processed by compare-and-swap.
+ * The table has the same structure as for {@link DynamoDBProxyManager}, but items written in different modes are not compatible,
+ * so one key must not be accessed in both modes.
+ *
+ * @param <K> type of key
+ */
+public final class OptimizedDynamoDBProxyManager<K> extends AbstractVersionedCompareAndSwapBasedProxyManager<K> {
+
+    private static final int MAX_REMEMBERED_BUCKETS = 100_000;
+
+    private final AmazonDynamoDB db;
+    private final String table;
+    private final Function<K, AttributeValue> keyMapper;
+    private final ConcurrentHashMap<K, FastPathParameters> fastPathParameters = new ConcurrentHashMap<>();
+
+    OptimizedDynamoDBProxyManager(AmazonDynamoDB db, String table, ClientSideConfig config, Function<K, AttributeValue> keyMapper) {
+        super(Objects.requireNonNull(config, "config is null"));
+        this.db = Objects.requireNonNull(db, "DynamoDB is null");
+        this.table = Objects.requireNonNull(table, "table name is null");
+        this.keyMapper = keyMapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CommandResult<T> execute(K key, Request<T> request) {
+        RemoteCommand<T> command = request.getCommand();
+        if (command.getClass() == TryConsumeCommand.class) {
+            FastPathParameters parameters = fastPathParameters.get(key);
+            long tokensToConsume = ((TryConsumeCommand) command).getTokensToConsume();
+            if (parameters != null && tryConsumeByUpdate(key, parameters, tokensToConsume)) {
+                return (CommandResult<T>) CommandResult.TRUE;
+            }
+        }
+        return super.execute(key, request);
+    }
+
+    @Override
+    protected VersionedCompareAndSwapOperation beginVersionedCompareAndSwapOperation(K key) {
+        Map<String, AttributeValue> itemKey = Collections.singletonMap(DEFAULT_KEY_NAME, keyMapper.apply(key));
+        return new VersionedCompareAndSwapOperation() {
+            @Override
+            public Optional<VersionedState> getVersionedState() {
+                GetItemRequest request = new GetItemRequest()
+                        .withTableName(table)
+                        .withKey(itemKey)
+                        .withConsistentRead(true);
+                Map<String, AttributeValue> item = db.getItem(request).getItem();
+                if (item == null || !item.containsKey(VERSION_NAME)) {
+                    fastPathParameters.remove(key);
+                    return Optional.empty();
+                }
+                long version = Long.parseLong(item.get(VERSION_NAME).getN());
+
+                AttributeValue binaryState = item.get(DEFAULT_STATE_NAME);
+                if (binaryState != null) {
+                    fastPathParameters.remove(key);
+                    return Optional.of(new VersionedState(toBytes(binaryState), version));
+                }
+
+                byte[] configurationBytes = toBytes(item.get(CONFIGURATION_NAME));
+                BucketConfiguration configuration = deserializeConfiguration(configurationBytes);
+                BigDecimal[] emptyTimes = new BigDecimal[configuration.getBandwidths().length];
+                for (int i = 0; i < emptyTimes.length; i++) {
+                    emptyTimes[i] = new BigDecimal(item.get(EMPTY_TIME_PREFIX + (i + 1)).getN());
+                }
+                long consumedTokens = Long.parseLong(item.get(CONSUMED_TOKENS_NAME).getN());
+                RemoteBucketState state = NumericBucketState.decode(configuration, emptyTimes, consumedTokens, currentTimeNanos());
+
+                rememberFastPathParameters(key, configuration, NumericBucketState.hash(configurationBytes));
+                return Optional.of(new VersionedState(serializeState(state, getBackwardCompatibilityVersion()), version));
+            }
+
+            @Override
+            public boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                RemoteBucketState newState = deserializeState(newData);
+                Map<String, AttributeValue> item = new HashMap<>();
+                item.putAll(itemKey);
+                item.put(VERSION_NAME, number(newVersion));
+
+                boolean numeric = NumericBucketState.isRepresentable(newState);
+                byte[] configurationBytes = null;
+                if (numeric) {
+                    configurationBytes = serializeConfiguration(newState.getConfiguration(), getBackwardCompatibilityVersion());
+                    item.put(CONFIGURATION_NAME, new AttributeValue().withB(ByteBuffer.wrap(configurationBytes)));
+                    item.put(CONFIGURATION_HASH_NAME, number(NumericBucketState.hash(configurationBytes)));
+                    item.put(CONSUMED_TOKENS_NAME, number(newState.getRemoteStat().getConsumedTokens()));
+                    BigDecimal[] emptyTimes = NumericBucketState.encode(newState);
+                    for (int i = 0; i < emptyTimes.length; i++) {
+                        item.put(EMPTY_TIME_PREFIX + (i + 1), number(emptyTimes[i]));
+                    }
+                } else {
+                    item.put(DEFAULT_STATE_NAME, new AttributeValue().withB(ByteBuffer.wrap(newData)));
+                }
+
+                PutItemRequest request = new PutItemRequest()
+                        .withTableName(table)
+                        .withItem(item)
+                        .withExpressionAttributeNames(Collections.singletonMap("#v", VERSION_NAME));
+                if (originalState == null) {
+                    request.withConditionExpression("attribute_not_exists(#v)");
+                } else {
+                    request.withConditionExpression("#v = :v")
+                            .withExpressionAttributeValues(Collections.singletonMap(":v", number(originalState.getVersion())));
+                }
+
+                try {
+                    db.putItem(request);
+                } catch (ConditionalCheckFailedException e) {
+                    return false;
+                }
+                if (numeric) {
+                    rememberFastPathParameters(key, newState.getConfiguration(), NumericBucketState.hash(configurationBytes));
+                } else {
+                    fastPathParameters.remove(key);
+                }
+                return true;
+            }
+        };
+    }
+
+    @Override
+    protected AsyncVersionedCompareAndSwapOperation beginAsyncVersionedCompareAndSwapOperation(K key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        fastPathParameters.remove(key);
+        db.deleteItem(table, Collections.singletonMap(DEFAULT_KEY_NAME, keyMapper.apply(key)));
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        throw new UnsupportedOperationException();
+    }
+
+    private boolean tryConsumeByUpdate(K key, FastPathParameters parameters, long tokensToConsume) {
+        long currentTimeNanos = currentTimeNanos();
+        Bandwidth[] bandwidths = parameters.bandwidths;
+
+        StringBuilder updateExpression = new StringBuilder("SET #v = #v + :one, #st = #st + :tokens");
+        StringBuilder conditionExpression = new StringBuilder("#ch = :ch");
+        Map<String, String> names = new HashMap<>();
+        names.put("#v", VERSION_NAME);
+        names.put("#st", CONSUMED_TOKENS_NAME);
+        names.put("#ch", CONFIGURATION_HASH_NAME);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":one", number(1));
+        values.put(":tokens", number(tokensToConsume));
+        values.put(":ch", number(parameters.configurationHash));
+
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            if (tokensToConsume > bandwidth.getCapacity()) {
+                // request can not be satisfied, compare-and-swap path will calculate the answer
+                return false;
+            }
+            int index = i + 1;
+            BigDecimal now = BigDecimal.valueOf(currentTimeNanos);
+            BigDecimal cost = NumericBucketState.refillDuration(bandwidth, tokensToConsume);
+            // bucket contains enough tokens when empty time is not later than now - cost,
+            // empty time earlier than now - refill duration of capacity means that bucket is full,
+            // such bucket is normalized by compare-and-swap path because update expression can not cut tokens at capacity
+            BigDecimal lowerBound = now.subtract(NumericBucketState.refillDuration(bandwidth, bandwidth.getCapacity()));
+            BigDecimal upperBound = now.subtract(cost);
+
+            names.put("#e" + index, EMPTY_TIME_PREFIX + index);
+            values.put(":c" + index, number(cost));
+            values.put(":l" + index, number(lowerBound));
+            values.put(":u" + index, number(upperBound));
+            updateExpression.append(", #e").append(index).append(" = #e").append(index).append(" + :c").append(index);
+            conditionExpression.append(" AND #e").append(index).append(" BETWEEN :l").append(index).append(" AND :u").append(index);
+        }
+
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(table)
+                .withKey(Collections.singletonMap(DEFAULT_KEY_NAME, keyMapper.apply(key)))
+                .withUpdateExpression(updateExpression.toString())
+                .withConditionExpression(conditionExpression.toString())
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+        try {
+            db.updateItem(request);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private void rememberFastPathParameters(K key, BucketConfiguration configuration, long configurationHash) {
+        if (fastPathParameters.size() >= MAX_REMEMBERED_BUCKETS && !fastPathParameters.containsKey(key)) {
+            // evict arbitrary bucket, it will be remembered again by next compare-and-swap
+            Iterator<K> iterator = fastPathParameters.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        fastPathParameters.put(key, new FastPathParameters(configuration.getBandwidths(), configurationHash));
+    }
+
+    private long currentTimeNanos() {
+        Long clientSideTime = getClientSideTime();
+        return clientSideTime != null ? clientSideTime : System.currentTimeMillis() * 1_000_000;
+    }
+
+    private static AttributeValue number(long value) {
+        return new AttributeValue().withN(Long.toString(value));
+    }
+
+    private static AttributeValue number(BigDecimal value) {
+        return new AttributeValue().withN(value.toPlainString());
+    }
+
+    private static byte[] toBytes(AttributeValue value) {
+        ByteBuffer buffer = value.getB().duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static final class FastPathParameters {
+
+        private final Bandwidth[] bandwidths;
+        private final long configurationHash;
+
+        private FastPathParameters(Bandwidth[] bandwidths, long configurationHash) {
+            this.bandwidths = bandwidths;
+            this.configurationHash = configurationHash;
+        }
+
+    }
+
+}
@@ -40,7 +40,10 @@ final class StringDynamoDBTransaction extends BaseDynamoDBTransaction {
 
     public StringDynamoDBTransaction(AmazonDynamoDB db, String table, String key) {
         super(db, table);
+        this.key = checkKey(key);
+    }
 
+    static String checkKey(String key) {
         Objects.requireNonNull(key, "key is null");
         if (key.isEmpty()) {
             throw new IllegalArgumentException("key is empty");
@@ -53,8 +56,7 @@ final class StringDynamoDBTransaction extends BaseDynamoDBTransaction {
                     "while max allowed is " + MAX_SUPPORTED_LENGTH + " bytes"
             );
         }
-
-        this.key = key;
+        return key;
     }
 
     @Override
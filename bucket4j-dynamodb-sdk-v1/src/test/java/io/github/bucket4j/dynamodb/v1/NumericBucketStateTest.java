@@ -0,0 +1,118 @@
+package io.github.bucket4j.dynamodb.v1;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketStateCompact64BitsInteger;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class NumericBucketStateTest {
+
+    private static final long NOW = 1_600_000_000_000_000_000L;
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+            .addLimit(Bandwidth.classic(3, Refill.greedy(1, Duration.ofSeconds(7))))
+            .build();
+
+    @Test
+    public void shouldSurviveRoundTrip() {
+        RemoteBucketState state = initialState(configuration);
+        state.consume(2);
+        state.refillAllBandwidth(NOW + 1_234_567_891);
+
+        RemoteBucketState decoded = roundTrip(state, NOW + 3_000_000_000L);
+
+        RemoteBucketState expected = state.copy();
+        expected.refillAllBandwidth(NOW + 3_000_000_000L);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(expected.getState().getCurrentSize(i), decoded.getState().getCurrentSize(i));
+            assertEquals((double) expected.getState().getRoundingError(i), (double) decoded.getState().getRoundingError(i), 1.0);
+        }
+        assertEquals(2, decoded.getRemoteStat().getConsumedTokens());
+    }
+
+    @Test
+    public void shouldNotExceedCapacity() {
+        RemoteBucketState decoded = roundTrip(initialState(configuration), NOW + Duration.ofDays(1).toNanos());
+        assertEquals(10, decoded.getState().getCurrentSize(0));
+        assertEquals(3, decoded.getState().getCurrentSize(1));
+        assertEquals(0, decoded.getState().getRoundingError(0));
+    }
+
+    @Test
+    public void shouldRepresentNegativeAmountOfTokens() {
+        RemoteBucketState state = initialState(configuration);
+        state.consume(5);
+        RemoteBucketState decoded = roundTrip(state, NOW);
+        assertEquals(-2, decoded.getState().getCurrentSize(1));
+        assertEquals(0, decoded.getState().getRoundingError(1));
+        assertEquals(-2, decoded.getAvailableTokens());
+    }
+
+    @Test
+    public void consumptionShouldBeEquivalentToShiftOfEmptyTime() {
+        RemoteBucketState state = initialState(configuration);
+        BigDecimal[] emptyTimes = NumericBucketState.encode(state);
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            emptyTimes[i] = emptyTimes[i].add(NumericBucketState.refillDuration(bandwidths[i], 2));
+        }
+        RemoteBucketState decoded = NumericBucketState.decode(configuration, emptyTimes, 0, NOW);
+        assertEquals(8, decoded.getState().getCurrentSize(0));
+        assertEquals(1, decoded.getState().getCurrentSize(1));
+    }
+
+    @Test
+    public void shouldDetectUnsupportedStates() {
+        BucketConfiguration intervallyRefilled = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(10, Refill.intervally(10, Duration.ofMinutes(1))))
+                .build();
+        assertFalse(NumericBucketState.isRepresentable(intervallyRefilled));
+
+        RemoteBucketState state = initialState(configuration);
+        assertTrue(NumericBucketState.isRepresentable(state));
+        state.forceAddTokens(1);
+        assertFalse(NumericBucketState.isRepresentable(state));
+    }
+
+    @Test
+    public void shouldRepresentCompactState() {
+        BucketConfiguration singleBandwidth = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .build();
+        RemoteBucketState state = new RemoteBucketState(singleBandwidth, new BucketStateCompact64BitsInteger(singleBandwidth, NOW), new RemoteStat(0));
+        assertTrue(NumericBucketState.isRepresentable(state));
+
+        state.consume(3);
+        RemoteBucketState decoded = roundTrip(state, NOW);
+        assertEquals(7, decoded.getState().getCurrentSize(0));
+        assertEquals(0, decoded.getState().getRoundingError(0));
+    }
+
+    @Test
+    public void hashShouldDependOnContent() {
+        assertEquals(NumericBucketState.hash(new byte[] {1, 2, 3}), NumericBucketState.hash(new byte[] {1, 2, 3}));
+        assertNotEquals(NumericBucketState.hash(new byte[] {1, 2, 3}), NumericBucketState.hash(new byte[] {1, 3, 2}));
+    }
+
+    private static RemoteBucketState initialState(BucketConfiguration configuration) {
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, NOW);
+        return new RemoteBucketState(configuration, bucketState, new RemoteStat(0));
+    }
+
+    private RemoteBucketState roundTrip(RemoteBucketState state, long currentTimeNanos) {
+        BigDecimal[] emptyTimes = NumericBucketState.encode(state);
+        return NumericBucketState.decode(state.getConfiguration(), emptyTimes, state.getRemoteStat().getConsumedTokens(), currentTimeNanos);
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.bucket4j.dynamodb.v1;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.local.embedded.DynamoDBEmbedded;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OptimizedLongDynamoDBProxyManagerTckTest extends AbstractDistributedBucketTest<Long> {
+    private static final AmazonDynamoDB db = DynamoDBEmbedded.create().amazonDynamoDB();
+    private static final String table = "buckets";
+
+    @Before
+    public void createStateTable() {
+        Utils.createStateTable(db, table, ScalarAttributeType.N);
+    }
+
+    @After
+    public void dropStateTable() {
+        db.deleteTable(table);
+    }
+
+    @Override
+    protected ProxyManager<Long> getProxyManager() {
+        return DynamoDBProxyManager.optimizedLongKey(db, table, ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS));
+    }
+
+    @Override
+    protected Long generateRandomKey() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Test
+    public void tryConsumeShouldBeExecutedBySingleUpdateItemWhenBucketIsKnown() {
+        List<String> calls = new ArrayList<>();
+        AmazonDynamoDB recordingDb = (AmazonDynamoDB) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {AmazonDynamoDB.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    return method.invoke(db, args);
+                });
+        ProxyManager<Long> proxyManager = DynamoDBProxyManager.optimizedLongKey(recordingDb, table,
+                ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS));
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .build();
+        Bucket bucket = proxyManager.builder().build(generateRandomKey(), configuration);
+
+        // first request creates the bucket
+        assertTrue(bucket.tryConsume(1));
+        calls.clear();
+
+        for (int i = 0; i < 9; i++) {
+            assertTrue(bucket.tryConsume(1));
+        }
+        assertEquals(9, calls.size());
+        assertTrue(calls.stream().allMatch("updateItem"::equals));
+
+        assertFalse(bucket.tryConsume(1));
+        assertEquals(0, bucket.getAvailableTokens());
+    }
+
+}
@@ -0,0 +1,189 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.dynamodb.v2;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Proxy manager that stores buckets in DynamoDB via non-blocking {@link DynamoDbAsyncClient} of
+ * <a href="https://docs.aws.amazon.com/sdk-for-java/latest/developer-guide/home.html">AWS SDK for Java 2.x</a>.
+ *
+ * <p>Each command is executed as compare-and-swap: the state is read by strongly consistent <code>GetItem</code>
+ * and written back by <code>PutItem</code> under condition that the state was not changed by someone else.
+ * Synchronous API waits for the same requests that are used by asynchronous API,
+ * so the threads of {@link DynamoDbAsyncClient} must never be blocked by {@link io.github.bucket4j.Bucket} methods.
+ *
+ * @param <K> type of key
+ */
+public final class AsyncDynamoDBProxyManager<K> extends AbstractCompareAndSwapBasedProxyManager<K> {
+
+    private final DynamoDbAsyncClient client;
+    private final DynamoDBTableSettings tableSettings;
+    private final Function<K, AttributeValue> keyMapper;
+
+    AsyncDynamoDBProxyManager(DynamoDbAsyncClient client, DynamoDBTableSettings tableSettings, ClientSideConfig config,
+                              Function<K, AttributeValue> keyMapper) {
+        super(Objects.requireNonNull(config, "config is null"));
+        this.client = Objects.requireNonNull(client, "DynamoDB client is null");
+        this.tableSettings = Objects.requireNonNull(tableSettings, "table settings is null");
+        this.keyMapper = keyMapper;
+    }
+
+    public DynamoDBTableSettings getTableSettings() {
+        return tableSettings;
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(K key) {
+        AsyncCompareAndSwapOperation operation = beginAsyncCompareAndSwapOperation(key);
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData() {
+                return join(operation.getStateData());
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData) {
+                return join(operation.compareAndSwap(originalData, newData));
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(K key) {
+        Map<String, AttributeValue> itemKey = Collections.singletonMap(tableSettings.getKeyAttribute(), keyMapper.apply(key));
+        String stateAttribute = tableSettings.getStateAttribute();
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData() {
+                GetItemRequest request = GetItemRequest.builder()
+                        .tableName(tableSettings.getTableName())
+                        .key(itemKey)
+                        .consistentRead(true)
+                        .projectionExpression("#st")
+                        .expressionAttributeNames(Collections.singletonMap("#st", stateAttribute))
+                        .build();
+                return client.getItem(request).thenApply(response -> {
+                    if (!response.hasItem() || !response.item().containsKey(stateAttribute)) {
+                        return Optional.empty();
+                    }
+                    SdkBytes state = response.item().get(stateAttribute).b();
+                    if (state == null) {
+                        throw new IllegalStateException("state (attribute: " + stateAttribute + ") value is corrupted for key " + key
+                                + ". It is present but value type is different from Binary (B) type");
+                    }
+                    return Optional.of(state.asByteArray());
+                });
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData) {
+                Map<String, AttributeValue> item = new HashMap<>(itemKey);
+                item.put(stateAttribute, AttributeValue.builder().b(SdkBytes.fromByteArray(newData)).build());
+                tableSettings.getTtlAttribute().ifPresent(ttlAttribute -> item.put(ttlAttribute, calculateExpirationTime()));
+
+                // to be safe as there are reserved words in DynamoDB
+                PutItemRequest.Builder request = PutItemRequest.builder()
+                        .tableName(tableSettings.getTableName())
+                        .item(item)
+                        .expressionAttributeNames(Collections.singletonMap("#st", stateAttribute));
+                if (originalData == null) {
+                    request.conditionExpression("attribute_not_exists(#st)");
+                } else {
+                    request.conditionExpression("#st = :expected")
+                            .expressionAttributeValues(Collections.singletonMap(":expected",
+                                    AttributeValue.builder().b(SdkBytes.fromByteArray(originalData)).build()));
+                }
+
+                return client.putItem(request.build())
+                        .thenApply(response -> true)
+                        .exceptionally(error -> {
+                            if (unwrap(error) instanceof ConditionalCheckFailedException) {
+                                return false;
+                            }
+                            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                        });
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        join(removeAsync(key));
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        DeleteItemRequest request = DeleteItemRequest.builder()
+                .tableName(tableSettings.getTableName())
+                .key(Collections.singletonMap(tableSettings.getKeyAttribute(), keyMapper.apply(key)))
+                .build();
+        return client.deleteItem(request).thenApply(response -> null);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private AttributeValue calculateExpirationTime() {
+        Duration timeToLive = tableSettings.getTimeToLive().get();
+        long expirationEpochSeconds = (System.currentTimeMillis() + timeToLive.toMillis()) / 1000;
+        return AttributeValue.builder().n(Long.toString(expirationEpochSeconds)).build();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+}
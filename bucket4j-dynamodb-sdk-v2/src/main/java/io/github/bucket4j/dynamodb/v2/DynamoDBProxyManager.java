@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.dynamodb.v2;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The extension of Bucket4j library addressed to support <a href="https://aws.amazon.com/dynamodb/">AWS DynamoDB</a>
+ * as backend via <a href="https://docs.aws.amazon.com/sdk-for-java/latest/developer-guide/home.html">AWS SDK for
+ * Java 2.x</a>.
+ * <p>
+ * Proxy managers returned by this class support both synchronous and asynchronous API, all network requests are performed by
+ * {@link DynamoDbAsyncClient}, so the non-blocking HTTP client (Netty NIO or AWS CRT) that is configured for this client is used.
+ * <p>
+ * Example of CloudFormation definition of table:
+ * <pre>
+ * {@code
+ * Resources:
+ *   RateLimitsTable:
+ *     Type: 'AWS::DynamoDB::Table'
+ *     Properties:
+ *       TableName: rate-limits
+ *       AttributeDefinitions:
+ *           # should match DynamoDBTableSettings.getKeyAttribute(),
+ *           # use S for string keys and N for long keys.
+ *         - AttributeName: 'key'
+ *           AttributeType: 'S'
+ *       KeySchema:
+ *         - AttributeName: 'key'
+ *           KeyType: 'HASH'
+ *       # should match DynamoDBTableSettings.getTtlAttribute() if time to live is configured
+ *       TimeToLiveSpecification:
+ *         AttributeName: 'expiresAt'
+ *         Enabled: true
+ *       BillingMode: 'PAY_PER_REQUEST'
+ * }
+ * </pre>
+ * Table that can be used with {@link #stringKey(DynamoDbAsyncClient, DynamoDBTableSettings, ClientSideConfig)} and
+ * {@code DynamoDBTableSettings.forTable("rate-limits").withTimeToLive("expiresAt", Duration.ofHours(1))}.
+ */
+public final class DynamoDBProxyManager {
+
+    // see String notes for primary key at
+    // https://docs.aws.amazon.com/amazondynamodb/latest/developerguide/HowItWorks.NamingRulesDataTypes.html#HowItWorks.DataTypes
+    private static final int MAX_SUPPORTED_LENGTH = 2048;
+
+    /**
+     * Returns implementation that uses {@link String} (DynamoDB String) for keys.
+     *
+     * <b>NOTE</b>: DynamoDB supports at most 2048 bytes (in {@link StandardCharsets#UTF_8}) for
+     * primary {@link String} keys.
+     *
+     * @param client        {@link DynamoDbAsyncClient} client to access DynamoDB table.
+     * @param tableSettings {@link DynamoDBTableSettings} names of table and attributes.
+     * @param config        {@link ClientSideConfig} configuration.
+     */
+    public static AsyncDynamoDBProxyManager<String> stringKey(DynamoDbAsyncClient client, DynamoDBTableSettings tableSettings, ClientSideConfig config) {
+        return new AsyncDynamoDBProxyManager<>(client, tableSettings, config,
+                key -> AttributeValue.builder().s(checkKey(key)).build());
+    }
+
+    /**
+     * Returns implementation that uses {@link Long} (DynamoDB Number) for keys.
+     *
+     * @param client        {@link DynamoDbAsyncClient} client to access DynamoDB table.
+     * @param tableSettings {@link DynamoDBTableSettings} names of table and attributes.
+     * @param config        {@link ClientSideConfig} configuration.
+     */
+    public static AsyncDynamoDBProxyManager<Long> longKey(DynamoDbAsyncClient client, DynamoDBTableSettings tableSettings, ClientSideConfig config) {
+        return new AsyncDynamoDBProxyManager<>(client, tableSettings, config,
+                key -> AttributeValue.builder().n(Objects.requireNonNull(key, "key is null").toString()).build());
+    }
+
+    static String checkKey(String key) {
+        Objects.requireNonNull(key, "key is null");
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("key is empty");
+        }
+
+        int length = key.getBytes(StandardCharsets.UTF_8).length;
+        if (length > MAX_SUPPORTED_LENGTH) {
+            throw new IllegalArgumentException(
+                    "key " + key + " has length of " + length + " bytes " +
+                    "while max allowed is " + MAX_SUPPORTED_LENGTH + " bytes"
+            );
+        }
+        return key;
+    }
+
+    private DynamoDBProxyManager() {}
+}
@@ -0,0 +1,132 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.dynamodb.v2;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Describes the table where {@link AsyncDynamoDBProxyManager} stores buckets.
+ *
+ * <p>The table must have partition key of type <code>S</code> or <code>N</code> depending on the type of keys,
+ * serialized state of bucket is stored in binary attribute that is not a part of primary key.
+ * If time to live is configured then the epoch second after which the bucket can be removed is stored in number attribute
+ * that should be specified as TTL attribute of the table, see
+ * <a href="https://docs.aws.amazon.com/amazondynamodb/latest/developerguide/TTL.html">DynamoDB documentation for TTL</a>.
+ */
+public final class DynamoDBTableSettings {
+
+    public static final String DEFAULT_KEY_ATTRIBUTE = "key";
+    public static final String DEFAULT_STATE_ATTRIBUTE = "state";
+
+    private final String tableName;
+    private final String keyAttribute;
+    private final String stateAttribute;
+    private final String ttlAttribute;
+    private final Duration timeToLive;
+
+    private DynamoDBTableSettings(String tableName, String keyAttribute, String stateAttribute, String ttlAttribute, Duration timeToLive) {
+        this.tableName = Objects.requireNonNull(tableName, "table name is null");
+        this.keyAttribute = Objects.requireNonNull(keyAttribute, "key attribute is null");
+        this.stateAttribute = Objects.requireNonNull(stateAttribute, "state attribute is null");
+        if (keyAttribute.equals(stateAttribute) || keyAttribute.equals(ttlAttribute) || stateAttribute.equals(ttlAttribute)) {
+            throw new IllegalArgumentException("key, state and TTL attributes must have different names");
+        }
+        this.ttlAttribute = ttlAttribute;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns settings for the table with attributes <code>key</code> and <code>state</code> and without time to live.
+     *
+     * @param tableName the name of table
+     *
+     * @return settings for table
+     */
+    public static DynamoDBTableSettings forTable(String tableName) {
+        return new DynamoDBTableSettings(tableName, DEFAULT_KEY_ATTRIBUTE, DEFAULT_STATE_ATTRIBUTE, null, null);
+    }
+
+    /**
+     * Returns new instance of {@link DynamoDBTableSettings} with configured name of partition key attribute.
+     *
+     * @param keyAttribute the name of partition key attribute
+     *
+     * @return new instance of {@link DynamoDBTableSettings} with configured name of partition key attribute
+     */
+    public DynamoDBTableSettings withKeyAttribute(String keyAttribute) {
+        return new DynamoDBTableSettings(tableName, keyAttribute, stateAttribute, ttlAttribute, timeToLive);
+    }
+
+    /**
+     * Returns new instance of {@link DynamoDBTableSettings} with configured name of attribute that stores state of bucket.
+     *
+     * @param stateAttribute the name of binary attribute that stores state of bucket
+     *
+     * @return new instance of {@link DynamoDBTableSettings} with configured name of state attribute
+     */
+    public DynamoDBTableSettings withStateAttribute(String stateAttribute) {
+        return new DynamoDBTableSettings(tableName, keyAttribute, stateAttribute, ttlAttribute, timeToLive);
+    }
+
+    /**
+     * Returns new instance of {@link DynamoDBTableSettings} with configured time to live of buckets.
+     *
+     * <p>Each modification of bucket moves its expiration time to <code>now + timeToLive</code>,
+     * so time to live should be not less than the time required to refill bucket from zero to capacity,
+     * otherwise the bucket that is removed by DynamoDB will be recreated with full amount of tokens before it was fully refilled.
+     *
+     * @param ttlAttribute the name of number attribute that is configured as TTL attribute of the table
+     * @param timeToLive the time to live of bucket after last modification
+     *
+     * @return new instance of {@link DynamoDBTableSettings} with configured time to live
+     */
+    public DynamoDBTableSettings withTimeToLive(String ttlAttribute, Duration timeToLive) {
+        Objects.requireNonNull(ttlAttribute, "TTL attribute is null");
+        Objects.requireNonNull(timeToLive, "time to live is null");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("time to live should be positive");
+        }
+        return new DynamoDBTableSettings(tableName, keyAttribute, stateAttribute, ttlAttribute, timeToLive);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getKeyAttribute() {
+        return keyAttribute;
+    }
+
+    public String getStateAttribute() {
+        return stateAttribute;
+    }
+
+    public Optional<String> getTtlAttribute() {
+        return Optional.ofNullable(ttlAttribute);
+    }
+
+    public Optional<Duration> getTimeToLive() {
+        return Optional.ofNullable(timeToLive);
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.github.bucket4j.dynamodb.v2;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncDynamoDBProxyManagerTest {
+    private static final DynamoDbAsyncClient client = Utils.getClient();
+    private static final DynamoDBTableSettings settings = DynamoDBTableSettings.forTable("custom_buckets")
+            .withKeyAttribute("id")
+            .withStateAttribute("data")
+            .withTimeToLive("expiresAt", Duration.ofHours(1));
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+            .build();
+
+    private final AsyncDynamoDBProxyManager<String> proxyManager = DynamoDBProxyManager.stringKey(client, settings,
+            ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS));
+
+    @Before
+    public void createStateTable() {
+        Utils.createStateTable(client, settings, ScalarAttributeType.S);
+    }
+
+    @After
+    public void dropStateTable() {
+        Utils.dropStateTable(client, settings);
+    }
+
+    @Test
+    public void shouldStoreStateInConfiguredAttributes() {
+        long before = System.currentTimeMillis() / 1000;
+        assertTrue(proxyManager.builder().build("42", configuration).tryConsume(1));
+
+        Map<String, AttributeValue> item = client.getItem(GetItemRequest.builder()
+                .tableName(settings.getTableName())
+                .key(Collections.singletonMap("id", AttributeValue.builder().s("42").build()))
+                .consistentRead(true)
+                .build()).join().item();
+        assertNotNull(item.get("data").b());
+        long expiresAt = Long.parseLong(item.get("expiresAt").n());
+        assertTrue(expiresAt >= before + 3600);
+        assertTrue(expiresAt <= System.currentTimeMillis() / 1000 + 3600);
+    }
+
+    @Test
+    public void shouldConsumeAsynchronously() {
+        AsyncBucketProxy bucket = proxyManager.asAsync().builder().build("async", configuration);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryConsume(1).join());
+        }
+        assertFalse(bucket.tryConsume(1).join());
+
+        proxyManager.asAsync().removeProxy("async").join();
+        assertFalse(proxyManager.getProxyConfiguration("async").isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyKey() {
+        proxyManager.builder().build("", configuration).tryConsume(1);
+    }
+
+    @Test
+    public void settingsShouldBeImmutable() {
+        DynamoDBTableSettings defaults = DynamoDBTableSettings.forTable("buckets");
+        DynamoDBTableSettings custom = defaults.withKeyAttribute("id");
+
+        assertEquals(DynamoDBTableSettings.DEFAULT_KEY_ATTRIBUTE, defaults.getKeyAttribute());
+        assertEquals("id", custom.getKeyAttribute());
+        assertFalse(custom.getTtlAttribute().isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void settingsShouldRejectSameNamesOfAttributes() {
+        DynamoDBTableSettings.forTable("buckets").withStateAttribute(DynamoDBTableSettings.DEFAULT_KEY_ATTRIBUTE);
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.github.bucket4j.dynamodb.v2;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.junit.After;
+import org.junit.Before;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LongAsyncDynamoDBProxyManagerTckTest extends AbstractDistributedBucketTest<Long> {
+    private static final DynamoDbAsyncClient client = Utils.getClient();
+    private static final DynamoDBTableSettings settings = DynamoDBTableSettings.forTable("buckets");
+
+    @Before
+    public void createStateTable() {
+        Utils.createStateTable(client, settings, ScalarAttributeType.N);
+    }
+
+    @After
+    public void dropStateTable() {
+        Utils.dropStateTable(client, settings);
+    }
+
+    @Override
+    protected ProxyManager<Long> getProxyManager() {
+        return DynamoDBProxyManager.longKey(client, settings, ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS));
+    }
+
+    @Override
+    protected Long generateRandomKey() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.bucket4j.dynamodb.v2;
+
+import com.amazonaws.services.dynamodbv2.local.main.ServerRunner;
+import com.amazonaws.services.dynamodbv2.local.server.DynamoDBProxyServer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+
+final class Utils {
+
+    private static DynamoDbAsyncClient client;
+
+    /**
+     * Starts in-memory DynamoDB Local once per JVM and returns client that accesses it via Netty.
+     */
+    static synchronized DynamoDbAsyncClient getClient() {
+        if (client == null) {
+            try {
+                int port;
+                try (ServerSocket socket = new ServerSocket(0)) {
+                    port = socket.getLocalPort();
+                }
+                DynamoDBProxyServer server = ServerRunner.createServerFromCommandLineArgs(
+                        new String[] {"-inMemory", "-port", Integer.toString(port)});
+                server.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        server.stop();
+                    } catch (Exception e) {
+                        // JVM is going down anyway
+                    }
+                }));
+
+                client = DynamoDbAsyncClient.builder()
+                        .endpointOverride(URI.create("http://localhost:" + port))
+                        .region(Region.US_EAST_1)
+                        .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                        .httpClientBuilder(NettyNioAsyncHttpClient.builder())
+                        .build();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to start DynamoDB Local", e);
+            }
+        }
+        return client;
+    }
+
+    static void createStateTable(DynamoDbAsyncClient client, DynamoDBTableSettings settings, ScalarAttributeType keyType) {
+        CreateTableRequest request = CreateTableRequest.builder()
+                .tableName(settings.getTableName())
+                .keySchema(KeySchemaElement.builder().attributeName(settings.getKeyAttribute()).keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder().attributeName(settings.getKeyAttribute()).attributeType(keyType).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build();
+        client.createTable(request).join();
+    }
+
+    static void dropStateTable(DynamoDbAsyncClient client, DynamoDBTableSettings settings) {
+        client.deleteTable(DeleteTableRequest.builder().tableName(settings.getTableName()).build()).join();
+    }
+
+    private Utils() {}
+}
@@ -0,0 +1,181 @@
+/*
+ *
+ * Copyright 2015-2021 Vladimir Bukhtoyarov
+ *
+ *       Licensed under the Apache License, Version 2.0 (the "License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ */
+
+package example.distributed.generic.h2.r2dbc;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractAsyncLockBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AsyncLockBasedTransaction;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Non-blocking SELECT FOR UPDATE based proxy manager, no thread is blocked while database holds the lock of the row.
+ */
+public class SelectForUpdateBasedR2dbcProxyManager extends AbstractAsyncLockBasedProxyManager<Long> {
+
+    private static final String INIT_TABLE_SCRIPT =
+            "CREATE TABLE IF NOT EXISTS buckets(" +
+            " id    BIGINT    PRIMARY KEY,     " +
+            " state VARBINARY                  " +
+            ")";
+    private static final String SELECT_FOR_UPDATE_SQL = "SELECT state FROM buckets WHERE id = $1 FOR UPDATE";
+    private static final String INSERT_SQL = "INSERT INTO buckets(id, state) VALUES($1, NULL)";
+    private static final String UPDATE_SQL = "UPDATE buckets SET state = $1 WHERE id = $2";
+    private static final String DELETE_SQL = "DELETE FROM buckets WHERE id = $1";
+
+    private final ConnectionFactory connectionFactory;
+
+    public SelectForUpdateBasedR2dbcProxyManager(ConnectionFactory connectionFactory, ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+        this.connectionFactory = Objects.requireNonNull(connectionFactory);
+
+        // TODO for real application table initialization should be moved to the right place
+        withConnection(connection -> executeUpdate(connection.createStatement(INIT_TABLE_SCRIPT))).block();
+    }
+
+    @Override
+    protected AsyncLockBasedTransaction allocateTransaction(Long key) {
+        return new R2dbcLockBasedTransaction(key);
+    }
+
+    @Override
+    protected void releaseTransaction(AsyncLockBasedTransaction transaction) {
+        Connection connection = ((R2dbcLockBasedTransaction) transaction).connection;
+        if (connection != null) {
+            // return connection to pool
+            Mono.from(connection.close()).subscribe();
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        return withConnection(connection -> executeUpdate(connection.createStatement(DELETE_SQL).bind(0, key))).toFuture();
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        removeAsync(key).join();
+    }
+
+    private <T> Mono<T> withConnection(Function<Connection, Mono<T>> action) {
+        return Mono.usingWhen(connectionFactory.create(), action, Connection::close);
+    }
+
+    private static Mono<Void> executeUpdate(Statement statement) {
+        return Flux.from(statement.execute())
+            .flatMap(Result::getRowsUpdated)
+            .then();
+    }
+
+    private class R2dbcLockBasedTransaction implements AsyncLockBasedTransaction {
+
+        private final long key;
+        private Connection connection;
+
+        private byte[] bucketStateBeforeTransaction;
+
+        private R2dbcLockBasedTransaction(long key) {
+            this.key = key;
+        }
+
+        @Override
+        public CompletableFuture<Void> begin() {
+            return Mono.from(connectionFactory.create())
+                .flatMap(connection -> {
+                    this.connection = connection;
+                    return Mono.from(connection.beginTransaction());
+                })
+                .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<LockResult> lock() {
+            return selectForUpdate()
+                .switchIfEmpty(Mono.defer(() -> {
+                    // there are not persisted data for this bucket, so there is no raw which can act as lock.
+                    // lets insert the raw with fake state which will acts as lock,
+                    // the raw can be concurrently inserted by parallel transaction, so violation of primary key is expected
+                    Mono<Void> insert = executeUpdate(connection.createStatement(INSERT_SQL).bind(0, key))
+                        .onErrorResume(R2dbcDataIntegrityViolationException.class, e -> Mono.empty());
+                    // it is need to execute select for update again in order to obtain the lock
+                    return insert.then(selectForUpdate());
+                }))
+                .switchIfEmpty(Mono.error(new IllegalStateException("Row which acts as lock is not visible after insertion")))
+                .map(persistedState -> {
+                    bucketStateBeforeTransaction = persistedState.orElse(null);
+                    // the raw without state is the fake data that inserted by previous transaction
+                    return persistedState.isPresent() ? LockResult.DATA_EXISTS_AND_LOCKED : LockResult.DATA_NOT_EXISTS_AND_LOCKED;
+                })
+                .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Void> update(byte[] data) {
+            Statement statement = connection.createStatement(UPDATE_SQL)
+                .bind(0, data)
+                .bind(1, key);
+            return executeUpdate(statement).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Void> create(byte[] data) {
+            // just do update because row always exists either with real or fake data.
+            return update(data);
+        }
+
+        @Override
+        public CompletableFuture<Void> rollback() {
+            return Mono.from(connection.rollbackTransaction()).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Void> commit() {
+            return Mono.from(connection.commitTransaction()).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Void> unlock() {
+            // do nothing, because locked rows will be auto unlocked when transaction finishes
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public byte[] getData() {
+            return bucketStateBeforeTransaction;
+        }
+
+        private Mono<Optional<byte[]>> selectForUpdate() {
+            return Flux.from(connection.createStatement(SELECT_FOR_UPDATE_SQL).bind(0, key).execute())
+                .flatMap(result -> result.map((row, metadata) -> Optional.ofNullable(row.get("state", byte[].class))))
+                .next();
+        }
+
+    }
+
+}
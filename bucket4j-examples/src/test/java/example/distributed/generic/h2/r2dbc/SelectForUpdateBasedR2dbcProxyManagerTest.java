@@ -0,0 +1,62 @@
+package example.distributed.generic.h2.r2dbc;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class SelectForUpdateBasedR2dbcProxyManagerTest extends AbstractDistributedBucketTest<Long> {
+
+    private static H2ConnectionFactory connectionFactory;
+
+    @BeforeClass
+    public static void initializeInstance() {
+        connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url("mem:bucket4j-r2dbc;DB_CLOSE_DELAY=-1")
+                .username("sa")
+                .build());
+    }
+
+    @Override
+    protected ProxyManager<Long> getProxyManager() {
+        return new SelectForUpdateBasedR2dbcProxyManager(connectionFactory, ClientSideConfig.getDefault());
+    }
+
+    @Override
+    protected Long generateRandomKey() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void concurrentAsyncRequestsShouldNotExceedCapacity() {
+        ProxyManager<Long> proxyManager = getProxyManager();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .build();
+        AsyncBucketProxy bucket = proxyManager.asAsync().builder().build(generateRandomKey(), configuration);
+
+        // all requests are issued without waiting, so they compete for the lock of the same row
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(bucket.tryConsume(1));
+        }
+
+        assertEquals(10, results.stream().filter(CompletableFuture::join).count());
+        assertEquals(0L, (long) bucket.getAvailableTokens().join());
+    }
+
+}
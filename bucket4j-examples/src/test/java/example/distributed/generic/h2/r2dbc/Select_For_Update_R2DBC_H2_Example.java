@@ -0,0 +1,57 @@
+/*
+ *
+ * Copyright 2015-2021 Vladimir Bukhtoyarov
+ *
+ *       Licensed under the Apache License, Version 2.0 (the "License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ */
+
+package example.distributed.generic.h2.r2dbc;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class Select_For_Update_R2DBC_H2_Example {
+
+    public static void main(String[] args) {
+        H2ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url("mem:bucket4j;DB_CLOSE_DELAY=-1")
+                .username("sa")
+                .build());
+        SelectForUpdateBasedR2dbcProxyManager proxyManager = new SelectForUpdateBasedR2dbcProxyManager(connectionFactory, ClientSideConfig.getDefault());
+
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .build();
+
+        AsyncBucketProxy bucket = proxyManager.asAsync().builder().build(42L, configuration);
+
+        // all requests are issued without waiting, the only thread that waits is the main thread at the end of example
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(bucket.tryConsume(1));
+        }
+        long consumed = results.stream().filter(CompletableFuture::join).count();
+        System.out.println("Was consumed " + consumed + " tokens from 20 requests");
+        System.out.println("Available tokens " + bucket.getAvailableTokens().join());
+    }
+
+}
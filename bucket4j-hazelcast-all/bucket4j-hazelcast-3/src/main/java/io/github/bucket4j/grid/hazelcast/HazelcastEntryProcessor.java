@@ -22,32 +22,58 @@ package io.github.bucket4j.grid.hazelcast;
 import com.hazelcast.map.EntryBackupProcessor;
 import com.hazelcast.map.EntryProcessor;
 import io.github.bucket4j.distributed.remote.AbstractBinaryTransaction;
+import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.versioning.BackwardCompatibilityException;
+import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.util.ComparableByContent;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.Map;
 
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeRequest;
 import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeRequest;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeResult;
 
 public class HazelcastEntryProcessor<K, T> implements EntryProcessor<K, byte[]>, ComparableByContent<HazelcastEntryProcessor> {
 
     private static final long serialVersionUID = 1L;
 
-    private final byte[] requestBytes;
+    // both custom serializer and java serialization transfer request in binary form
+    private transient Request<T> request;
+    private byte[] requestBytes;
+    private transient BackwardCompatibilityException requestDeserializationError;
     private EntryBackupProcessor<K, byte[]> backupProcessor;
 
     public HazelcastEntryProcessor(Request<T> request) {
-        this.requestBytes = serializeRequest(request);
+        this.request = request;
     }
 
     public HazelcastEntryProcessor(byte[] requestBytes) {
         this.requestBytes = requestBytes;
     }
 
+    /**
+     * Creates processor for request which custom serializer failed to read because it was sent by node of another version,
+     * the error is returned to the client as result of command.
+     *
+     * @param requestDeserializationError the error of request deserialization
+     */
+    public HazelcastEntryProcessor(BackwardCompatibilityException requestDeserializationError) {
+        this.requestDeserializationError = requestDeserializationError;
+    }
+
     @Override
     public byte[] process(Map.Entry<K, byte[]> entry) {
-        return new AbstractBinaryTransaction(requestBytes) {
+        Request<T> deserializedRequest;
+        try {
+            deserializedRequest = getRequest();
+        } catch (BackwardCompatibilityException e) {
+            return serializeResult(CommandResult.backwardCompatibilityError(e), Versions.getOldest());
+        }
+        return new AbstractBinaryTransaction(deserializedRequest) {
             @Override
             public boolean exists() {
                 return entry.getValue() != null;
@@ -71,13 +97,31 @@ public class HazelcastEntryProcessor<K, T> implements EntryProcessor<K, byte[]>,
         return backupProcessor;
     }
 
+    public Request<T> getRequest() {
+        if (requestDeserializationError != null) {
+            throw requestDeserializationError;
+        }
+        if (request == null) {
+            request = deserializeRequest(requestBytes);
+        }
+        return request;
+    }
+
     public byte[] getRequestBytes() {
+        if (requestBytes == null) {
+            requestBytes = serializeRequest(request);
+        }
         return requestBytes;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getRequestBytes();
+        out.defaultWriteObject();
+    }
+
     @Override
     public boolean equalsByContent(HazelcastEntryProcessor other) {
-        return Arrays.equals(requestBytes, other.requestBytes);
+        return Arrays.equals(getRequestBytes(), other.getRequestBytes());
     }
 
 }
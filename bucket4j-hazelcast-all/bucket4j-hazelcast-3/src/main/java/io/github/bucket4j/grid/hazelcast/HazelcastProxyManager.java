@@ -41,8 +41,10 @@ import com.hazelcast.config.SerializerConfig;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IMap;
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.grid.hazelcast.serialization.HazelcastEntryProcessorSerializer;
@@ -59,18 +61,42 @@ import static io.github.bucket4j.distributed.serialization.InternalSerialization
 public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
 
     private final IMap<K, byte[]> map;
+    private final boolean readOnlyCommandsViaGet;
 
     public HazelcastProxyManager(IMap<K, byte[]> map) {
         this(map, ClientSideConfig.getDefault());
     }
 
     public HazelcastProxyManager(IMap<K, byte[]> map, ClientSideConfig clientSideConfig) {
+        this(map, clientSideConfig, false);
+    }
+
+    /**
+     * @param map the map where buckets are stored
+     * @param clientSideConfig the client-side configuration
+     * @param readOnlyCommandsViaGet if true then read-only commands, see {@link RemoteCommand#isReadOnly()}, are executed on the client side
+     *                               on the state that is obtained by {@link IMap#get(Object)} instead of entry processor,
+     *                               so they are served by near cache when it is configured for the map.
+     *                               Results of such commands can be stale up to the near cache invalidation delay.
+     *                               Client side clock is required in this mode, because time of the client and of Hazelcast members can differ,
+     *                               so all commands must be executed against the same clock.
+     *
+     * @throws IllegalArgumentException if {@code readOnlyCommandsViaGet} is true and client side clock is not specified by {@code clientSideConfig}
+     */
+    public HazelcastProxyManager(IMap<K, byte[]> map, ClientSideConfig clientSideConfig, boolean readOnlyCommandsViaGet) {
         super(clientSideConfig);
         this.map = Objects.requireNonNull(map);
+        if (readOnlyCommandsViaGet && !clientSideConfig.getClientSideClock().isPresent()) {
+            throw BucketExceptions.clientSideClockIsRequired("readOnlyCommandsViaGet");
+        }
+        this.readOnlyCommandsViaGet = readOnlyCommandsViaGet;
     }
 
     @Override
     public <T> CommandResult<T> execute(K key, Request<T> request) {
+        if (readOnlyCommandsViaGet && request.getCommand().isReadOnly()) {
+            return executeLocally(map.get(key), request);
+        }
         HazelcastEntryProcessor<K, T> entryProcessor = new HazelcastEntryProcessor<>(request);
         byte[] response = (byte[]) map.executeOnKey(key, entryProcessor);
         Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
@@ -84,6 +110,9 @@ public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
 
     @Override
     public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        if (readOnlyCommandsViaGet && request.getCommand().isReadOnly()) {
+            return executeLocallyAsync(key, request);
+        }
         HazelcastEntryProcessor<K, T> entryProcessor = new HazelcastEntryProcessor<>(request);
         CompletableFuture<CommandResult<T>> future = new CompletableFuture<>();
         Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
@@ -129,6 +158,32 @@ public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
         return resultFuture;
     }
 
+    private <T> CompletableFuture<CommandResult<T>> executeLocallyAsync(K key, Request<T> request) {
+        CompletableFuture<CommandResult<T>> future = new CompletableFuture<>();
+        map.getAsync(key).andThen(new ExecutionCallback<byte[]>() {
+            @Override
+            public void onResponse(byte[] state) {
+                try {
+                    future.complete(executeLocally(state, request));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private <T> CommandResult<T> executeLocally(byte[] state, Request<T> request) {
+        GenericEntry entry = new GenericEntry(state, request.getBackwardCompatibilityVersion());
+        // client side clock is required by constructor, so time is always present
+        return request.getCommand().execute(entry, request.getClientSideTime());
+    }
+
     /**
      * Registers custom Hazelcast serializers for all classes from Bucket4j library which can be transferred over network.
      * Each serializer will have different typeId, and this id will not be changed in the feature releases.
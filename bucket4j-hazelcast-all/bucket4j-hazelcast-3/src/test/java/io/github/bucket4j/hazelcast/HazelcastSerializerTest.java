@@ -7,10 +7,14 @@ import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuil
 import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.nio.serialization.StreamSerializer;
+import io.github.bucket4j.Nothing;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
 import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.UsageOfUnsupportedApiException;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.grid.hazelcast.HazelcastEntryProcessor;
 import io.github.bucket4j.grid.hazelcast.SimpleBackupProcessor;
@@ -20,14 +24,19 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 
 public class HazelcastSerializerTest {
 
+    private static final int MARKER = 0x0BADCAFE;
+
     private InternalSerializationService serializationService;
     private Map<Class<?>, StreamSerializer<?>> serializerByClass = new HashMap<>();
 
@@ -65,6 +74,33 @@ public class HazelcastSerializerTest {
         testSerialization(new SimpleBackupProcessor(new byte[] {1,2,3}));
     }
 
+    @Test
+    public void requestOfUnsupportedFormatShouldBeReturnedAsErrorResult() throws Exception {
+        BufferObjectDataOutput request = serializationService.createObjectDataOutput();
+        request.writeInt(Integer.MAX_VALUE);
+        request.writeLong(42);
+
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        out.writeByteArray(request.toByteArray());
+        // anything which is written after processor must be readable regardless of request format
+        out.writeInt(MARKER);
+        BufferObjectDataInput in = serializationService.createObjectDataInput(out.toByteArray());
+
+        HazelcastEntryProcessorSerializer serializer = (HazelcastEntryProcessorSerializer) serializerByClass.get(HazelcastEntryProcessor.class);
+        HazelcastEntryProcessor<String, Nothing> processor = serializer.read(in);
+        assertEquals(MARKER, in.readInt());
+
+        Map.Entry<String, byte[]> entry = new AbstractMap.SimpleEntry<>("key", null);
+        CommandResult<Nothing> result = InternalSerializationHelper.deserializeResult(processor.process(entry), Versions.getOldest());
+        assertTrue(result.isError());
+        try {
+            result.getData();
+            fail();
+        } catch (UsageOfUnsupportedApiException e) {
+            // expected
+        }
+    }
+
     private <T> T serializeAndDeserialize(T original) {
         try {
             StreamSerializer<T> serializer = (StreamSerializer<T>) serializerByClass.get(original.getClass());
@@ -0,0 +1,64 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.hazelcast;
+
+import com.hazelcast.map.EntryProcessor;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class HazelcastBatchBackupProcessor<K> implements EntryProcessor<K, byte[], byte[]>, ComparableByContent<HazelcastBatchBackupProcessor> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<K, byte[]> states;
+
+    public HazelcastBatchBackupProcessor(Map<K, byte[]> states) {
+        this.states = states;
+    }
+
+    public Map<K, byte[]> getStates() {
+        return states;
+    }
+
+    @Override
+    public byte[] process(Map.Entry<K, byte[]> entry) {
+        byte[] state = states.get(entry.getKey());
+        if (state != null) {
+            entry.setValue(state);
+        }
+        return null; // return value from backup processor is ignored, see https://github.com/hazelcast/hazelcast/pull/14995
+    }
+
+    @Override
+    public boolean equalsByContent(HazelcastBatchBackupProcessor other) {
+        if (states.size() != other.states.size()) {
+            return false;
+        }
+        for (Map.Entry<K, byte[]> entry : states.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), (byte[]) other.states.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
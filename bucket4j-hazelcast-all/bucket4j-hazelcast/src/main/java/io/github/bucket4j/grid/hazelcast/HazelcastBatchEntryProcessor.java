@@ -0,0 +1,97 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.hazelcast;
+
+import com.hazelcast.map.EntryProcessor;
+import io.github.bucket4j.distributed.remote.AbstractBinaryTransaction;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry processor that executes the same request for each of multiple keys, see {@link HazelcastProxyManager#executeAll(Map)}.
+ *
+ * <p>Hazelcast asks for backup processor once per partition operation, so the states modified by this processor
+ * are remembered by keys and replicated by single {@link HazelcastBatchBackupProcessor}.
+ * The same instance of processor is shared by operations of all partitions on member,
+ * but each operation is executed and creates its backup in single partition thread,
+ * so the modified states are collected per thread and backup carries only the keys of the current partition.
+ */
+public class HazelcastBatchEntryProcessor<K> implements EntryProcessor<K, byte[], byte[]>, ComparableByContent<HazelcastBatchEntryProcessor> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] requestBytes;
+    private transient ThreadLocal<Map<K, byte[]>> modifiedStates = ThreadLocal.withInitial(HashMap::new);
+
+    public HazelcastBatchEntryProcessor(byte[] requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+
+    @Override
+    public byte[] process(Map.Entry<K, byte[]> entry) {
+        return new AbstractBinaryTransaction(requestBytes) {
+            @Override
+            public boolean exists() {
+                return entry.getValue() != null;
+            }
+
+            @Override
+            protected byte[] getRawState() {
+                return entry.getValue();
+            }
+
+            @Override
+            protected void setRawState(byte[] stateBytes) {
+                entry.setValue(stateBytes);
+                modifiedStates.get().put(entry.getKey(), stateBytes);
+            }
+        }.execute();
+    }
+
+    @Override
+    public EntryProcessor<K, byte[], byte[]> getBackupProcessor() {
+        Map<K, byte[]> states = modifiedStates.get();
+        if (states.isEmpty()) {
+            return null;
+        }
+        modifiedStates.remove();
+        return new HazelcastBatchBackupProcessor<>(states);
+    }
+
+    public byte[] getRequestBytes() {
+        return requestBytes;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        modifiedStates = ThreadLocal.withInitial(HashMap::new);
+    }
+
+    @Override
+    public boolean equalsByContent(HazelcastBatchEntryProcessor other) {
+        return Arrays.equals(requestBytes, other.requestBytes);
+    }
+
+}
@@ -38,40 +38,87 @@ package io.github.bucket4j.grid.hazelcast;
 
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.IMap;
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
 import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
 import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.grid.hazelcast.serialization.HazelcastBatchBackupProcessorSerializer;
+import io.github.bucket4j.grid.hazelcast.serialization.HazelcastBatchEntryProcessorSerializer;
 import io.github.bucket4j.grid.hazelcast.serialization.HazelcastEntryProcessorSerializer;
+import io.github.bucket4j.grid.hazelcast.serialization.HazelcastReadOnlyEntryProcessorSerializer;
 import io.github.bucket4j.grid.hazelcast.serialization.SimpleBackupProcessorSerializer;
 import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeResult;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeRequest;
 
 /**
  * The extension of Bucket4j library addressed to support <a href="https://hazelcast.com//">Hazelcast</a> in-memory data grid.
+ *
+ * <p>Commands which do not modify the bucket, see {@link RemoteCommand#isReadOnly()}, are executed by {@link HazelcastReadOnlyEntryProcessor}
+ * that neither locks the entry nor produces backup operation.
  */
 public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
 
     private final IMap<K, byte[]> map;
+    private final boolean readOnlyCommandsViaGet;
 
     public HazelcastProxyManager(IMap<K, byte[]> map) {
         this(map, ClientSideConfig.getDefault());
     }
 
     public HazelcastProxyManager(IMap<K, byte[]> map, ClientSideConfig clientSideConfig) {
+        this(map, clientSideConfig, false);
+    }
+
+    /**
+     * @param map the map where buckets are stored
+     * @param clientSideConfig the client-side configuration
+     * @param readOnlyCommandsViaGet if true then read-only commands, like {@code getAvailableTokens} or {@code estimateAbilityToConsume},
+     *                               are executed on the client side on the state that is obtained by {@link IMap#get(Object)},
+     *                               so they are served by near cache when it is configured for the map.
+     *                               Results of such commands can be stale up to the near cache invalidation delay.
+     *                               Client side clock is required in this mode, because time of the client and of Hazelcast members can differ,
+     *                               so all commands must be executed against the same clock.
+     *
+     * @throws IllegalArgumentException if {@code readOnlyCommandsViaGet} is true and client side clock is not specified by {@code clientSideConfig}
+     */
+    public HazelcastProxyManager(IMap<K, byte[]> map, ClientSideConfig clientSideConfig, boolean readOnlyCommandsViaGet) {
         super(clientSideConfig);
         this.map = Objects.requireNonNull(map);
+        if (readOnlyCommandsViaGet && !clientSideConfig.getClientSideClock().isPresent()) {
+            throw BucketExceptions.clientSideClockIsRequired("readOnlyCommandsViaGet");
+        }
+        this.readOnlyCommandsViaGet = readOnlyCommandsViaGet;
     }
 
     @Override
     public <T> CommandResult<T> execute(K key, Request<T> request) {
+        if (request.getCommand().isReadOnly()) {
+            if (readOnlyCommandsViaGet) {
+                return executeLocally(map.get(key), request);
+            }
+            byte[] response = map.executeOnKey(key, new HazelcastReadOnlyEntryProcessor<K, T>(request));
+            return deserializeResult(response, request.getBackwardCompatibilityVersion());
+        }
         HazelcastEntryProcessor<K, T> entryProcessor = new HazelcastEntryProcessor<>(request);
         byte[] response = map.executeOnKey(key, entryProcessor);
         Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
@@ -85,12 +132,80 @@ public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
 
     @Override
     public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
-        HazelcastEntryProcessor<K, T> entryProcessor = new HazelcastEntryProcessor<>(request);
+        if (request.getCommand().isReadOnly() && readOnlyCommandsViaGet) {
+            return map.getAsync(key).thenApply((byte[] state) -> executeLocally(state, request)).toCompletableFuture();
+        }
+        EntryProcessor<K, byte[], byte[]> entryProcessor = request.getCommand().isReadOnly()
+                ? new HazelcastReadOnlyEntryProcessor<K, T>(request)
+                : new HazelcastEntryProcessor<K, T>(request);
         CompletionStage<byte[]> future = map.submitToKey(key, entryProcessor);
         Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
         return (CompletableFuture) future.thenApply((byte[] bytes) -> InternalSerializationHelper.deserializeResult(bytes, backwardCompatibilityVersion));
     }
 
+    /**
+     * Executes requests for multiple buckets by {@link IMap#executeOnKeys(Set, EntryProcessor)},
+     * Hazelcast groups keys by partitions and sends single operation per partition instead of operation per key.
+     *
+     * <p>Keys for which the same request is executed, for example {@code tryConsume(1)} with the same configuration, are processed by single
+     * {@link HazelcastBatchEntryProcessor}, so batch with identical requests costs exactly one {@code executeOnKeys} call.
+     *
+     * @param requests the requests to execute, grouped by keys
+     *
+     * @return the results of requests in the same order as requests
+     */
+    @Override
+    public <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        Map<K, byte[]> responses = new HashMap<>(requests.size());
+        groupByRequest(requests).forEach((requestBytes, keys) -> {
+            HazelcastBatchEntryProcessor<K> entryProcessor = new HazelcastBatchEntryProcessor<>(requestBytes.array());
+            responses.putAll(map.executeOnKeys(keys, entryProcessor));
+        });
+        return deserializeResults(requests, responses);
+    }
+
+    /**
+     * Asynchronous version of {@link #executeAll(Map)}, groups of keys are submitted by {@link IMap#submitToKeys(Set, EntryProcessor)}
+     * without waiting for each other.
+     *
+     * @param requests the requests to execute, grouped by keys
+     *
+     * @return the future that completed by results of requests in the same order as requests
+     */
+    @Override
+    public <T> CompletableFuture<Map<K, CommandResult<T>>> executeAllAsync(Map<K, Request<T>> requests) {
+        List<CompletableFuture<Map<K, byte[]>>> futures = new ArrayList<>();
+        groupByRequest(requests).forEach((requestBytes, keys) -> {
+            HazelcastBatchEntryProcessor<K> entryProcessor = new HazelcastBatchEntryProcessor<>(requestBytes.array());
+            futures.add(map.submitToKeys(keys, entryProcessor).toCompletableFuture());
+        });
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<K, byte[]> responses = new HashMap<>(requests.size());
+            for (CompletableFuture<Map<K, byte[]>> future : futures) {
+                responses.putAll(future.join());
+            }
+            return deserializeResults(requests, responses);
+        });
+    }
+
+    private <T> Map<ByteBuffer, Set<K>> groupByRequest(Map<K, Request<T>> requests) {
+        // ByteBuffer compares content, so equal requests are merged even when they are different objects
+        Map<ByteBuffer, Set<K>> groups = new LinkedHashMap<>();
+        requests.forEach((key, request) -> {
+            ByteBuffer requestBytes = ByteBuffer.wrap(serializeRequest(request));
+            groups.computeIfAbsent(requestBytes, bytes -> new LinkedHashSet<>()).add(key);
+        });
+        return groups;
+    }
+
+    private <T> Map<K, CommandResult<T>> deserializeResults(Map<K, Request<T>> requests, Map<K, byte[]> responses) {
+        Map<K, CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+        requests.forEach((key, request) -> {
+            results.put(key, deserializeResult(responses.get(key), request.getBackwardCompatibilityVersion()));
+        });
+        return results;
+    }
+
     @Override
     public void removeProxy(K key) {
         map.remove(key);
@@ -110,6 +225,12 @@ public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
         return resultFuture;
     }
 
+    private <T> CommandResult<T> executeLocally(byte[] state, Request<T> request) {
+        GenericEntry entry = new GenericEntry(state, request.getBackwardCompatibilityVersion());
+        // client side clock is required by constructor, so time is always present
+        return request.getCommand().execute(entry, request.getClientSideTime());
+    }
+
     /**
      * Registers custom Hazelcast serializers for all classes from Bucket4j library which can be transferred over network.
      * Each serializer will have different typeId, and this id will not be changed in the feature releases.
@@ -133,6 +254,24 @@ public class HazelcastProxyManager<K> extends AbstractProxyManager<K> {
                         .setImplementation(new SimpleBackupProcessorSerializer(typeIdBase + 1))
                         .setTypeClass(SimpleBackupProcessor.class)
         );
+
+        serializationConfig.addSerializerConfig(
+                new SerializerConfig()
+                        .setImplementation(new HazelcastReadOnlyEntryProcessorSerializer(typeIdBase + 2))
+                        .setTypeClass(HazelcastReadOnlyEntryProcessor.class)
+        );
+
+        serializationConfig.addSerializerConfig(
+                new SerializerConfig()
+                        .setImplementation(new HazelcastBatchEntryProcessorSerializer(typeIdBase + 3))
+                        .setTypeClass(HazelcastBatchEntryProcessor.class)
+        );
+
+        serializationConfig.addSerializerConfig(
+                new SerializerConfig()
+                        .setImplementation(new HazelcastBatchBackupProcessorSerializer(typeIdBase + 4))
+                        .setTypeClass(HazelcastBatchBackupProcessor.class)
+        );
     }
 
 }
@@ -0,0 +1,130 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.hazelcast;
+
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.map.EntryProcessor;
+import io.github.bucket4j.distributed.remote.AbstractBinaryTransaction;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.versioning.BackwardCompatibilityException;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeRequest;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeRequest;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeResult;
+
+/**
+ * Entry processor for commands which do not modify the bucket, see {@link RemoteCommand#isReadOnly()}.
+ * Hazelcast executes {@link ReadOnly} processors without locking of entry and without backup operation.
+ */
+public class HazelcastReadOnlyEntryProcessor<K, T> implements EntryProcessor<K, byte[], byte[]>, ReadOnly, ComparableByContent<HazelcastReadOnlyEntryProcessor> {
+
+    private static final long serialVersionUID = 1L;
+
+    // see comment in HazelcastEntryProcessor
+    private transient Request<T> request;
+    private byte[] requestBytes;
+    private transient BackwardCompatibilityException requestDeserializationError;
+
+    public HazelcastReadOnlyEntryProcessor(Request<T> request) {
+        this.request = request;
+    }
+
+    public HazelcastReadOnlyEntryProcessor(byte[] requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+
+    /**
+     * Creates processor for request which custom serializer failed to read because it was sent by node of another version,
+     * the error is returned to the client as result of command.
+     *
+     * @param requestDeserializationError the error of request deserialization
+     */
+    public HazelcastReadOnlyEntryProcessor(BackwardCompatibilityException requestDeserializationError) {
+        this.requestDeserializationError = requestDeserializationError;
+    }
+
+    @Override
+    public byte[] process(Map.Entry<K, byte[]> entry) {
+        Request<T> deserializedRequest;
+        try {
+            deserializedRequest = getRequest();
+        } catch (BackwardCompatibilityException e) {
+            return serializeResult(CommandResult.backwardCompatibilityError(e), Versions.getOldest());
+        }
+        return new AbstractBinaryTransaction(deserializedRequest) {
+            @Override
+            public boolean exists() {
+                return entry.getValue() != null;
+            }
+
+            @Override
+            protected byte[] getRawState() {
+                return entry.getValue();
+            }
+
+            @Override
+            protected void setRawState(byte[] stateBytes) {
+                throw new IllegalStateException("Read-only command tried to modify the bucket");
+            }
+        }.execute();
+    }
+
+    @Override
+    public EntryProcessor<K, byte[], byte[]> getBackupProcessor() {
+        return null;
+    }
+
+    public Request<T> getRequest() {
+        if (requestDeserializationError != null) {
+            throw requestDeserializationError;
+        }
+        if (request == null) {
+            request = deserializeRequest(requestBytes);
+        }
+        return request;
+    }
+
+    public byte[] getRequestBytes() {
+        if (requestBytes == null) {
+            requestBytes = serializeRequest(request);
+        }
+        return requestBytes;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getRequestBytes();
+        out.defaultWriteObject();
+    }
+
+    @Override
+    public boolean equalsByContent(HazelcastReadOnlyEntryProcessor other) {
+        return Arrays.equals(getRequestBytes(), other.getRequestBytes());
+    }
+
+}
@@ -0,0 +1,85 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.hazelcast.serialization;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import com.hazelcast.nio.serialization.TypedStreamDeserializer;
+import io.github.bucket4j.grid.hazelcast.HazelcastBatchBackupProcessor;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+
+public class HazelcastBatchBackupProcessorSerializer implements StreamSerializer<HazelcastBatchBackupProcessor>, TypedStreamDeserializer<HazelcastBatchBackupProcessor> {
+
+    private final int typeId;
+
+    public HazelcastBatchBackupProcessorSerializer(int typeId) {
+        this.typeId = typeId;
+    }
+
+    public Class<HazelcastBatchBackupProcessor> getSerializableType() {
+        return HazelcastBatchBackupProcessor.class;
+    }
+
+    @Override
+    public int getTypeId() {
+        return typeId;
+    }
+
+    @Override
+    public void destroy() {
+
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, HazelcastBatchBackupProcessor serializable) throws IOException {
+        Map<Object, byte[]> states = serializable.getStates();
+        out.writeInt(states.size());
+        for (Map.Entry<Object, byte[]> entry : states.entrySet()) {
+            out.writeObject(entry.getKey());
+            out.writeByteArray(entry.getValue());
+        }
+    }
+
+    @Override
+    public HazelcastBatchBackupProcessor read(ObjectDataInput in) throws IOException {
+        return read0(in);
+    }
+
+    @Override
+    public HazelcastBatchBackupProcessor read(ObjectDataInput in, Class aClass) throws IOException {
+        return read0(in);
+    }
+
+    private HazelcastBatchBackupProcessor read0(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        Map<Object, byte[]> states = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            Object key = in.readObject();
+            states.put(key, in.readByteArray());
+        }
+        return new HazelcastBatchBackupProcessor<>(states);
+    }
+
+}
@@ -23,6 +23,9 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.StreamSerializer;
 import com.hazelcast.nio.serialization.TypedStreamDeserializer;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.BackwardCompatibilityException;
 import io.github.bucket4j.grid.hazelcast.HazelcastEntryProcessor;
 
 import java.io.IOException;
@@ -52,6 +55,7 @@ public class HazelcastEntryProcessorSerializer implements StreamSerializer<Hazel
 
     @Override
     public void write(ObjectDataOutput out, HazelcastEntryProcessor serializable) throws IOException {
+        // request is prefixed by its length, so reader is able to skip the request which it does not understand
         out.writeByteArray(serializable.getRequestBytes());
     }
 
@@ -66,8 +70,15 @@ public class HazelcastEntryProcessorSerializer implements StreamSerializer<Hazel
     }
 
     private HazelcastEntryProcessor read0(ObjectDataInput in) throws IOException {
-        byte[] commandBytes = in.readByteArray();
-        return new HazelcastEntryProcessor(commandBytes);
+        // whole request is consumed before parsing, so the stream stays aligned even if request can not be parsed
+        byte[] requestBytes = in.readByteArray();
+        Request<?> request;
+        try {
+            request = InternalSerializationHelper.deserializeRequest(requestBytes);
+        } catch (BackwardCompatibilityException e) {
+            return new HazelcastEntryProcessor(e);
+        }
+        return new HazelcastEntryProcessor(request);
     }
 
 }
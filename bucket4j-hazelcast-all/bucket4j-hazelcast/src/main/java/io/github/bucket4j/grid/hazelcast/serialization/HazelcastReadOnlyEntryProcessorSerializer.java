@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.hazelcast.serialization;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import com.hazelcast.nio.serialization.TypedStreamDeserializer;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.BackwardCompatibilityException;
+import io.github.bucket4j.grid.hazelcast.HazelcastReadOnlyEntryProcessor;
+
+import java.io.IOException;
+
+
+public class HazelcastReadOnlyEntryProcessorSerializer implements StreamSerializer<HazelcastReadOnlyEntryProcessor>, TypedStreamDeserializer<HazelcastReadOnlyEntryProcessor> {
+
+    private final int typeId;
+
+    public HazelcastReadOnlyEntryProcessorSerializer(int typeId) {
+        this.typeId = typeId;
+    }
+
+    public Class<HazelcastReadOnlyEntryProcessor> getSerializableType() {
+        return HazelcastReadOnlyEntryProcessor.class;
+    }
+
+    @Override
+    public int getTypeId() {
+        return typeId;
+    }
+
+    @Override
+    public void destroy() {
+
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, HazelcastReadOnlyEntryProcessor serializable) throws IOException {
+        // request is prefixed by its length, so reader is able to skip the request which it does not understand
+        out.writeByteArray(serializable.getRequestBytes());
+    }
+
+    @Override
+    public HazelcastReadOnlyEntryProcessor read(ObjectDataInput in) throws IOException {
+        return read0(in);
+    }
+
+    @Override
+    public HazelcastReadOnlyEntryProcessor read(ObjectDataInput in, Class aClass) throws IOException {
+        return read0(in);
+    }
+
+    private HazelcastReadOnlyEntryProcessor read0(ObjectDataInput in) throws IOException {
+        // whole request is consumed before parsing, so the stream stays aligned even if request can not be parsed
+        byte[] requestBytes = in.readByteArray();
+        Request<?> request;
+        try {
+            request = InternalSerializationHelper.deserializeRequest(requestBytes);
+        } catch (BackwardCompatibilityException e) {
+            return new HazelcastReadOnlyEntryProcessor(e);
+        }
+        return new HazelcastReadOnlyEntryProcessor(request);
+    }
+
+}
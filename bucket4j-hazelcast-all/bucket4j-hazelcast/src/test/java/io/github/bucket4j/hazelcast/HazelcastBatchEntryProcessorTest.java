@@ -0,0 +1,59 @@
+package io.github.bucket4j.hazelcast;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.grid.hazelcast.HazelcastBatchBackupProcessor;
+import io.github.bucket4j.grid.hazelcast.HazelcastBatchEntryProcessor;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HazelcastBatchEntryProcessorTest {
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+            .build();
+
+    @Test
+    public void backupShouldContainOnlyKeysOfCurrentPartitionOperation() throws Exception {
+        Request<Boolean> request = new Request<>(new CreateInitialStateAndExecuteCommand<>(configuration, new TryConsumeCommand(1)), Versions.getLatest(), null);
+        HazelcastBatchEntryProcessor<String> processor = new HazelcastBatchEntryProcessor<>(InternalSerializationHelper.serializeRequest(request));
+
+        // operations of different partitions share the processor, but each of them is executed by own partition thread
+        ExecutorService firstPartitionThread = Executors.newSingleThreadExecutor();
+        ExecutorService secondPartitionThread = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<HazelcastBatchBackupProcessor<String>> firstBackup = CompletableFuture.supplyAsync(() -> {
+                processor.process(new AbstractMap.SimpleEntry<>("first", null));
+                return (HazelcastBatchBackupProcessor<String>) processor.getBackupProcessor();
+            }, firstPartitionThread);
+            CompletableFuture<HazelcastBatchBackupProcessor<String>> secondBackup = CompletableFuture.supplyAsync(() -> {
+                processor.process(new AbstractMap.SimpleEntry<>("second", null));
+                return (HazelcastBatchBackupProcessor<String>) processor.getBackupProcessor();
+            }, secondPartitionThread);
+
+            assertEquals(Collections.singleton("first"), firstBackup.get().getStates().keySet());
+            assertEquals(Collections.singleton("second"), secondBackup.get().getStates().keySet());
+
+            // states are not repeated in the backup of next operation which is executed by the same thread
+            assertNull(CompletableFuture.supplyAsync(processor::getBackupProcessor, firstPartitionThread).get());
+        } finally {
+            firstPartitionThread.shutdown();
+            secondPartitionThread.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.github.bucket4j.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.grid.hazelcast.HazelcastProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.gridkit.nanocloud.Cloud;
+import org.gridkit.nanocloud.CloudFactory;
+import org.gridkit.nanocloud.VX;
+import org.gridkit.vicluster.ViNode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+public class HazelcastReadOnlyCommandsViaGetTest extends AbstractDistributedBucketTest<String> {
+
+    private static IMap<String, byte[]> map;
+    private static Cloud cloud;
+    private static ViNode server;
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @BeforeClass
+    public static void setup() {
+        // start separated JVM on current host
+        cloud = CloudFactory.createCloud();
+        cloud.node("**").x(VX.TYPE).setLocal();
+        server = cloud.node("stateful-hazelcast-server");
+
+        server.exec((Runnable & Serializable) () -> {
+            Config config = new Config();
+            JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+            joinConfig.getMulticastConfig().setEnabled(false);
+            joinConfig.getTcpIpConfig().setEnabled(true);
+            joinConfig.getTcpIpConfig().addMember("127.0.0.1:5702");
+            config.setLiteMember(false);
+            HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+            hazelcastInstance.getMap("my_buckets");
+        });
+
+        // start hazelcast client which works inside current JVM and does not hold data
+        Config config = new Config();
+        config.setLiteMember(true);
+        JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+        joinConfig.getMulticastConfig().setEnabled(false);
+        joinConfig.getTcpIpConfig().setEnabled(true);
+        joinConfig.getTcpIpConfig().addMember("127.0.0.1:5701");
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        map = hazelcastInstance.getMap("my_buckets");
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (hazelcastInstance != null) {
+            hazelcastInstance.shutdown();
+        }
+        if (cloud != null) {
+            cloud.shutdown();
+        }
+    }
+
+    @Override
+    protected ProxyManager<String> getProxyManager() {
+        return new HazelcastProxyManager<>(map, ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS), true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void clientSideClockShouldBeRequired() {
+        new HazelcastProxyManager<>(map, ClientSideConfig.getDefault(), true);
+    }
+
+    @Override
+    protected String generateRandomKey() {
+        return UUID.randomUUID().toString();
+    }
+
+}
@@ -7,27 +7,47 @@ import com.hazelcast.internal.nio.BufferObjectDataOutput;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.nio.serialization.StreamSerializer;
+import io.github.bucket4j.Nothing;
+import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
 import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.UsageOfUnsupportedApiException;
 import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand;
+import io.github.bucket4j.grid.hazelcast.HazelcastBatchBackupProcessor;
+import io.github.bucket4j.grid.hazelcast.HazelcastBatchEntryProcessor;
 import io.github.bucket4j.grid.hazelcast.HazelcastEntryProcessor;
+import io.github.bucket4j.grid.hazelcast.HazelcastReadOnlyEntryProcessor;
 import io.github.bucket4j.grid.hazelcast.SimpleBackupProcessor;
+import io.github.bucket4j.grid.hazelcast.serialization.HazelcastBatchBackupProcessorSerializer;
+import io.github.bucket4j.grid.hazelcast.serialization.HazelcastBatchEntryProcessorSerializer;
 import io.github.bucket4j.grid.hazelcast.serialization.HazelcastEntryProcessorSerializer;
+import io.github.bucket4j.grid.hazelcast.serialization.HazelcastReadOnlyEntryProcessorSerializer;
 import io.github.bucket4j.grid.hazelcast.serialization.SimpleBackupProcessorSerializer;
 import io.github.bucket4j.util.ComparableByContent;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 
 public class HazelcastSerializerTest {
 
+    private static final int MARKER = 0x0BADCAFE;
+
     private InternalSerializationService serializationService;
     private Map<Class<?>, StreamSerializer<?>> serializerByClass = new HashMap<>();
 
@@ -49,8 +69,32 @@ public class HazelcastSerializerTest {
                         .setTypeClass(backupSerializer.getSerializableType())
         );
 
+        HazelcastReadOnlyEntryProcessorSerializer readOnlyProcessorSerializer = new HazelcastReadOnlyEntryProcessorSerializer(1002);
+        serializationConfig.addSerializerConfig(
+                new SerializerConfig()
+                        .setImplementation(readOnlyProcessorSerializer)
+                        .setTypeClass(readOnlyProcessorSerializer.getSerializableType())
+        );
+
+        HazelcastBatchEntryProcessorSerializer batchProcessorSerializer = new HazelcastBatchEntryProcessorSerializer(1003);
+        serializationConfig.addSerializerConfig(
+                new SerializerConfig()
+                        .setImplementation(batchProcessorSerializer)
+                        .setTypeClass(batchProcessorSerializer.getSerializableType())
+        );
+
+        HazelcastBatchBackupProcessorSerializer batchBackupSerializer = new HazelcastBatchBackupProcessorSerializer(1004);
+        serializationConfig.addSerializerConfig(
+                new SerializerConfig()
+                        .setImplementation(batchBackupSerializer)
+                        .setTypeClass(batchBackupSerializer.getSerializableType())
+        );
+
         serializerByClass.put(processorSerializer.getSerializableType(), processorSerializer);
+        serializerByClass.put(batchProcessorSerializer.getSerializableType(), batchProcessorSerializer);
+        serializerByClass.put(batchBackupSerializer.getSerializableType(), batchBackupSerializer);
         serializerByClass.put(backupSerializer.getSerializableType(), backupSerializer);
+        serializerByClass.put(readOnlyProcessorSerializer.getSerializableType(), readOnlyProcessorSerializer);
 
         this.serializationService = new DefaultSerializationServiceBuilder()
                 .setConfig(serializationConfig)
@@ -63,6 +107,67 @@ public class HazelcastSerializerTest {
         Request request = new Request(command, Versions.getLatest(), null);
         testSerialization(new HazelcastEntryProcessor(request));
         testSerialization(new SimpleBackupProcessor(new byte[] {1,2,3}));
+
+        Request readOnlyRequest = new Request(new GetAvailableTokensCommand(), Versions.getLatest(), null);
+        testSerialization(new HazelcastReadOnlyEntryProcessor(readOnlyRequest));
+
+        testSerialization(new HazelcastBatchEntryProcessor(new byte[] {4,5,6}));
+        Map<String, byte[]> states = new HashMap<>();
+        states.put("first", new byte[] {1,2,3});
+        states.put("second", new byte[] {4,5});
+        testSerialization(new HazelcastBatchBackupProcessor(states));
+    }
+
+    @Test
+    public void testJavaSerializationOfEntryProcessors() throws Exception {
+        Request request = new Request(new AddTokensCommand(42), Versions.getLatest(), null);
+        HazelcastEntryProcessor processor = new HazelcastEntryProcessor(request);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(processor);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertTrue(ComparableByContent.equals(processor, in.readObject()));
+        }
+    }
+
+    @Test
+    public void requestOfUnsupportedFormatShouldBeReturnedAsErrorResult() throws Exception {
+        HazelcastEntryProcessorSerializer serializer = (HazelcastEntryProcessorSerializer) serializerByClass.get(HazelcastEntryProcessor.class);
+        BufferObjectDataInput in = requestOfUnsupportedFormatFollowedByMarker();
+        HazelcastEntryProcessor<String, Nothing> processor = serializer.read(in);
+        assertEquals(MARKER, in.readInt());
+        assertUnsupportedApiError(processor.process(new AbstractMap.SimpleEntry<>("key", null)));
+
+        HazelcastReadOnlyEntryProcessorSerializer readOnlySerializer = (HazelcastReadOnlyEntryProcessorSerializer) serializerByClass.get(HazelcastReadOnlyEntryProcessor.class);
+        in = requestOfUnsupportedFormatFollowedByMarker();
+        HazelcastReadOnlyEntryProcessor<String, Nothing> readOnlyProcessor = readOnlySerializer.read(in);
+        assertEquals(MARKER, in.readInt());
+        assertUnsupportedApiError(readOnlyProcessor.process(new AbstractMap.SimpleEntry<>("key", null)));
+    }
+
+    private BufferObjectDataInput requestOfUnsupportedFormatFollowedByMarker() throws IOException {
+        BufferObjectDataOutput request = serializationService.createObjectDataOutput();
+        request.writeInt(Integer.MAX_VALUE);
+        request.writeLong(42);
+
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        out.writeByteArray(request.toByteArray());
+        // anything which is written after processor must be readable regardless of request format
+        out.writeInt(MARKER);
+        return serializationService.createObjectDataInput(out.toByteArray());
+    }
+
+    private static void assertUnsupportedApiError(byte[] resultBytes) {
+        CommandResult<Nothing> result = InternalSerializationHelper.deserializeResult(resultBytes, Versions.getOldest());
+        assertTrue(result.isError());
+        try {
+            result.getData();
+            fail();
+        } catch (UsageOfUnsupportedApiException e) {
+            // expected
+        }
     }
 
     private <T> T serializeAndDeserialize(T original) {
@@ -5,7 +5,14 @@ import com.hazelcast.config.JoinConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.map.IMap;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.grid.hazelcast.HazelcastProxyManager;
 import io.github.bucket4j.tck.AbstractDistributedBucketTest;
@@ -15,10 +22,17 @@ import org.gridkit.nanocloud.VX;
 import org.gridkit.vicluster.ViNode;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class HazelcastWithCustomSerializersTest extends AbstractDistributedBucketTest<String> {
 
     private static IMap<String, byte[]> map;
@@ -78,4 +92,35 @@ public class HazelcastWithCustomSerializersTest extends AbstractDistributedBucke
         return UUID.randomUUID().toString();
     }
 
+    @Test
+    public void shouldExecuteBatchOfRequests() {
+        HazelcastProxyManager<String> proxyManager = new HazelcastProxyManager<>(map, ClientSideConfig.getDefault());
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(2, Duration.ofMinutes(1)))
+                .build();
+
+        Map<String, Request<Boolean>> requests = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            // costs differ, so requests are split into several groups
+            CreateInitialStateAndExecuteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, new TryConsumeCommand(1 + i % 3));
+            requests.put(generateRandomKey(), new Request<>(command, Versions.getLatest(), null));
+        }
+
+        Map<String, CommandResult<Boolean>> results = proxyManager.executeAll(requests);
+        assertEquals(requests.keySet(), results.keySet());
+        int i = 0;
+        for (CommandResult<Boolean> result : results.values()) {
+            assertEquals(i++ % 3 != 2, result.getData());
+        }
+
+        results = proxyManager.executeAllAsync(requests).join();
+        i = 0;
+        for (Map.Entry<String, CommandResult<Boolean>> entry : results.entrySet()) {
+            assertEquals(i++ % 3 == 0, entry.getValue().getData());
+        }
+        String firstKey = requests.keySet().iterator().next();
+        assertEquals(0, proxyManager.builder().build(firstKey, configuration).getAvailableTokens());
+        assertTrue(proxyManager.executeAll(new LinkedHashMap<String, Request<Boolean>>()).isEmpty());
+    }
+
 }
@@ -0,0 +1,192 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.ignite.thin.cas;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractVersionedCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncVersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedState;
+import org.apache.ignite.cache.QueryEntity;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.client.ClientCache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The flavour of {@link IgniteThinClientCasBasedProxyManager} that stores the bucket together with version, see {@link IgniteVersionedBucketState}.
+ * Instead of {@code replace(key, oldValue, newValue)}, which sends both versions of state to the server,
+ * the state is replaced by SQL <code>UPDATE ... WHERE _key = ? AND version = ?</code>, so only new state is transferred.
+ * Each client remembers the states it has read or written, and the server skips the state in response
+ * when its version is equal to the remembered one, so reading of unchanged bucket costs a few bytes regardless of the size of configuration.
+ * The number of remembered states is limited by {@code maxRememberedBuckets},
+ * when the limit is reached an arbitrary bucket is forgotten, so its next read transfers the whole state again.
+ *
+ * <p>As well as {@link IgniteThinClientCasBasedProxyManager} it does not require bucket4j Jars on the classpath of server nodes,
+ * but the cache must be SQL-enabled by {@link #createQueryEntity(Class)}:
+ * <pre>{@code
+ * ClientCacheConfiguration cacheConfiguration = new ClientCacheConfiguration()
+ *     .setName("buckets")
+ *     .setQueryEntities(IgniteThinClientVersionedCasBasedProxyManager.createQueryEntity(String.class));
+ * ClientCache<String, IgniteVersionedBucketState> cache = igniteClient.getOrCreateCache(cacheConfiguration);
+ * }</pre>
+ *
+ * @param <K> type of key
+ */
+public class IgniteThinClientVersionedCasBasedProxyManager<K> extends AbstractVersionedCompareAndSwapBasedProxyManager<K> {
+
+    public static final String TABLE_NAME = "BUCKET4J_STATE";
+
+    private static final String VERSION_FIELD = "version";
+    private static final String STATE_FIELD = "state";
+    private static final String SELECT_SQL = "SELECT " + VERSION_FIELD + ", CASE WHEN " + VERSION_FIELD + " = ? THEN NULL ELSE " + STATE_FIELD + " END"
+            + " FROM " + TABLE_NAME + " WHERE _key = ?";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET " + VERSION_FIELD + " = ?, " + STATE_FIELD + " = ?"
+            + " WHERE _key = ? AND " + VERSION_FIELD + " = ?";
+
+    public static final int DEFAULT_MAX_REMEMBERED_BUCKETS = 100_000;
+
+    private final ClientCache<K, IgniteVersionedBucketState> cache;
+    private final int maxRememberedBuckets;
+    private final ConcurrentHashMap<K, VersionedState> rememberedStates = new ConcurrentHashMap<>();
+
+    public IgniteThinClientVersionedCasBasedProxyManager(ClientCache<K, IgniteVersionedBucketState> cache) {
+        this(cache, ClientSideConfig.getDefault());
+    }
+
+    public IgniteThinClientVersionedCasBasedProxyManager(ClientCache<K, IgniteVersionedBucketState> cache, ClientSideConfig clientSideConfig) {
+        this(cache, clientSideConfig, DEFAULT_MAX_REMEMBERED_BUCKETS);
+    }
+
+    public IgniteThinClientVersionedCasBasedProxyManager(ClientCache<K, IgniteVersionedBucketState> cache, ClientSideConfig clientSideConfig, int maxRememberedBuckets) {
+        super(clientSideConfig);
+        if (maxRememberedBuckets <= 0) {
+            throw BucketExceptions.nonPositiveMaxSize(maxRememberedBuckets);
+        }
+        this.cache = Objects.requireNonNull(cache);
+        this.maxRememberedBuckets = maxRememberedBuckets;
+    }
+
+    /**
+     * Creates the description of SQL table which should be configured for the cache of buckets.
+     *
+     * @param keyClass the class of keys
+     *
+     * @return query entity that describes {@link IgniteVersionedBucketState} as table {@value #TABLE_NAME}
+     */
+    public static QueryEntity createQueryEntity(Class<?> keyClass) {
+        LinkedHashMap<String, String> fields = new LinkedHashMap<>();
+        fields.put(VERSION_FIELD, Long.class.getName());
+        fields.put(STATE_FIELD, byte[].class.getName());
+        return new QueryEntity(keyClass.getName(), IgniteVersionedBucketState.class.getName())
+                .setTableName(TABLE_NAME)
+                .setFields(fields);
+    }
+
+    @Override
+    protected VersionedCompareAndSwapOperation beginVersionedCompareAndSwapOperation(K key) {
+        return new VersionedCompareAndSwapOperation() {
+            @Override
+            public Optional<VersionedState> getVersionedState() {
+                VersionedState remembered = rememberedStates.get(key);
+                Long rememberedVersion = remembered == null ? null : remembered.getVersion();
+                List<List<?>> rows = cache.query(new SqlFieldsQuery(SELECT_SQL).setArgs(rememberedVersion, key)).getAll();
+                if (rows.isEmpty()) {
+                    rememberedStates.remove(key);
+                    return Optional.empty();
+                }
+
+                List<?> row = rows.get(0);
+                byte[] state = (byte[]) row.get(1);
+                if (state == null) {
+                    // state is omitted only when version is equal to remembered one
+                    return Optional.of(remembered);
+                }
+                VersionedState versionedState = new VersionedState(state, ((Number) row.get(0)).longValue());
+                remember(key, versionedState);
+                return Optional.of(versionedState);
+            }
+
+            @Override
+            public boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                if (originalState == null) {
+                    // bucket can be removed and created again, the random initial version protects from reusing of state remembered before removal
+                    long initialVersion = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE / 2);
+                    if (!cache.putIfAbsent(key, new IgniteVersionedBucketState(initialVersion, newData))) {
+                        return false;
+                    }
+                    remember(key, new VersionedState(newData, initialVersion));
+                    return true;
+                }
+
+                SqlFieldsQuery update = new SqlFieldsQuery(UPDATE_SQL).setArgs(newVersion, newData, key, originalState.getVersion());
+                List<List<?>> rows = cache.query(update).getAll();
+                if (((Number) rows.get(0).get(0)).longValue() == 0) {
+                    return false;
+                }
+                remember(key, new VersionedState(newData, newVersion));
+                return true;
+            }
+        };
+    }
+
+    @Override
+    protected AsyncVersionedCompareAndSwapOperation beginAsyncVersionedCompareAndSwapOperation(K key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        // thin client does not provide asynchronous API for SQL
+        return false;
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        rememberedStates.remove(key);
+        cache.remove(key);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        throw new UnsupportedOperationException();
+    }
+
+    private void remember(K key, VersionedState state) {
+        if (rememberedStates.size() >= maxRememberedBuckets && !rememberedStates.containsKey(key)) {
+            // evict arbitrary bucket, it will be remembered again by next read
+            Iterator<K> iterator = rememberedStates.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        rememberedStates.put(key, state);
+    }
+
+}
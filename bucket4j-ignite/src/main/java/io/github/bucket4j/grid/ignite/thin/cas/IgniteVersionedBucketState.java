@@ -0,0 +1,44 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.ignite.thin.cas;
+
+/**
+ * The value which {@link IgniteThinClientVersionedCasBasedProxyManager} stores in the cache.
+ * Server nodes never deserialize it, they operate with its binary form, so this class is not required to be present on the classpath of server nodes.
+ */
+public final class IgniteVersionedBucketState {
+
+    private final long version;
+    private final byte[] state;
+
+    public IgniteVersionedBucketState(long version, byte[] state) {
+        this.version = version;
+        this.state = state;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+}
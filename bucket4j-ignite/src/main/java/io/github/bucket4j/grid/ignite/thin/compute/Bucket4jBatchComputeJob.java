@@ -0,0 +1,63 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.ignite.thin.compute;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.compute.ComputeJob;
+import org.apache.ignite.resources.IgniteInstanceResource;
+
+import javax.cache.processor.EntryProcessorResult;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Executes all requests addressed to keys which primary copies are stored on the node where job is executed.
+ */
+public class Bucket4jBatchComputeJob<K> implements ComputeJob {
+
+    private final String cacheName;
+    private final Map<K, IgniteEntryProcessor<K>> processors;
+
+    @IgniteInstanceResource
+    private Ignite ignite;
+
+    public Bucket4jBatchComputeJob(String cacheName, Map<K, IgniteEntryProcessor<K>> processors) {
+        this.cacheName = cacheName;
+        this.processors = processors;
+    }
+
+    @Override
+    public Object execute() throws IgniteException {
+        IgniteCache<K, byte[]> cache = ignite.cache(cacheName);
+        Map<K, EntryProcessorResult<byte[]>> results = cache.invokeAll(processors);
+
+        Map<K, byte[]> responses = new HashMap<>(results.size());
+        results.forEach((key, result) -> responses.put(key, result.get()));
+        return responses;
+    }
+
+    @Override
+    public void cancel() {
+        // do nothing
+    }
+
+}
@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.ignite.thin.compute;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.compute.ComputeJob;
+import org.apache.ignite.compute.ComputeJobResult;
+import org.apache.ignite.compute.ComputeTaskAdapter;
+import org.apache.ignite.resources.IgniteInstanceResource;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Batched version of {@link Bucket4jComputeTask}: keys are grouped by primary nodes and requests for each group are executed
+ * by single {@link Bucket4jBatchComputeJob}, so whole batch costs one compute task regardless of its size.
+ */
+public class Bucket4jBatchComputeTask<K> extends ComputeTaskAdapter<Bucket4jBatchComputeTaskParams<K>, Map<K, byte[]>> {
+
+    public static final String JOB_NAME = Bucket4jBatchComputeTask.class.getName();
+
+    @IgniteInstanceResource
+    private Ignite ignite;
+
+    @Override
+    public Map<? extends ComputeJob, ClusterNode> map(List<ClusterNode> subgrid, Bucket4jBatchComputeTaskParams<K> params) throws IgniteException {
+        Map<K, IgniteEntryProcessor<K>> processors = params.getProcessors();
+        Affinity<K> affinity = ignite.affinity(params.getCacheName());
+        Map<ClusterNode, Collection<K>> keysByPrimaryNode = affinity.mapKeysToNodes(processors.keySet());
+
+        Map<ClusterNode, Map<K, IgniteEntryProcessor<K>>> processorsByNode = new HashMap<>();
+        keysByPrimaryNode.forEach((primaryNode, keys) -> {
+            ClusterNode node = primaryNode;
+            if (!subgrid.contains(primaryNode)) {
+                // should never come here, but if it happen let's execute requests on random node
+                node = subgrid.get(ThreadLocalRandom.current().nextInt(subgrid.size()));
+            }
+            Map<K, IgniteEntryProcessor<K>> nodeProcessors = processorsByNode.computeIfAbsent(node, n -> new LinkedHashMap<>());
+            for (K key : keys) {
+                nodeProcessors.put(key, processors.get(key));
+            }
+        });
+
+        Map<ComputeJob, ClusterNode> jobs = new HashMap<>();
+        processorsByNode.forEach((node, nodeProcessors) -> jobs.put(new Bucket4jBatchComputeJob<>(params.getCacheName(), nodeProcessors), node));
+        return jobs;
+    }
+
+    @Override
+    public Map<K, byte[]> reduce(List<ComputeJobResult> results) throws IgniteException {
+        Map<K, byte[]> responses = new HashMap<>();
+        for (ComputeJobResult result : results) {
+            Map<K, byte[]> jobResponses = result.getData();
+            responses.putAll(jobResponses);
+        }
+        return responses;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.grid.ignite.thin.compute;
+
+import java.io.Serializable;
+import java.util.Map;
+
+public class Bucket4jBatchComputeTaskParams<K> implements Serializable {
+
+    private final String cacheName;
+    private final Map<K, IgniteEntryProcessor<K>> processors;
+
+    public Bucket4jBatchComputeTaskParams(String cacheName, Map<K, IgniteEntryProcessor<K>> processors) {
+        this.cacheName = cacheName;
+        this.processors = processors;
+    }
+
+    public Map<K, IgniteEntryProcessor<K>> getProcessors() {
+        return processors;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    @Override
+    public String toString() {
+        return "Bucket4jBatchComputeTaskParams{" +
+                "cacheName='" + cacheName + '\'' +
+                ", processors=" + processors +
+                '}';
+    }
+
+}
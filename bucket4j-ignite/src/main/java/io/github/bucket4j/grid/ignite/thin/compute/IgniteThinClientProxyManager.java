@@ -46,6 +46,9 @@ import io.github.bucket4j.grid.ignite.thin.ThinClientUtils;
 import org.apache.ignite.client.ClientCache;
 import org.apache.ignite.client.ClientCompute;
 import org.apache.ignite.client.IgniteClientFuture;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
@@ -98,6 +101,61 @@ public class IgniteThinClientProxyManager<K> extends AbstractProxyManager<K> {
         return completableFuture.thenApply((byte[] resultBytes) -> deserializeResult(resultBytes, backwardCompatibilityVersion));
     }
 
+    /**
+     * Executes requests for multiple buckets by single {@link Bucket4jBatchComputeTask}, that runs one job per primary node of keys,
+     * so the overhead of thin-client compute task is paid once per batch instead of once per request.
+     *
+     * <p>{@link Bucket4jBatchComputeTask} must be available on the classpath of server nodes in the same way as {@link Bucket4jComputeTask}.
+     *
+     * @param requests the requests to execute, grouped by keys
+     *
+     * @return the results of requests in the same order as requests
+     */
+    @Override
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        if (requests.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Bucket4jBatchComputeTaskParams<K> taskParams = createBatchTaskParams(requests);
+        try {
+            Map<K, byte[]> responses = clientCompute.execute(Bucket4jBatchComputeTask.JOB_NAME, taskParams);
+            return deserializeResults(requests, responses);
+        } catch (InterruptedException e) {
+            throw BucketExceptions.executionException(e);
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #executeAll(Map)}.
+     *
+     * @param requests the requests to execute, grouped by keys
+     *
+     * @return the future that completed by results of requests in the same order as requests
+     */
+    @Override
+    protected <T> CompletableFuture<Map<K, CommandResult<T>>> executeAllAsync(Map<K, Request<T>> requests) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+        Bucket4jBatchComputeTaskParams<K> taskParams = createBatchTaskParams(requests);
+        IgniteClientFuture<Map<K, byte[]>> igniteFuture = clientCompute.executeAsync2(Bucket4jBatchComputeTask.JOB_NAME, taskParams);
+        return ThinClientUtils.convertFuture(igniteFuture).thenApply(responses -> deserializeResults(requests, responses));
+    }
+
+    private <T> Bucket4jBatchComputeTaskParams<K> createBatchTaskParams(Map<K, Request<T>> requests) {
+        Map<K, IgniteEntryProcessor<K>> processors = new LinkedHashMap<>(requests.size());
+        requests.forEach((key, request) -> processors.put(key, new IgniteEntryProcessor<>(request)));
+        return new Bucket4jBatchComputeTaskParams<>(cache.getName(), processors);
+    }
+
+    private <T> Map<K, CommandResult<T>> deserializeResults(Map<K, Request<T>> requests, Map<K, byte[]> responses) {
+        Map<K, CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+        requests.forEach((key, request) -> {
+            results.put(key, deserializeResult(responses.get(key), request.getBackwardCompatibilityVersion()));
+        });
+        return results;
+    }
+
     @Override
     public void removeProxy(K key) {
         cache.remove(key);
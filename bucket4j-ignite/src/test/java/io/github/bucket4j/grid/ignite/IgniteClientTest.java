@@ -2,9 +2,14 @@ package io.github.bucket4j.grid.ignite;
 
 import java.io.Serializable;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.grid.ignite.thin.compute.IgniteThinClientProxyManager;
@@ -22,6 +27,11 @@ import org.gridkit.nanocloud.VX;
 import org.gridkit.vicluster.ViNode;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 
 public class IgniteClientTest extends AbstractDistributedBucketTest<String> {
@@ -98,4 +108,29 @@ public class IgniteClientTest extends AbstractDistributedBucketTest<String> {
         return UUID.randomUUID().toString();
     }
 
+    @Test
+    public void shouldConsumeFromBatchOfBuckets() {
+        ProxyManager<String> proxyManager = getProxyManager();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(2, Duration.ofHours(1)))
+                .build();
+
+        Map<String, Long> tokensToConsume = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            tokensToConsume.put(generateRandomKey(), 1L + i % 2);
+        }
+        assertTrue(proxyManager.tryConsumeAll(tokensToConsume, key -> configuration));
+        tokensToConsume.forEach((key, tokens) ->
+                assertEquals(2 - tokens, proxyManager.builder().build(key, configuration).getAvailableTokens()));
+
+        // half of buckets are empty, so nothing is consumed and tokens are returned to other buckets
+        Map<String, Long> oneTokenFromEach = new LinkedHashMap<>();
+        tokensToConsume.keySet().forEach(key -> oneTokenFromEach.put(key, 1L));
+        assertFalse(proxyManager.asAsync().tryConsumeAll(oneTokenFromEach, key -> configuration).join());
+        tokensToConsume.forEach((key, tokens) ->
+                assertEquals(2 - tokens, proxyManager.builder().build(key, configuration).getAvailableTokens()));
+
+        assertTrue(proxyManager.tryConsumeAll(Collections.emptyMap(), key -> configuration));
+    }
+
 }
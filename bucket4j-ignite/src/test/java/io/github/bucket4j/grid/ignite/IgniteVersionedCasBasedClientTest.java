@@ -0,0 +1,260 @@
+package io.github.bucket4j.grid.ignite;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.grid.ignite.thin.cas.IgniteThinClientVersionedCasBasedProxyManager;
+import io.github.bucket4j.grid.ignite.thin.cas.IgniteVersionedBucketState;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.client.ClientCache;
+import org.apache.ignite.client.ClientCacheConfiguration;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.configuration.*;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.gridkit.nanocloud.Cloud;
+import org.gridkit.nanocloud.CloudFactory;
+import org.gridkit.nanocloud.VX;
+import org.gridkit.vicluster.ViNode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class IgniteVersionedCasBasedClientTest extends AbstractDistributedBucketTest<String> {
+
+    private static final String CACHE_NAME = "my_buckets";
+
+    private static ClientCache<String, IgniteVersionedBucketState> cache;
+    private static Cloud cloud;
+    private static ViNode server;
+
+    private static IgniteClient igniteClient;
+
+    private final ClientSideConfig clientSideConfig = ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS);
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(10, Duration.ofHours(1)))
+            .build();
+
+    @BeforeClass
+    public static void setup() throws UnknownHostException {
+        // start separated JVM on current host
+        cloud = CloudFactory.createCloud();
+        cloud.node("**").x(VX.TYPE).setLocal();
+        server = cloud.node("stateful-ignite-server");
+
+        int serverDiscoveryPort = 47500;
+        String serverNodeAdress = "localhost:" + serverDiscoveryPort;
+
+        server.exec((Runnable & Serializable) () -> {
+            TcpDiscoveryVmIpFinder neverFindOthers = new TcpDiscoveryVmIpFinder();
+            neverFindOthers.setAddresses(Collections.singleton(serverNodeAdress));
+
+            TcpDiscoverySpi tcpDiscoverySpi = new TcpDiscoverySpi();
+            tcpDiscoverySpi.setIpFinder(neverFindOthers);
+            tcpDiscoverySpi.setLocalPort(serverDiscoveryPort);
+
+            ThinClientConfiguration thinClientCfg = new ThinClientConfiguration()
+                    .setMaxActiveComputeTasksPerConnection(100);
+            ClientConnectorConfiguration clientConnectorCfg = new ClientConnectorConfiguration()
+                    .setThinClientConfiguration(thinClientCfg);
+
+            IgniteConfiguration igniteConfiguration = new IgniteConfiguration();
+            igniteConfiguration.setClientMode(false);
+            igniteConfiguration.setDiscoverySpi(tcpDiscoverySpi);
+            igniteConfiguration.setClientConnectorConfiguration(clientConnectorCfg);
+
+            Ignition.start(igniteConfiguration);
+        });
+
+        // start ignite thin client which works inside current JVM and does not hold data
+        ClientConfiguration clientConfiguration = new ClientConfiguration();
+        clientConfiguration.setAddresses("localhost:" + ClientConnectorConfiguration.DFLT_PORT);
+
+        igniteClient = Ignition.startClient(clientConfiguration);
+
+        // cache is created by client, so server does not need to know anything about bucket4j
+        ClientCacheConfiguration cacheConfiguration = new ClientCacheConfiguration()
+                .setName(CACHE_NAME)
+                .setQueryEntities(IgniteThinClientVersionedCasBasedProxyManager.createQueryEntity(String.class));
+        cache = igniteClient.getOrCreateCache(cacheConfiguration);
+    }
+
+    @AfterClass
+    public static void shutdown() throws Exception {
+        if (igniteClient != null) {
+            igniteClient.close();
+        }
+        if (cloud != null) {
+            cloud.shutdown();
+        }
+    }
+
+    @Override
+    protected ProxyManager<String> getProxyManager() {
+        return new IgniteThinClientVersionedCasBasedProxyManager<>(cache, clientSideConfig);
+    }
+
+    @Override
+    protected String generateRandomKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void selectShouldNotReturnStateWhenRememberedVersionMatches() {
+        List<ExecutedQuery> queries = new ArrayList<>();
+        ProxyManager<String> proxyManager = new IgniteThinClientVersionedCasBasedProxyManager<>(recordQueries(queries, query -> {}), clientSideConfig);
+        BucketProxy bucket = proxyManager.builder().build(generateRandomKey(), configuration);
+        assertTrue(bucket.tryConsume(1));
+
+        queries.clear();
+        assertTrue(bucket.tryConsume(1));
+
+        ExecutedQuery select = queries.get(0);
+        assertTrue(select.isSelect());
+        assertNull(select.getState());
+        assertEquals(8, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void conflictingUpdateShouldBeRetried() {
+        String key = generateRandomKey();
+        ProxyManager<String> otherClient = getProxyManager();
+        AtomicBoolean conflictCreated = new AtomicBoolean();
+        List<ExecutedQuery> queries = new ArrayList<>();
+        ProxyManager<String> proxyManager = new IgniteThinClientVersionedCasBasedProxyManager<>(recordQueries(queries, query -> {
+            if (query.getSql().startsWith("UPDATE") && conflictCreated.compareAndSet(false, true)) {
+                // bucket is modified by other client between SELECT and UPDATE
+                otherClient.builder().build(key, configuration).tryConsume(1);
+            }
+        }), clientSideConfig);
+        BucketProxy bucket = proxyManager.builder().build(key, configuration);
+        assertTrue(bucket.tryConsume(1));
+
+        queries.clear();
+        assertTrue(bucket.tryConsume(1));
+
+        List<Long> updatedRows = queries.stream()
+                .filter(query -> !query.isSelect())
+                .map(ExecutedQuery::getUpdatedRows)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(0L, 1L), updatedRows);
+        assertEquals(7, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void removedAndRecreatedBucketShouldNotReuseRememberedState() {
+        String key = generateRandomKey();
+        List<ExecutedQuery> queries = new ArrayList<>();
+        ProxyManager<String> proxyManager = new IgniteThinClientVersionedCasBasedProxyManager<>(recordQueries(queries, query -> {}), clientSideConfig);
+        BucketProxy bucket = proxyManager.builder().build(key, configuration);
+        assertTrue(bucket.tryConsume(1));
+
+        ProxyManager<String> otherClient = getProxyManager();
+        otherClient.removeProxy(key);
+        assertTrue(otherClient.builder().build(key, configuration).tryConsume(5));
+
+        queries.clear();
+        assertEquals(5, bucket.getAvailableTokens());
+        assertNotNull(queries.get(0).getState());
+    }
+
+    @Test
+    public void newBucketsShouldBeRememberedWhenLimitIsReached() {
+        List<ExecutedQuery> queries = new ArrayList<>();
+        ProxyManager<String> proxyManager = new IgniteThinClientVersionedCasBasedProxyManager<>(recordQueries(queries, query -> {}), clientSideConfig, 1);
+        BucketProxy first = proxyManager.builder().build(generateRandomKey(), configuration);
+        BucketProxy second = proxyManager.builder().build(generateRandomKey(), configuration);
+        assertTrue(first.tryConsume(1));
+        assertTrue(second.tryConsume(1));
+
+        // second bucket has displaced the first one
+        queries.clear();
+        assertTrue(second.tryConsume(1));
+        assertNull(queries.get(0).getState());
+
+        queries.clear();
+        assertTrue(first.tryConsume(1));
+        assertNotNull(queries.get(0).getState());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ClientCache<String, IgniteVersionedBucketState> recordQueries(List<ExecutedQuery> executedQueries, Consumer<SqlFieldsQuery> beforeQuery) {
+        Object proxy = Proxy.newProxyInstance(ClientCache.class.getClassLoader(), new Class<?>[] {ClientCache.class}, (ignored, method, args) -> {
+            if (!method.getName().equals("query") || !(args[0] instanceof SqlFieldsQuery)) {
+                return invoke(method, cache, args);
+            }
+            SqlFieldsQuery query = (SqlFieldsQuery) args[0];
+            beforeQuery.accept(query);
+            FieldsQueryCursor<?> cursor = (FieldsQueryCursor<?>) invoke(method, cache, args);
+            List<?> rows = cursor.getAll();
+            executedQueries.add(new ExecutedQuery(query.getSql(), rows));
+            return Proxy.newProxyInstance(FieldsQueryCursor.class.getClassLoader(), new Class<?>[] {FieldsQueryCursor.class}, (ignored2, cursorMethod, cursorArgs) -> {
+                if (cursorMethod.getName().equals("getAll")) {
+                    return rows;
+                }
+                return invoke(cursorMethod, cursor, cursorArgs);
+            });
+        });
+        return (ClientCache<String, IgniteVersionedBucketState>) proxy;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ExecutedQuery {
+
+        private final String sql;
+        private final List<?> rows;
+
+        private ExecutedQuery(String sql, List<?> rows) {
+            this.sql = sql;
+            this.rows = rows;
+        }
+
+        boolean isSelect() {
+            return sql.startsWith("SELECT");
+        }
+
+        byte[] getState() {
+            return (byte[]) ((List<?>) rows.get(0)).get(1);
+        }
+
+        long getUpdatedRows() {
+            return ((Number) ((List<?>) rows.get(0)).get(0)).longValue();
+        }
+
+    }
+
+}
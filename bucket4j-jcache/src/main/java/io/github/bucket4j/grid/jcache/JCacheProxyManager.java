@@ -44,9 +44,11 @@ import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import javax.cache.Cache;
 import javax.cache.CacheManager;
 import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorResult;
 import javax.cache.processor.MutableEntry;
 import javax.cache.spi.CachingProvider;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
@@ -83,6 +85,29 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
         return InternalSerializationHelper.deserializeResult(resultBytes, request.getBackwardCompatibilityVersion());
     }
 
+    @Override
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        // ByteBuffer compares content, so keys with equal requests share one processor instead of shipping per-key requests to every entry
+        Map<ByteBuffer, Set<K>> keysByRequest = new LinkedHashMap<>();
+        requests.forEach((key, request) -> {
+            ByteBuffer requestBytes = ByteBuffer.wrap(InternalSerializationHelper.serializeRequest(request));
+            keysByRequest.computeIfAbsent(requestBytes, bytes -> new LinkedHashSet<>()).add(key);
+        });
+
+        Map<K, EntryProcessorResult<byte[]>> resultBytes = new HashMap<>(requests.size());
+        keysByRequest.forEach((requestBytes, keys) -> {
+            byte[] serializedRequest = requestBytes.array();
+            EntryProcessor<K, byte[], byte[]> entryProcessor = preferLambdaStyle? createLambdaProcessor(serializedRequest) : new BucketProcessor<>(serializedRequest);
+            resultBytes.putAll(cache.invokeAll(keys, entryProcessor));
+        });
+        Map<K, CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+        requests.forEach((key, request) -> {
+            byte[] bytes = resultBytes.get(key).get();
+            results.put(key, InternalSerializationHelper.deserializeResult(bytes, request.getBackwardCompatibilityVersion()));
+        });
+        return results;
+    }
+
     @Override
     public void removeProxy(K key) {
         cache.remove(key);
@@ -147,7 +172,10 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
     }
 
     public <T> EntryProcessor<K, byte[], byte[]> createLambdaProcessor(Request<T> request) {
-        byte[] serializedRequest = InternalSerializationHelper.serializeRequest(request);
+        return createLambdaProcessor(InternalSerializationHelper.serializeRequest(request));
+    }
+
+    private EntryProcessor<K, byte[], byte[]> createLambdaProcessor(byte[] serializedRequest) {
         return  (Serializable & EntryProcessor<K, byte[], byte[]>) (mutableEntry, objects)
                 -> new JCacheTransaction(mutableEntry, serializedRequest).execute();
     }
@@ -159,7 +187,11 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
         private final byte[] serializedRequest;
 
         public BucketProcessor(Request<T> request) {
-            this.serializedRequest = InternalSerializationHelper.serializeRequest(request);
+            this(InternalSerializationHelper.serializeRequest(request));
+        }
+
+        private BucketProcessor(byte[] serializedRequest) {
+            this.serializedRequest = serializedRequest;
         }
 
         @Override
@@ -0,0 +1,318 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractLockBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockBasedTransaction;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockResult;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The base class for proxy managers that store buckets in relational database and protect them by row locks or similar database locks.
+ *
+ * <p>Connections are borrowed from {@link DataSource} for the time of single transaction, so the data source is expected to be a connection pool.
+ * Row with <code>NULL</code> state is treated as absent bucket, such rows can be inserted by implementations as placeholders to be locked.
+ *
+ * <p>When several buckets are touched by one operation, for example by {@link #tryConsumeAll(Map, java.util.function.Function)},
+ * all of them are processed in single transaction and locked in ascending order of keys,
+ * so concurrent transactions which touch the same buckets can not deadlock each other.
+ */
+public abstract class AbstractJdbcLockBasedProxyManager extends AbstractLockBasedProxyManager<Long> {
+
+    private final DataSource dataSource;
+    private final BucketTableSettings tableSettings;
+    private final String updateSql;
+    private final String removeSql;
+
+    protected AbstractJdbcLockBasedProxyManager(DataSource dataSource, BucketTableSettings tableSettings, ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.tableSettings = Objects.requireNonNull(tableSettings);
+        this.updateSql = "UPDATE " + tableSettings.getTableName() + " SET " + tableSettings.getStateColumnName() + " = ?"
+                + " WHERE " + tableSettings.getIdColumnName() + " = ?";
+        this.removeSql = "DELETE FROM " + tableSettings.getTableName() + " WHERE " + tableSettings.getIdColumnName() + " = ?";
+    }
+
+    /**
+     * Locks the bucket until the end of current transaction and reads its state.
+     *
+     * @param statements the statements of connection that holds the transaction
+     * @param key the key of bucket
+     *
+     * @return the state of bucket, or <code>null</code> if bucket does not exist
+     *
+     * @throws SQLException in case of database error
+     */
+    protected abstract byte[] lockAndRead(StatementCache statements, long key) throws SQLException;
+
+    /**
+     * Stores the state of bucket that did not exist at the moment of {@link #lockAndRead(StatementCache, long)}.
+     * Default implementation delegates to {@link #update(StatementCache, long, byte[])},
+     * because it expects that placeholder row has been inserted by {@link #lockAndRead(StatementCache, long)}.
+     */
+    protected void insert(StatementCache statements, long key, byte[] state) throws SQLException {
+        update(statements, key, state);
+    }
+
+    protected void update(StatementCache statements, long key, byte[] state) throws SQLException {
+        PreparedStatement statement = statements.prepare(updateSql);
+        statement.setBytes(1, state);
+        statement.setLong(2, key);
+        statement.executeUpdate();
+    }
+
+    /**
+     * Releases the lock acquired by {@link #lockAndRead(StatementCache, long)}.
+     * Default implementation does nothing, because locks are released by database when transaction finishes.
+     */
+    protected void unlock(StatementCache statements, long key) throws SQLException {
+        // do nothing
+    }
+
+    protected void beginTransaction(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+    }
+
+    protected BucketTableSettings getTableSettings() {
+        return tableSettings;
+    }
+
+    @Override
+    protected LockBasedTransaction allocateTransaction(Long key) {
+        return new JdbcTransaction(key, openStatements());
+    }
+
+    @Override
+    protected void releaseTransaction(LockBasedTransaction transaction) {
+        JdbcTransaction jdbcTransaction = (JdbcTransaction) transaction;
+        release(jdbcTransaction.statements, jdbcTransaction.active);
+    }
+
+    @Override
+    protected <T> Map<Long, CommandResult<T>> executeAll(Map<Long, Request<T>> requests) {
+        if (requests.size() < 2) {
+            return super.executeAll(requests);
+        }
+        List<Long> sortedKeys = new ArrayList<>(requests.keySet());
+        Collections.sort(sortedKeys);
+
+        Map<Long, CommandResult<T>> resultsByKey = new HashMap<>(requests.size());
+        StatementCache statements = openStatements();
+        boolean active = false;
+        try {
+            beginTransaction(statements.getConnection());
+            active = true;
+            List<Long> lockedKeys = new ArrayList<>(sortedKeys.size());
+            try {
+                for (Long key : sortedKeys) {
+                    lockedKeys.add(key);
+                    resultsByKey.put(key, executeLocked(statements, key, requests.get(key)));
+                }
+                statements.getConnection().commit();
+                active = false;
+            } finally {
+                for (Long key : lockedKeys) {
+                    unlock(statements, key);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            release(statements, active);
+        }
+
+        Map<Long, CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+        for (Long key : requests.keySet()) {
+            results.put(key, resultsByKey.get(key));
+        }
+        return results;
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(removeSql)) {
+            statement.setLong(1, key);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        throw new UnsupportedOperationException();
+    }
+
+    private <T> CommandResult<T> executeLocked(StatementCache statements, long key, Request<T> request) throws SQLException {
+        RemoteCommand<T> command = request.getCommand();
+        byte[] persistedData = lockAndRead(statements, key);
+        if (persistedData == null && !command.isInitializationCommand()) {
+            return CommandResult.bucketNotFound();
+        }
+        GenericEntry entry = new GenericEntry(persistedData, request, getConfigurationTable());
+        CommandResult<T> result = command.execute(entry, getClientSideTime());
+        if (entry.isModified()) {
+            byte[] bytes = entry.getModifiedStateBytes();
+            if (persistedData == null) {
+                insert(statements, key, bytes);
+            } else {
+                update(statements, key, bytes);
+            }
+        }
+        return result;
+    }
+
+    private StatementCache openStatements() {
+        try {
+            return new StatementCache(dataSource.getConnection());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void release(StatementCache statements, boolean activeTransaction) {
+        Connection connection = statements.getConnection();
+        try {
+            try {
+                statements.close();
+            } finally {
+                try {
+                    if (activeTransaction) {
+                        // transaction stays open when bucket was not found or when command has failed
+                        connection.rollback();
+                    }
+                    connection.setAutoCommit(true);
+                } finally {
+                    // return connection to pool
+                    connection.close();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class JdbcTransaction implements LockBasedTransaction {
+
+        private final long key;
+        private final StatementCache statements;
+
+        private byte[] data;
+        private boolean active;
+
+        private JdbcTransaction(long key, StatementCache statements) {
+            this.key = key;
+            this.statements = statements;
+        }
+
+        @Override
+        public void begin() {
+            try {
+                beginTransaction(statements.getConnection());
+                active = true;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public LockResult lock() {
+            try {
+                data = lockAndRead(statements, key);
+                return data == null ? LockResult.DATA_NOT_EXISTS_AND_LOCKED : LockResult.DATA_EXISTS_AND_LOCKED;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void create(byte[] data) {
+            try {
+                insert(statements, key, data);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void update(byte[] data) {
+            try {
+                AbstractJdbcLockBasedProxyManager.this.update(statements, key, data);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void rollback() {
+            try {
+                active = false;
+                statements.getConnection().rollback();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void commit() {
+            try {
+                statements.getConnection().commit();
+                active = false;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void unlock() {
+            try {
+                AbstractJdbcLockBasedProxyManager.this.unlock(statements, key);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public byte[] getData() {
+            return data;
+        }
+
+    }
+
+}
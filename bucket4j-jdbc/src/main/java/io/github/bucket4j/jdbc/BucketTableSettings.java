@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc;
+
+import java.util.Objects;
+
+/**
+ * Describes the table where JDBC based proxy managers store buckets.
+ *
+ * <p>The table must have primary key column of <code>BIGINT</code> type for identifiers of buckets
+ * and nullable binary column for serialized state of buckets, the exact DDL for each database can be found in documentation of proxy manager.
+ * The version column is required only by {@link JdbcCompareAndSwapBasedProxyManager}.
+ */
+public final class BucketTableSettings {
+
+    private static final BucketTableSettings DEFAULT = new BucketTableSettings("bucket", "id", "state", "version");
+
+    private final String tableName;
+    private final String idColumnName;
+    private final String stateColumnName;
+    private final String versionColumnName;
+
+    private BucketTableSettings(String tableName, String idColumnName, String stateColumnName, String versionColumnName) {
+        this.tableName = Objects.requireNonNull(tableName);
+        this.idColumnName = Objects.requireNonNull(idColumnName);
+        this.stateColumnName = Objects.requireNonNull(stateColumnName);
+        this.versionColumnName = Objects.requireNonNull(versionColumnName);
+    }
+
+    /**
+     * Returns settings for the table <code>bucket</code> with columns <code>id</code>, <code>state</code> and <code>version</code>.
+     *
+     * @return default settings
+     */
+    public static BucketTableSettings getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates settings for custom table.
+     *
+     * @param tableName the name of table, can be qualified by schema
+     * @param idColumnName the name of primary key column
+     * @param stateColumnName the name of column that stores state of bucket
+     *
+     * @return settings for custom table
+     */
+    public static BucketTableSettings customSettings(String tableName, String idColumnName, String stateColumnName) {
+        return new BucketTableSettings(tableName, idColumnName, stateColumnName, "version");
+    }
+
+    /**
+     * Creates settings for custom table with custom name of version column.
+     *
+     * @param tableName the name of table, can be qualified by schema
+     * @param idColumnName the name of primary key column
+     * @param stateColumnName the name of column that stores state of bucket
+     * @param versionColumnName the name of column that stores version of state
+     *
+     * @return settings for custom table
+     */
+    public static BucketTableSettings customSettings(String tableName, String idColumnName, String stateColumnName, String versionColumnName) {
+        return new BucketTableSettings(tableName, idColumnName, stateColumnName, versionColumnName);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getIdColumnName() {
+        return idColumnName;
+    }
+
+    public String getStateColumnName() {
+        return stateColumnName;
+    }
+
+    public String getVersionColumnName() {
+        return versionColumnName;
+    }
+
+}
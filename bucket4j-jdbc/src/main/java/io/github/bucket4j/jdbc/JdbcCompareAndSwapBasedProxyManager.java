@@ -0,0 +1,225 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractVersionedCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncVersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapRetriesExhaustedException;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapRetryPolicy;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.VersionedState;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Proxy manager that stores buckets in relational database and protects them by optimistic locking,
+ * the state is replaced by <code>UPDATE ... WHERE version = ?</code>, so database compares single number instead of the whole serialized state.
+ * SQL statements are portable, so it works with PostgreSQL, MySQL, H2 and other databases that support <code>SELECT ... FOR UPDATE</code>.
+ *
+ * <p>Expected table structure for default settings on PostgreSQL:
+ * <pre>
+ * CREATE TABLE bucket(id BIGINT PRIMARY KEY, state BYTEA NOT NULL, version BIGINT NOT NULL);
+ * </pre>
+ * The table must not be shared with lock based proxy managers, because they use rows with <code>NULL</code> state as placeholders.
+ *
+ * <p>When {@link CompareAndSwapRetryPolicy#withFallback() fallback} is enabled, requests which exhausted optimistic attempts
+ * are executed in transaction that locks the row by <code>SELECT ... FOR UPDATE</code>, so hot buckets do not starve under contention.
+ */
+public class JdbcCompareAndSwapBasedProxyManager extends AbstractVersionedCompareAndSwapBasedProxyManager<Long> {
+
+    private final DataSource dataSource;
+    private final String selectSql;
+    private final String selectForUpdateSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String removeSql;
+
+    public JdbcCompareAndSwapBasedProxyManager(DataSource dataSource) {
+        this(dataSource, BucketTableSettings.getDefault(), ClientSideConfig.getDefault());
+    }
+
+    public JdbcCompareAndSwapBasedProxyManager(DataSource dataSource, BucketTableSettings tableSettings, ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+        this.dataSource = Objects.requireNonNull(dataSource);
+        String table = tableSettings.getTableName();
+        String id = tableSettings.getIdColumnName();
+        String state = tableSettings.getStateColumnName();
+        String version = tableSettings.getVersionColumnName();
+        this.selectSql = "SELECT " + state + ", " + version + " FROM " + table + " WHERE " + id + " = ?";
+        this.selectForUpdateSql = selectSql + " FOR UPDATE";
+        this.insertSql = "INSERT INTO " + table + "(" + id + ", " + state + ", " + version + ") VALUES(?, ?, ?)";
+        this.updateSql = "UPDATE " + table + " SET " + state + " = ?, " + version + " = ?"
+                + " WHERE " + id + " = ? AND " + version + " = ?";
+        this.removeSql = "DELETE FROM " + table + " WHERE " + id + " = ?";
+    }
+
+    @Override
+    protected VersionedCompareAndSwapOperation beginVersionedCompareAndSwapOperation(Long key) {
+        return new VersionedCompareAndSwapOperation() {
+            @Override
+            public Optional<VersionedState> getVersionedState() {
+                try (Connection connection = dataSource.getConnection()) {
+                    return Optional.ofNullable(read(connection, selectSql, key));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public boolean compareAndSwap(VersionedState originalState, byte[] newData, long newVersion) {
+                try (Connection connection = dataSource.getConnection()) {
+                    if (originalState == null) {
+                        return insert(connection, key, newData, newVersion);
+                    } else {
+                        return update(connection, key, originalState.getVersion(), newData, newVersion);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    protected AsyncVersionedCompareAndSwapOperation beginAsyncVersionedCompareAndSwapOperation(Long key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    /**
+     * Executes request in transaction that locks the row of bucket,
+     * this path is used only when {@link CompareAndSwapRetryPolicy#withFallback()} is enabled and optimistic attempts are exhausted.
+     */
+    @Override
+    protected <T> CommandResult<T> executeFallback(Long key, Request<T> request, int attempts) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                CommandResult<T> result = executeLocked(connection, key, request, attempts);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(removeSql)) {
+            statement.setLong(1, key);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        throw new UnsupportedOperationException();
+    }
+
+    private <T> CommandResult<T> executeLocked(Connection connection, long key, Request<T> request, int attempts) throws SQLException {
+        RemoteCommand<T> command = request.getCommand();
+        VersionedState originalState = read(connection, selectForUpdateSql, key);
+        if (originalState == null) {
+            if (!command.isInitializationCommand()) {
+                return CommandResult.bucketNotFound();
+            }
+            // missing row can not be locked, contention on creation of bucket can be resolved only by further optimistic attempts
+            throw new CompareAndSwapRetriesExhaustedException(attempts);
+        }
+
+        GenericEntry entry = new GenericEntry(originalState.getState(), request, getConfigurationTable());
+        CommandResult<T> result = command.execute(entry, getClientSideTime());
+        if (entry.isModified()) {
+            // can not fail because row is locked
+            update(connection, key, originalState.getVersion(), entry.getModifiedStateBytes(), originalState.getVersion() + 1);
+        }
+        return result;
+    }
+
+    private static VersionedState read(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new VersionedState(rs.getBytes(1), rs.getLong(2));
+            }
+        }
+    }
+
+    private boolean insert(Connection connection, long key, byte[] state, long version) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            statement.setLong(1, key);
+            statement.setBytes(2, state);
+            statement.setLong(3, version);
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (isIntegrityConstraintViolation(e)) {
+                // bucket has been concurrently created by another transaction
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private boolean update(Connection connection, long key, long expectedVersion, byte[] state, long newVersion) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+            statement.setBytes(1, state);
+            statement.setLong(2, newVersion);
+            statement.setLong(3, key);
+            statement.setLong(4, expectedVersion);
+            return statement.executeUpdate() == 1;
+        }
+    }
+
+    private static boolean isIntegrityConstraintViolation(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("23");
+    }
+
+}
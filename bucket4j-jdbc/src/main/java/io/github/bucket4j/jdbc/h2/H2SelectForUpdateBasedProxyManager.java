@@ -0,0 +1,94 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc.h2;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.jdbc.AbstractJdbcLockBasedProxyManager;
+import io.github.bucket4j.jdbc.BucketTableSettings;
+import io.github.bucket4j.jdbc.StatementCache;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * H2 based proxy manager that protects buckets by <code>SELECT ... FOR UPDATE</code> row locks.
+ *
+ * <p>Expected table structure for default settings:
+ * <pre>
+ * CREATE TABLE bucket(id BIGINT PRIMARY KEY, state VARBINARY);
+ * </pre>
+ *
+ * <p>Missing bucket is initialized by insert of placeholder row that is locked by the insert itself.
+ * H2 rolls back only the failed statement, so the duplicate key error caused by concurrent initialization
+ * does not break the transaction and the row is selected again.
+ */
+public class H2SelectForUpdateBasedProxyManager extends AbstractJdbcLockBasedProxyManager {
+
+    private static final String DUPLICATE_KEY_SQL_STATE = "23505";
+
+    private final String selectForUpdateSql;
+    private final String insertSql;
+
+    public H2SelectForUpdateBasedProxyManager(DataSource dataSource) {
+        this(dataSource, BucketTableSettings.getDefault(), ClientSideConfig.getDefault());
+    }
+
+    public H2SelectForUpdateBasedProxyManager(DataSource dataSource, BucketTableSettings tableSettings, ClientSideConfig clientSideConfig) {
+        super(dataSource, tableSettings, clientSideConfig);
+        String table = tableSettings.getTableName();
+        String id = tableSettings.getIdColumnName();
+        String state = tableSettings.getStateColumnName();
+        this.selectForUpdateSql = "SELECT " + state + " FROM " + table + " WHERE " + id + " = ? FOR UPDATE";
+        this.insertSql = "INSERT INTO " + table + "(" + id + ", " + state + ") VALUES(?, NULL)";
+    }
+
+    @Override
+    protected byte[] lockAndRead(StatementCache statements, long key) throws SQLException {
+        PreparedStatement selectStatement = statements.prepare(selectForUpdateSql);
+        selectStatement.setLong(1, key);
+        try (ResultSet rs = selectStatement.executeQuery()) {
+            if (rs.next()) {
+                return rs.getBytes(1);
+            }
+        }
+
+        try {
+            PreparedStatement insertStatement = statements.prepare(insertSql);
+            insertStatement.setLong(1, key);
+            insertStatement.executeUpdate();
+            return null;
+        } catch (SQLException e) {
+            if (!DUPLICATE_KEY_SQL_STATE.equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+
+        // row has been inserted by concurrent transaction
+        selectStatement = statements.prepare(selectForUpdateSql);
+        selectStatement.setLong(1, key);
+        try (ResultSet rs = selectStatement.executeQuery()) {
+            return rs.next() ? rs.getBytes(1) : null;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc.mysql;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.jdbc.AbstractJdbcLockBasedProxyManager;
+import io.github.bucket4j.jdbc.BucketTableSettings;
+import io.github.bucket4j.jdbc.StatementCache;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * MySQL based proxy manager that protects buckets by <code>SELECT ... FOR UPDATE</code> row locks.
+ *
+ * <p>Expected table structure for default settings:
+ * <pre>
+ * CREATE TABLE bucket(id BIGINT PRIMARY KEY, state BLOB) ENGINE = InnoDB;
+ * </pre>
+ *
+ * <p>Missing bucket is initialized by <code>INSERT IGNORE</code> of placeholder row, the inserted row is locked by the insert itself,
+ * so the row is selected again only when it has been concurrently inserted by another transaction.
+ *
+ * <p>Transactions are executed with <code>READ COMMITTED</code> isolation, because gap locks taken by <code>REPEATABLE READ</code>
+ * for missing rows lead to deadlocks when the same bucket is concurrently initialized by several transactions.
+ */
+public class MySQLSelectForUpdateBasedProxyManager extends AbstractJdbcLockBasedProxyManager {
+
+    private final String selectForUpdateSql;
+    private final String insertIgnoreSql;
+
+    public MySQLSelectForUpdateBasedProxyManager(DataSource dataSource) {
+        this(dataSource, BucketTableSettings.getDefault(), ClientSideConfig.getDefault());
+    }
+
+    public MySQLSelectForUpdateBasedProxyManager(DataSource dataSource, BucketTableSettings tableSettings, ClientSideConfig clientSideConfig) {
+        super(dataSource, tableSettings, clientSideConfig);
+        String table = tableSettings.getTableName();
+        String id = tableSettings.getIdColumnName();
+        String state = tableSettings.getStateColumnName();
+        this.selectForUpdateSql = "SELECT " + state + " FROM " + table + " WHERE " + id + " = ? FOR UPDATE";
+        this.insertIgnoreSql = "INSERT IGNORE INTO " + table + "(" + id + ", " + state + ") VALUES(?, NULL)";
+    }
+
+    @Override
+    protected void beginTransaction(Connection connection) throws SQLException {
+        if (connection.getTransactionIsolation() != Connection.TRANSACTION_READ_COMMITTED) {
+            connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        }
+        super.beginTransaction(connection);
+    }
+
+    @Override
+    protected byte[] lockAndRead(StatementCache statements, long key) throws SQLException {
+        PreparedStatement selectStatement = statements.prepare(selectForUpdateSql);
+        selectStatement.setLong(1, key);
+        try (ResultSet rs = selectStatement.executeQuery()) {
+            if (rs.next()) {
+                return rs.getBytes(1);
+            }
+        }
+
+        PreparedStatement insertStatement = statements.prepare(insertIgnoreSql);
+        insertStatement.setLong(1, key);
+        if (insertStatement.executeUpdate() == 1) {
+            return null;
+        }
+
+        // row has been inserted by concurrent transaction
+        selectStatement = statements.prepare(selectForUpdateSql);
+        selectStatement.setLong(1, key);
+        try (ResultSet rs = selectStatement.executeQuery()) {
+            return rs.next() ? rs.getBytes(1) : null;
+        }
+    }
+
+}
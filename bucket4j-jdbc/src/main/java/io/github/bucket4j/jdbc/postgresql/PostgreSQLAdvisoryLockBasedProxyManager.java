@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc.postgresql;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.jdbc.AbstractJdbcLockBasedProxyManager;
+import io.github.bucket4j.jdbc.BucketTableSettings;
+import io.github.bucket4j.jdbc.StatementCache;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL based proxy manager that protects buckets by transaction level advisory locks, see <code>pg_advisory_xact_lock</code>.
+ * The key of bucket is used as the key of advisory lock, so keys of buckets must not clash with other advisory locks used by application.
+ *
+ * <p>Expected table structure for default settings:
+ * <pre>
+ * CREATE TABLE bucket(id BIGINT PRIMARY KEY, state BYTEA);
+ * </pre>
+ *
+ * <p>In contrast to {@link PostgreSQLSelectForUpdateBasedProxyManager} rows are never locked,
+ * so missing bucket is locked without placeholder row and it is inserted only when bucket is initialized.
+ */
+public class PostgreSQLAdvisoryLockBasedProxyManager extends AbstractJdbcLockBasedProxyManager {
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private final String selectSql;
+    private final String insertSql;
+
+    public PostgreSQLAdvisoryLockBasedProxyManager(DataSource dataSource) {
+        this(dataSource, BucketTableSettings.getDefault(), ClientSideConfig.getDefault());
+    }
+
+    public PostgreSQLAdvisoryLockBasedProxyManager(DataSource dataSource, BucketTableSettings tableSettings, ClientSideConfig clientSideConfig) {
+        super(dataSource, tableSettings, clientSideConfig);
+        String table = tableSettings.getTableName();
+        String id = tableSettings.getIdColumnName();
+        String state = tableSettings.getStateColumnName();
+        this.selectSql = "SELECT " + state + " FROM " + table + " WHERE " + id + " = ?";
+        this.insertSql = "INSERT INTO " + table + "(" + id + ", " + state + ") VALUES(?, ?)";
+    }
+
+    @Override
+    protected byte[] lockAndRead(StatementCache statements, long key) throws SQLException {
+        PreparedStatement lockStatement = statements.prepare(LOCK_SQL);
+        lockStatement.setLong(1, key);
+        try (ResultSet rs = lockStatement.executeQuery()) {
+            // lock is acquired when statement completes
+        }
+
+        PreparedStatement selectStatement = statements.prepare(selectSql);
+        selectStatement.setLong(1, key);
+        try (ResultSet rs = selectStatement.executeQuery()) {
+            return rs.next() ? rs.getBytes(1) : null;
+        }
+    }
+
+    @Override
+    protected void insert(StatementCache statements, long key, byte[] state) throws SQLException {
+        PreparedStatement insertStatement = statements.prepare(insertSql);
+        insertStatement.setLong(1, key);
+        insertStatement.setBytes(2, state);
+        insertStatement.executeUpdate();
+    }
+
+}
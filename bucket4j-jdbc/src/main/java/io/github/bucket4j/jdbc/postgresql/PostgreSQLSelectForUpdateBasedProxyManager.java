@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.jdbc.postgresql;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.jdbc.AbstractJdbcLockBasedProxyManager;
+import io.github.bucket4j.jdbc.BucketTableSettings;
+import io.github.bucket4j.jdbc.StatementCache;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL based proxy manager that protects buckets by <code>SELECT ... FOR UPDATE</code> row locks.
+ *
+ * <p>Expected table structure for default settings:
+ * <pre>
+ * CREATE TABLE bucket(id BIGINT PRIMARY KEY, state BYTEA);
+ * </pre>
+ *
+ * <p>Existing bucket is locked and read by single statement. Missing bucket is initialized by
+ * <code>INSERT ... ON CONFLICT DO UPDATE ... RETURNING</code> which locks the row regardless of whether it has been inserted
+ * by this or by concurrent transaction, so there is no need in additional lock round-trip after initialization.
+ */
+public class PostgreSQLSelectForUpdateBasedProxyManager extends AbstractJdbcLockBasedProxyManager {
+
+    private final String selectForUpdateSql;
+    private final String insertOrLockSql;
+
+    public PostgreSQLSelectForUpdateBasedProxyManager(DataSource dataSource) {
+        this(dataSource, BucketTableSettings.getDefault(), ClientSideConfig.getDefault());
+    }
+
+    public PostgreSQLSelectForUpdateBasedProxyManager(DataSource dataSource, BucketTableSettings tableSettings, ClientSideConfig clientSideConfig) {
+        super(dataSource, tableSettings, clientSideConfig);
+        String table = tableSettings.getTableName();
+        String id = tableSettings.getIdColumnName();
+        String state = tableSettings.getStateColumnName();
+        this.selectForUpdateSql = "SELECT " + state + " FROM " + table + " WHERE " + id + " = ? FOR UPDATE";
+        // update of conflicting row to the same value is needed to lock it and to return its state
+        this.insertOrLockSql = "INSERT INTO " + table + " AS b(" + id + ", " + state + ") VALUES(?, NULL)"
+                + " ON CONFLICT(" + id + ") DO UPDATE SET " + state + " = b." + state
+                + " RETURNING " + state;
+    }
+
+    @Override
+    protected byte[] lockAndRead(StatementCache statements, long key) throws SQLException {
+        PreparedStatement selectStatement = statements.prepare(selectForUpdateSql);
+        selectStatement.setLong(1, key);
+        try (ResultSet rs = selectStatement.executeQuery()) {
+            if (rs.next()) {
+                return rs.getBytes(1);
+            }
+        }
+
+        PreparedStatement insertStatement = statements.prepare(insertOrLockSql);
+        insertStatement.setLong(1, key);
+        try (ResultSet rs = insertStatement.executeQuery()) {
+            rs.next();
+            return rs.getBytes(1);
+        }
+    }
+
+}
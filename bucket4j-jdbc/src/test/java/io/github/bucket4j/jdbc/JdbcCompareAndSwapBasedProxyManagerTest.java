@@ -0,0 +1,53 @@
+package io.github.bucket4j.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapRetryPolicy;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class JdbcCompareAndSwapBasedProxyManagerTest extends AbstractDistributedBucketTest<Long> {
+
+    private static HikariDataSource dataSource;
+
+    @BeforeClass
+    public static void initializeInstance() throws SQLException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:h2:mem:bucket4j_cas;DB_CLOSE_DELAY=-1");
+        hikariConfig.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(hikariConfig);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bucket(id BIGINT PRIMARY KEY, state VARBINARY NOT NULL, version BIGINT NOT NULL)");
+        }
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    protected ProxyManager<Long> getProxyManager() {
+        ClientSideConfig clientSideConfig = ClientSideConfig.getDefault()
+                .withCompareAndSwapRetryPolicy(CompareAndSwapRetryPolicy.limitedAttempts(3).withFallback());
+        return new JdbcCompareAndSwapBasedProxyManager(dataSource, BucketTableSettings.getDefault(), clientSideConfig);
+    }
+
+    @Override
+    protected Long generateRandomKey() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+}
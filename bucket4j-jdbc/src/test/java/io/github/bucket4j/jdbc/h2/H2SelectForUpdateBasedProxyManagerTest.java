@@ -0,0 +1,78 @@
+package io.github.bucket4j.jdbc.h2;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class H2SelectForUpdateBasedProxyManagerTest extends AbstractDistributedBucketTest<Long> {
+
+    private static HikariDataSource dataSource;
+
+    @BeforeClass
+    public static void initializeInstance() throws SQLException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:h2:mem:bucket4j;DB_CLOSE_DELAY=-1");
+        hikariConfig.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(hikariConfig);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bucket(id BIGINT PRIMARY KEY, state VARBINARY)");
+        }
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    protected ProxyManager<Long> getProxyManager() {
+        return new H2SelectForUpdateBasedProxyManager(dataSource);
+    }
+
+    @Override
+    protected Long generateRandomKey() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldConsumeFromSeveralBucketsInSingleTransaction() {
+        ProxyManager<Long> proxyManager = getProxyManager();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .build();
+        Map<Long, Long> tokens = new LinkedHashMap<>();
+        // keys are intentionally not sorted
+        tokens.put(generateRandomKey(), 6L);
+        tokens.put(generateRandomKey(), 6L);
+        tokens.put(generateRandomKey(), 6L);
+
+        assertTrue(proxyManager.tryConsumeAll(tokens, key -> configuration));
+        assertFalse(proxyManager.tryConsumeAll(tokens, key -> configuration));
+        for (Long key : tokens.keySet()) {
+            assertEquals(4, proxyManager.builder().build(key, configuration).getAvailableTokens());
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.bucket4j.jdbc.mysql;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MySQLSelectForUpdateBasedProxyManagerTest extends AbstractDistributedBucketTest<Long> {
+
+    private static MySQLContainer container;
+    private static HikariDataSource dataSource;
+
+    @BeforeClass
+    public static void initializeInstance() throws SQLException {
+        container = new MySQLContainer("mysql:8.0.22");
+        container.start();
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(container.getJdbcUrl());
+        hikariConfig.setUsername(container.getUsername());
+        hikariConfig.setPassword(container.getPassword());
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(hikariConfig);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bucket(id BIGINT PRIMARY KEY, state BLOB) ENGINE = InnoDB");
+        }
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Override
+    protected ProxyManager<Long> getProxyManager() {
+        return new MySQLSelectForUpdateBasedProxyManager(dataSource);
+    }
+
+    @Override
+    protected Long generateRandomKey() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+}
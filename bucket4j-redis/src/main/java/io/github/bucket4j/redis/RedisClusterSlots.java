@@ -0,0 +1,120 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Routing of keys to Redis Cluster hash slots.
+ *
+ * <p>Keys which contain the same hash tag, the non-empty substring between first <code>{</code> and following <code>}</code>,
+ * are always mapped to the same slot. Placing all limits of one tenant under the same hash tag, see {@link #withHashTag(String, String)},
+ * allows to remove or consume them by a single command per slot instead of one command per key.
+ */
+public final class RedisClusterSlots {
+
+    public static final int SLOT_COUNT = 16384;
+
+    private static final int[] CRC16_TABLE = new int[256];
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    private RedisClusterSlots() {
+    }
+
+    /**
+     * Builds the key that belongs to the same slot as all other keys built with the same hash tag.
+     *
+     * @param hashTag the hash tag, for example identifier of tenant
+     * @param key the key unique in scope of the hash tag
+     *
+     * @return the key in format <code>{hashTag}key</code>
+     */
+    public static String withHashTag(String hashTag, String key) {
+        if (hashTag.isEmpty() || hashTag.indexOf('}') >= 0) {
+            throw new IllegalArgumentException("Hash tag must be non-empty and must not contain '}': " + hashTag);
+        }
+        return "{" + hashTag + "}" + key;
+    }
+
+    public static int getSlot(String key) {
+        return getSlot(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static int getSlot(byte[] key) {
+        int from = 0;
+        int to = key.length;
+        for (int open = 0; open < key.length; open++) {
+            if (key[open] == '{') {
+                for (int close = open + 1; close < key.length; close++) {
+                    if (key[close] == '}') {
+                        if (close > open + 1) {
+                            from = open + 1;
+                            to = close;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return crc16(key, from, to) & (SLOT_COUNT - 1);
+    }
+
+    /**
+     * Groups keys by slots, the order of keys inside each group is preserved.
+     *
+     * @param keys the keys to group
+     * @param keyEncoder the function that represents key as it is sent to Redis
+     *
+     * @return keys grouped by slots
+     */
+    public static <K> Map<Integer, List<K>> groupBySlot(Collection<K> keys, Function<K, byte[]> keyEncoder) {
+        Map<Integer, List<K>> groups = new LinkedHashMap<>();
+        for (K key : keys) {
+            int slot = getSlot(keyEncoder.apply(key));
+            groups.computeIfAbsent(slot, s -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+
+    private static int crc16(byte[] bytes, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ bytes[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+}
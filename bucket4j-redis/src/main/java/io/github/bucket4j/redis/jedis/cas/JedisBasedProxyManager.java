@@ -0,0 +1,204 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.jedis.cas;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.GenericEntry;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.redis.RedisClusterSlots;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.util.Pool;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Jedis based proxy manager.
+ *
+ * <p>Each operation borrows connection from the pool and returns it back immediately after reply is received.
+ * Jedis provides only blocking API, so asynchronous mode is not supported.
+ */
+public class JedisBasedProxyManager extends AbstractCompareAndSwapBasedProxyManager<byte[]> {
+
+    private static final byte[] COMPARE_AND_SWAP_SCRIPT = (
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "redis.call('psetex', KEYS[1], ARGV[3], ARGV[2]); " +
+                    "return 1; " +
+            "else " +
+                    "return 0; " +
+            "end").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] NX = "NX".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PX = "PX".getBytes(StandardCharsets.UTF_8);
+
+    private final Pool<Jedis> jedisPool;
+    private final long ttlMillis;
+    private final byte[] encodedTtlMillis;
+
+    public JedisBasedProxyManager(Pool<Jedis> jedisPool, Duration ttl) {
+        this(jedisPool, ClientSideConfig.getDefault(), ttl);
+    }
+
+    public JedisBasedProxyManager(Pool<Jedis> jedisPool, ClientSideConfig clientSideConfig, Duration ttl) {
+        super(clientSideConfig);
+        this.jedisPool = Objects.requireNonNull(jedisPool);
+        this.ttlMillis = ttl.toMillis();
+        if (ttlMillis <= 0) {
+            throw BucketExceptions.nonPositiveTtl(ttl);
+        }
+        this.encodedTtlMillis = Long.toString(ttlMillis).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(byte[] key) {
+        List<byte[]> keys = Collections.singletonList(key);
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData() {
+                return withResource(jedis -> Optional.ofNullable(jedis.get(key)));
+            }
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData) {
+                return withResource(jedis -> {
+                    if (originalData == null) {
+                        // SET with NX option replies OK when value has been set and nil otherwise
+                        return jedis.set(key, newData, NX, PX, ttlMillis) != null;
+                    } else {
+                        List<byte[]> params = Arrays.asList(originalData, newData, encodedTtlMillis);
+                        Object result = jedis.eval(COMPARE_AND_SWAP_SCRIPT, keys, params);
+                        return Long.valueOf(1L).equals(result);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(byte[] key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeProxy(byte[] key) {
+        withResource(jedis -> jedis.del(key));
+    }
+
+    /**
+     * Removes buckets by one DEL command per Redis Cluster slot, all commands are pipelined through single connection.
+     *
+     * @param keys the keys of buckets to remove
+     */
+    public void removeProxies(Collection<byte[]> keys) {
+        withResource(jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            for (List<byte[]> slotKeys : RedisClusterSlots.groupBySlot(keys, Function.identity()).values()) {
+                pipeline.del(slotKeys.toArray(new byte[0][]));
+            }
+            pipeline.sync();
+            return null;
+        });
+    }
+
+    /**
+     * Executes requests for multiple buckets in two round-trips: states of all buckets are read by one pipeline,
+     * then modified states are written by another pipeline.
+     * Requests for buckets that were concurrently modified between these round-trips are executed again one by one with regular retries.
+     */
+    @Override
+    protected <T> Map<byte[], CommandResult<T>> executeAll(Map<byte[], Request<T>> requests) {
+        Map<byte[], CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+        Map<byte[], BooleanSupplier> swaps = new LinkedHashMap<>();
+        withResource(jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            Map<byte[], Response<byte[]>> originalStates = new LinkedHashMap<>(requests.size());
+            for (byte[] key : requests.keySet()) {
+                originalStates.put(key, pipeline.get(key));
+            }
+            pipeline.sync();
+
+            requests.forEach((key, request) -> {
+                byte[] originalStateBytes = originalStates.get(key).get();
+                GenericEntry entry = new GenericEntry(originalStateBytes, request, getConfigurationTable());
+                results.put(key, request.getCommand().execute(entry, getClientSideTime()));
+                if (entry.isModified()) {
+                    swaps.put(key, compareAndSwap(pipeline, key, originalStateBytes, entry.getModifiedStateBytes()));
+                }
+            });
+            if (!swaps.isEmpty()) {
+                pipeline.sync();
+            }
+            return null;
+        });
+
+        swaps.forEach((key, swap) -> {
+            if (!swap.getAsBoolean()) {
+                results.put(key, execute(key, requests.get(key)));
+            }
+        });
+        return results;
+    }
+
+    private BooleanSupplier compareAndSwap(Pipeline pipeline, byte[] key, byte[] originalData, byte[] newData) {
+        if (originalData == null) {
+            Response<String> response = pipeline.set(key, newData, NX, PX, ttlMillis);
+            return () -> response.get() != null;
+        } else {
+            List<byte[]> params = Arrays.asList(originalData, newData, encodedTtlMillis);
+            Response<Object> response = pipeline.eval(COMPARE_AND_SWAP_SCRIPT, Collections.singletonList(key), params);
+            return () -> Long.valueOf(1L).equals(response.get());
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(byte[] key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    private <V> V withResource(Function<Jedis, V> fn) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return fn.apply(jedis);
+        }
+    }
+
+}
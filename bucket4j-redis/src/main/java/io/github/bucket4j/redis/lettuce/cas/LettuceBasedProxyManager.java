@@ -0,0 +1,193 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.lettuce.cas;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.redis.RedisClusterSlots;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Lettuce based proxy manager.
+ *
+ * <p>All commands are sent through single shared native connection, so commands issued concurrently by different threads
+ * are pipelined by Lettuce without blocking each other. The connection must be created with {@code ByteArrayCodec}.
+ */
+public class LettuceBasedProxyManager extends AbstractCompareAndSwapBasedProxyManager<byte[]> {
+
+    private static final String COMPARE_AND_SWAP_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "redis.call('psetex', KEYS[1], ARGV[3], ARGV[2]); " +
+                    "return 1; " +
+            "else " +
+                    "return 0; " +
+            "end";
+
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+    private final long ttlMillis;
+    private final byte[] encodedTtlMillis;
+
+    public LettuceBasedProxyManager(StatefulRedisConnection<byte[], byte[]> connection, Duration ttl) {
+        this(connection.async(), ClientSideConfig.getDefault(), ttl);
+    }
+
+    public LettuceBasedProxyManager(RedisAsyncCommands<byte[], byte[]> commands, Duration ttl) {
+        this(commands, ClientSideConfig.getDefault(), ttl);
+    }
+
+    public LettuceBasedProxyManager(RedisAsyncCommands<byte[], byte[]> commands, ClientSideConfig clientSideConfig, Duration ttl) {
+        super(clientSideConfig);
+        this.commands = Objects.requireNonNull(commands);
+        this.ttlMillis = ttl.toMillis();
+        if (ttlMillis <= 0) {
+            throw BucketExceptions.nonPositiveTtl(ttl);
+        }
+        this.encodedTtlMillis = Long.toString(ttlMillis).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(byte[] key) {
+        byte[][] keys = {key};
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData() {
+                return Optional.ofNullable(getFutureValue(commands.get(key)));
+            }
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData) {
+                return getFutureValue(compareAndSwapFuture(keys, originalData, newData));
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(byte[] key) {
+        byte[][] keys = {key};
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData() {
+                return commands.get(key).toCompletableFuture()
+                    .thenApply((byte[] resultBytes) -> Optional.ofNullable(resultBytes));
+            }
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData) {
+                return compareAndSwapFuture(keys, originalData, newData);
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(byte[] key) {
+        getFutureValue(commands.del(key));
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(byte[] key) {
+        return commands.del(key).toCompletableFuture().thenApply(removedKeys -> null);
+    }
+
+    /**
+     * Removes buckets by one DEL command per Redis Cluster slot, commands for different slots are sent without waiting for each other.
+     *
+     * @param keys the keys of buckets to remove
+     */
+    public void removeProxies(Collection<byte[]> keys) {
+        getFutureValue(removeProxiesAsync(keys));
+    }
+
+    /**
+     * Asynchronous version of {@link #removeProxies(Collection)}.
+     *
+     * @param keys the keys of buckets to remove
+     *
+     * @return the future that completed when all buckets are removed
+     */
+    public CompletableFuture<Void> removeProxiesAsync(Collection<byte[]> keys) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (List<byte[]> slotKeys : RedisClusterSlots.groupBySlot(keys, Function.identity()).values()) {
+            futures.add(commands.del(slotKeys.toArray(new byte[0][])).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Commands for all buckets are sent without waiting for each other, so they are pipelined over the shared connection.
+     */
+    @Override
+    protected <T> Map<byte[], CommandResult<T>> executeAll(Map<byte[], Request<T>> requests) {
+        return getFutureValue(executeAllAsync(requests));
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private CompletableFuture<Boolean> compareAndSwapFuture(byte[][] keys, byte[] originalData, byte[] newData) {
+        if (originalData == null) {
+            // SET with NX option replies OK when value has been set and nil otherwise
+            RedisFuture<String> setFuture = commands.set(keys[0], newData, SetArgs.Builder.nx().px(ttlMillis));
+            return setFuture.toCompletableFuture().thenApply(Objects::nonNull);
+        } else {
+            RedisFuture<Boolean> evalFuture = commands.eval(COMPARE_AND_SWAP_SCRIPT, ScriptOutputType.BOOLEAN, keys, originalData, newData, encodedTtlMillis);
+            return evalFuture.toCompletableFuture();
+        }
+    }
+
+    private static <T> T getFutureValue(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RedisException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RedisException) {
+                throw (RedisException) e.getCause();
+            }
+            throw new RedisException("Unexpected exception while processing command", e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,424 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeAndReturnRemainingTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.redis.RedisClusterSlots;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles.LONG_HANDLE;
+
+/**
+ * The base class for Redis proxy managers that execute commands inside Redis by Lua script.
+ *
+ * <p>The bucket is stored as Redis hash with field per each property of bandwidth, see {@link RedisHashState}.
+ * The most frequently used commands - tryConsume, tryConsumeAndReturnRemaining, addTokens and getAvailableTokens -
+ * are executed by script in single round-trip without any retries.
+ * All other commands are executed on client side and stored back via optimistic locking on version field of hash.
+ *
+ * <p>Lua numbers are doubles, so the script is exact only while token counts, capacities and refill tokens do not exceed 2^53,
+ * bigger values lose precision on the server side. Configurations with such values should be served by compare-and-swap based proxy manager.
+ *
+ * <p>Implementations need to provide only the way to evaluate the script, preferably via EVALSHA
+ * with fallback to EVAL when Redis replies NOSCRIPT.
+ *
+ * @param <K> the generic type for unique identifiers that used to point to the bucket in Redis.
+ */
+public abstract class AbstractLuaBasedProxyManager<K> extends AbstractProxyManager<K> {
+
+    /**
+     * Source code of script that executes commands
+     */
+    protected static final String SCRIPT = readScript("bucket4j-hash-state.lua");
+
+    /**
+     * SHA1 digest of {@link #SCRIPT} suitable for EVALSHA
+     */
+    protected static final String SCRIPT_SHA1 = sha1Hex(SCRIPT);
+
+    private static final String TRY_CONSUME = "tryConsume";
+    private static final String TRY_CONSUME_AND_RETURN_REMAINING = "tryConsumeAndReturnRemaining";
+    private static final String ADD_TOKENS = "addTokens";
+    private static final String GET_AVAILABLE_TOKENS = "getAvailableTokens";
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+    private static final String BATCH = "batch";
+
+    private final long ttlMillis;
+
+    protected AbstractLuaBasedProxyManager(ClientSideConfig clientSideConfig, Duration ttl) {
+        super(injectTimeClock(clientSideConfig));
+        this.ttlMillis = ttl.toMillis();
+        if (ttlMillis <= 0) {
+            throw BucketExceptions.nonPositiveTtl(ttl);
+        }
+    }
+
+    /**
+     * Evaluates {@link #SCRIPT} for the keys.
+     *
+     * @param keys the KEYS, all keys belong to the same Redis Cluster slot
+     * @param args the ARGV
+     *
+     * @return the multi-bulk reply of script, elements are represented as {@code Long} for integer replies,
+     * as {@code byte[]} for bulk string replies and as {@code List} for nested multi-bulk replies
+     */
+    protected abstract List<Object> evalScript(List<K> keys, List<byte[]> args);
+
+    /**
+     * Asynchronously evaluates {@link #SCRIPT} for the keys.
+     *
+     * @param keys the KEYS, all keys belong to the same Redis Cluster slot
+     * @param args the ARGV
+     *
+     * @return the future that completed by multi-bulk reply of script, see {@link #evalScript(List, List)}
+     */
+    protected abstract CompletableFuture<List<Object>> evalScriptAsync(List<K> keys, List<byte[]> args);
+
+    /**
+     * @param key the key of bucket
+     *
+     * @return the key as it is sent to Redis, used to calculate Redis Cluster slot
+     */
+    protected abstract byte[] encodeKey(K key);
+
+    @Override
+    protected <T> CommandResult<T> execute(K key, Request<T> request) {
+        long currentTimeNanos = getClientSideTime();
+        ScriptCall call = toScriptCall(request, currentTimeNanos);
+        if (call != null) {
+            List<Object> reply = eval(key, call.args);
+            return call.decodeResult(reply);
+        }
+
+        while (true) {
+            List<Object> stateReply = eval(key, createArgs(READ, currentTimeNanos, 0, Collections.emptyList()));
+            HashEntry entry = new HashEntry(RedisHashState.toFieldMap(stateReply));
+            CommandResult<T> result = request.getCommand().execute(entry, currentTimeNanos);
+            if (!entry.isModified()) {
+                return result;
+            }
+
+            List<byte[]> writeArgs = createWriteArgs(entry, currentTimeNanos, request.getBackwardCompatibilityVersion());
+            if (isSuccessfulWrite(eval(key, writeArgs))) {
+                return result;
+            }
+            currentTimeNanos = getClientSideTime();
+        }
+    }
+
+    @Override
+    protected <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        long currentTimeNanos = getClientSideTime();
+        ScriptCall call = toScriptCall(request, currentTimeNanos);
+        if (call != null) {
+            return evalAsync(key, call.args).thenApply(reply -> call.<T>decodeResult(reply));
+        }
+        return executeOptimisticallyAsync(key, request, currentTimeNanos);
+    }
+
+    private <T> CompletableFuture<CommandResult<T>> executeOptimisticallyAsync(K key, Request<T> request, long currentTimeNanos) {
+        return evalAsync(key, createArgs(READ, currentTimeNanos, 0, Collections.emptyList()))
+            .thenCompose((List<Object> stateReply) -> {
+                HashEntry entry = new HashEntry(RedisHashState.toFieldMap(stateReply));
+                CommandResult<T> result = request.getCommand().execute(entry, currentTimeNanos);
+                if (!entry.isModified()) {
+                    return CompletableFuture.completedFuture(result);
+                }
+
+                List<byte[]> writeArgs = createWriteArgs(entry, currentTimeNanos, request.getBackwardCompatibilityVersion());
+                return evalAsync(key, writeArgs).thenCompose((List<Object> writeReply) -> isSuccessfulWrite(writeReply) ?
+                    CompletableFuture.completedFuture(result) : executeOptimisticallyAsync(key, request, getClientSideTime()));
+            });
+    }
+
+    /**
+     * Requests for buckets from the same Redis Cluster slot are executed by single script call,
+     * calls for different slots are sent without waiting for each other.
+     */
+    @Override
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        try {
+            return executeAllAsync(requests).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Requests for buckets from the same Redis Cluster slot are executed by single script call,
+     * calls for different slots are sent without waiting for each other.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> CompletableFuture<Map<K, CommandResult<T>>> executeAllAsync(Map<K, Request<T>> requests) {
+        long currentTimeNanos = getClientSideTime();
+        Map<K, ScriptCall> calls = new LinkedHashMap<>();
+        Map<K, CompletableFuture<CommandResult<T>>> futures = new HashMap<>();
+        requests.forEach((key, request) -> {
+            ScriptCall call = toScriptCall(request, currentTimeNanos);
+            if (call != null) {
+                calls.put(key, call);
+            } else {
+                futures.put(key, executeOptimisticallyAsync(key, request, currentTimeNanos));
+            }
+        });
+
+        for (List<K> slotKeys : RedisClusterSlots.groupBySlot(calls.keySet(), this::encodeKey).values()) {
+            if (slotKeys.size() == 1) {
+                K key = slotKeys.get(0);
+                ScriptCall call = calls.get(key);
+                futures.put(key, evalAsync(key, call.args).thenApply(reply -> call.<T>decodeResult(reply)));
+                continue;
+            }
+
+            List<byte[]> batchArgs = new ArrayList<>();
+            batchArgs.add(RedisHashState.encode(BATCH));
+            batchArgs.add(RedisHashState.encode(Integer.toString(slotKeys.size())));
+            for (K key : slotKeys) {
+                List<byte[]> args = calls.get(key).args;
+                batchArgs.add(RedisHashState.encode(Integer.toString(args.size())));
+                batchArgs.addAll(args);
+            }
+            CompletableFuture<List<Object>> batchFuture = evalScriptAsync(slotKeys, batchArgs);
+            for (int i = 0; i < slotKeys.size(); i++) {
+                int replyIndex = i;
+                ScriptCall call = calls.get(slotKeys.get(i));
+                futures.put(slotKeys.get(i), batchFuture.thenApply(replies -> call.<T>decodeResult((List<Object>) replies.get(replyIndex))));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<K, CommandResult<T>> results = new LinkedHashMap<>(requests.size());
+            requests.keySet().forEach(key -> results.put(key, futures.get(key).join()));
+            return results;
+        });
+    }
+
+    private List<Object> eval(K key, List<byte[]> args) {
+        return evalScript(Collections.singletonList(key), args);
+    }
+
+    private CompletableFuture<List<Object>> evalAsync(K key, List<byte[]> args) {
+        return evalScriptAsync(Collections.singletonList(key), args);
+    }
+
+    // returns null when command can not be executed by script
+    private ScriptCall toScriptCall(Request<?> request, long currentTimeNanos) {
+        RemoteCommand<?> command = request.getCommand();
+        BucketConfiguration configuration = null;
+        if (command instanceof CreateInitialStateAndExecuteCommand) {
+            CreateInitialStateAndExecuteCommand<?> initCommand = (CreateInitialStateAndExecuteCommand<?>) command;
+            configuration = initCommand.getConfiguration();
+            command = initCommand.getTargetCommand();
+        }
+
+        String operation;
+        long amount;
+        if (command instanceof TryConsumeCommand) {
+            operation = TRY_CONSUME;
+            amount = ((TryConsumeCommand) command).getTokensToConsume();
+        } else if (command instanceof TryConsumeAndReturnRemainingTokensCommand) {
+            operation = TRY_CONSUME_AND_RETURN_REMAINING;
+            amount = ((TryConsumeAndReturnRemainingTokensCommand) command).getTokensToConsume();
+        } else if (command instanceof AddTokensCommand) {
+            operation = ADD_TOKENS;
+            amount = ((AddTokensCommand) command).getTokensToAdd();
+        } else if (command instanceof GetAvailableTokensCommand) {
+            operation = GET_AVAILABLE_TOKENS;
+            amount = 0;
+        } else {
+            return null;
+        }
+
+        List<byte[]> initialState = configuration == null ? Collections.emptyList() :
+            RedisHashState.encodeInitialState(configuration, currentTimeNanos, request.getBackwardCompatibilityVersion());
+        return new ScriptCall(operation, createArgs(operation, currentTimeNanos, amount, initialState));
+    }
+
+    private List<byte[]> createWriteArgs(HashEntry entry, long currentTimeNanos, Version backwardCompatibilityVersion) {
+        List<byte[]> fields = RedisHashState.encode(entry.get(), backwardCompatibilityVersion);
+        return createArgs(WRITE, currentTimeNanos, entry.version, fields);
+    }
+
+    private List<byte[]> createArgs(String operation, long currentTimeNanos, long amount, List<byte[]> fields) {
+        List<byte[]> args = new ArrayList<>(5 + fields.size());
+        args.add(RedisHashState.encode(operation));
+        args.add(RedisHashState.encode(Double.toString(currentTimeNanos / 1000.0)));
+        args.add(RedisHashState.encode(Long.toString(ttlMillis)));
+        args.add(RedisHashState.encode(Long.toString(amount)));
+        args.add(RedisHashState.encode(Integer.toString(fields.size() / 2)));
+        args.addAll(fields);
+        return args;
+    }
+
+    private static boolean isSuccessfulWrite(List<Object> reply) {
+        return RedisHashState.toLong(reply.get(0)) == 1L;
+    }
+
+    private static final class ScriptCall {
+
+        private final String operation;
+        private final List<byte[]> args;
+
+        private ScriptCall(String operation, List<byte[]> args) {
+            this.operation = operation;
+            this.args = args;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> CommandResult<T> decodeResult(List<Object> reply) {
+            if (RedisHashState.toLong(reply.get(0)) == 0L) {
+                return CommandResult.bucketNotFound();
+            }
+            switch (operation) {
+                case TRY_CONSUME:
+                    boolean consumed = RedisHashState.toLong(reply.get(1)) == 1L;
+                    return (CommandResult<T>) (consumed ? CommandResult.TRUE : CommandResult.FALSE);
+                case TRY_CONSUME_AND_RETURN_REMAINING:
+                    long remainingTokens = RedisHashState.toLong(reply.get(2));
+                    long nanosToWaitForRefill = RedisHashState.toLong(reply.get(3));
+                    long nanosToWaitForReset = RedisHashState.toLong(reply.get(4));
+                    ConsumptionProbe probe = RedisHashState.toLong(reply.get(1)) == 1L ?
+                        ConsumptionProbe.consumed(remainingTokens, nanosToWaitForReset) :
+                        ConsumptionProbe.rejected(remainingTokens, nanosToWaitForRefill, nanosToWaitForReset);
+                    return (CommandResult<T>) CommandResult.success(probe, ConsumptionProbe.SERIALIZATION_HANDLE);
+                case ADD_TOKENS:
+                    return (CommandResult<T>) CommandResult.NOTHING;
+                case GET_AVAILABLE_TOKENS:
+                    return (CommandResult<T>) CommandResult.success(RedisHashState.toLong(reply.get(1)), LONG_HANDLE);
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+
+    }
+
+    private static final class HashEntry implements MutableBucketEntry {
+
+        private final Map<String, byte[]> fields;
+        private final long version;
+        private RemoteBucketState state;
+        private boolean modified;
+
+        private HashEntry(Map<String, byte[]> fields) {
+            this.fields = fields;
+            this.version = RedisHashState.getVersion(fields);
+        }
+
+        @Override
+        public boolean exists() {
+            return state != null || !fields.isEmpty();
+        }
+
+        @Override
+        public void set(RemoteBucketState state) {
+            this.state = state;
+            this.modified = true;
+        }
+
+        @Override
+        public RemoteBucketState get() {
+            if (state == null) {
+                state = RedisHashState.decode(fields);
+            }
+            return state;
+        }
+
+        private boolean isModified() {
+            return modified;
+        }
+
+    }
+
+    private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
+        if (clientSideConfig.getClientSideClock().isPresent()) {
+            return clientSideConfig;
+        }
+        return clientSideConfig.withClientClock(TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
+    private static String readScript(String resource) {
+        try (InputStream input = AbstractLuaBasedProxyManager.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException("Resource " + resource + " is not found");
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha1Hex(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketState64BitsInteger;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.versioning.Version;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeConfiguration;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeConfiguration;
+
+/**
+ * Describes how the bucket is stored in Redis hash by {@link AbstractLuaBasedProxyManager}.
+ *
+ * <p>The hash contains following fields:
+ * <ul>
+ *     <li><b>v</b> - version of hash, incremented by each modification;</li>
+ *     <li><b>n</b> - count of bandwidths;</li>
+ *     <li><b>cfg</b> - serialized {@link BucketConfiguration};</li>
+ *     <li><b>st</b> - count of consumed tokens, see {@link RemoteStat};</li>
+ *     <li><b>c{i}, rt{i}, rp{i}, ri{i}</b> - capacity, refill tokens, refill period in microseconds and refill kind (1 for intervally) of i-th bandwidth;</li>
+ *     <li><b>t{i}, l{i}</b> - current amount of tokens and last refill time in microseconds of i-th bandwidth.</li>
+ * </ul>
+ * Indexes of bandwidths start from 1 as it accepted in Lua. Amount of tokens is fractional,
+ * the fraction replaces the rounding error of {@link BucketState64BitsInteger}.
+ */
+final class RedisHashState {
+
+    static final String VERSION = "v";
+    static final String BANDWIDTH_COUNT = "n";
+    static final String CONFIGURATION = "cfg";
+    static final String CONSUMED_TOKENS = "st";
+    static final String CAPACITY = "c";
+    static final String REFILL_TOKENS = "rt";
+    static final String REFILL_PERIOD = "rp";
+    static final String REFILL_INTERVALLY = "ri";
+    static final String TOKENS = "t";
+    static final String LAST_REFILL_TIME = "l";
+
+    private RedisHashState() {
+    }
+
+    static List<byte[]> encodeInitialState(BucketConfiguration configuration, long currentTimeNanos, Version backwardCompatibilityVersion) {
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+        RemoteBucketState state = new RemoteBucketState(configuration, bucketState, new RemoteStat(0));
+        return encode(state, backwardCompatibilityVersion);
+    }
+
+    /**
+     * @return pairs of field and value, the version field is not included
+     */
+    static List<byte[]> encode(RemoteBucketState state, Version backwardCompatibilityVersion) {
+        Bandwidth[] bandwidths = state.getConfiguration().getBandwidths();
+        BucketState bucketState = state.getState();
+
+        List<byte[]> fields = new ArrayList<>(6 + bandwidths.length * 12);
+        addField(fields, BANDWIDTH_COUNT, Integer.toString(bandwidths.length));
+        fields.add(encode(CONFIGURATION));
+        fields.add(serializeConfiguration(state.getConfiguration(), backwardCompatibilityVersion));
+        addField(fields, CONSUMED_TOKENS, Long.toString(state.getRemoteStat().getConsumedTokens()));
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            int index = i + 1;
+            double tokens = bucketState.getCurrentSize(i) + (double) bucketState.getRoundingError(i) / bandwidth.getRefillPeriodNanos();
+            addField(fields, CAPACITY + index, Long.toString(bandwidth.getCapacity()));
+            addField(fields, REFILL_TOKENS + index, Long.toString(bandwidth.getRefillTokens()));
+            addField(fields, REFILL_PERIOD + index, Double.toString(bandwidth.getRefillPeriodNanos() / 1000.0));
+            addField(fields, REFILL_INTERVALLY + index, bandwidth.isRefillIntervally() ? "1" : "0");
+            addField(fields, TOKENS + index, Double.toString(tokens));
+            addField(fields, LAST_REFILL_TIME + index, Double.toString(bucketState.getLastRefillTimeNanos(i) / 1000.0));
+        }
+        return fields;
+    }
+
+    /**
+     * @param fields the fields of hash, empty map means that bucket does not exist
+     */
+    static RemoteBucketState decode(Map<String, byte[]> fields) {
+        BucketConfiguration configuration = deserializeConfiguration(fields.get(CONFIGURATION));
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+
+        long[] stateData = new long[bandwidths.length * 3];
+        for (int i = 0; i < bandwidths.length; i++) {
+            int index = i + 1;
+            long refillPeriodNanos = bandwidths[i].getRefillPeriodNanos();
+            double tokens = parseDouble(fields.get(TOKENS + index));
+            long currentSize = (long) Math.floor(tokens);
+            long roundingError = Math.min((long) ((tokens - currentSize) * refillPeriodNanos), refillPeriodNanos - 1);
+
+            stateData[i * 3] = (long) (parseDouble(fields.get(LAST_REFILL_TIME + index)) * 1000.0);
+            stateData[i * 3 + 1] = currentSize;
+            stateData[i * 3 + 2] = roundingError;
+        }
+        RemoteStat stat = new RemoteStat((long) parseDouble(fields.get(CONSUMED_TOKENS)));
+        return new RemoteBucketState(configuration, new BucketState64BitsInteger(stateData), stat);
+    }
+
+    static long getVersion(Map<String, byte[]> fields) {
+        byte[] version = fields.get(VERSION);
+        return version == null ? 0L : toLong(version);
+    }
+
+    static Map<String, byte[]> toFieldMap(List<Object> flatFields) {
+        Map<String, byte[]> fields = new HashMap<>(flatFields.size());
+        for (int i = 0; i < flatFields.size(); i += 2) {
+            fields.put(toString(flatFields.get(i)), (byte[]) flatFields.get(i + 1));
+        }
+        return fields;
+    }
+
+    static long toLong(Object replyElement) {
+        if (replyElement instanceof Long) {
+            return (Long) replyElement;
+        }
+        // numbers which do not fit into Lua double precision are returned as strings,
+        // narrowing conversion saturates them to Long.MAX_VALUE
+        return (long) parseDouble((byte[]) replyElement);
+    }
+
+    static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void addField(List<byte[]> fields, String field, String value) {
+        fields.add(encode(field));
+        fields.add(encode(value));
+    }
+
+    private static double parseDouble(byte[] value) {
+        return Double.parseDouble(new String(value, StandardCharsets.UTF_8));
+    }
+
+    private static String toString(Object replyElement) {
+        return new String((byte[]) replyElement, StandardCharsets.UTF_8);
+    }
+
+}
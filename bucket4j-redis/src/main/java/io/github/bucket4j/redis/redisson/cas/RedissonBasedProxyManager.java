@@ -24,6 +24,9 @@ import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.redis.RedisClusterSlots;
 import io.netty.buffer.ByteBuf;
 import org.redisson.api.RFuture;
 import org.redisson.client.codec.ByteArrayCodec;
@@ -31,12 +34,17 @@ import org.redisson.client.protocol.RedisCommands;
 import org.redisson.command.CommandExecutor;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class RedissonBasedProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
 
@@ -129,6 +137,45 @@ public class RedissonBasedProxyManager extends AbstractCompareAndSwapBasedProxyM
         return convertFuture(redissonFuture).thenApply(bytes -> null);
     }
 
+    /**
+     * Removes buckets by one DEL command per Redis Cluster slot, commands for different slots are sent without waiting for each other.
+     *
+     * @param keys the keys of buckets to remove
+     */
+    public void removeProxies(Collection<String> keys) {
+        removeProxiesAsync(keys).join();
+    }
+
+    /**
+     * Asynchronous version of {@link #removeProxies(Collection)}.
+     *
+     * @param keys the keys of buckets to remove
+     *
+     * @return the future that completed when all buckets are removed
+     */
+    public CompletableFuture<Void> removeProxiesAsync(Collection<String> keys) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (List<String> slotKeys : RedisClusterSlots.groupBySlot(keys, key -> key.getBytes(StandardCharsets.UTF_8)).values()) {
+            futures.add(convertFuture(commandExecutor.writeAsync(slotKeys.get(0), RedisCommands.DEL_VOID, slotKeys.toArray())));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Commands for all buckets are sent without waiting for each other, so Redisson pipelines them over connections to cluster nodes.
+     */
+    @Override
+    protected <T> Map<String, CommandResult<T>> executeAll(Map<String, Request<T>> requests) {
+        try {
+            return executeAllAsync(requests).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
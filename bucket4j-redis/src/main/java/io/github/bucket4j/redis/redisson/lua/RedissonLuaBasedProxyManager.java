@@ -0,0 +1,158 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2021 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.redisson.lua;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.redis.RedisClusterSlots;
+import io.github.bucket4j.redis.lua.AbstractLuaBasedProxyManager;
+import org.redisson.api.RFuture;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.protocol.RedisCommand;
+import org.redisson.client.protocol.RedisCommands;
+import org.redisson.command.CommandExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Redisson based proxy manager that executes commands inside Redis by Lua script, see {@link AbstractLuaBasedProxyManager}.
+ */
+public class RedissonLuaBasedProxyManager extends AbstractLuaBasedProxyManager<String> {
+
+    private static final RedisCommand<List<Object>> EVALSHA_LIST = new RedisCommand<>(RedisCommands.EVAL_LIST, "EVALSHA");
+
+    private final CommandExecutor commandExecutor;
+
+    public RedissonLuaBasedProxyManager(CommandExecutor commandExecutor, Duration ttl) {
+        this(commandExecutor, ClientSideConfig.getDefault(), ttl);
+    }
+
+    public RedissonLuaBasedProxyManager(CommandExecutor commandExecutor, ClientSideConfig clientSideConfig, Duration ttl) {
+        super(clientSideConfig, ttl);
+        this.commandExecutor = Objects.requireNonNull(commandExecutor);
+    }
+
+    @Override
+    protected List<Object> evalScript(List<String> keys, List<byte[]> args) {
+        try {
+            return commandExecutor.get(evalScriptAsync(keys, EVALSHA_LIST, SCRIPT_SHA1, args));
+        } catch (RedisException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // EVAL loads the script into cache, so following calls will be served by EVALSHA
+            return commandExecutor.get(evalScriptAsync(keys, RedisCommands.EVAL_LIST, SCRIPT, args));
+        }
+    }
+
+    @Override
+    protected CompletableFuture<List<Object>> evalScriptAsync(List<String> keys, List<byte[]> args) {
+        return convertFuture(evalScriptAsync(keys, EVALSHA_LIST, SCRIPT_SHA1, args))
+            .handle((reply, error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(reply);
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!isNoScriptError(cause)) {
+                    CompletableFuture<List<Object>> failedFuture = new CompletableFuture<>();
+                    failedFuture.completeExceptionally(cause);
+                    return failedFuture;
+                }
+                return convertFuture(evalScriptAsync(keys, RedisCommands.EVAL_LIST, SCRIPT, args));
+            })
+            .thenCompose(future -> future);
+    }
+
+    @Override
+    protected byte[] encodeKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        RFuture<Object> future = commandExecutor.writeAsync(key, RedisCommands.DEL_VOID, key);
+        commandExecutor.get(future);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(String key) {
+        RFuture<?> redissonFuture = commandExecutor.writeAsync(key, RedisCommands.DEL_VOID, key);
+        return convertFuture(redissonFuture).thenApply(bytes -> null);
+    }
+
+    /**
+     * Removes buckets by one DEL command per Redis Cluster slot, commands for different slots are sent without waiting for each other.
+     *
+     * @param keys the keys of buckets to remove
+     */
+    public void removeProxies(Collection<String> keys) {
+        removeProxiesAsync(keys).join();
+    }
+
+    /**
+     * Asynchronous version of {@link #removeProxies(Collection)}.
+     *
+     * @param keys the keys of buckets to remove
+     *
+     * @return the future that completed when all buckets are removed
+     */
+    public CompletableFuture<Void> removeProxiesAsync(Collection<String> keys) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (List<String> slotKeys : RedisClusterSlots.groupBySlot(keys, this::encodeKey).values()) {
+            futures.add(convertFuture(commandExecutor.writeAsync(slotKeys.get(0), RedisCommands.DEL_VOID, slotKeys.toArray())));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private RFuture<List<Object>> evalScriptAsync(List<String> keys, RedisCommand<List<Object>> command, String scriptOrSha, List<byte[]> args) {
+        // all keys belong to the same slot, so the first one is enough to route the command
+        return commandExecutor.evalWriteAsync(keys.get(0), ByteArrayCodec.INSTANCE, command, scriptOrSha, new ArrayList<Object>(keys), args.toArray());
+    }
+
+    private static boolean isNoScriptError(Throwable error) {
+        return error instanceof RedisException && error.getMessage() != null && error.getMessage().startsWith("NOSCRIPT");
+    }
+
+    private <T> CompletableFuture<T> convertFuture(RFuture<T> redissonFuture) {
+        CompletableFuture<T> jdkFuture = new CompletableFuture<>();
+        redissonFuture.whenComplete((result, error) -> {
+            if (error != null) {
+                jdkFuture.completeExceptionally(error);
+            } else {
+                jdkFuture.complete(result);
+            }
+        });
+        return jdkFuture;
+    }
+
+}
@@ -0,0 +1,266 @@
+-- Server-side execution of the most frequently used bucket4j commands.
+--
+-- The bucket is stored as Redis hash, see io.github.bucket4j.redis.lua.RedisHashState for the layout of fields.
+-- Time is measured in microseconds, because Lua operates with doubles and nanoseconds since epoch do not fit into 53 bits.
+--
+-- KEYS[1] - the key of bucket
+-- ARGV[1] - the operation: tryConsume, tryConsumeAndReturnRemaining, addTokens, getAvailableTokens, read or write
+-- ARGV[2] - current time in microseconds
+-- ARGV[3] - time to live of the key in milliseconds
+-- ARGV[4] - amount of tokens, or the expected version of hash for the write operation
+-- ARGV[5] - count of field/value pairs that follows, they are used to initialize the missing bucket or to replace the whole hash
+--
+-- Several buckets from the same cluster slot can be processed by single call:
+-- KEYS    - the keys of buckets
+-- ARGV[1] - batch
+-- ARGV[2] - count of buckets
+-- then for each bucket the count of its arguments followed by arguments described above, the reply is the array of replies per bucket
+
+local LONG_MAX_VALUE = '9223372036854775807';
+
+local formatNumber = function(value)
+    return string.format('%.17g', value);
+end
+
+local formatNanos = function(micros)
+    local nanos = math.ceil(micros * 1000);
+    if nanos >= 9.2e18 then
+        return LONG_MAX_VALUE;
+    end
+    return string.format('%.0f', nanos);
+end
+
+local writeFields = function(key, args)
+    local pairsCount = tonumber(args[5]);
+    if pairsCount == 0 then
+        return false;
+    end
+    local fields = {};
+    for i = 6, 5 + pairsCount * 2 do
+        fields[#fields + 1] = args[i];
+    end
+    redis.call('hmset', key, unpack(fields));
+    return true;
+end
+
+local readState = function(key)
+    local flat = redis.call('hgetall', key);
+    if #flat == 0 then
+        return nil;
+    end
+    local fields = {};
+    for i = 1, #flat, 2 do
+        fields[flat[i]] = flat[i + 1];
+    end
+
+    local bandwidths = {};
+    for i = 1, tonumber(fields['n']) do
+        bandwidths[i] = {
+            capacity = tonumber(fields['c' .. i]),
+            refillTokens = tonumber(fields['rt' .. i]),
+            refillPeriod = tonumber(fields['rp' .. i]),
+            refillIntervally = fields['ri' .. i] == '1',
+            tokens = tonumber(fields['t' .. i]),
+            lastRefill = tonumber(fields['l' .. i])
+        };
+    end
+    return {
+        bandwidths = bandwidths,
+        consumed = tonumber(fields['st'])
+    };
+end
+
+local refill = function(bandwidth, now)
+    local previousRefill = bandwidth.lastRefill;
+    if now <= previousRefill then
+        return;
+    end
+    if bandwidth.refillIntervally then
+        now = now - (now - previousRefill) % bandwidth.refillPeriod;
+        if now <= previousRefill then
+            return;
+        end
+    end
+    bandwidth.lastRefill = now;
+
+    if bandwidth.tokens >= bandwidth.capacity then
+        -- can come here if forceAddTokens has been used
+        return;
+    end
+
+    local refilled;
+    if bandwidth.refillIntervally then
+        -- elapsed time is exact multiple of period, rounding protects the count of periods from floating point error
+        refilled = math.floor((now - previousRefill) / bandwidth.refillPeriod + 0.5) * bandwidth.refillTokens;
+    else
+        refilled = (now - previousRefill) / bandwidth.refillPeriod * bandwidth.refillTokens;
+    end
+    local newSize = bandwidth.tokens + refilled;
+    if newSize > bandwidth.capacity then
+        newSize = bandwidth.capacity;
+    end
+    bandwidth.tokens = newSize;
+end
+
+local getAvailableTokens = function(state)
+    local available;
+    for i, bandwidth in ipairs(state.bandwidths) do
+        local tokens = math.floor(bandwidth.tokens);
+        if available == nil or tokens < available then
+            available = tokens;
+        end
+    end
+    return available;
+end
+
+-- returns delay in microseconds
+local calculateDelayToCloseDeficit = function(bandwidth, deficit, now)
+    if deficit <= 0 then
+        return 0;
+    end
+    if not bandwidth.refillIntervally then
+        return deficit * bandwidth.refillPeriod / bandwidth.refillTokens;
+    end
+    local waitForNextRefill = bandwidth.lastRefill + bandwidth.refillPeriod - now;
+    if deficit <= bandwidth.refillTokens then
+        return waitForNextRefill;
+    end
+    deficit = deficit - bandwidth.refillTokens;
+    return waitForNextRefill + math.ceil(deficit / bandwidth.refillTokens) * bandwidth.refillPeriod;
+end
+
+local calculateDelayToConsume = function(state, tokensToConsume, now)
+    local delay = 0;
+    for i, bandwidth in ipairs(state.bandwidths) do
+        local bandwidthDelay = calculateDelayToCloseDeficit(bandwidth, tokensToConsume - bandwidth.tokens, now);
+        if bandwidthDelay > delay then
+            delay = bandwidthDelay;
+        end
+    end
+    return delay;
+end
+
+local calculateFullRefillingTime = function(state, now)
+    local delay = 0;
+    for i, bandwidth in ipairs(state.bandwidths) do
+        local bandwidthDelay = calculateDelayToCloseDeficit(bandwidth, bandwidth.capacity - bandwidth.tokens, now);
+        if bandwidthDelay > delay then
+            delay = bandwidthDelay;
+        end
+    end
+    return delay;
+end
+
+local consume = function(state, tokensToConsume)
+    for i, bandwidth in ipairs(state.bandwidths) do
+        bandwidth.tokens = bandwidth.tokens - tokensToConsume;
+    end
+    state.consumed = state.consumed + tokensToConsume;
+end
+
+local addTokens = function(state, tokensToAdd)
+    for i, bandwidth in ipairs(state.bandwidths) do
+        local newSize = bandwidth.tokens + tokensToAdd;
+        if newSize >= bandwidth.capacity then
+            newSize = bandwidth.capacity;
+        end
+        bandwidth.tokens = newSize;
+    end
+end
+
+local saveState = function(key, state, ttlMillis)
+    local fields = {'st', formatNumber(state.consumed)};
+    for i, bandwidth in ipairs(state.bandwidths) do
+        fields[#fields + 1] = 't' .. i;
+        fields[#fields + 1] = formatNumber(bandwidth.tokens);
+        fields[#fields + 1] = 'l' .. i;
+        fields[#fields + 1] = formatNumber(bandwidth.lastRefill);
+    end
+    redis.call('hmset', key, unpack(fields));
+    redis.call('hincrby', key, 'v', 1);
+    redis.call('pexpire', key, ttlMillis);
+end
+
+local execute = function(key, args)
+    local operation = args[1];
+    local currentTimeMicros = tonumber(args[2]);
+    local ttlMillis = tonumber(args[3]);
+    local amount = tonumber(args[4]);
+
+    if operation == 'read' then
+        return redis.call('hgetall', key);
+    end
+
+    if operation == 'write' then
+        local version = tonumber(redis.call('hget', key, 'v') or '0');
+        if version ~= amount then
+            return {0};
+        end
+        redis.call('del', key);
+        writeFields(key, args);
+        redis.call('hset', key, 'v', version + 1);
+        redis.call('pexpire', key, ttlMillis);
+        return {1};
+    end
+
+    local state = readState(key);
+    if state == nil then
+        if not writeFields(key, args) then
+            return {0};
+        end
+        redis.call('hset', key, 'v', 1);
+        redis.call('pexpire', key, ttlMillis);
+        state = readState(key);
+    end
+
+    -- refilled state is persisted only together with consumption or addition of tokens,
+    -- because the result of refill is fully determined by stored state and time
+    for i, bandwidth in ipairs(state.bandwidths) do
+        refill(bandwidth, currentTimeMicros);
+    end
+
+    if operation == 'tryConsume' then
+        if amount <= getAvailableTokens(state) then
+            consume(state, amount);
+            saveState(key, state, ttlMillis);
+            return {1, 1};
+        else
+            return {1, 0};
+        end
+    elseif operation == 'tryConsumeAndReturnRemaining' then
+        local available = getAvailableTokens(state);
+        if amount <= available then
+            consume(state, amount);
+            saveState(key, state, ttlMillis);
+            return {1, 1, available - amount, '0', formatNanos(calculateFullRefillingTime(state, currentTimeMicros))};
+        else
+            local nanosToWaitForRefill = formatNanos(calculateDelayToConsume(state, amount, currentTimeMicros));
+            return {1, 0, available, nanosToWaitForRefill, formatNanos(calculateFullRefillingTime(state, currentTimeMicros))};
+        end
+    elseif operation == 'addTokens' then
+        addTokens(state, amount);
+        saveState(key, state, ttlMillis);
+        return {1};
+    elseif operation == 'getAvailableTokens' then
+        return {1, getAvailableTokens(state)};
+    else
+        error('Unknown operation ' .. operation);
+    end
+end
+
+if ARGV[1] == 'batch' then
+    local replies = {};
+    local position = 3;
+    for i = 1, tonumber(ARGV[2]) do
+        local length = tonumber(ARGV[position]);
+        local args = {};
+        for j = 1, length do
+            args[j] = ARGV[position + j];
+        end
+        position = position + length + 1;
+        replies[i] = execute(KEYS[i], args);
+    end
+    return replies;
+end
+
+return execute(KEYS[1], ARGV);
@@ -0,0 +1,52 @@
+package io.github.bucket4j.redis;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class RedisClusterSlotsTest {
+
+    @Test
+    public void shouldCalculateSlotsSameAsRedis() {
+        assertEquals(12739, RedisClusterSlots.getSlot("123456789"));
+        assertEquals(12182, RedisClusterSlots.getSlot("foo"));
+    }
+
+    @Test
+    public void shouldHashOnlyHashTag() {
+        assertEquals(RedisClusterSlots.getSlot("user1000"), RedisClusterSlots.getSlot("{user1000}.following"));
+        assertEquals(RedisClusterSlots.getSlot("user1000"), RedisClusterSlots.getSlot("{user1000}.followers"));
+        assertEquals(RedisClusterSlots.getSlot("{bar"), RedisClusterSlots.getSlot("foo{{bar}}zap"));
+    }
+
+    @Test
+    public void shouldHashWholeKeyWhenHashTagIsEmptyOrNotClosed() {
+        assertNotEquals(RedisClusterSlots.getSlot("bar"), RedisClusterSlots.getSlot("foo{}{bar}"));
+        assertNotEquals(RedisClusterSlots.getSlot("bar"), RedisClusterSlots.getSlot("foo{bar"));
+    }
+
+    @Test
+    public void shouldGroupKeysWithSameHashTag() {
+        String first = RedisClusterSlots.withHashTag("tenant-1", "api");
+        String second = RedisClusterSlots.withHashTag("tenant-1", "upload");
+        String third = RedisClusterSlots.withHashTag("tenant-2", "api");
+
+        Map<Integer, List<String>> groups = RedisClusterSlots.groupBySlot(Arrays.asList(first, third, second), key -> key.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList(first, second), groups.get(RedisClusterSlots.getSlot("tenant-1")));
+        assertEquals(Arrays.asList(third), groups.get(RedisClusterSlots.getSlot("tenant-2")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectHashTagWithClosingBrace() {
+        RedisClusterSlots.withHashTag("tenant}", "api");
+    }
+
+}
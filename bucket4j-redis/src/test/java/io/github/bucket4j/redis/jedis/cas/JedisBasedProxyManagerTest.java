@@ -0,0 +1,93 @@
+package io.github.bucket4j.redis.jedis.cas;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.testcontainers.containers.GenericContainer;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JedisBasedProxyManagerTest extends AbstractDistributedBucketTest<byte[]> {
+
+    private static GenericContainer container;
+    private static JedisPool jedisPool;
+
+    @BeforeClass
+    public static void setup() {
+        container = startRedisContainer();
+        jedisPool = createJedisClient(container);
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (jedisPool != null) {
+            jedisPool.close();
+        }
+        if (container != null) {
+            container.close();
+        }
+    }
+
+    private static JedisPool createJedisClient(GenericContainer container) {
+        String redisAddress = container.getContainerIpAddress();
+        Integer redisPort = container.getMappedPort(6379);
+
+        return new JedisPool(redisAddress, redisPort);
+    }
+
+    private static GenericContainer startRedisContainer() {
+        GenericContainer genericContainer = new GenericContainer("redis:4.0.11")
+                .withExposedPorts(6379);
+        genericContainer.start();
+        return genericContainer;
+    }
+
+    @Override
+    protected ProxyManager<byte[]> getProxyManager() {
+        return new JedisBasedProxyManager(jedisPool, ClientSideConfig.getDefault(), Duration.ofMinutes(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ttlShorterThanMillisecondShouldBeRejected() {
+        new JedisBasedProxyManager(jedisPool, ClientSideConfig.getDefault(), Duration.ofNanos(999_999));
+    }
+
+    @Test
+    public void shouldConsumeFromSeveralBucketsByPipeline() {
+        ProxyManager<byte[]> proxyManager = getProxyManager();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .build();
+        Map<byte[], Long> tokens = new LinkedHashMap<>();
+        tokens.put(generateRandomKey(), 6L);
+        tokens.put(generateRandomKey(), 6L);
+        tokens.put(generateRandomKey(), 6L);
+
+        // first batch creates buckets by SET NX, second one reads existed buckets and consumes nothing
+        assertTrue(proxyManager.tryConsumeAll(tokens, key -> configuration));
+        assertFalse(proxyManager.tryConsumeAll(tokens, key -> configuration));
+        for (byte[] key : tokens.keySet()) {
+            assertEquals(4, proxyManager.builder().build(key, configuration).getAvailableTokens());
+        }
+    }
+
+    @Override
+    protected byte[] generateRandomKey() {
+        return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
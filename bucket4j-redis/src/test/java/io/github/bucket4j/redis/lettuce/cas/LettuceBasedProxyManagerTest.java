@@ -0,0 +1,74 @@
+package io.github.bucket4j.redis.lettuce.cas;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.testcontainers.containers.GenericContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+public class LettuceBasedProxyManagerTest extends AbstractDistributedBucketTest<byte[]> {
+
+    private static GenericContainer container;
+    private static RedisClient redisClient;
+    private static StatefulRedisConnection<byte[], byte[]> connection;
+
+    @BeforeClass
+    public static void setup() {
+        container = startRedisContainer();
+        redisClient = createLettuceClient(container);
+        connection = redisClient.connect(ByteArrayCodec.INSTANCE);
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (connection != null) {
+            connection.close();
+        }
+        if (redisClient != null) {
+            redisClient.shutdown();
+        }
+        if (container != null) {
+            container.close();
+        }
+    }
+
+    private static RedisClient createLettuceClient(GenericContainer container) {
+        String redisAddress = container.getContainerIpAddress();
+        Integer redisPort = container.getMappedPort(6379);
+        String redisUrl = "redis://" + redisAddress + ":" + redisPort;
+
+        return RedisClient.create(redisUrl);
+    }
+
+    private static GenericContainer startRedisContainer() {
+        GenericContainer genericContainer = new GenericContainer("redis:4.0.11")
+                .withExposedPorts(6379);
+        genericContainer.start();
+        return genericContainer;
+    }
+
+    @Override
+    protected ProxyManager<byte[]> getProxyManager() {
+        return new LettuceBasedProxyManager(connection.async(), ClientSideConfig.getDefault(), Duration.ofMinutes(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ttlShorterThanMillisecondShouldBeRejected() {
+        new LettuceBasedProxyManager(connection.async(), ClientSideConfig.getDefault(), Duration.ofNanos(999_999));
+    }
+
+    @Override
+    protected byte[] generateRandomKey() {
+        return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
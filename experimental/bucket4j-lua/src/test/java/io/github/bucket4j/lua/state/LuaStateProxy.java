@@ -79,6 +79,11 @@ public class LuaStateProxy implements BucketState {
         return 0;
     }
 
+    @Override
+    public long getLastRefillTimeNanos(int bandwidth) {
+        return 0;
+    }
+
     @Override
     public MathType getMathType() {
         return MathType.IEEE_754;